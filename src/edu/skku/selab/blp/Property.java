@@ -29,6 +29,19 @@ public class Property {
 	final static private String OUTPUT_FILE = Property.readProperty("OUTPUT_FILE");
 	final static private boolean STRACE_SCORE_INCLUDED = Property.readProperty("STRACE_SCORE_INCLUDED").equalsIgnoreCase("TRUE");
 	final static private boolean NEW_BUG_COMMENTS_INCLUDED = Property.readProperty("NEW_BUG_COMMENTS_INCLUDED").equalsIgnoreCase("TRUE");
+	final static public int DB_BATCH_SIZE = Integer.parseInt(Property.readProperty("DB_BATCH_SIZE", "1000"));
+	// The main thread, a pool worker replaced while its finished thread still holds a connection
+	// and the term dictionary writer
+	final static public int DB_HELPER_THREAD_COUNT = 3;
+	final static public int DB_POOL_SIZE = Math.max(Integer.parseInt(Property.readProperty("DB_POOL_SIZE", "0")), THREAD_COUNT + DB_HELPER_THREAD_COUNT);
+	final static public boolean SCORES_PERSISTED = Property.readProperty("SCORES_PERSISTED", "TRUE").equalsIgnoreCase("TRUE");
+	final static public int SIMILAR_BUG_LIMIT = Integer.parseInt(Property.readProperty("SIMILAR_BUG_LIMIT", "0"));
+	// Only the source file index and its snapshot are kept between runs. Bugs, commits and scores are created again.
+	final static public boolean INCREMENTAL_INDEX = Property.readProperty("INCREMENTAL_INDEX", "FALSE").equalsIgnoreCase("TRUE");
+	final static public String SOURCE_INCLUDES = Property.readProperty("SOURCE_INCLUDES", "*.java");
+	final static public String SOURCE_EXCLUDES = Property.readProperty("SOURCE_EXCLUDES", "");
+	final static public int STEM_CACHE_SIZE = Integer.parseInt(Property.readProperty("STEM_CACHE_SIZE", "200000"));
+	final static public boolean BUG_CORPUS_FILES_WRITTEN = Property.readProperty("BUG_CORPUS_FILES_WRITTEN", "FALSE").equalsIgnoreCase("TRUE");
 	
 	final static public String RUN_LEVEL_FILE = "FILE";
 	final static public String RUN_LEVEL_METHOD = "METHOD";
@@ -107,6 +120,15 @@ public class Property {
 		return properties.getProperty(key);
 	}
 	
+	private static String readProperty(String key, String defaultValue) {
+		String value = Property.readProperty(key);
+		if (null == value || value.trim().length() == 0) {
+			return defaultValue;
+		}
+		
+		return value.trim();
+	}
+	
 	public static void createInstance(String productName, String bugFilePath, String sourceCodeDir, String workDir,
 			double alpha, double beta, double gamma, int pastDays, String repoDir, String outputFile, double candidateLimitRate) {
 		if (null == p) {
@@ -198,6 +220,10 @@ public class Property {
 	public void printValues() {
 		System.out.printf("WORK_DIR: %s\n", Property.WORK_DIR);
 		System.out.printf("THREAD_COUNT: %d\n", Property.THREAD_COUNT);
+		System.out.printf("DB_BATCH_SIZE: %d\n", Property.DB_BATCH_SIZE);
+		System.out.printf("DB_POOL_SIZE: %d\n", Property.DB_POOL_SIZE);
+		System.out.printf("SCORES_PERSISTED: %b\n", Property.SCORES_PERSISTED);
+		System.out.printf("SIMILAR_BUG_LIMIT: %d\n", Property.SIMILAR_BUG_LIMIT);
 		System.out.printf("OUTPUT_FILE: %s\n\n", Property.OUTPUT_FILE);
 		
 		System.out.printf("Product name: %s\n", getProductName());
@@ -321,6 +347,16 @@ public class Property {
 	public void setCandidateLimitRate(double candidateLimitRate) {
 		this.candidateLimitRate = candidateLimitRate;
 	}
+	
+	/**
+	 * @return count of candidate source files kept per bug, Integer.MAX_VALUE if candidates aren't limited
+	 */
+	public int getCandidateLimitSize() {
+		if (candidateLimitRate == 1.0) {
+			return Integer.MAX_VALUE;
+		}
+		return Math.max(1, (int) (fileCount * candidateLimitRate));
+	}
 
 	/**
 	 * @return the since
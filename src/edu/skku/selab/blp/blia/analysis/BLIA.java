@@ -22,12 +22,18 @@ import edu.skku.selab.blp.blia.indexer.SourceFileVectorCreator;
 import edu.skku.selab.blp.blia.indexer.BugSourceFileVectorCreator;
 import edu.skku.selab.blp.blia.indexer.StructuredSourceFileCorpusCreator;
 import edu.skku.selab.blp.common.Bug;
+import edu.skku.selab.blp.db.IndexSnapshot;
 import edu.skku.selab.blp.db.IntegratedAnalysisValue;
+import edu.skku.selab.blp.db.IntegratedScoreMatrix;
 import edu.skku.selab.blp.db.ExtendedIntegratedAnalysisValue;
 import edu.skku.selab.blp.db.dao.BugDAO;
 import edu.skku.selab.blp.db.dao.DbUtil;
+import edu.skku.selab.blp.db.dao.IndexSnapshotWriter;
+import edu.skku.selab.blp.db.dao.IntegratedAnalysisBatchWriter;
 import edu.skku.selab.blp.db.dao.IntegratedAnalysisDAO;
 import edu.skku.selab.blp.db.dao.SourceFileDAO;
+import edu.skku.selab.blp.utils.StageExecutor;
+import edu.skku.selab.blp.utils.Stem;
 import edu.skku.selab.blp.utils.Util;
 
 /**
@@ -40,7 +46,8 @@ public class BLIA {
 	private double alpha = 0;
 	private double beta = 0;
 	private double gamma = 0;
-	private static Integer completeBugIdCount = 0;
+	// True when the score matrix holds the scores of preAnalyze() of this instance
+	private boolean scoresPrepared = false;
 	
 	public BLIA() {
 		prepareWorkingDir();
@@ -67,11 +74,18 @@ public class BLIA {
 		System.out.printf("[STARTED] Source file vector creating.\n");
 		startTime = System.currentTimeMillis();
 		SourceFileVectorCreator sourceFileVectorCreator = new SourceFileVectorCreator();
-		sourceFileVectorCreator.createIndex(version);
-		sourceFileVectorCreator.computeLengthScore(version);
 		sourceFileVectorCreator.create(version);
 		System.out.printf("[DONE] Source file vector creating.(%s sec)\n", getElapsedTimeSting(startTime));
 		
+		System.out.printf("[STARTED] Index snapshot writing.\n");
+		startTime = System.currentTimeMillis();
+		// Snapshot of the previous run is kept when the index isn't changed in incremental indexing mode
+		if (null == IndexSnapshot.getInstance(version)) {
+			IndexSnapshotWriter indexSnapshotWriter = new IndexSnapshotWriter();
+			indexSnapshotWriter.write(version, IndexSnapshot.getSnapshotFile(version));
+		}
+		System.out.printf("[DONE] Index snapshot writing.(%s sec)\n", getElapsedTimeSting(startTime));
+		
 		// Create SordtedID.txt
 		System.out.printf("[STARTED] Bug corpus creating.\n");
 		startTime = System.currentTimeMillis();
@@ -79,6 +93,8 @@ public class BLIA {
 		boolean stackTraceAnaysis = true;
 		bugCorpusCreator.create(stackTraceAnaysis);
 		System.out.printf("[DONE] Bug corpus creating.(%s sec)\n", getElapsedTimeSting(startTime));
+		System.out.printf("[Stem cache] Hit rate: %.2f%% (hits: %d, misses: %d)\n",
+				Stem.getHitRate() * 100, Stem.getHitCount(), Stem.getMissCount());
 		
 		System.out.printf("[STARTED] Bug vector creating.\n");
 		startTime = System.currentTimeMillis();
@@ -106,6 +122,10 @@ public class BLIA {
 		BugDAO bugDAO = new BugDAO();
 		boolean orderedByFixedDate = true;
 		bugs = bugDAO.getAllBugs(orderedByFixedDate);
+		
+		// All scores are kept in memory until BLIA score calculation is done
+		scoresPrepared = false;
+		IntegratedScoreMatrix.getInstance().clear();
 
 		// VSM_SCORE
 		System.out.printf("[STARTED] Source file analysis.\n");
@@ -135,93 +155,43 @@ public class BLIA {
 		ScmRepoAnalyzer scmRepoAnalyzer = new ScmRepoAnalyzer(bugs);
 		scmRepoAnalyzer.analyze(version);
 		System.out.printf("[DONE] Scm repository analysis.(%s sec)\n", getElapsedTimeSting(startTime));
+		scoresPrepared = true;
 	}
 	
-	// TODO: will be removed after testing complete
-//    @SuppressWarnings("unused")
-//	private class WorkerThread implements Runnable {
-//    	private int bugID;
-//    	private boolean includeStackTrace;
-//    	
-//        public WorkerThread(int bugID, boolean includeStackTrace){
-//            this.bugID = bugID;
-//            this.includeStackTrace = includeStackTrace;
-//        }
-//     
-//        @Override
-//        public void run() {
-//			// Compute similarity between Bug report & source files
-//        	
-//        	try {
-//        		insertDataToDb();
-//        	} catch (Exception e) {
-//        		e.printStackTrace();
-//        	}
-//        }
-//        
-//        private void insertDataToDb() throws Exception {
-//			long startTime = System.currentTimeMillis();
-//
-//        	IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
-//    		HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = integratedAnalysisDAO.getAnalysisValues(bugID);
-//    		HashMap<Integer, ExtendedIntegratedAnalysisValue> integratedMethodAnalysisValues = integratedAnalysisDAO.getMethodAnalysisValues(bugID);
-//    		if (null == integratedMethodAnalysisValues) {
-//    			return;
-//    		}
-//
-////			HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = integratedAnalysisValuesMap.get(bugID);
-//			// AmaLgam doesn't use normalize
-//			normalize(integratedAnalysisValues);
-//			combine(integratedAnalysisValues, alpha, beta, includeStackTrace);
-//			combineForMethodLevel(integratedAnalysisValues, integratedMethodAnalysisValues, alpha, beta, includeStackTrace);
-//			
-//			int sourceFileCount = integratedAnalysisValues.keySet().size();
-////			System.out.printf("After combine(), integratedAnalysisValues: %d\n", sourceFileCount);
-//			Iterator<Integer> integratedAnalysisValuesIter = integratedAnalysisValues.keySet().iterator();
-//			while (integratedAnalysisValuesIter.hasNext()) {
-//				int sourceFileVersionID = integratedAnalysisValuesIter.next();
-//				
-//				IntegratedAnalysisValue integratedAnalysisValue = integratedAnalysisValues.get(sourceFileVersionID);
-//				int updatedColumnCount = integratedAnalysisDAO.updateBliaSourceFileScore(integratedAnalysisValue);
-//				if (0 == updatedColumnCount) {
-//					System.err.printf("[ERROR] BLIA.analyze(): BLIA and BugLocator score update failed! BugID: %s, sourceFileVersionID: %d\n",
-//							integratedAnalysisValue.getBugID(), integratedAnalysisValue.getSourceFileVersionID());
-//
-//					// remove following line after testing.
-////					integratedAnalysisDAO.insertAnalysisVaule(integratedAnalysisValue);
-//				}
-//			}
-//			
-//			Iterator<Integer> integratedMethodAnalysisValuesIter = integratedMethodAnalysisValues.keySet().iterator();
-//			while (integratedMethodAnalysisValuesIter.hasNext()) {
-//				int methodID = integratedMethodAnalysisValuesIter.next();
-//				
-//				ExtendedIntegratedAnalysisValue integratedMethodAnalysisValue = integratedMethodAnalysisValues.get(methodID);
-////				System.out.printf("Before updateBLIAScore(), count: %d/%d\n", count++, sourceFileCount);
-//				int updatedColumnCount = integratedAnalysisDAO.updateBliaMethodScore(integratedMethodAnalysisValue);
-////				System.out.printf("After updateBLIAScore(), count: %d/%d\n", count, sourceFileCount);
-//				if (0 == updatedColumnCount) {
-//					System.err.printf("[ERROR] BLIA.analyze(): BLIA and BugLocator score update failed! BugID: %s, methodID: %d\n",
-//							integratedMethodAnalysisValue.getBugID(), integratedMethodAnalysisValue.getMethodID());
-//
-//					// remove following line after testing.
-////					integratedAnalysisDAO.insertAnalysisVaule(integratedAnalysisValue);
-//				}
-//			}
-//
-//			synchronized (completeBugIdCount) {
-//				completeBugIdCount++;
-//				System.out.printf("[Thread()] [%d] Bug ID: %s (%s sec)\n", completeBugIdCount, bugID, Util.getElapsedTimeSting(startTime));
-//			}
-//        }
-//    }
+    private class SourceFileWorkerThread implements StageExecutor.Task {
+    	private int bugID;
+    	private boolean includeStackTrace;
+    	
+        public SourceFileWorkerThread(int bugID, boolean includeStackTrace) {
+            this.bugID = bugID;
+            this.includeStackTrace = includeStackTrace;
+        }
+     
+        @Override
+        public void run() throws Exception {
+        	calculateBliaSourceFileScore(bugID, includeStackTrace);
+        }
+    }
+    
+    private class MethodWorkerThread implements StageExecutor.Task {
+    	private int bugID;
+    	
+        public MethodWorkerThread(int bugID) {
+            this.bugID = bugID;
+        }
+     
+        @Override
+        public void run() throws Exception {
+        	calculateBliaMethodScore(bugID);
+        }
+    }
     
     private void calculateBliaSourceFileScore(int bugID, boolean includeStackTrace) throws Exception {
 //		HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = integratedAnalysisValuesMap.get(bugID);
-    	IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
+    	IntegratedScoreMatrix scoreMatrix = IntegratedScoreMatrix.getInstance();
     	
 //    	System.out.printf("Before integratedAnalysisDAO.getAnalysisValues() \n");
-		HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = integratedAnalysisDAO.getAnalysisValues(bugID);
+		HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = scoreMatrix.getAnalysisValues(bugID);
 		if (null == integratedAnalysisValues) {
 			return;
 		}
@@ -234,28 +204,67 @@ public class BLIA {
 		@SuppressWarnings("unused")
 		int sourceFileCount = integratedAnalysisValues.keySet().size();
 //		System.out.printf("After combine(), integratedAnalysisValues: %d\n", sourceFileCount);
-//		int count = 0;
+		int failedCount = 0;
 		Iterator<Integer> integratedAnalysisValuesIter = integratedAnalysisValues.keySet().iterator();
 		while (integratedAnalysisValuesIter.hasNext()) {
 			int sourceFileVersionID = integratedAnalysisValuesIter.next();
 			
 			IntegratedAnalysisValue integratedAnalysisValue = integratedAnalysisValues.get(sourceFileVersionID);
-//			System.out.printf("Before updateBLIAScore(), count: %d/%d\n", count++, sourceFileCount);
-			int updatedColumnCount = integratedAnalysisDAO.updateBliaSourceFileScore(integratedAnalysisValue);
-//			System.out.printf("After updateBliaSourceFileScore(), count: %d/%d\n", count, sourceFileCount);
-			if (0 == updatedColumnCount) {
-				System.err.printf("[ERROR] BLIA.analyze(): BLIA and BugLocator score update failed! BugID: %s, sourceFileVersionID: %d\n",
-						integratedAnalysisValue.getBugID(), integratedAnalysisValue.getSourceFileVersionID());
-
-				// remove following line after testing.
-//				integratedAnalysisDAO.insertAnalysisVaule(integratedAnalysisValue);
+			if (0 == scoreMatrix.updateBliaSourceFileScore(integratedAnalysisValue)) {
+				failedCount++;
 			}
 		}
+		
+		if (0 != failedCount) {
+			System.err.printf("[ERROR] BLIA.analyze(): BLIA and BugLocator score update failed! BugID: %d, failed count: %d\n",
+					bugID, failedCount);
+		}
+    }
+    
+    /**
+     * Load scores of INT_ANALYSIS table when analyze() runs without preAnalyze()
+     */
+    private void loadScores() throws Exception {
+    	IntegratedScoreMatrix scoreMatrix = IntegratedScoreMatrix.getInstance();
+    	IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
+    	for (int i = 0; i < bugs.size(); i++) {
+    		HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = integratedAnalysisDAO.getAnalysisValues(bugs.get(i).getID());
+    		if (null == integratedAnalysisValues) {
+    			continue;
+    		}
+    		
+    		Iterator<IntegratedAnalysisValue> integratedAnalysisValuesIter = integratedAnalysisValues.values().iterator();
+    		while (integratedAnalysisValuesIter.hasNext()) {
+    			scoreMatrix.insertAnalysisVaule(integratedAnalysisValuesIter.next());
+    		}
+    	}
+    }
+    
+    /**
+     * Store all scores of the score matrix to INT_ANALYSIS table at once
+     */
+    private void persistScores() throws Exception {
+    	IntegratedScoreMatrix scoreMatrix = IntegratedScoreMatrix.getInstance();
+		IntegratedAnalysisBatchWriter integratedAnalysisWriter = new IntegratedAnalysisBatchWriter();
+    	ArrayList<Integer> bugIDs = scoreMatrix.getSortedBugIDs();
+    	for (int i = 0; i < bugIDs.size(); i++) {
+    		HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = scoreMatrix.getAnalysisValues(bugIDs.get(i));
+    		if (null == integratedAnalysisValues) {
+    			continue;
+    		}
+    		
+    		Iterator<IntegratedAnalysisValue> integratedAnalysisValuesIter = integratedAnalysisValues.values().iterator();
+    		while (integratedAnalysisValuesIter.hasNext()) {
+    			integratedAnalysisWriter.mergeAnalysisVaule(integratedAnalysisValuesIter.next());
+    		}
+    	}
+    	integratedAnalysisWriter.close();
     }
     
     private void calculateBliaMethodScore(int bugID) throws Exception {
 //		HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = integratedAnalysisValuesMap.get(bugID);
     	IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
+    	IntegratedAnalysisBatchWriter integratedAnalysisWriter = new IntegratedAnalysisBatchWriter();
     	
 //    	System.out.printf("Before integratedAnalysisDAO.getAnalysisValues() \n");
 		HashMap<Integer, ExtendedIntegratedAnalysisValue> integratedMethodAnalysisValues = integratedAnalysisDAO.getMethodAnalysisValues(bugID);
@@ -272,16 +281,13 @@ public class BLIA {
 			int methodID = integratedMethodAnalysisValuesIter.next();
 			
 			ExtendedIntegratedAnalysisValue integratedMethodAnalysisValue = integratedMethodAnalysisValues.get(methodID);
-//			System.out.printf("Before updateBLIAScore(), count: %d/%d\n", count++, sourceFileCount);
-			int updatedColumnCount = integratedAnalysisDAO.updateBliaMethodScore(integratedMethodAnalysisValue);
-//			System.out.printf("After updateBLIAScore(), count: %d/%d\n", count, sourceFileCount);
-			if (0 == updatedColumnCount) {
-				System.err.printf("[ERROR] BLIA.analyze(): BLIA and BugLocator score update failed! BugID: %s, methodID: %d\n",
-						integratedMethodAnalysisValue.getBugID(), integratedMethodAnalysisValue.getMethodID());
-
-				// remove following line after testing.
-//				integratedAnalysisDAO.insertAnalysisVaule(integratedAnalysisValue);
-			}
+			integratedAnalysisWriter.updateBliaMethodScore(integratedMethodAnalysisValue);
+		}
+		integratedAnalysisWriter.close();
+		
+		if (0 != integratedAnalysisWriter.getFailedCount()) {
+			System.err.printf("[ERROR] BLIA.analyze(): BLIA method score update failed! BugID: %d, failed count: %d\n",
+					bugID, integratedAnalysisWriter.getFailedCount());
 		}
     }
 	
@@ -310,34 +316,37 @@ public class BLIA {
 //			}
 //		}
 		
+		// Scores left by another analysis of this process are replaced with the stored scores
+		if (!scoresPrepared) {
+			IntegratedScoreMatrix.getInstance().clear();
+			loadScores();
+		}
+		
 		System.out.printf("[STARTED] BLIA.anlayze()\n");
-//		ExecutorService executor = Executors.newFixedThreadPool(Property.THREAD_COUNT);
-//		ExecutorService executor = Executors.newFixedThreadPool(4);
+		// Scores of each bug are fused independently, so the result doesn't depend on the thread count.
+		StageExecutor executor = new StageExecutor("BLIA source file score calculation");
 		for (int i = 0; i < bugs.size(); i++) {
+			StageExecutor.Task worker = new SourceFileWorkerThread(bugs.get(i).getID(), includeStackTrace);
+			executor.submit(worker);
+		}
+		executor.await();
+		
+		if (Property.SCORES_PERSISTED) {
 			long startTime = System.currentTimeMillis();
-			int bugID = bugs.get(i).getID();
-			calculateBliaSourceFileScore(bugID, includeStackTrace);
-			System.out.printf("[calculateBliaSourceFileScore()] [%d] Bug ID: %d (%s sec)\n", i, bugID, Util.getElapsedTimeSting(startTime));
-//			Runnable worker = new WorkerThread(bugs.get(i).getID());
-//			executor.execute(worker);
+			persistScores();
+			System.out.printf("[persistScores()] Cell count: %d (%s sec)\n", IntegratedScoreMatrix.getInstance().getCellCount(), Util.getElapsedTimeSting(startTime));
 		}
 		
 		if (includeMethodAnalyze) {
 			MethodAnalyzer methodAnalyzer = new MethodAnalyzer(bugs);
 			methodAnalyzer.analyze();
 			
+			executor = new StageExecutor("BLIA method score calculation");
 			for (int i = 0; i < bugs.size(); i++) {
-				long startTime = System.currentTimeMillis();
-				int bugID = bugs.get(i).getID();
-				calculateBliaMethodScore(bugID);
-				System.out.printf("[calculateBliaMethodScore()] [%d] Bug ID: %d (%s sec)\n", i, bugID, Util.getElapsedTimeSting(startTime));
-//				Runnable worker = new WorkerThread(bugs.get(i).getID());
-//				executor.execute(worker);
+				StageExecutor.Task worker = new MethodWorkerThread(bugs.get(i).getID());
+				executor.submit(worker);
 			}
-			
-//			executor.shutdown();
-//			while (!executor.isTerminated()) {
-//			}
+			executor.await();
 		}
 		
 		System.out.printf("[DONE] BLIA.anlayze()\n");
@@ -553,7 +562,10 @@ public class BLIA {
 		String dbName = prop.getProductName();
 		dbUtil.openConnetion(dbName);
 		boolean commitDataIncluded = true;
-		dbUtil.initializeAllData(commitDataIncluded);
+		// Indexed source files are kept in incremental indexing mode, then only changed files are indexed again.
+		// Bug, commit and analysis data are always cleared, so they are created again on every run.
+		boolean sourceFileDataIncluded = !Property.INCREMENTAL_INDEX;
+		dbUtil.initializeAllData(commitDataIncluded, sourceFileDataIncluded);
 		dbUtil.closeConnection();
 
 		startTime = System.currentTimeMillis();	
@@ -13,18 +13,18 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.TreeSet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.common.Bug;
 import edu.skku.selab.blp.common.SourceFile;
 import edu.skku.selab.blp.db.AnalysisValue;
 import edu.skku.selab.blp.db.IntegratedAnalysisValue;
+import edu.skku.selab.blp.db.IntegratedScoreMatrix;
 import edu.skku.selab.blp.db.SimilarBugInfo;
 import edu.skku.selab.blp.db.dao.BugDAO;
-import edu.skku.selab.blp.db.dao.IntegratedAnalysisDAO;
+import edu.skku.selab.blp.utils.SparseVector;
+import edu.skku.selab.blp.utils.StageExecutor;
+import edu.skku.selab.blp.utils.TopKHeap;
 
 /**
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
@@ -37,28 +37,37 @@ public class BugRepoAnalyzer {
 	
     public BugRepoAnalyzer() {
     	bugs = null;
+    	similarBugInfosMap = null;
     }
     
     public BugRepoAnalyzer(ArrayList<Bug> orderedBugs) {
     	bugs = orderedBugs;
+    	similarBugInfosMap = null;
     }
     
     private void prepareData() throws Exception {
 		BugDAO bugDAO = new BugDAO();
 		fixedFilesMap = new HashMap<Integer, HashSet<SourceFile>>(); 
-		similarBugInfosMap = new HashMap<Integer, HashSet<SimilarBugInfo>>();
+		
+		// Similar bugs are read from DB only when they weren't computed in this run
+		boolean similarBugInfosLoaded = (null == similarBugInfosMap);
+		if (similarBugInfosLoaded) {
+			similarBugInfosMap = new HashMap<Integer, HashSet<SimilarBugInfo>>();
+		}
 		for (int i = 0; i < bugs.size(); i++) {
 			Bug bug = bugs.get(i);
 			int bugID = bug.getID();
 			HashSet<SourceFile> fixedFiles = bugDAO.getFixedFiles(bugID);
 			fixedFilesMap.put(bugID, fixedFiles);
 			
-			HashSet<SimilarBugInfo> similarBugInfos = bugDAO.getSimilarBugInfos(bugID);
-			similarBugInfosMap.put(bugID, similarBugInfos);
+			if (similarBugInfosLoaded) {
+				HashSet<SimilarBugInfo> similarBugInfos = bugDAO.getSimilarBugInfos(bugID);
+				similarBugInfosMap.put(bugID, similarBugInfos);
+			}
 		}
     }
     
-    private class WorkerThread implements Runnable {
+    private class WorkerThread implements StageExecutor.Task {
     	private Bug bug;
     	
         public WorkerThread(Bug bug){
@@ -66,18 +75,14 @@ public class BugRepoAnalyzer {
         }
      
         @Override
-        public void run() {
+        public void run() throws Exception {
 			// Compute similarity between Bug report & source files
         	
-        	try {
-        		calculateSimilarScore(bug);
-        	} catch (Exception e) {
-        		e.printStackTrace();
-        	}
+        	calculateSimilarScore(bug);
         }
         
         private void calculateSimilarScore(Bug bug) throws Exception {
-    		IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();	
+    		IntegratedScoreMatrix scoreMatrix = IntegratedScoreMatrix.getInstance();
     		
     		int bugID = bug.getID();
     		HashMap<Integer, Double> similarScores = new HashMap<Integer, Double>(); 
@@ -107,7 +112,8 @@ public class BugRepoAnalyzer {
     				}
     			}
     			
-    	   		TreeSet<Double> simiScoreSet = new TreeSet<Double>();
+        		int candidateLimitSize = Property.getInstance().getCandidateLimitSize();
+        		TopKHeap topK = new TopKHeap(Math.min(candidateLimitSize, Math.max(1, similarScores.size())));
         		LinkedList<IntegratedAnalysisValue> integratedAnalysisValueList = new LinkedList<IntegratedAnalysisValue>();
     			
     			Iterator<Integer> similarScoresIter = similarScores.keySet().iterator();
@@ -120,28 +126,17 @@ public class BugRepoAnalyzer {
     				integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionID);
     				integratedAnalysisValue.setSimilarityScore(similarScore);
 
-    				simiScoreSet.add(similarScore);
-    				integratedAnalysisValueList.add(integratedAnalysisValue);
-    				
+    				if (topK.offer(similarScore)) {
+    					integratedAnalysisValueList.add(integratedAnalysisValue);
+    				}
     			}
     			
-        		double limitSimiScore = 0;
-        		int candidateLimitSize = Integer.MAX_VALUE;
-        		if (Property.getInstance().getCandidateLimitRate() != 1.0) {
-        			candidateLimitSize = (int) (Property.getInstance().getFileCount() * Property.getInstance().getCandidateLimitRate());
-        		}
-        		
-        		if (simiScoreSet.size() > candidateLimitSize) {
-        			limitSimiScore = (Double) (simiScoreSet.descendingSet().toArray()[candidateLimitSize -1]);
-        		}
-        		
+        		// Scores tied with the K-th largest score are kept
+        		double limitSimiScore = topK.isFull() ? topK.getThreshold() : 0;
         		for (IntegratedAnalysisValue integratedAnalysisValue:integratedAnalysisValueList) {
-    				if (integratedAnalysisValue.getVsmScore() >= limitSimiScore) {
-    					int updatedColumenCount = integratedAnalysisDAO.updateSimilarScore(integratedAnalysisValue);
-    					
-    					if (0 == updatedColumenCount) {
-    						integratedAnalysisDAO.insertAnalysisVaule(integratedAnalysisValue);
-    					}
+    				if (integratedAnalysisValue.getSimilarityScore() >= limitSimiScore) {
+    					// Inserted as a new row when there is no VSM score row to update
+    					scoreMatrix.updateSimilarScore(integratedAnalysisValue);
     				}
     			}
     		}
@@ -161,93 +156,97 @@ public class BugRepoAnalyzer {
 		computeSimilarity();
 		prepareData();
 		
-		ExecutorService executor = Executors.newFixedThreadPool(Property.THREAD_COUNT);
+		StageExecutor executor = new StageExecutor("Bug repository analysis");
 
 		for (int i = 0; i < bugs.size(); i++) {
 			// calculate term count, IDC, TF and IDF
-			Runnable worker = new WorkerThread(bugs.get(i));
-			executor.execute(worker);
-		}
-		executor.shutdown();
-		while (!executor.isTerminated()) {
+			StageExecutor.Task worker = new WorkerThread(bugs.get(i));
+			executor.submit(worker);
 		}
+		executor.await();
 	}
 	
+	/**
+	 * Compute similarity between each bug and its previous bugs sharing terms, then insert them to SIMI_BUG_ANAYSIS.
+	 * Zero similarity isn't inserted, and only top SIMILAR_BUG_LIMIT similar bugs are kept if it is set.
+	 * 
+	 * @throws Exception
+	 */
 	public void computeSimilarity() throws Exception {
-		BugDAO bugDAO = new BugDAO();
-		HashMap<Integer, ArrayList<AnalysisValue>> bugVectorsExceptComments = getVectorsExceptComments();
-		HashMap<Integer, ArrayList<AnalysisValue>> bugVectors = getVectors();
+		HashMap<Integer, SparseVector> bugVectorsExceptComments = toSparseVectors(getVectorsExceptComments());
+		HashMap<Integer, SparseVector> bugVectors = toSparseVectors(getVectors());
+		BugSimilarityIndex similarityIndex = new BugSimilarityIndex(bugs, bugVectors);
 		
-        for(int i = 0; i < bugs.size(); i++) {
-        	Bug bug = bugs.get(i);
-        	int firstBugID = bug.getID();
-        	ArrayList<AnalysisValue> firstBugVector = bugVectorsExceptComments.get(firstBugID);
-        	
-        	String openDateString = bug.getOpenDateString();
-        	ArrayList<Bug> targetBugs = null;
-        	int targetIndex = 0;
-        	if (1 < bugDAO.getBugCountWithDate(openDateString)) {
-        		targetBugs = bugDAO.getPreviousFixedBugs(openDateString, firstBugID);
-        		targetIndex = targetBugs.size();
-        	} else {
-        		targetBugs = bugs;
-        		targetIndex = i;
-        	}
-        	
-            for(int j = 0; j < targetIndex; j++) {
-            	int secondBugID = targetBugs.get(j).getID();
-            	ArrayList<AnalysisValue> secondBugVector = bugVectors.get(secondBugID);
-            	
-            	double similarityScore = getCosineValue(firstBugVector, secondBugVector);
-            	
-            	bugDAO.insertSimilarBugInfo(firstBugID, secondBugID, similarityScore);
-            }
-        }
+		ArrayList<SimilarityWorkerThread> workers = new ArrayList<SimilarityWorkerThread>();
+		StageExecutor executor = new StageExecutor("Bug similarity");
+		for (int i = 0; i < bugs.size(); i++) {
+			SimilarityWorkerThread worker = new SimilarityWorkerThread(similarityIndex, i,
+					bugVectorsExceptComments.get(bugs.get(i).getID()));
+			workers.add(worker);
+			executor.submit(worker);
+		}
+		executor.await();
+		
+		BugDAO bugDAO = new BugDAO();
+		similarBugInfosMap = new HashMap<Integer, HashSet<SimilarBugInfo>>();
+		for (int i = 0; i < workers.size(); i++) {
+			int bugID = bugs.get(i).getID();
+			ArrayList<SimilarBugInfo> similarBugInfos = workers.get(i).getSimilarBugInfos();
+			if (null == similarBugInfos || similarBugInfos.isEmpty()) {
+				continue;
+			}
+			
+			bugDAO.insertSimilarBugInfos(bugID, similarBugInfos);
+			similarBugInfosMap.put(bugID, new HashSet<SimilarBugInfo>(similarBugInfos));
+		}
 	}
 	
+    private class SimilarityWorkerThread implements StageExecutor.Task {
+    	private BugSimilarityIndex similarityIndex;
+    	private int bugIndex;
+    	private SparseVector bugVector;
+    	private ArrayList<SimilarBugInfo> similarBugInfos;
+    	
+        public SimilarityWorkerThread(BugSimilarityIndex similarityIndex, int bugIndex, SparseVector bugVector) {
+            this.similarityIndex = similarityIndex;
+            this.bugIndex = bugIndex;
+            this.bugVector = bugVector;
+            similarBugInfos = null;
+        }
+     
+        @Override
+        public void run() throws Exception {
+        	similarBugInfos = similarityIndex.getSimilarBugs(bugIndex, bugVector, Property.SIMILAR_BUG_LIMIT);
+        }
+        
+        public ArrayList<SimilarBugInfo> getSimilarBugInfos() {
+        	return similarBugInfos;
+        }
+    }
+	
 	/**
-	 * Get cosine value from two vectors
-	 * 
-	 * @param firstVector
-	 * @param secondVector
-	 * @return
+	 * @param bugVectors <bug ID, term weights>
+	 * @return <bug ID, term weights with bug term IDs>
 	 */
-	private double getCosineValue(ArrayList<AnalysisValue> firstBugVector, ArrayList<AnalysisValue> secondBugVector) throws Exception {
-		double len1 = 0.0;
-		double len2 = 0.0;
-		double product = 0.0;
-
-		int startTermID = firstBugVector.get(0).getTermID() < secondBugVector.get(0).getTermID() ?
-				firstBugVector.get(0).getTermID() : secondBugVector.get(0).getTermID(); 
-		int endTermID = firstBugVector.get(firstBugVector.size() - 1).getTermID() > secondBugVector.get(secondBugVector.size() - 1).getTermID() ?
-				firstBugVector.get(firstBugVector.size() - 1).getTermID() :
-				secondBugVector.get(secondBugVector.size() - 1).getTermID();
-		
-		double firstTermWeight = 0.0;
-		double secondTermWeight = 0.0;
-		int j = 0;
-		int k = 0;
-		for (int i  = startTermID; i <= endTermID; i++) {
-			firstTermWeight = 0.0;
-			secondTermWeight = 0.0;
-
-			if (j < firstBugVector.size()) {
-				if (i == firstBugVector.get(j).getTermID()) {
-					firstTermWeight = firstBugVector.get(j++).getTermWeight();
-					len1 += firstTermWeight * firstTermWeight;
-				}
+	private HashMap<Integer, SparseVector> toSparseVectors(HashMap<Integer, ArrayList<AnalysisValue>> bugVectors) {
+		HashMap<Integer, SparseVector> sparseVectors = new HashMap<Integer, SparseVector>();
+		Iterator<Integer> bugIDIter = bugVectors.keySet().iterator();
+		while (bugIDIter.hasNext()) {
+			int bugID = bugIDIter.next();
+			ArrayList<AnalysisValue> bugVector = bugVectors.get(bugID);
+			if (null == bugVector) {
+				continue;
 			}
 			
-			if (k < secondBugVector.size()) {
-				if (i == secondBugVector.get(k).getTermID()) {
-					secondTermWeight = secondBugVector.get(k++).getTermWeight();
-					len2 += secondTermWeight * secondTermWeight;
-				}
+			int[] termIDs = new int[bugVector.size()];
+			double[] termWeights = new double[bugVector.size()];
+			for (int i = 0; i < bugVector.size(); i++) {
+				termIDs[i] = bugVector.get(i).getTermID();
+				termWeights[i] = bugVector.get(i).getTermWeight();
 			}
-			
-			product += firstTermWeight * secondTermWeight;
+			sparseVectors.put(bugID, new SparseVector(termIDs, termWeights));
 		}
-		return ((double) product / (Math.sqrt(len1) * Math.sqrt(len2)));
+		return sparseVectors;
 	}
 	
 	/**
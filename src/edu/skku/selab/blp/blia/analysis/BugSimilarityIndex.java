@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import edu.skku.selab.blp.common.Bug;
+import edu.skku.selab.blp.db.SimilarBugInfo;
+import edu.skku.selab.blp.utils.SparseVector;
+
+/**
+ * Inverted index of bug term weights to find similar bugs.
+ *
+ * Cosine similarity of a bug is calculated only with the previous bugs sharing its terms.
+ * Previous bugs are decided with the fixed date of bugs in memory.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class BugSimilarityIndex {
+	/**
+	 * Bugs and term weights of one term in the order of bugs
+	 */
+	private static class Postings {
+		private int size = 0;
+		private int[] bugIndexes = new int[4];
+		private double[] weights = new double[4];
+
+		public void add(int bugIndex, double weight) {
+			if (size == bugIndexes.length) {
+				bugIndexes = Arrays.copyOf(bugIndexes, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			bugIndexes[size] = bugIndex;
+			weights[size] = weight;
+			size++;
+		}
+	}
+
+	private int[] bugIDs;
+	private long[] openTimes;
+	private long[] fixedTimes;
+	private long[] sortedFixedTimes;
+	private double[] norms;
+	// <term ID, postings>
+	private HashMap<Integer, Postings> postingsMap;
+
+	/**
+	 * @param bugs bugs ordered by fixed date
+	 * @param bugVectors <bug ID, term weights> of target bugs
+	 */
+	public BugSimilarityIndex(ArrayList<Bug> bugs, HashMap<Integer, SparseVector> bugVectors) {
+		int bugCount = bugs.size();
+		bugIDs = new int[bugCount];
+		openTimes = new long[bugCount];
+		fixedTimes = new long[bugCount];
+		norms = new double[bugCount];
+		postingsMap = new HashMap<Integer, Postings>();
+
+		for (int i = 0; i < bugCount; i++) {
+			Bug bug = bugs.get(i);
+			bugIDs[i] = bug.getID();
+			openTimes[i] = bug.getOpenDate().getTime();
+			fixedTimes[i] = bug.getFixedDate().getTime();
+
+			SparseVector bugVector = bugVectors.get(bug.getID());
+			if (null == bugVector) {
+				continue;
+			}
+
+			for (int j = 0; j < bugVector.size(); j++) {
+				Postings postings = postingsMap.get(bugVector.getIndex(j));
+				if (null == postings) {
+					postings = new Postings();
+					postingsMap.put(bugVector.getIndex(j), postings);
+				}
+				postings.add(i, bugVector.getValue(j));
+			}
+			norms[i] = bugVector.norm();
+		}
+
+		sortedFixedTimes = Arrays.copyOf(fixedTimes, bugCount);
+		Arrays.sort(sortedFixedTimes);
+	}
+
+	/**
+	 * @param time
+	 * @return count of bugs fixed on or before the time
+	 */
+	public int getFixedBugCount(long time) {
+		int low = 0;
+		int high = sortedFixedTimes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sortedFixedTimes[middle] <= time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Find similar bugs among previous bugs.
+	 * If other bugs were fixed before the bug is opened, previous bugs are the bugs fixed until the open date.
+	 * Otherwise previous bugs are the bugs before it in the fixed date order.
+	 *
+	 * @param bugIndex index of the bug in the bug list
+	 * @param bugVector term weights of the bug
+	 * @param limitSize max count of similar bugs, 0 means no limit
+	 * @return similar bugs of non-zero similarity in the descending order of similarity
+	 */
+	public ArrayList<SimilarBugInfo> getSimilarBugs(int bugIndex, SparseVector bugVector, int limitSize) {
+		ArrayList<SimilarBugInfo> similarBugInfos = new ArrayList<SimilarBugInfo>();
+		if (null == bugVector || 0 == bugVector.size()) {
+			return similarBugInfos;
+		}
+
+		long openTime = openTimes[bugIndex];
+		boolean fixedDateUsed = getFixedBugCount(openTime) > 1;
+
+		double[] products = new double[bugIDs.length];
+		boolean[] touched = new boolean[bugIDs.length];
+		int[] touchedIndexes = new int[16];
+		int touchedCount = 0;
+		for (int i = 0; i < bugVector.size(); i++) {
+			double termWeight = bugVector.getValue(i);
+			Postings postings = postingsMap.get(bugVector.getIndex(i));
+			if (null == postings) {
+				continue;
+			}
+
+			for (int j = 0; j < postings.size; j++) {
+				int targetIndex = postings.bugIndexes[j];
+				if (fixedDateUsed) {
+					if (targetIndex == bugIndex || fixedTimes[targetIndex] > openTime) {
+						continue;
+					}
+				} else if (targetIndex >= bugIndex) {
+					// Postings are in the order of bugs
+					break;
+				}
+
+				if (!touched[targetIndex]) {
+					touched[targetIndex] = true;
+					if (touchedCount == touchedIndexes.length) {
+						touchedIndexes = Arrays.copyOf(touchedIndexes, touchedCount * 2);
+					}
+					touchedIndexes[touchedCount++] = targetIndex;
+				}
+				products[targetIndex] += termWeight * postings.weights[j];
+			}
+		}
+
+		double norm = bugVector.norm();
+		for (int i = 0; i < touchedCount; i++) {
+			int targetIndex = touchedIndexes[i];
+			double similarityScore = products[targetIndex] / (norm * norms[targetIndex]);
+			if (0.0 != similarityScore && !Double.isNaN(similarityScore)) {
+				SimilarBugInfo similarBugInfo = new SimilarBugInfo();
+				similarBugInfo.setSimilarBugID(bugIDs[targetIndex]);
+				similarBugInfo.setSimilarityScore(similarityScore);
+				similarBugInfos.add(similarBugInfo);
+			}
+		}
+
+		Collections.sort(similarBugInfos, new Comparator<SimilarBugInfo>() {
+			@Override
+			public int compare(SimilarBugInfo first, SimilarBugInfo second) {
+				int result = Double.compare(second.getSimilarityScore(), first.getSimilarityScore());
+				return (0 != result) ? result : Integer.compare(first.getSimilarBugID(), second.getSimilarBugID());
+			}
+		});
+
+		if (limitSize > 0 && similarBugInfos.size() > limitSize) {
+			// Bugs tied with the last one of top limitSize are kept
+			double limitScore = similarBugInfos.get(limitSize - 1).getSimilarityScore();
+			int count = limitSize;
+			while (count < similarBugInfos.size() && similarBugInfos.get(count).getSimilarityScore() == limitScore) {
+				count++;
+			}
+			similarBugInfos = new ArrayList<SimilarBugInfo>(similarBugInfos.subList(0, count));
+		}
+		return similarBugInfos;
+	}
+
+	public int getBugCount() {
+		return bugIDs.length;
+	}
+
+	public int getTermCount() {
+		return postingsMap.size();
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+import edu.skku.selab.blp.db.dao.SourceFileDAO;
+
+/**
+ * Immutable graph of classes of a version and their imports.
+ *
+ * Each class is a node with the source file version ID of its source file.
+ * Imported classes of a node are kept in compressed sparse rows, which are importedClassIndexes
+ * between importOffsets[node] and importOffsets[node + 1]. An imported class which isn't a class
+ * of the version has -1 as its index.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class ClassImportGraph {
+	// <Fully qualified class name, class index>
+	private HashMap<String, Integer> classIndexes;
+	private int[] sourceFileVersionIDs;
+	private int[] importOffsets;
+	private int[] importedClassIndexes;
+
+	/**
+	 * @param classNames <Fully qualified class name, source file name>, null if there is no class
+	 * @param sourceFileVersionIDs <Source file name, source file version ID>
+	 * @param importedClassesMap <Source file name, imported classes>
+	 */
+	public ClassImportGraph(HashMap<String, String> classNames, HashMap<String, Integer> sourceFileVersionIDs,
+			HashMap<String, ArrayList<String>> importedClassesMap) {
+		ArrayList<String> sortedClassNames = new ArrayList<String>();
+		if (null != classNames) {
+			sortedClassNames.addAll(classNames.keySet());
+		}
+		Collections.sort(sortedClassNames);
+
+		int classCount = sortedClassNames.size();
+		classIndexes = new HashMap<String, Integer>(classCount * 2);
+		this.sourceFileVersionIDs = new int[classCount];
+		for (int i = 0; i < classCount; i++) {
+			String className = sortedClassNames.get(i);
+			classIndexes.put(className, i);
+			Integer sourceFileVersionID = sourceFileVersionIDs.get(classNames.get(className));
+			this.sourceFileVersionIDs[i] = (null == sourceFileVersionID) ? SourceFileDAO.INVALID : sourceFileVersionID;
+		}
+
+		importOffsets = new int[classCount + 1];
+		for (int i = 0; i < classCount; i++) {
+			ArrayList<String> importedClasses = importedClassesMap.get(classNames.get(sortedClassNames.get(i)));
+			importOffsets[i + 1] = importOffsets[i] + ((null == importedClasses) ? 0 : importedClasses.size());
+		}
+
+		importedClassIndexes = new int[importOffsets[classCount]];
+		for (int i = 0; i < classCount; i++) {
+			ArrayList<String> importedClasses = importedClassesMap.get(classNames.get(sortedClassNames.get(i)));
+			for (int j = importOffsets[i]; j < importOffsets[i + 1]; j++) {
+				importedClassIndexes[j] = getClassIndex(importedClasses.get(j - importOffsets[i]));
+			}
+		}
+	}
+
+	/**
+	 * Load classes, source files and imports of the version from DB with three queries
+	 *
+	 * @param version
+	 * @return graph of the version
+	 * @throws Exception
+	 */
+	public static ClassImportGraph load(String version) throws Exception {
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		return new ClassImportGraph(sourceFileDAO.getClassNames(version), sourceFileDAO.getSourceFileVersionIDs(version),
+				sourceFileDAO.getAllImportedClasses(version));
+	}
+
+	/**
+	 * @return count of classes
+	 */
+	public int getClassCount() {
+		return sourceFileVersionIDs.length;
+	}
+
+	/**
+	 * @param className fully qualified class name
+	 * @return index of the class, -1 if it isn't a class of the version
+	 */
+	public int getClassIndex(String className) {
+		Integer classIndex = classIndexes.get(className);
+		return (null == classIndex) ? -1 : classIndex;
+	}
+
+	/**
+	 * @param classIndex
+	 * @return source file version ID of the class
+	 */
+	public int getSourceFileVersionID(int classIndex) {
+		return sourceFileVersionIDs[classIndex];
+	}
+
+	/**
+	 * @param classIndex
+	 * @return count of imported classes including classes out of the version
+	 */
+	public int getImportCount(int classIndex) {
+		return importOffsets[classIndex + 1] - importOffsets[classIndex];
+	}
+
+	/**
+	 * @param classIndex
+	 * @param importIndex index of the import in the source file, less than getImportCount(classIndex)
+	 * @return index of the imported class, -1 if it isn't a class of the version
+	 */
+	public int getImportedClassIndex(int classIndex, int importIndex) {
+		return importedClassIndexes[importOffsets[classIndex] + importIndex];
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.analysis;
+
+import java.util.ArrayList;
+
+import edu.skku.selab.blp.common.CommitInfo;
+
+/**
+ * Commit times in the order of commit dates to find commits within past days before a bug is opened.
+ *
+ * A window of a bug is the commit index range [start, end). Commits in the window are committed
+ * before the open date of the bug, and within past days from it.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class CommitWindowIndex {
+	private final static double MILLISECONDS_PER_DAY = 24.0 * 60 * 60 * 1000;
+
+	private long[] commitTimes;
+
+	/**
+	 * @param commitInfos commits ordered by commit date
+	 */
+	public CommitWindowIndex(ArrayList<? extends CommitInfo> commitInfos) {
+		commitTimes = new long[commitInfos.size()];
+		for (int i = 0; i < commitTimes.length; i++) {
+			commitTimes[i] = commitInfos.get(i).getCommitDate().getTime();
+		}
+	}
+
+	public int getCommitCount() {
+		return commitTimes.length;
+	}
+
+	public long getCommitTime(int commitIndex) {
+		return commitTimes[commitIndex];
+	}
+
+	/**
+	 * @param openTime open time of the bug
+	 * @param pastDays
+	 * @return index of the first commit within past days before the open time
+	 */
+	public int findWindowStart(long openTime, int pastDays) {
+		int low = 0;
+		int high = commitTimes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if ((openTime - commitTimes[middle]) / MILLISECONDS_PER_DAY > pastDays) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @param openTime open time of the bug
+	 * @return index of the first commit committed on or after the open time
+	 */
+	public int findWindowEnd(long openTime) {
+		int low = 0;
+		int high = commitTimes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (commitTimes[middle] < openTime) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
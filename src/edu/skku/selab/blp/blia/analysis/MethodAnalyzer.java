@@ -8,9 +8,10 @@
 package edu.skku.selab.blp.blia.analysis;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.skku.selab.blp.db.dao.BugDAO;
 import edu.skku.selab.blp.db.dao.IntegratedAnalysisDAO;
@@ -18,13 +19,15 @@ import edu.skku.selab.blp.db.dao.MethodDAO;
 import edu.skku.selab.blp.db.dao.SourceFileDAO;
 import edu.skku.selab.blp.blia.indexer.BugMethodVectorCreator;
 import edu.skku.selab.blp.blia.indexer.SourceFileCorpusCreator;
-import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.common.Bug;
-import edu.skku.selab.blp.common.FileParser;
 import edu.skku.selab.blp.common.Method;
 import edu.skku.selab.blp.db.AnalysisValue;
 import edu.skku.selab.blp.db.ExtendedIntegratedAnalysisValue;
+import edu.skku.selab.blp.db.IndexSnapshot;
 import edu.skku.selab.blp.db.IntegratedAnalysisValue;
+import edu.skku.selab.blp.db.IntegratedScoreMatrix;
+import edu.skku.selab.blp.utils.SparseVector;
+import edu.skku.selab.blp.utils.StageExecutor;
 
 /**
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
@@ -34,12 +37,18 @@ public class MethodAnalyzer extends SourceFileAnalyzer {
 	private HashMap<Integer, ArrayList<IntegratedAnalysisValue>> rankedSuspFilesMap;
 	private HashMap<Integer, ArrayList<Method>> methodMap;
 	private HashMap<Integer, Double> bugNormMap;
+	// <term, index of the term in method vectors>
+	private HashMap<String, Integer> termIndexMap;
+	// <method ID, term count vector of the method name>
+	private ConcurrentHashMap<Integer, SparseVector> methodVectorMap;
 	
 	public MethodAnalyzer() {
 		super();
 		rankedSuspFilesMap = null;
 		methodMap = null;
 		bugNormMap = null;
+		termIndexMap = null;
+		methodVectorMap = null;
 	}
 	
     public MethodAnalyzer(ArrayList<Bug> bugs) {
@@ -47,6 +56,8 @@ public class MethodAnalyzer extends SourceFileAnalyzer {
 		rankedSuspFilesMap = null;
 		methodMap = null;
 		bugNormMap = null;
+		termIndexMap = null;
+		methodVectorMap = null;
     }
     
 	/**
@@ -57,15 +68,25 @@ public class MethodAnalyzer extends SourceFileAnalyzer {
 		MethodDAO methodDAO = new MethodDAO();
 		BugDAO bugDAO = new BugDAO();
 		IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
+		IntegratedScoreMatrix scoreMatrix = IntegratedScoreMatrix.getInstance();
+		boolean scoreMatrixLoaded = IntegratedScoreMatrix.hasInstance();
 		
-		methodMap = methodDAO.getAllMethods();
+		IndexSnapshot snapshot = IndexSnapshot.getInstance(SourceFileDAO.DEFAULT_VERSION_STRING);
+		methodMap = (null == snapshot) ? methodDAO.getAllMethods() : snapshot.getAllMethods();
 		bugNormMap = bugDAO.getAllNorms();
+		termIndexMap = new HashMap<String, Integer>();
+		methodVectorMap = new ConcurrentHashMap<Integer, SparseVector>();
 
 		int limit = 10;
 		rankedSuspFilesMap = new HashMap<Integer, ArrayList<IntegratedAnalysisValue>>();
 		for (int i = 0; i < bugs.size(); i++) {
 			int bugID = bugs.get(i).getID();
-			ArrayList<IntegratedAnalysisValue> rankedSuspiciousFileValues = integratedAnalysisDAO.getMiddleSourceFileRankedValues(bugID, limit);
+			ArrayList<IntegratedAnalysisValue> rankedSuspiciousFileValues = null;
+			if (scoreMatrixLoaded) {
+				rankedSuspiciousFileValues = scoreMatrix.getRankedValues(bugID, IntegratedScoreMatrix.MID_SF_SCORE, limit);
+			} else {
+				rankedSuspiciousFileValues = integratedAnalysisDAO.getMiddleSourceFileRankedValues(bugID, limit);
+			}
 			if (null == rankedSuspiciousFileValues) {
 				System.err.println("[ERROR] Can't load rankedSuspiciousFileValues at MethodAnalyzer.analyze()");
 				return;
@@ -78,18 +99,48 @@ public class MethodAnalyzer extends SourceFileAnalyzer {
 		BugMethodVectorCreator bugMethodVectorCreator = new BugMethodVectorCreator(methodMap);
 		bugMethodVectorCreator.create(SourceFileDAO.DEFAULT_VERSION_STRING, rankedSuspFilesMap);
 		
-		ExecutorService executor = Executors.newFixedThreadPool(Property.THREAD_COUNT);
+		StageExecutor executor = new StageExecutor("Method analysis");
 		for (int i = 0; i < bugs.size(); i++) {
 			// calculate term count, IDC, TF and IDF
-			Runnable worker = new WorkerThread(bugs.get(i));
-			executor.execute(worker);
+			StageExecutor.Task worker = new WorkerThread(bugs.get(i));
+			executor.submit(worker);
 		}
-		executor.shutdown();
-		while (!executor.isTerminated()) {
+		executor.await();
+	}
+	
+	private synchronized int getTermIndex(String term) {
+		Integer termIndex = termIndexMap.get(term);
+		if (null == termIndex) {
+			termIndex = termIndexMap.size();
+			termIndexMap.put(term, termIndex);
 		}
+		return termIndex;
 	}
 	
-    private class WorkerThread implements Runnable {
+	/**
+	 * @param method
+	 * @return term count vector of the stemmed method name, shared by all bugs
+	 */
+	private SparseVector getMethodVector(Method method) {
+		SparseVector methodVector = methodVectorMap.get(method.getID());
+		if (null == methodVector) {
+			String methodName = method.getName();
+			String stems = SourceFileCorpusCreator.stemContent(methodName) + SourceFileCorpusCreator.stemSourceCode(methodName);
+			String terms[] = stems.split(" ");
+			
+			int[] termIndexes = new int[terms.length];
+			double[] termCounts = new double[terms.length];
+			for (int i = 0; i < terms.length; i++) {
+				termIndexes[i] = getTermIndex(terms[i]);
+				termCounts[i] = 1.0;
+			}
+			methodVector = new SparseVector(termIndexes, termCounts);
+			methodVectorMap.put(method.getID(), methodVector);
+		}
+		return methodVector;
+	}
+	
+    private class WorkerThread implements StageExecutor.Task {
     	private Bug bug;
     	
         public WorkerThread(Bug bug){
@@ -97,12 +148,8 @@ public class MethodAnalyzer extends SourceFileAnalyzer {
         }
      
         @Override
-        public void run() {
-        	try {
-        		computeSimilarity(bug);
-        	} catch (Exception e) {
-        		e.printStackTrace();
-        	}
+        public void run() throws Exception {
+        	computeSimilarity(bug);
         }
         
     	private void computeSimilarity(Bug bug) throws Exception {
@@ -111,6 +158,36 @@ public class MethodAnalyzer extends SourceFileAnalyzer {
     		BugDAO bugDAO = new BugDAO();
     		
     		int bugID = bug.getID();
+    		double bugNorm = bugNormMap.get(bugID);
+    		double methodNorm = bugDAO.getNormValue(bugID);
+    		
+    		// Bug vector of source file term weight * method term weight
+    		HashMap<String, AnalysisValue> bugSfTermMap = bugDAO.getSfTermMap(bugID);
+    		HashMap<String, AnalysisValue> bugMthTermMap = bugDAO.getMthTermMap(bugID);
+    		HashMap<Integer, String> missingTerms = new HashMap<Integer, String>();
+    		SparseVector bugVector = SparseVector.EMPTY;
+    		if (null != bugSfTermMap) {
+    			int[] termIndexes = new int[bugSfTermMap.size()];
+    			double[] termWeights = new double[bugSfTermMap.size()];
+    			int count = 0;
+    			Iterator<String> bugTermIter = bugSfTermMap.keySet().iterator();
+    			while (bugTermIter.hasNext()) {
+    				String bugTerm = bugTermIter.next();
+    				AnalysisValue methodTermAnalysisValue = (null == bugMthTermMap) ? null : bugMthTermMap.get(bugTerm);
+    				if (null == methodTermAnalysisValue) {
+    					missingTerms.put(getTermIndex(bugTerm), bugTerm);
+    					continue;
+    				}
+    				
+    				AnalysisValue analysisValue = bugSfTermMap.get(bugTerm);
+    				termIndexes[count] = getTermIndex(bugTerm);
+    				termWeights[count] = (analysisValue.getTf() * analysisValue.getIdf()) *
+    						(methodTermAnalysisValue.getTf() * methodTermAnalysisValue.getIdf());
+    				count++;
+    			}
+    			bugVector = new SparseVector(Arrays.copyOf(termIndexes, count), Arrays.copyOf(termWeights, count));
+    		}
+    		
     		for (int i = 0; i < integratedAnalysisValues.size(); ++i) {
     			int sourceFileVersionID = integratedAnalysisValues.get(i).getSourceFileVersionID();
     			ArrayList<Method> methods = methodMap.get(sourceFileVersionID);
@@ -123,29 +200,20 @@ public class MethodAnalyzer extends SourceFileAnalyzer {
     			for (int j = 0; j < methods.size(); ++j) {
     				Method method = methods.get(j);
     				int methodID = method.getID();
-    				String methodName = method.getName();
-    				
-    				String methodInfo[] = FileParser.splitContent(methodName);
-    				String stems = SourceFileCorpusCreator.stemContent(methodName) + SourceFileCorpusCreator.stemContent(methodInfo);
-    				String terms[] = stems.split(" ");
+    				SparseVector methodVector = getMethodVector(method);
     				
-    				double vsmScore = 0.0;
-    				double bugNorm = bugNormMap.get(bugID);
-    				for (int k = 0; k < terms.length; ++k) {
-    					AnalysisValue analysisValue = bugDAO.getBugSfTermWeight(bugID, terms[k]);
-    					if (analysisValue != null) {
-    						AnalysisValue methodTermAnalysisValue = bugDAO.getBugMthTermWeight(bugID, terms[k]);
-    						if (methodTermAnalysisValue == null) {
+    				if (!missingTerms.isEmpty()) {
+    					for (int k = 0; k < methodVector.size(); ++k) {
+    						String missingTerm = missingTerms.get(methodVector.getIndex(k));
+    						if (null != missingTerm) {
     							System.err.printf("MethodAnalyzer.computeSimilarity()> Can't find bugID: %s, term: %s\n",
-    									bugID, terms[k]);
+    									bugID, missingTerm);
     							return;
     						}
-    						double methodTermWeight = methodTermAnalysisValue.getTf() * methodTermAnalysisValue.getIdf();
-    						vsmScore += (analysisValue.getTf() * analysisValue.getIdf()) * methodTermWeight;
     					}
     				}
     				
-    				double methodNorm = bugDAO.getNormValue(bugID);
+    				double vsmScore = methodVector.dot(bugVector);
     				vsmScore /= (bugNorm * methodNorm);
     				if (vsmScore == 0) continue;
     				
@@ -8,28 +8,33 @@
 package edu.skku.selab.blp.blia.analysis;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Date;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map.Entry;
 
 import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.common.Bug;
-import edu.skku.selab.blp.common.CommitInfo;
 import edu.skku.selab.blp.common.ExtendedCommitInfo;
 import edu.skku.selab.blp.common.Method;
-import edu.skku.selab.blp.db.IntegratedAnalysisValue;
+import edu.skku.selab.blp.db.IntegratedScoreMatrix;
 import edu.skku.selab.blp.db.ExtendedIntegratedAnalysisValue;
 import edu.skku.selab.blp.db.dao.BaseDAO;
 import edu.skku.selab.blp.db.dao.CommitDAO;
+import edu.skku.selab.blp.db.dao.IntegratedAnalysisBatchWriter;
 import edu.skku.selab.blp.db.dao.IntegratedAnalysisDAO;
 import edu.skku.selab.blp.db.dao.MethodDAO;
 import edu.skku.selab.blp.db.dao.SourceFileDAO;
+import edu.skku.selab.blp.utils.StageExecutor;
 
 /**
+ * Commit log score of a source file or a method is the sum of decayed scores of commits
+ * which touched it within past days before the bug is opened.
+ * 
+ * Commit windows of bugs are found with binary search on CommitWindowIndex. Touched files and methods
+ * of commits in any window are resolved once before bugs are analyzed, so a bug costs only the commits in its window.
+ * 
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
  *
  */
@@ -37,6 +42,14 @@ public class ScmRepoAnalyzer {
 	private ArrayList<Bug> bugs;
 	private int pastDays;
 	private ArrayList<ExtendedCommitInfo> filteredCommitInfos = null;
+	private HashMap<String, Integer> sourceFileVersionIDs = null;
+	private CommitWindowIndex commitWindowIndex = null;
+	// Commit file indexes of each commit, null if the commit isn't in any window
+	private int[][] fileTouches = null;
+	// Method IDs of each commit, null if the commit isn't in any window
+	private int[][] methodTouches = null;
+	// Source file version IDs of commit file indexes
+	private int[] commitFileVersionIDs = null;
 	
 	public ScmRepoAnalyzer() {
 		bugs = null;
@@ -47,77 +60,173 @@ public class ScmRepoAnalyzer {
 		pastDays = Property.getInstance().getPastDays();
     }
     
-    private class WorkerThread implements Runnable {
+    private class WorkerThread implements StageExecutor.Task {
     	private Bug bug;
-    	private String version;
+    	private int windowStart;
+    	private int windowEnd;
     	
-        public WorkerThread(Bug bug, String version) {
+        public WorkerThread(Bug bug, int windowStart, int windowEnd) {
             this.bug = bug;
-            this.version = version;
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
         }
      
         @Override
-        public void run() {
+        public void run() throws Exception {
 			// Compute similarity between Bug report & source files
         	
-        	try {
-        		insertDataToDb();
-        	} catch (Exception e) {
-        		e.printStackTrace();
-        	}
+        	insertDataToDb();
         }
         
         private void insertDataToDb() throws Exception {
-    		IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
-    		MethodDAO methodDAO = new MethodDAO();
-    		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-    		
-			// <fileName, analysisValue>
-			HashMap<String, IntegratedAnalysisValue> analysisValues = new HashMap<String, IntegratedAnalysisValue>();
-			HashMap<Integer, ExtendedIntegratedAnalysisValue> methodAnalysisValues = new HashMap<Integer, ExtendedIntegratedAnalysisValue>();
-			ArrayList<ExtendedCommitInfo> relatedCommitInfos = findCommitInfoWithinDays(filteredCommitInfos, bug.getOpenDate(), pastDays);
-			if (null == relatedCommitInfos) {
+			if (windowStart >= windowEnd) {
 				return;
 			}
 			
-			for (int j = 0; j < relatedCommitInfos.size(); j++) {
-				ExtendedCommitInfo relatedCommitInfo = relatedCommitInfos.get(j);
-				HashSet<String> commitFiles = relatedCommitInfo.getAllCommitFilesWithoutCommitType();
-				Iterator<String> commitFilesIter = commitFiles.iterator();
-				while (commitFilesIter.hasNext()) {
-					String commitFileName = commitFilesIter.next();
+			// <Commit file index, commit log score>
+			HashMap<Integer, Double> fileScores = new HashMap<Integer, Double>();
+			// <Method ID, commit log score>
+			HashMap<Integer, Double> methodScores = new HashMap<Integer, Double>();
+			long openTime = bug.getOpenDate().getTime();
+			for (int i = windowStart; i < windowEnd; i++) {
+				double commitLogScore = calculateCommitLogScore(commitWindowIndex.getCommitTime(i), openTime, pastDays);
+				addCommitLogScore(fileScores, fileTouches[i], commitLogScore);
+				addCommitLogScore(methodScores, methodTouches[i], commitLogScore);
+			}
+			
+			// Then save the score for the fixed files
+			int[] fileVersionIDs = new int[fileScores.size()];
+			double[] commitLogScores = new double[fileScores.size()];
+			int fileCount = 0;
+			Iterator<Entry<Integer, Double>> fileScoreIter = fileScores.entrySet().iterator();
+			while (fileScoreIter.hasNext()) {
+				Entry<Integer, Double> fileScore = fileScoreIter.next();
+				fileVersionIDs[fileCount] = commitFileVersionIDs[fileScore.getKey()];
+				commitLogScores[fileCount] = fileScore.getValue();
+				fileCount++;
+			}
+			IntegratedScoreMatrix.getInstance().updateScores(bug.getID(), IntegratedScoreMatrix.COMM_SCORE,
+					fileVersionIDs, commitLogScores, fileCount);
+			
+			// Then save the score for the fixed methods
+			IntegratedAnalysisBatchWriter integratedAnalysisWriter = new IntegratedAnalysisBatchWriter();
+			Iterator<Entry<Integer, Double>> methodScoreIter = methodScores.entrySet().iterator();
+			while (methodScoreIter.hasNext()) {
+				Entry<Integer, Double> methodScore = methodScoreIter.next();
+				ExtendedIntegratedAnalysisValue methodAnalysisValue = new ExtendedIntegratedAnalysisValue();
+				methodAnalysisValue.setBugID(bug.getID());
+				methodAnalysisValue.setMethodID(methodScore.getKey());
+				methodAnalysisValue.setCommitLogScore(methodScore.getValue());
+				integratedAnalysisWriter.insertMethodAnalysisVaule(methodAnalysisValue);
+			}
+			integratedAnalysisWriter.close();
+        }
+        
+        private void addCommitLogScore(HashMap<Integer, Double> scores, int[] touches, double commitLogScore) {
+        	for (int i = 0; i < touches.length; i++) {
+        		Double score = scores.get(touches[i]);
+        		scores.put(touches[i], (null == score) ? commitLogScore : score + commitLogScore);
+        	}
+        }
+    }
+    
+	public void analyze(String version) throws Exception {
+		// Do loop from the oldest bug,
+		CommitDAO commitDAO = new CommitDAO();
+		
+		// Checked the "filtered". This variable is valid when it is true
+		boolean filtered = true;
+		filteredCommitInfos = commitDAO.getCommitInfos(filtered);
+		if (null == filteredCommitInfos) {
+			filteredCommitInfos = new ArrayList<ExtendedCommitInfo>();
+		}
+		
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		sourceFileVersionIDs = sourceFileDAO.getSourceFileVersionIDs(version);
+		commitWindowIndex = new CommitWindowIndex(filteredCommitInfos);
+		
+		int[] windowStarts = new int[bugs.size()];
+		int[] windowEnds = new int[bugs.size()];
+		// Count of windows which start minus count of windows which end at each commit
+		int[] windowCountDiffs = new int[commitWindowIndex.getCommitCount() + 1];
+		for (int i = 0; i < bugs.size(); i++) {
+			long openTime = bugs.get(i).getOpenDate().getTime();
+			windowStarts[i] = commitWindowIndex.findWindowStart(openTime, pastDays);
+			windowEnds[i] = commitWindowIndex.findWindowEnd(openTime);
+			if (windowStarts[i] < windowEnds[i]) {
+				windowCountDiffs[windowStarts[i]]++;
+				windowCountDiffs[windowEnds[i]]--;
+			}
+		}
+		createTouches(windowCountDiffs);
 
-					// Calculate CommitLogScore for file level
-					IntegratedAnalysisValue analysisValue = analysisValues.get(commitFileName);
-					if (null == analysisValue) {
-						analysisValue = new IntegratedAnalysisValue();
-						analysisValue.setBugID(bug.getID());
-						analysisValue.setVersion(version);
-						analysisValue.setFileName(commitFileName);
+		StageExecutor executor = new StageExecutor("Scm repository analysis");
+		for (int i = 0; i < bugs.size(); i++) {
+			StageExecutor.Task worker = new WorkerThread(bugs.get(i), windowStarts[i], windowEnds[i]);
+			executor.submit(worker);
+		}
+		
+		executor.await();
+	}
+	
+	/**
+	 * Resolve touched files and methods of commits in any window.
+	 * Methods which aren't in MTH_INFO are inserted.
+	 */
+	private void createTouches(int[] windowCountDiffs) throws Exception {
+		MethodDAO methodDAO = new MethodDAO();
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		
+		// <Commit file name, commit file index>
+		HashMap<String, Integer> commitFileIndexes = new HashMap<String, Integer>();
+		ArrayList<Integer> fileVersionIDs = new ArrayList<Integer>();
+		int commitCount = commitWindowIndex.getCommitCount();
+		fileTouches = new int[commitCount][];
+		methodTouches = new int[commitCount][];
+		int windowCount = 0;
+		for (int i = 0; i < commitCount; i++) {
+			windowCount += windowCountDiffs[i];
+			if (0 == windowCount) {
+				continue;
+			}
+			
+			ExtendedCommitInfo commitInfo = filteredCommitInfos.get(i);
+			HashSet<String> commitFiles = commitInfo.getAllCommitFilesWithoutCommitType();
+			int[] touches = new int[commitFiles.size()];
+			int touchCount = 0;
+			Iterator<String> commitFilesIter = commitFiles.iterator();
+			while (commitFilesIter.hasNext()) {
+				String commitFileName = commitFilesIter.next();
+				Integer commitFileIndex = commitFileIndexes.get(commitFileName);
+				if (null == commitFileIndex) {
+					String fileName = commitFileName;
+					if (fileName.contains(".java")) {
+						fileName = IntegratedAnalysisDAO.fixFileName(fileName);
 					}
+					Integer sourceFileVersionID = sourceFileVersionIDs.get(fileName);
 					
-					double commitLogScore = analysisValue.getCommitLogScore();
-					commitLogScore += calculateCommitLogScore(relatedCommitInfo.getCommitDate(), bug.getOpenDate(), pastDays);
-					analysisValue.setCommitLogScore(commitLogScore);
-					
-					if (null == analysisValues.get(commitFileName)) {
-						analysisValues.put(commitFileName, analysisValue);		
-					}
+					commitFileIndex = fileVersionIDs.size();
+					fileVersionIDs.add((null == sourceFileVersionID) ? BaseDAO.INVALID : sourceFileVersionID);
+					commitFileIndexes.put(commitFileName, commitFileIndex);
 				}
 				
-				HashMap<String, ArrayList<Method>> allCommitMethods = relatedCommitInfo.getAllFixedMethods();
-				if (allCommitMethods == null) {
-//					System.err.printf("[NO fixed method!] BugID: %d, Commit ID: %s\n", bug.getID(), relatedCommitInfo.getCommitID());
-					continue;
+				// Files which aren't in the version get no score
+				if (BaseDAO.INVALID != fileVersionIDs.get(commitFileIndex)) {
+					touches[touchCount++] = commitFileIndex;
 				}
-				
+			}
+			fileTouches[i] = Arrays.copyOf(touches, touchCount);
+			
+			ArrayList<Integer> methodIDs = new ArrayList<Integer>();
+			HashMap<String, ArrayList<Method>> allCommitMethods = commitInfo.getAllFixedMethods();
+			if (null != allCommitMethods) {
 				commitFilesIter = allCommitMethods.keySet().iterator();
 				while (commitFilesIter.hasNext()) {
 					String commitFileName = commitFilesIter.next();
 					ArrayList<Method> commitMethods = allCommitMethods.get(commitFileName);
 					
-					for (int i = 0; i < commitMethods.size(); ++i) {
-						Method method = commitMethods.get(i);
+					for (int j = 0; j < commitMethods.size(); ++j) {
+						Method method = commitMethods.get(j);
 						int methodID = methodDAO.getMethodID(method);
 
 						if (methodID == BaseDAO.INVALID) {
@@ -125,109 +234,33 @@ public class ScmRepoAnalyzer {
 							method.setSourceFileVersionID(sourceFileVersionID);
 							methodID = methodDAO.insertMethod(method);
 						}
-
-						ExtendedIntegratedAnalysisValue methodAnalysisValue = methodAnalysisValues.get(methodID);
-						if (null == methodAnalysisValue) {
-							methodAnalysisValue = new ExtendedIntegratedAnalysisValue();
-							methodAnalysisValue.setBugID(bug.getID());
-							methodAnalysisValue.setMethodID(methodID);
-						}
-
-						// Calculate CommitLogScore for method level
-						double commitLogScore = methodAnalysisValue.getCommitLogScore();
-						commitLogScore += calculateCommitLogScore(relatedCommitInfo.getCommitDate(), bug.getOpenDate(), pastDays);
-						methodAnalysisValue.setCommitLogScore(commitLogScore);
-						
-						if (null == methodAnalysisValues.get(methodID)) {
-							methodAnalysisValues.put(methodID, methodAnalysisValue);		
-						}
+						methodIDs.add(methodID);
 					}
 				}
 			}
 			
-			// Then save the score for the fixed files
-			Iterator<IntegratedAnalysisValue> analysisValueIter = analysisValues.values().iterator();
-			while (analysisValueIter.hasNext()) {
-				IntegratedAnalysisValue analysisValue = analysisValueIter.next();
-				integratedAnalysisDAO.updateCommitLogScore(analysisValue);
-
-				// DEBUG code
-//				if (0 == updatedColumenCount) {
-//					System.err.printf("[ERROR] ScmRepoAnalyzer.analyze(): CommitLog score update failed! BugID: %s, sourceFileVersionID: %d\n",
-//							analysisValue.getBugID(), analysisValue.getSourceFileVersionID());
-//				}
+			methodTouches[i] = new int[methodIDs.size()];
+			for (int j = 0; j < methodIDs.size(); j++) {
+				methodTouches[i][j] = methodIDs.get(j);
 			}
-			
-			// Then save the score for the fixed methods
-			Iterator<ExtendedIntegratedAnalysisValue> methodAnalysisValueIter = methodAnalysisValues.values().iterator();
-			while (methodAnalysisValueIter.hasNext()) {
-				ExtendedIntegratedAnalysisValue methodAnalysisValue = methodAnalysisValueIter.next();
-				integratedAnalysisDAO.insertMethodAnalysisVaule(methodAnalysisValue);
-
-				// DEBUG code
-//				if (0 == insertedColumnCount) {
-//					System.err.printf("[ERROR] ScmRepoAnalyzer.analyze(): CommitLog score insertion failed! BugID: %s, methodID: %d\n",
-//							methodAnalysisValue.getBugID(), methodAnalysisValue.getMethodID());
-//				}
-			}
-        }
-    }
-    
-	public void analyze(String version) throws Exception {
-		// Do loop from the oldest bug,
-		CommitDAO commitDAO = new CommitDAO();
-		
-		// Checked the "filtered". This variable is valid when it is true
-		boolean filtered = true;
-		filteredCommitInfos = commitDAO.getCommitInfos(filtered);
-
-		ExecutorService executor = Executors.newFixedThreadPool(Property.THREAD_COUNT);
-		for (int i = 0; i < bugs.size(); i++) {
-			Runnable worker = new WorkerThread(bugs.get(i), version);
-			executor.execute(worker);
 		}
 		
-		executor.shutdown();
-		while (!executor.isTerminated()) {
+		commitFileVersionIDs = new int[fileVersionIDs.size()];
+		for (int i = 0; i < fileVersionIDs.size(); i++) {
+			commitFileVersionIDs[i] = fileVersionIDs.get(i);
 		}
 	}
 	
-	private double calculateCommitLogScore(Date commitDate, Date openDate, Integer pastDays) {
-		double diffDays = getDiffDays(commitDate, openDate);
+	private double calculateCommitLogScore(long commitTime, long openTime, int pastDays) {
+		double diffDays = getDiffDays(commitTime, openTime);
 		double returnValue = 1.0 / (1 + Math.exp(12 * (1 - ((pastDays - diffDays) / pastDays))));		
 		return returnValue;
 	}
 
-	private double getDiffDays(Date sourceDate, Date targetDate) {
-		long diff = targetDate.getTime() - sourceDate.getTime();
+	private double getDiffDays(long sourceTime, long targetTime) {
+		long diff = targetTime - sourceTime;
 	    double diffDays = diff / (24.0 * 60 * 60 * 1000);
 		
 	    return diffDays;
 	}
-
-	private ArrayList<ExtendedCommitInfo> findCommitInfoWithinDays(ArrayList<ExtendedCommitInfo> allCommitInfo, Date openDate, Integer pastDays) {
-		ArrayList<ExtendedCommitInfo> foundCommitInfos = null;
-		for (int i = 0; i < allCommitInfo.size(); i++) {
-			ExtendedCommitInfo commitInfo = allCommitInfo.get(i);
-			
-			Date commitDate = commitInfo.getCommitDate();
-		    double diffDays = getDiffDays(commitDate, openDate);
-			
-		    if (diffDays > pastDays) {
-		    	continue;
-		    }
-
-	        if ((diffDays > 0) && (diffDays <= pastDays)) {
-				if (null == foundCommitInfos) {
-					foundCommitInfos = new ArrayList<ExtendedCommitInfo>();
-				}
-
-				foundCommitInfos.add(commitInfo);						
-			} else {
-				break;
-			}			
-		}
-		
-		return foundCommitInfos;
-	}
 }
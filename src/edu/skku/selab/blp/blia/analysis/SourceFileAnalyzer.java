@@ -8,23 +8,21 @@
 package edu.skku.selab.blp.blia.analysis;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.TreeSet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.common.Bug;
-import edu.skku.selab.blp.common.BugCorpus;
 import edu.skku.selab.blp.common.SourceFileCorpus;
 import edu.skku.selab.blp.db.AnalysisValue;
+import edu.skku.selab.blp.db.IndexSnapshot;
 import edu.skku.selab.blp.db.IntegratedAnalysisValue;
+import edu.skku.selab.blp.db.IntegratedScoreMatrix;
 import edu.skku.selab.blp.db.dao.BugDAO;
-import edu.skku.selab.blp.db.dao.IntegratedAnalysisDAO;
 import edu.skku.selab.blp.db.dao.SourceFileDAO;
+import edu.skku.selab.blp.utils.SparseVector;
+import edu.skku.selab.blp.utils.StageExecutor;
 
 /**
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
@@ -36,6 +34,11 @@ public class SourceFileAnalyzer {
 	private HashMap<Integer, HashMap<String, AnalysisValue>> sourceFileAllTermMaps;
 	private HashMap<Integer, SourceFileCorpus> sourceFileCorpusMap;
 	private HashMap<Integer, Double> sourceFileLengthScoreMap;
+	private StructuredVsmIndex vsmIndex;
+	// <term, index of the term in source file vectors>
+	private HashMap<String, Integer> termIndexMap;
+	private HashMap<Integer, SparseVector> sourceFileVectorMap;
+	private HashMap<Integer, Double> sourceFileNormMap;
 	
 	public SourceFileAnalyzer() {
 		bugs = null;
@@ -43,6 +46,10 @@ public class SourceFileAnalyzer {
 		sourceFileAllTermMaps = null;
 		sourceFileCorpusMap = null;
 		sourceFileLengthScoreMap = null;
+		vsmIndex = null;
+		termIndexMap = null;
+		sourceFileVectorMap = null;
+		sourceFileNormMap = null;
 	}
 	
     public SourceFileAnalyzer(ArrayList<Bug> bugs) {
@@ -51,6 +58,10 @@ public class SourceFileAnalyzer {
     	sourceFileAllTermMaps = null;
     	sourceFileCorpusMap = null;
     	sourceFileLengthScoreMap = null;
+    	vsmIndex = null;
+    	termIndexMap = null;
+    	sourceFileVectorMap = null;
+    	sourceFileNormMap = null;
     }
     
 	/**
@@ -58,8 +69,10 @@ public class SourceFileAnalyzer {
 	 * 
 	 */
 	public void analyze(String version, boolean useStructuredInfo) throws Exception {
-		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-		sourceFileVersionIDs = sourceFileDAO.getSourceFileVersionIDs(version);
+		// Source files are read from the index snapshot if it has the same index with DB
+		IndexSnapshot snapshot = IndexSnapshot.getInstance(version);
+		SourceFileDAO sourceFileDAO = (null == snapshot) ? new SourceFileDAO() : null;
+		sourceFileVersionIDs = (null == snapshot) ? sourceFileDAO.getSourceFileVersionIDs(version) : snapshot.getSourceFileVersionIDs();
 		sourceFileAllTermMaps = new HashMap<Integer, HashMap<String, AnalysisValue>>();
 		sourceFileCorpusMap = new HashMap<Integer, SourceFileCorpus>();
 		sourceFileLengthScoreMap = new HashMap<Integer, Double>();
@@ -68,32 +81,105 @@ public class SourceFileAnalyzer {
 		while(sourceFileVersionIDIter.hasNext()) {
 			int sourceFileVersionID = sourceFileVersionIDs.get(sourceFileVersionIDIter.next());
 			
-			HashMap<String, AnalysisValue> sourceFileTermMap = sourceFileDAO.getTermMap(sourceFileVersionID);
+			HashMap<String, AnalysisValue> sourceFileTermMap = (null == snapshot) ?
+					sourceFileDAO.getTermMap(sourceFileVersionID) : snapshot.getTermMap(sourceFileVersionID);
 			if (sourceFileTermMap == null) {
 				System.err.printf("Wrong source file version ID: %d\n", sourceFileVersionID);
 			}
 			sourceFileAllTermMaps.put(sourceFileVersionID, sourceFileTermMap);
 			
-			SourceFileCorpus corpus = sourceFileDAO.getCorpus(sourceFileVersionID);
+			SourceFileCorpus corpus = (null == snapshot) ?
+					sourceFileDAO.getCorpus(sourceFileVersionID) : snapshot.getCorpus(sourceFileVersionID);
 			sourceFileCorpusMap.put(sourceFileVersionID, corpus);
 			
-			double lengthScore = sourceFileDAO.getLengthScore(sourceFileVersionID);
+			double lengthScore = (null == snapshot) ?
+					sourceFileDAO.getLengthScore(sourceFileVersionID) : snapshot.getLengthScore(sourceFileVersionID);
 			sourceFileLengthScoreMap.put(sourceFileVersionID, lengthScore);
 		}
 		
-		ExecutorService executor = Executors.newFixedThreadPool(Property.THREAD_COUNT);
+		if (useStructuredInfo) {
+			vsmIndex = new StructuredVsmIndex(sourceFileVersionIDs, sourceFileAllTermMaps, sourceFileCorpusMap, sourceFileLengthScoreMap);
+		} else {
+			createSourceFileVectors();
+		}
+		
+		StageExecutor executor = new StageExecutor("Source file analysis");
 
 		for (int i = 0; i < bugs.size(); i++) {
 			// calculate term count, IDC, TF and IDF
-			Runnable worker = new WorkerThread(bugs.get(i), version, useStructuredInfo);
-			executor.execute(worker);
+			StageExecutor.Task worker = new WorkerThread(bugs.get(i), version, useStructuredInfo);
+			executor.submit(worker);
+		}
+		executor.await();
+	}
+	
+	/**
+	 * Create TF-IDF vectors and load norms of source files once for all bugs 
+	 * 
+	 */
+	private void createSourceFileVectors() {
+		termIndexMap = new HashMap<String, Integer>();
+		sourceFileVectorMap = new HashMap<Integer, SparseVector>();
+		sourceFileNormMap = new HashMap<Integer, Double>();
+		
+		Iterator<Integer> sourceFileVersionIDIter = sourceFileAllTermMaps.keySet().iterator();
+		while (sourceFileVersionIDIter.hasNext()) {
+			int sourceFileVersionID = sourceFileVersionIDIter.next();
+			HashMap<String, AnalysisValue> sourceFileTermMap = sourceFileAllTermMaps.get(sourceFileVersionID);
+			if (null == sourceFileTermMap) {
+				continue;
+			}
+			
+			int[] termIndexes = new int[sourceFileTermMap.size()];
+			double[] termWeights = new double[sourceFileTermMap.size()];
+			int i = 0;
+			Iterator<String> sourceFileTermIter = sourceFileTermMap.keySet().iterator();
+			while (sourceFileTermIter.hasNext()) {
+				String sourceFileTerm = sourceFileTermIter.next();
+				Integer termIndex = termIndexMap.get(sourceFileTerm);
+				if (null == termIndex) {
+					termIndex = termIndexMap.size();
+					termIndexMap.put(sourceFileTerm, termIndex);
+				}
+				AnalysisValue termValue = sourceFileTermMap.get(sourceFileTerm);
+				termIndexes[i] = termIndex;
+				termWeights[i] = termValue.getTf() * termValue.getIdf();
+				i++;
+			}
+			sourceFileVectorMap.put(sourceFileVersionID, new SparseVector(termIndexes, termWeights));
+			// Corpora have COR_NORM of source files
+			SourceFileCorpus corpus = sourceFileCorpusMap.get(sourceFileVersionID);
+			sourceFileNormMap.put(sourceFileVersionID, (null == corpus) ? 0.0 : corpus.getContentNorm());
 		}
-		executor.shutdown();
-		while (!executor.isTerminated()) {
+	}
+	
+	/**
+	 * @param bugSfTermMap
+	 * @return TF-IDF vector of bug terms which are in source files
+	 */
+	private SparseVector createBugVector(HashMap<String, AnalysisValue> bugSfTermMap) {
+		if (null == bugSfTermMap) {
+			return SparseVector.EMPTY;
 		}
+		
+		int[] termIndexes = new int[bugSfTermMap.size()];
+		double[] termWeights = new double[bugSfTermMap.size()];
+		int count = 0;
+		Iterator<String> bugTermIter = bugSfTermMap.keySet().iterator();
+		while (bugTermIter.hasNext()) {
+			String bugTerm = bugTermIter.next();
+			Integer termIndex = termIndexMap.get(bugTerm);
+			if (null != termIndex) {
+				AnalysisValue bugTermValue = bugSfTermMap.get(bugTerm);
+				termIndexes[count] = termIndex;
+				termWeights[count] = bugTermValue.getTf() * bugTermValue.getIdf();
+				count++;
+			}
+		}
+		return new SparseVector(Arrays.copyOf(termIndexes, count), Arrays.copyOf(termWeights, count));
 	}
 	
-    private class WorkerThread implements Runnable {
+    private class WorkerThread implements StageExecutor.Task {
     	private Bug bug;
     	private String version;
     	private boolean useStructuredInfo;
@@ -105,56 +191,35 @@ public class SourceFileAnalyzer {
         }
      
         @Override
-        public void run() {
+        public void run() throws Exception {
 			// Compute similarity between Bug report & source files
         	
-        	try {
-    			if (useStructuredInfo) {
-    				computeSimilarityWithStructuredInfo(bug, version);
-    			} else {
-    				computeSimilarity(bug, version);
-    			}
-        	} catch (Exception e) {
-        		e.printStackTrace();
-        	}
+    		if (useStructuredInfo) {
+    			computeSimilarityWithStructuredInfo(bug, version);
+    		} else {
+    			computeSimilarity(bug, version);
+    		}
         }
         
     	private void computeSimilarity(Bug bug, String version) throws Exception {
-    		IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
-    		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+    		IntegratedScoreMatrix scoreMatrix = IntegratedScoreMatrix.getInstance();
     		
     		BugDAO bugDAO = new BugDAO();
     		HashMap<String, AnalysisValue> bugSfTermMap = bugDAO.getSfTermMap(bug.getID());
+    		SparseVector bugVector = createBugVector(bugSfTermMap);
+    		double bugNorm = bugDAO.getNormValue(bug.getID());
     		
     		Iterator<String> sourceFileVersionIDIter = sourceFileVersionIDs.keySet().iterator();
     		while(sourceFileVersionIDIter.hasNext()) {
     			int sourceFileVersionID = sourceFileVersionIDs.get(sourceFileVersionIDIter.next());
 
-    			// corpus, analysisValue
-    			HashMap<String, AnalysisValue> sourceFileTermMap = sourceFileAllTermMaps.get(sourceFileVersionID);
-    			
     			double vsmScore = 0.0;
-    			Iterator<String> sourceFileTermIter = sourceFileTermMap.keySet().iterator();
-    			while (sourceFileTermIter.hasNext()) {
-    				String sourceFileTerm = sourceFileTermIter.next();
-    				double sourceFileTermWeight = sourceFileTermMap.get(sourceFileTerm).getTf() * sourceFileTermMap.get(sourceFileTerm).getIdf();
-    				
-    				double bugTermWeight = 0;
-    				AnalysisValue bugTermValue = bugSfTermMap.get(sourceFileTerm);
-    				if (null != bugTermValue) {
-    					bugTermWeight = bugTermValue.getTf() * bugTermValue.getIdf();
-    					
-    					// ASSERT code: IDF values must be same!
-//    					if (bugTermValue.getIdf() != sourceFileTermMap.get(sourceFileTerm).getIdf()) {
-//    						System.out.printf("Bug IDF: %f, Source IDF: %f\n", bugTermValue.getIdf(), sourceFileTermMap.get(sourceFileTerm).getIdf());
-//    					}
-    				} 
-    				
-    				vsmScore += (bugTermWeight * sourceFileTermWeight);
+    			SparseVector sourceFileVector = sourceFileVectorMap.get(sourceFileVersionID);
+    			if (null != sourceFileVector) {
+    				vsmScore = sourceFileVector.dot(bugVector);
     			}
 
-    			double sourceFileNorm = sourceFileDAO.getNormValue(sourceFileVersionID);
-    			double bugNorm = bugDAO.getNormValue(bug.getID());
+    			double sourceFileNorm = sourceFileNormMap.containsKey(sourceFileVersionID) ? sourceFileNormMap.get(sourceFileVersionID) : 0.0;
     			vsmScore = (vsmScore / (sourceFileNorm * bugNorm));
     			vsmScore = vsmScore * sourceFileLengthScoreMap.get(sourceFileVersionID);
     			
@@ -162,147 +227,21 @@ public class SourceFileAnalyzer {
     			integratedAnalysisValue.setBugID(bug.getID());
     			integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionID);
     			integratedAnalysisValue.setVsmScore(vsmScore);
-    			integratedAnalysisDAO.insertAnalysisVaule(integratedAnalysisValue);
+    			scoreMatrix.insertAnalysisVaule(integratedAnalysisValue);
     		}
     	}
     	
     	private void computeSimilarityWithStructuredInfo(Bug bug, String version) throws Exception {
-    		IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
+    		IntegratedScoreMatrix scoreMatrix = IntegratedScoreMatrix.getInstance();
     		BugDAO bugDAO = new BugDAO();
     		HashMap<String, AnalysisValue> bugSfTermMap = bugDAO.getSfTermMap(bug.getID());
     		
-    		TreeSet<Double> vsmScoreSet = new TreeSet<Double>();
-    		LinkedList<IntegratedAnalysisValue> integratedAnalysisValueList = new LinkedList<IntegratedAnalysisValue>();
-    		Iterator<String> sourceFileVersionIDIter = sourceFileVersionIDs.keySet().iterator();
-    		while(sourceFileVersionIDIter.hasNext()) {
-    			String sourceFileName = sourceFileVersionIDIter.next();
-    			int sourceFileVersionID = sourceFileVersionIDs.get(sourceFileName);
-
-    			double vsmScore = 0.0;
-    			// corpus, analysisValue
-    			HashMap<String, AnalysisValue> sourceFileTermMap = sourceFileAllTermMaps.get(sourceFileVersionID);
-    			
-    			SourceFileCorpus corpus = sourceFileCorpusMap.get(sourceFileVersionID);
-    			String[] sourceFileCorpusSet = new String[4];
-    			sourceFileCorpusSet[0] = corpus.getClassPart();
-    			sourceFileCorpusSet[1] = corpus.getMethodPart();
-    			sourceFileCorpusSet[2] = corpus.getVariablePart();
-    			sourceFileCorpusSet[3] = corpus.getCommentPart();
-    			double[] sourceFileNormSet = new double[4];
-    			sourceFileNormSet[0] = corpus.getClassCorpusNorm();
-    			sourceFileNormSet[1] = corpus.getMethodCorpusNorm();
-    			sourceFileNormSet[2] = corpus.getVariableCorpusNorm();
-    			sourceFileNormSet[3] = corpus.getCommentCorpusNorm();
-    			
-    			BugCorpus bugCorpus = bug.getCorpus();
-    			String[] bugCorpusParts = new String[2];
-    			bugCorpusParts[0] = bugCorpus.getSummaryPart();
-    			bugCorpusParts[1] = bugCorpus.getDescriptionPart();
-    			double[] bugNormSet = new double[2];
-    			bugNormSet[0] = bugCorpus.getSummaryCorpusNorm();
-    			bugNormSet[1] = bugCorpus.getDecriptionCorpusNorm();
-    					
-    			for (int i = 0; i < sourceFileCorpusSet.length; i++) {
-    				for (int j = 0; j < bugCorpusParts.length; j++) {
-    					if (sourceFileCorpusSet[i] == "" || bugCorpusParts[j] == "") {
-    						continue;
-    					}
-    					
-    					String[] sourceFileTerms = sourceFileCorpusSet[i].split(" ");
-    					String[] bugTerms = bugCorpusParts[j].split(" ");
-    					HashSet<String> bugTermSet = new HashSet<String>();
-    					for (int k = 0; k < bugTerms.length; k++) {
-    						bugTermSet.add(bugTerms[k]);
-    					}
-    					
-    					double cosineSimilarityScore = 0.0;
-    					for (int k = 0; k < sourceFileTerms.length; k++) {
-    						if (bugTermSet.contains(sourceFileTerms[k])) {
-    							if (null == sourceFileTermMap.get(sourceFileTerms[k])) {
-    								System.out.printf("Exception occurred term: %s\n", sourceFileTerms[k]);
-    								continue;
-    							}
-    							
-    							AnalysisValue sourceFileTermValue = sourceFileTermMap.get(sourceFileTerms[k]);
-    							double sourceFileTermWeight = sourceFileTermValue.getIdf() * sourceFileTermValue.getIdf();
-    							
-    							double bugTermWeight = 0;
-    							AnalysisValue bugTermValue = bugSfTermMap.get(sourceFileTerms[k]);
-    							if (null != bugTermValue) {
-    								bugTermWeight = bugTermValue.getTf() * bugTermValue.getIdf();
-    							} 
-    							
-    							cosineSimilarityScore += (bugTermWeight * sourceFileTermWeight);
-    						}
-    					}
-    					
-    					if (cosineSimilarityScore != 0 && sourceFileNormSet[i] != 0 && bugNormSet[j] != 0) {
-    						
-    						// debug code
-//    						if (bug.getID().contains("59895")) {
-//    							if (sourceFileName.contains("org.aspectj.ajdt.internal.core.builder.AjState.java") ||
-//    									sourceFileName.contains("org.aspectj.ajdt.internal.core.builder.AjBuildManager.java") ||
-//    									sourceFileName.contains("org.aspectj.ajdt.internal.core.builder.AjBuildConfig.java")) {
-//    								System.out.printf("source: %s, cosineScore: %f, sourceNormSet[%d]: %f, bugNormSet[%d]: %f, vsmScore: %f\n",
-//    										sourceFileName, cosineSimilarityScore, i, sourceFileNormSet[i], j, bugNormSet[j],
-//    										(cosineSimilarityScore / (sourceFileNormSet[i] * bugNormSet[j])));
-//    							}
-//    						}
-    						
-    						double weight = 1;
-    						if (i == 3) {
-    							weight = 0.5;	// weight 0.3~0.5 is best for AspectJ
-    						}
-    						vsmScore += (cosineSimilarityScore / (sourceFileNormSet[i] * bugNormSet[j])) * weight;
-    					}
-    				}
-    			}
-
-    			// debug code
-//    			if (bug.getID().contains("59895")) {
-//    				if (sourceFileName.contains("org.aspectj.ajdt.internal.core.builder.AjState.java") ||
-//    						sourceFileName.contains("org.aspectj.ajdt.internal.core.builder.AjBuildManager.java") ||
-//    						sourceFileName.contains("org.aspectj.ajdt.internal.core.builder.AjBuildConfig.java")) {
-//    					System.out.printf("source: %s, vsmScore: %f, LengthScore: %f, finalVsmScore: %f\n",
-//    							sourceFileName, vsmScore, sourceFileDAO.getLengthScore(sourceFileVersionID),
-//    							vsmScore * sourceFileDAO.getLengthScore(sourceFileVersionID));
-//    				}
-//    			}
-    			
-    			vsmScore = vsmScore * sourceFileLengthScoreMap.get(sourceFileVersionID);
-    			
-    			if (vsmScore > 0) {
-	    			IntegratedAnalysisValue integratedAnalysisValue = new IntegratedAnalysisValue();
-	    			integratedAnalysisValue.setBugID(bug.getID());
-	    			integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionID);
-	    			integratedAnalysisValue.setVsmScore(vsmScore);
-	    			
-	    			vsmScoreSet.add(vsmScore);
-	    			integratedAnalysisValueList.add(integratedAnalysisValue);
-    			}
-    		}
-    		
-    		double limitVsmScore = 0;
-    		int candidateLimitSize = Integer.MAX_VALUE;
-    		
-    		if (Property.getInstance().getCandidateLimitRate() != 1.0) {
-    			candidateLimitSize = (int) (Property.getInstance().getFileCount() * Property.getInstance().getCandidateLimitRate());
-    		}
-
-    		if (vsmScoreSet.size() > candidateLimitSize) {
-//    			System.out.printf(">>> candidateLimitSize: %d\n", candidateLimitSize);
-    			limitVsmScore = (Double) (vsmScoreSet.descendingSet().toArray()[candidateLimitSize -1]);
-    		}
-    		
-//    		System.out.printf(">>> limitVsmScore: %f\n", limitVsmScore);
-//    		int count = 0; // for test
+    		// Only top candidates are scored and inserted when the candidate limit is used
+    		int candidateLimitSize = Property.getInstance().getCandidateLimitSize();
+    		ArrayList<IntegratedAnalysisValue> integratedAnalysisValueList = vsmIndex.score(bug.getID(), bug.getCorpus(), bugSfTermMap, candidateLimitSize);
     		for (IntegratedAnalysisValue integratedAnalysisValue:integratedAnalysisValueList) {
-				if (integratedAnalysisValue.getVsmScore() >= limitVsmScore) {
-					integratedAnalysisDAO.insertAnalysisVaule(integratedAnalysisValue);
-//					count++;
-				}
+				scoreMatrix.insertAnalysisVaule(integratedAnalysisValue);
     		}
-//    		System.out.printf(">>> vsmScoreSet.size(): %d, Count: %d\n", vsmScoreSet.size(), count);
     	}
     }
 }
@@ -9,25 +9,32 @@ package edu.skku.selab.blp.blia.analysis;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.HashSet;
 
-import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.common.Bug;
-import edu.skku.selab.blp.db.IntegratedAnalysisValue;
-import edu.skku.selab.blp.db.dao.IntegratedAnalysisDAO;
-import edu.skku.selab.blp.db.dao.SourceFileDAO;
+import edu.skku.selab.blp.db.IntegratedScoreMatrix;
+import edu.skku.selab.blp.utils.StageExecutor;
 
 
 /**
+ * Stack trace classes of a bug get 1/rank within rank 10 and DEFAULT_BOOST_SCORE above rank 10 as STRACE_SCORE.
+ * Ranks are positions in the stack trace classes, and only the first position of a class is scored.
+ * 
+ * Classes of the version imported by stack trace classes get DEFAULT_BOOST_SCORE unless their source files are scored.
+ * 
+ * Classes are resolved with ClassImportGraph of the bug version which is loaded once,
+ * and scores of a bug are updated in one bulk update.
+ * Same as before, scores are updated only if one of the stack trace classes has imports.
+ * 
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
  *
  */
 public class StackTraceAnalyzer {
 	private final static double DEFAULT_BOOST_SCORE = 0.1;
+	private final static int MAX_RANK = 10;
 	private ArrayList<Bug> bugs;
-	private HashMap<String, HashMap<String, String>> classNamesMap = null;
+	// <Version, class import graph>
+	private HashMap<String, ClassImportGraph> graphs = null;
 	
 	public StackTraceAnalyzer() {
 		bugs = null;
@@ -37,7 +44,7 @@ public class StackTraceAnalyzer {
     	this.bugs = bugs;
     }
     
-    private class WorkerThread implements Runnable {
+    private class WorkerThread implements StageExecutor.Task {
     	private Bug bug;
     	
         public WorkerThread(Bug bug){
@@ -45,114 +52,91 @@ public class StackTraceAnalyzer {
         }
      
         @Override
-        public void run() {
+        public void run() throws Exception {
 			// Compute similarity between Bug report & source files
         	
-        	try {
-        		insertDataToDb();
-        	} catch (Exception e) {
-        		e.printStackTrace();
-        	}
+        	insertDataToDb();
         }
         
         private void insertDataToDb() throws Exception {
-    		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-    		IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
-        	
-			String version = bug.getVersion();
-			HashMap<String, IntegratedAnalysisValue> stackTraceAnalysisValues = new HashMap<String, IntegratedAnalysisValue>();
-			HashMap<String, IntegratedAnalysisValue> importedClassAnalysisValues = new HashMap<String, IntegratedAnalysisValue>();
 			ArrayList<String> stackTraceClasses = bug.getStackTraceClasses();
-			
 			if (null == stackTraceClasses) {
 				return;
 			}
 			
-			HashMap<String, String> classNames = classNamesMap.get(version);
+			ClassImportGraph graph = graphs.get(bug.getVersion());
+			int[] stackTraceClassIndexes = new int[stackTraceClasses.size()];
+			double[] stackTraceClassScores = new double[stackTraceClasses.size()];
+			int stackTraceClassCount = 0;
+			int importCount = 0;
+			HashSet<Integer> scoredClassIndexes = new HashSet<Integer>();
 			for (int j = 0; j < stackTraceClasses.size(); j++) {
-				int currentRank = j + 1;
+				int classIndex = graph.getClassIndex(stackTraceClasses.get(j));
+				if (-1 == classIndex || !scoredClassIndexes.add(classIndex)) {
+					continue;
+				}
 				
-				String className = stackTraceClasses.get(j);
-				String fileName;
-				if (!stackTraceAnalysisValues.containsKey(className) && classNames.containsKey(className)) {
-					IntegratedAnalysisValue stackTraceAnalysisValue = new IntegratedAnalysisValue();
-					stackTraceAnalysisValue.setBugID(bug.getID());
-					
-					fileName = classNames.get(className);
-					int sourceFileVersionID = sourceFileDAO.getSourceFileVersionID(fileName, version);
-					stackTraceAnalysisValue.setSourceFileVersionID(sourceFileVersionID);
-					
-					if (j < 10) {
-						// set boostscore for class in stack-trace within rank 10
-						stackTraceAnalysisValue.setStackTraceScore(1.0 / currentRank);
-					} else {
-						// set boostscore, 0.1 for class in stack-trace above rank 10
-						stackTraceAnalysisValue.setStackTraceScore(DEFAULT_BOOST_SCORE);
-					}
-					stackTraceAnalysisValues.put(className, stackTraceAnalysisValue);
+				stackTraceClassIndexes[stackTraceClassCount] = classIndex;
+				if (j < MAX_RANK) {
+					// set boostscore for class in stack-trace within rank 10
+					stackTraceClassScores[stackTraceClassCount] = 1.0 / (j + 1);
+				} else {
+					// set boostscore, 0.1 for class in stack-trace above rank 10
+					stackTraceClassScores[stackTraceClassCount] = DEFAULT_BOOST_SCORE;
 				}
+				importCount += graph.getImportCount(classIndex);
+				stackTraceClassCount++;
 			}
 			
-			for (int j = 0; j < stackTraceClasses.size(); j++) {
-				String className = stackTraceClasses.get(j);
-				String fileName = classNames.get(className);
-				ArrayList<String> importedClasses = sourceFileDAO.getImportedClasses(version, fileName);
-				
-				if (null == importedClasses) {
-					continue;
-				}
-				
-				// find import files and filter them => set C
-				// give boostscore to set C		
-				for (int k = 0; k < importedClasses.size(); k++) {
-					if (!stackTraceAnalysisValues.containsKey(className) &&
-							!importedClassAnalysisValues.containsKey(className) && classNames.containsKey(className)) {
-						IntegratedAnalysisValue importedClassAnalysisValue = new IntegratedAnalysisValue();
-						importedClassAnalysisValue.setBugID(bug.getID());
-						
-						int sourceFileVersionID = sourceFileDAO.getSourceFileVersionID(fileName, version);
-						importedClassAnalysisValue.setSourceFileVersionID(sourceFileVersionID);
-						importedClassAnalysisValue.setStackTraceScore(DEFAULT_BOOST_SCORE);
-						
-						importedClassAnalysisValues.put(className, importedClassAnalysisValue);
+			int[] sourceFileVersionIDs = new int[stackTraceClassCount + importCount];
+			double[] stackTraceScores = new double[stackTraceClassCount + importCount];
+			HashSet<Integer> scoredSourceFileVersionIDs = new HashSet<Integer>();
+			for (int j = 0; j < stackTraceClassCount; j++) {
+				sourceFileVersionIDs[j] = graph.getSourceFileVersionID(stackTraceClassIndexes[j]);
+				stackTraceScores[j] = stackTraceClassScores[j];
+				scoredSourceFileVersionIDs.add(sourceFileVersionIDs[j]);
+			}
+			
+			// find import files and filter them => set C
+			// give boostscore to set C
+			int scoredCount = stackTraceClassCount;
+			for (int j = 0; j < stackTraceClassCount; j++) {
+				int classIndex = stackTraceClassIndexes[j];
+				for (int k = 0; k < graph.getImportCount(classIndex); k++) {
+					int importedClassIndex = graph.getImportedClassIndex(classIndex, k);
+					if (-1 == importedClassIndex || !scoredClassIndexes.add(importedClassIndex)) {
+						continue;
+					}
+					
+					int sourceFileVersionID = graph.getSourceFileVersionID(importedClassIndex);
+					if (scoredSourceFileVersionIDs.add(sourceFileVersionID)) {
+						sourceFileVersionIDs[scoredCount] = sourceFileVersionID;
+						stackTraceScores[scoredCount] = DEFAULT_BOOST_SCORE;
+						scoredCount++;
 					}
-				}
-				
-				Iterator<IntegratedAnalysisValue> analysisValuesIter = stackTraceAnalysisValues.values().iterator();
-				while (analysisValuesIter.hasNext()) {
-					integratedAnalysisDAO.updateStackTraceScore(analysisValuesIter.next());
-				}
-				
-				analysisValuesIter = importedClassAnalysisValues.values().iterator();
-				while (analysisValuesIter.hasNext()) {
-					integratedAnalysisDAO.updateStackTraceScore(analysisValuesIter.next());
 				}
 			}
+			
+			IntegratedScoreMatrix.getInstance().updateScores(bug.getID(), IntegratedScoreMatrix.STRACE_SCORE,
+					sourceFileVersionIDs, stackTraceScores, scoredCount);
         }
     }
 	
 	public void analyze() throws Exception {
-		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-		
-		classNamesMap = new HashMap<String, HashMap<String, String>>();
+		graphs = new HashMap<String, ClassImportGraph>();
 		for (int i = 0; i < bugs.size(); i++) {
-			Bug bug = bugs.get(i);
-			String version = bug.getVersion();
-			
-			if (!classNamesMap.containsKey(version)) {
-				HashMap<String, String> classNames = sourceFileDAO.getClassNames(version);
-				classNamesMap.put(version, classNames);
+			String version = bugs.get(i).getVersion();
+			if (!graphs.containsKey(version)) {
+				graphs.put(version, ClassImportGraph.load(version));
 			}
 		}
 		
-		ExecutorService executor = Executors.newFixedThreadPool(Property.THREAD_COUNT);
+		StageExecutor executor = new StageExecutor("Stack-trace analysis");
 		for (int i = 0; i < bugs.size(); i++) {
-			Runnable worker = new WorkerThread(bugs.get(i));
-			executor.execute(worker);
+			StageExecutor.Task worker = new WorkerThread(bugs.get(i));
+			executor.submit(worker);
 		}
 		
-		executor.shutdown();
-		while (!executor.isTerminated()) {
-		}
+		executor.await();
 	}
 }
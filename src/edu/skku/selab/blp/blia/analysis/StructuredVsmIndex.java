@@ -0,0 +1,396 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import edu.skku.selab.blp.common.BugCorpus;
+import edu.skku.selab.blp.common.SourceFileCorpus;
+import edu.skku.selab.blp.db.AnalysisValue;
+import edu.skku.selab.blp.db.IntegratedAnalysisValue;
+import edu.skku.selab.blp.db.TermDictionary;
+import edu.skku.selab.blp.utils.TopKHeap;
+
+/**
+ * Inverted index of the structured source file corpus (class, method, variable and comment part).
+ *
+ * A posting keeps the term weight of one field of one source file, which is already divided by the field norm
+ * and multiplied by the field weight. So a bug is scored only with source files sharing its terms,
+ * by accumulating the postings of the bug terms.
+ * Postings are found with term IDs of the term dictionary, not with term strings.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class StructuredVsmIndex {
+	final public static int CLASS_PART = 0;
+	final public static int METHOD_PART = 1;
+	final public static int VARIABLE_PART = 2;
+	final public static int COMMENT_PART = 3;
+	final public static int FIELD_COUNT = 4;
+
+	// weight 0.3~0.5 of comment part is best for AspectJ
+	final private static double[] FIELD_WEIGHTS = {1.0, 1.0, 1.0, 0.5};
+	// Upper bounds are loosened a little against rounding errors of floating point sums
+	final private static double BOUND_SLACK = 1.0 + 1e-9;
+
+	/**
+	 * Source files and weights of one term in one field
+	 */
+	private static class Postings {
+		private int size = 0;
+		private int[] fileIndexes = new int[4];
+		private double[] weights = new double[4];
+		// Largest weight multiplied by the length score of its file, upper bound of the VSM score
+		private double maxScaledWeight = 0;
+
+		public void add(int fileIndex, double weight, double lengthScore) {
+			if (size == fileIndexes.length) {
+				fileIndexes = Arrays.copyOf(fileIndexes, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			fileIndexes[size] = fileIndex;
+			weights[size] = weight;
+			size++;
+			maxScaledWeight = Math.max(maxScaledWeight, weight * lengthScore);
+		}
+	}
+
+	private TermDictionary termDictionary;
+	// <term ID, postings of each field>
+	private Postings[][] termPostingsList;
+	private int[] sourceFileVersionIDs;
+	private double[] lengthScores;
+	private int termCount;
+	private int postingCount;
+
+	/**
+	 * @param sourceFileVersionIDs <source file name, source file version ID>
+	 * @param sourceFileTermMaps <source file version ID, <term, analysis value>>
+	 * @param sourceFileCorpusMap <source file version ID, corpus>
+	 * @param sourceFileLengthScoreMap <source file version ID, length score>
+	 */
+	public StructuredVsmIndex(HashMap<String, Integer> sourceFileVersionIDs,
+			HashMap<Integer, HashMap<String, AnalysisValue>> sourceFileTermMaps,
+			HashMap<Integer, SourceFileCorpus> sourceFileCorpusMap,
+			HashMap<Integer, Double> sourceFileLengthScoreMap) {
+		int fileCount = sourceFileVersionIDs.size();
+		this.sourceFileVersionIDs = new int[fileCount];
+		lengthScores = new double[fileCount];
+		termDictionary = TermDictionary.getInstance();
+		termPostingsList = new Postings[termDictionary.size()][];
+		termCount = 0;
+		postingCount = 0;
+
+		int fileIndex = 0;
+		Iterator<Integer> sourceFileVersionIDIter = sourceFileVersionIDs.values().iterator();
+		while (sourceFileVersionIDIter.hasNext()) {
+			int sourceFileVersionID = sourceFileVersionIDIter.next();
+			this.sourceFileVersionIDs[fileIndex] = sourceFileVersionID;
+			Double lengthScore = sourceFileLengthScoreMap.get(sourceFileVersionID);
+			lengthScores[fileIndex] = (null == lengthScore) ? 0.0 : lengthScore;
+
+			HashMap<String, AnalysisValue> sourceFileTermMap = sourceFileTermMaps.get(sourceFileVersionID);
+			SourceFileCorpus corpus = sourceFileCorpusMap.get(sourceFileVersionID);
+			if (null != sourceFileTermMap && null != corpus) {
+				addField(fileIndex, CLASS_PART, corpus.getClassPartTermIDs(), corpus.getClassCorpusNorm(), sourceFileTermMap);
+				addField(fileIndex, METHOD_PART, corpus.getMethodPartTermIDs(), corpus.getMethodCorpusNorm(), sourceFileTermMap);
+				addField(fileIndex, VARIABLE_PART, corpus.getVariablePartTermIDs(), corpus.getVariableCorpusNorm(), sourceFileTermMap);
+				addField(fileIndex, COMMENT_PART, corpus.getCommentPartTermIDs(), corpus.getCommentCorpusNorm(), sourceFileTermMap);
+			}
+			fileIndex++;
+		}
+	}
+
+	private void addField(int fileIndex, int field, int[] fieldTermIDs, double fieldNorm,
+			HashMap<String, AnalysisValue> sourceFileTermMap) {
+		if (null == fieldTermIDs || 0 == fieldTermIDs.length || 0 == fieldNorm) {
+			return;
+		}
+
+		// Same term in a field is counted as many as it appears, so count runs of sorted term IDs
+		int[] sortedTermIDs = Arrays.copyOf(fieldTermIDs, fieldTermIDs.length);
+		Arrays.sort(sortedTermIDs);
+		int runStart = 0;
+		while (runStart < sortedTermIDs.length) {
+			int termID = sortedTermIDs[runStart];
+			int runEnd = runStart + 1;
+			while (runEnd < sortedTermIDs.length && sortedTermIDs[runEnd] == termID) {
+				runEnd++;
+			}
+			int termFrequency = runEnd - runStart;
+			runStart = runEnd;
+
+			AnalysisValue sourceFileTermValue = sourceFileTermMap.get(termDictionary.getTerm(termID));
+			if (null == sourceFileTermValue) {
+				continue;
+			}
+
+			double termWeight = sourceFileTermValue.getIdf() * sourceFileTermValue.getIdf();
+			double weight = termFrequency * termWeight * FIELD_WEIGHTS[field] / fieldNorm;
+			if (0 == weight) {
+				continue;
+			}
+
+			if (termID >= termPostingsList.length) {
+				termPostingsList = Arrays.copyOf(termPostingsList, Math.max(termID + 1, termPostingsList.length * 2));
+			}
+			Postings[] termPostings = termPostingsList[termID];
+			if (null == termPostings) {
+				termPostings = new Postings[FIELD_COUNT];
+				termPostingsList[termID] = termPostings;
+				termCount++;
+			}
+			if (null == termPostings[field]) {
+				termPostings[field] = new Postings();
+			}
+			termPostings[field].add(fileIndex, weight, lengthScores[fileIndex]);
+			postingCount++;
+		}
+	}
+
+	/**
+	 * Postings of one bug term in one field with the weight of the bug term
+	 */
+	private static class QueryPostings {
+		private Postings postings;
+		private double bugTermWeight;
+		private double upperBound;
+
+		public QueryPostings(Postings postings, double bugTermWeight) {
+			this.postings = postings;
+			this.bugTermWeight = bugTermWeight;
+			upperBound = postings.maxScaledWeight * bugTermWeight;
+		}
+	}
+
+	/**
+	 * Calculate VSM scores of the bug with the source files sharing at least one term
+	 *
+	 * @param bugID
+	 * @param bugCorpus summary and description part of the bug
+	 * @param bugSfTermMap <term, analysis value> of the bug with IDF of source files
+	 * @return values of positive VSM score in the index order of source files
+	 */
+	public ArrayList<IntegratedAnalysisValue> score(int bugID, BugCorpus bugCorpus, HashMap<String, AnalysisValue> bugSfTermMap) {
+		return score(bugID, bugCorpus, bugSfTermMap, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Calculate VSM scores of the bug with the source files which can be in top limitSize.
+	 *
+	 * Source files whose score upper bound is below the K-th largest score found so far are skipped
+	 * without being fully scored (MaxScore). Files tied with the K-th largest score are all returned.
+	 *
+	 * @param bugID
+	 * @param bugCorpus summary and description part of the bug
+	 * @param bugSfTermMap <term, analysis value> of the bug with IDF of source files
+	 * @param limitSize count of top source files to return
+	 * @return values of positive VSM score in the index order of source files
+	 */
+	public ArrayList<IntegratedAnalysisValue> score(int bugID, BugCorpus bugCorpus, HashMap<String, AnalysisValue> bugSfTermMap,
+			int limitSize) {
+		ArrayList<QueryPostings> queryPostingsList = getQueryPostingsList(bugCorpus, bugSfTermMap);
+		if (limitSize >= sourceFileVersionIDs.length) {
+			return scoreAll(bugID, queryPostingsList);
+		}
+		return scoreTopK(bugID, queryPostingsList, limitSize);
+	}
+
+	private ArrayList<QueryPostings> getQueryPostingsList(BugCorpus bugCorpus, HashMap<String, AnalysisValue> bugSfTermMap) {
+		ArrayList<QueryPostings> queryPostingsList = new ArrayList<QueryPostings>();
+
+		int[][] bugCorpusTermIDs = {bugCorpus.getSummaryPartTermIDs(), bugCorpus.getDescriptionPartTermIDs()};
+		double[] bugNorms = {bugCorpus.getSummaryCorpusNorm(), bugCorpus.getDecriptionCorpusNorm()};
+		for (int i = 0; i < bugCorpusTermIDs.length; i++) {
+			if (null == bugCorpusTermIDs[i] || 0 == bugCorpusTermIDs[i].length || 0 == bugNorms[i]) {
+				continue;
+			}
+
+			// Each distinct term of the bug part is scored once
+			int[] bugTermIDs = Arrays.copyOf(bugCorpusTermIDs[i], bugCorpusTermIDs[i].length);
+			Arrays.sort(bugTermIDs);
+			for (int j = 0; j < bugTermIDs.length; j++) {
+				int bugTermID = bugTermIDs[j];
+				if ((j > 0 && bugTermIDs[j - 1] == bugTermID) || bugTermID < 0 || bugTermID >= termPostingsList.length) {
+					continue;
+				}
+
+				Postings[] termPostings = termPostingsList[bugTermID];
+				if (null == termPostings) {
+					continue;
+				}
+				AnalysisValue bugTermValue = bugSfTermMap.get(termDictionary.getTerm(bugTermID));
+				if (null == bugTermValue) {
+					continue;
+				}
+
+				double bugTermWeight = bugTermValue.getTf() * bugTermValue.getIdf() / bugNorms[i];
+				if (0 == bugTermWeight) {
+					continue;
+				}
+
+				for (int field = 0; field < FIELD_COUNT; field++) {
+					if (null != termPostings[field]) {
+						queryPostingsList.add(new QueryPostings(termPostings[field], bugTermWeight));
+					}
+				}
+			}
+		}
+		return queryPostingsList;
+	}
+
+	private IntegratedAnalysisValue createAnalysisValue(int bugID, int fileIndex, double vsmScore) {
+		IntegratedAnalysisValue integratedAnalysisValue = new IntegratedAnalysisValue();
+		integratedAnalysisValue.setBugID(bugID);
+		integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionIDs[fileIndex]);
+		integratedAnalysisValue.setVsmScore(vsmScore);
+		return integratedAnalysisValue;
+	}
+
+	private ArrayList<IntegratedAnalysisValue> scoreAll(int bugID, ArrayList<QueryPostings> queryPostingsList) {
+		double[] scores = new double[sourceFileVersionIDs.length];
+		boolean[] touched = new boolean[sourceFileVersionIDs.length];
+		int[] touchedIndexes = new int[16];
+		int touchedCount = 0;
+
+		for (int i = 0; i < queryPostingsList.size(); i++) {
+			Postings postings = queryPostingsList.get(i).postings;
+			double bugTermWeight = queryPostingsList.get(i).bugTermWeight;
+			for (int k = 0; k < postings.size; k++) {
+				int fileIndex = postings.fileIndexes[k];
+				if (!touched[fileIndex]) {
+					touched[fileIndex] = true;
+					if (touchedCount == touchedIndexes.length) {
+						touchedIndexes = Arrays.copyOf(touchedIndexes, touchedCount * 2);
+					}
+					touchedIndexes[touchedCount++] = fileIndex;
+				}
+				scores[fileIndex] += postings.weights[k] * bugTermWeight;
+			}
+		}
+
+		Arrays.sort(touchedIndexes, 0, touchedCount);
+		ArrayList<IntegratedAnalysisValue> integratedAnalysisValues = new ArrayList<IntegratedAnalysisValue>();
+		for (int i = 0; i < touchedCount; i++) {
+			int fileIndex = touchedIndexes[i];
+			double vsmScore = scores[fileIndex] * lengthScores[fileIndex];
+			if (vsmScore > 0) {
+				integratedAnalysisValues.add(createAnalysisValue(bugID, fileIndex, vsmScore));
+			}
+		}
+		return integratedAnalysisValues;
+	}
+
+	private ArrayList<IntegratedAnalysisValue> scoreTopK(int bugID, ArrayList<QueryPostings> queryPostingsList, int limitSize) {
+		// Postings of small upper bound first, so the first ones become non-essential as the threshold grows
+		QueryPostings[] queryPostingsArray = queryPostingsList.toArray(new QueryPostings[queryPostingsList.size()]);
+		Arrays.sort(queryPostingsArray, new Comparator<QueryPostings>() {
+			@Override
+			public int compare(QueryPostings first, QueryPostings second) {
+				return Double.compare(first.upperBound, second.upperBound);
+			}
+		});
+
+		int listCount = queryPostingsArray.length;
+		double[] upperBoundSums = new double[listCount];
+		for (int i = 0; i < listCount; i++) {
+			upperBoundSums[i] = ((i > 0) ? upperBoundSums[i - 1] : 0) + queryPostingsArray[i].upperBound * BOUND_SLACK;
+		}
+
+		TopKHeap topK = new TopKHeap(limitSize);
+		int[] cursors = new int[listCount];
+		int[] candidateIndexes = new int[16];
+		double[] candidateScores = new double[16];
+		int candidateCount = 0;
+
+		// Files only in non-essential postings can't reach the threshold
+		int firstEssential = 0;
+		while (true) {
+			double threshold = topK.getThreshold();
+			while (firstEssential < listCount && upperBoundSums[firstEssential] < threshold) {
+				firstEssential++;
+			}
+
+			int fileIndex = Integer.MAX_VALUE;
+			for (int i = firstEssential; i < listCount; i++) {
+				Postings postings = queryPostingsArray[i].postings;
+				if (cursors[i] < postings.size && postings.fileIndexes[cursors[i]] < fileIndex) {
+					fileIndex = postings.fileIndexes[cursors[i]];
+				}
+			}
+			if (Integer.MAX_VALUE == fileIndex) {
+				break;
+			}
+
+			double score = 0;
+			for (int i = firstEssential; i < listCount; i++) {
+				Postings postings = queryPostingsArray[i].postings;
+				if (cursors[i] < postings.size && postings.fileIndexes[cursors[i]] == fileIndex) {
+					score += postings.weights[cursors[i]] * queryPostingsArray[i].bugTermWeight;
+					cursors[i]++;
+				}
+			}
+
+			double lengthScore = lengthScores[fileIndex];
+			boolean pruned = false;
+			for (int i = firstEssential - 1; i >= 0; i--) {
+				if (score * lengthScore + upperBoundSums[i] < threshold) {
+					pruned = true;
+					break;
+				}
+
+				Postings postings = queryPostingsArray[i].postings;
+				int position = Arrays.binarySearch(postings.fileIndexes, cursors[i], postings.size, fileIndex);
+				if (position >= 0) {
+					score += postings.weights[position] * queryPostingsArray[i].bugTermWeight;
+					cursors[i] = position + 1;
+				} else {
+					cursors[i] = -(position + 1);
+				}
+			}
+
+			double vsmScore = score * lengthScore;
+			if (!pruned && vsmScore > 0 && topK.offer(vsmScore)) {
+				if (candidateCount == candidateIndexes.length) {
+					candidateIndexes = Arrays.copyOf(candidateIndexes, candidateCount * 2);
+					candidateScores = Arrays.copyOf(candidateScores, candidateCount * 2);
+				}
+				candidateIndexes[candidateCount] = fileIndex;
+				candidateScores[candidateCount] = vsmScore;
+				candidateCount++;
+			}
+		}
+
+		// Candidates were found in the index order of source files
+		double threshold = topK.getThreshold();
+		ArrayList<IntegratedAnalysisValue> integratedAnalysisValues = new ArrayList<IntegratedAnalysisValue>();
+		for (int i = 0; i < candidateCount; i++) {
+			if (candidateScores[i] >= threshold) {
+				integratedAnalysisValues.add(createAnalysisValue(bugID, candidateIndexes[i], candidateScores[i]));
+			}
+		}
+		return integratedAnalysisValues;
+	}
+
+	public int getFileCount() {
+		return sourceFileVersionIDs.length;
+	}
+
+	public int getTermCount() {
+		return termCount;
+	}
+
+	public int getPostingCount() {
+		return postingCount;
+	}
+}
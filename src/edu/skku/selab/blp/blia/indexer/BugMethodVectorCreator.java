@@ -13,7 +13,6 @@ import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.TreeSet;
 
-import edu.skku.selab.blp.common.FileParser;
 import edu.skku.selab.blp.common.Method;
 import edu.skku.selab.blp.db.AnalysisValue;
 import edu.skku.selab.blp.db.IntegratedAnalysisValue;
@@ -97,8 +96,7 @@ public class BugMethodVectorCreator extends BugSourceFileVectorCreator {
 					Method method = methods.get(j);
 					String methodName = method.getName();
 					
-					String methodInfo[] = FileParser.splitContent(methodName);
-					String stems = SourceFileCorpusCreator.stemContent(methodName) + SourceFileCorpusCreator.stemContent(methodInfo);
+					String stems = SourceFileCorpusCreator.stemContent(methodName) + SourceFileCorpusCreator.stemSourceCode(methodName);
 					String terms[] = stems.split(" ");
 					
 					// get term count
@@ -166,115 +164,5 @@ public class BugMethodVectorCreator extends BugSourceFileVectorCreator {
 			methodNorm = Math.sqrt(methodNorm);
 			bugDAO.updateMthNormValues(bugID, methodNorm);			
 		}
-		
-////////////////////////////////////////////////////////////////////////////////////////
-//		HashMap<Integer, Bug> bugs = bugDAO.getBugs();
-//		
-//		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-//		HashMap<String, Integer> sourceFileTermMap = sourceFileDAO.getTermMap();
-//		
-//		SourceFileVectorCreator sourceFileVectorCreator = new SourceFileVectorCreator(); 
-//		Hashtable<String, Integer> inverseDocCountTable = sourceFileVectorCreator.getInverseDocCountTable(version);
-//		int fileCount = sourceFileDAO.getSourceFileCount(version);
-//		
-//		int bugID = 0;
-//		int totalTermCount = 0;
-//		int bugTermCount = 0;
-//		int inverseDocCount = 0;
-//		double tf = 0.0;
-//		double idf = 0.0;
-//		double termWeight = 0.0;
-//		String bugTerm = "";
-//		Iterator<Integer> bugsIter = bugs.keySet().iterator();
-//		while (bugsIter.hasNext()) {
-//			// calculate term count, IDC, TF and IDF
-//			bugID = bugsIter.next();
-//			
-//			// debug code
-////			if (bugID.contains("99145")) {
-////				System.out.println("BugSourceFileVectorCreator.create(): " + bugID);
-////			}
-//
-//			Bug bug = bugs.get(bugID);
-//			
-//			String bugCorpusContent = bug.getCorpusContent();
-//			
-//			// get term count
-//			String bugTermArray[] = bugCorpusContent.split(" ");
-//			Hashtable<String, Integer> bugTermTable = new Hashtable<String, Integer>();
-//			for (int i = 0; i < bugTermArray.length; i++) {
-//				bugTerm = bugTermArray[i];
-//				if (!bugTerm.trim().equals("")) {
-//					if (bugTermTable.containsKey(bugTerm)) {
-//						Integer count = (Integer) bugTermTable.get(bugTerm);
-//						count = Integer.valueOf(count.intValue() + 1);
-//						bugTermTable.remove(bugTerm);
-//						bugTermTable.put(bugTerm, count);
-//					} else {
-//						bugTermTable.put(bugTerm, Integer.valueOf(1));
-//					}
-//				}
-//			}
-//			
-//			totalTermCount = 0;
-//			// calculate totalTermCount
-//			Iterator<String> bugTermTableIter = bugTermTable.keySet().iterator();
-//			while (bugTermTableIter.hasNext()) {
-//				bugTerm = bugTermTableIter.next();
-//				bugTermCount = bugTermTable.get(bugTerm);
-//				
-//				if (sourceFileTermMap.containsKey(bugTerm)) {
-//					totalTermCount += bugTermCount;
-//				}
-////						System.out.printf("Corpus: %s, termCount: %d\n", corpus, termCount);
-//			}
-//			
-//			bugDAO.updateTotalTermCount(bugID, totalTermCount);
-////				System.out.printf("totalTermCount: %d\n", totalTermCount);
-//			
-//			double corpusNorm = 0.0D;
-//			double summaryCorpusNorm = 0.0D;
-//			double descriptionCorpusNorm = 0.0D;
-//
-//			HashSet<String> summaryTermSet = SourceFileVectorCreator.CorpusToSet(bug.getCorpus().getSummaryPart());
-//			HashSet<String> descriptionTermSet = SourceFileVectorCreator.CorpusToSet(bug.getCorpus().getDescriptionPart());
-//
-//			bugTermTableIter = bugTermTable.keySet().iterator();
-//			while (bugTermTableIter.hasNext()) {
-//				bugTerm = bugTermTableIter.next();
-//				
-//				// test code
-////				System.out.println("bugTerm:" + bugTerm);
-//				if (sourceFileTermMap.containsKey(bugTerm)) {
-//					bugTermCount = bugTermTable.get(bugTerm);
-//					inverseDocCount = inverseDocCountTable.get(bugTerm).intValue();
-//					
-//					// calculate TF, IDF, Vector
-//					tf = getTfValue(bugTermCount, totalTermCount);
-//					idf = getIdfValue(inverseDocCount, fileCount);
-//					termWeight = tf * idf;
-//					double termWeightSquare = termWeight * termWeight;
-//					corpusNorm += termWeightSquare;
-//					
-//					if (summaryTermSet.contains(bugTerm)) {
-//						summaryCorpusNorm += termWeightSquare;
-//					}
-//
-//					if (descriptionTermSet.contains(bugTerm)) {
-//						descriptionCorpusNorm += termWeightSquare;
-//					}
-//					
-//					AnalysisValue bugSfTermWeight = new AnalysisValue(bugID, bugTerm, bugTermCount, inverseDocCount, tf, idf);						
-//					bugDAO.insertBugSfTermWeight(bugSfTermWeight);
-//				}
-//			}
-//
-////				System.out.printf("word: %f\n", word);
-//			corpusNorm = Math.sqrt(corpusNorm);
-//			summaryCorpusNorm = Math.sqrt(summaryCorpusNorm);
-//			descriptionCorpusNorm = Math.sqrt(descriptionCorpusNorm);
-//
-//			bugDAO.updateNormValues(bugID, corpusNorm, summaryCorpusNorm, descriptionCorpusNorm);					
-//		}
 	}
 }
@@ -0,0 +1,302 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.indexer;
+
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.text.SimpleDateFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import edu.skku.selab.blp.common.Bug;
+import edu.skku.selab.blp.common.Comment;
+import edu.skku.selab.blp.common.ExtendedCommitInfo;
+import edu.skku.selab.blp.common.Method;
+import edu.skku.selab.blp.db.dao.SourceFileDAO;
+
+/**
+ * Reads bugs of a bug repository XML file with StAX one at a time.
+ *
+ * Only the bug being read is kept in memory. Descriptions and comments of read bugs have the text
+ * of the XML file, so they are parsed and stemmed by BugCorpusCreator.
+ * Bugs can be read in a background thread into a bounded queue with start() and take(),
+ * so they are processed while the rest of the file is read.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class BugRepositoryReader {
+	public interface Visitor {
+		public void visitBug(Bug bug) throws Exception;
+	}
+
+	// Marks the end of bugs in the queue
+	private final static Bug END_OF_BUGS = new Bug();
+	private final static String MODULE_PATH_PREFIX = "org.aspectj/modules/";
+
+	private String bugFilePath;
+	private BlockingQueue<Bug> bugQueue;
+	private Thread readerThread;
+	private volatile Exception failure;
+	private boolean ended;
+
+	public BugRepositoryReader(String bugFilePath) {
+		this.bugFilePath = bugFilePath;
+		bugQueue = null;
+		readerThread = null;
+		failure = null;
+		ended = false;
+	}
+
+	/**
+	 * Read all bugs of the file in the order of them.
+	 *
+	 * @param visitor receives each read bug
+	 * @return count of read bugs
+	 * @throws Exception
+	 */
+	public int read(Visitor visitor) throws Exception {
+		int bugCount = 0;
+		Reader reader = new InputStreamReader(new FileInputStream(bugFilePath), "UTF-8");
+		XMLStreamReader xmlReader = null;
+		try {
+			XMLInputFactory factory = XMLInputFactory.newInstance();
+			factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+			factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+			xmlReader = factory.createXMLStreamReader(reader);
+
+			SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+			int depth = 0;
+			while (xmlReader.hasNext()) {
+				int event = xmlReader.next();
+				if (XMLStreamConstants.START_ELEMENT == event) {
+					depth++;
+					// Elements under the root are bugs
+					if (2 == depth) {
+						Bug bug = readBug(xmlReader, simpleDateFormat);
+						depth--;
+						visitor.visitBug(bug);
+						bugCount++;
+					}
+				} else if (XMLStreamConstants.END_ELEMENT == event) {
+					depth--;
+				}
+			}
+		} finally {
+			if (null != xmlReader) {
+				xmlReader.close();
+			}
+			reader.close();
+		}
+		return bugCount;
+	}
+
+	/**
+	 * Read bugs in a background thread. Read bugs are passed with take().
+	 *
+	 * @param capacity maximum count of bugs which are read but not taken
+	 */
+	public void start(int capacity) {
+		bugQueue = new ArrayBlockingQueue<Bug>((capacity > 0) ? capacity : 1);
+		readerThread = new Thread(new Runnable() {
+			public void run() {
+				try {
+					read(new Visitor() {
+						public void visitBug(Bug bug) throws Exception {
+							bugQueue.put(bug);
+						}
+					});
+				} catch (Exception e) {
+					failure = e;
+				} finally {
+					try {
+						bugQueue.put(END_OF_BUGS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		}, "BugRepositoryReader");
+		readerThread.setDaemon(true);
+		readerThread.start();
+	}
+
+	/**
+	 * @return next bug read by start(), null if all bugs are taken
+	 * @throws Exception failure of reading the file, after bugs read before the failure are taken
+	 */
+	public Bug take() throws Exception {
+		if (ended) {
+			return null;
+		}
+
+		Bug bug = bugQueue.take();
+		if (END_OF_BUGS == bug) {
+			ended = true;
+			readerThread.join();
+			if (null != failure) {
+				throw failure;
+			}
+			return null;
+		}
+		return bug;
+	}
+
+	/**
+	 * Stop reading of start(). Bugs which aren't taken are discarded.
+	 */
+	public void stop() {
+		if (null != readerThread) {
+			readerThread.interrupt();
+			bugQueue.clear();
+			ended = true;
+		}
+	}
+
+	/**
+	 * @return text of the current element and its descendants. The reader is at the end of the element.
+	 */
+	private static String readText(XMLStreamReader xmlReader) throws Exception {
+		StringBuilder text = new StringBuilder();
+		int depth = 1;
+		while (depth > 0) {
+			int event = xmlReader.next();
+			switch (event) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				text.append(xmlReader.getTextCharacters(), xmlReader.getTextStart(), xmlReader.getTextLength());
+				break;
+			case XMLStreamConstants.ENTITY_REFERENCE:
+				text.append(xmlReader.getText());
+				break;
+			default:
+				break;
+			}
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Call next() until the next child element starts or the current element ends.
+	 *
+	 * @return true if a child element starts
+	 */
+	private static boolean nextChildElement(XMLStreamReader xmlReader) throws Exception {
+		while (xmlReader.hasNext()) {
+			int event = xmlReader.next();
+			if (XMLStreamConstants.START_ELEMENT == event) {
+				return true;
+			} else if (XMLStreamConstants.END_ELEMENT == event) {
+				return false;
+			}
+		}
+		return false;
+	}
+
+	private static void skipElement(XMLStreamReader xmlReader) throws Exception {
+		while (nextChildElement(xmlReader)) {
+			skipElement(xmlReader);
+		}
+	}
+
+	private Bug readBug(XMLStreamReader xmlReader, SimpleDateFormat simpleDateFormat) throws Exception {
+		Bug bug = new Bug();
+		bug.setID(Integer.parseInt(xmlReader.getAttributeValue(null, "id")));
+		bug.setOpenDate(simpleDateFormat.parse(xmlReader.getAttributeValue(null, "opendate")));
+		bug.setFixedDate(simpleDateFormat.parse(xmlReader.getAttributeValue(null, "fixdate")));
+
+		while (nextChildElement(xmlReader)) {
+			String name = xmlReader.getLocalName();
+			if (name.equals("buginformation")) {
+				readBugInformation(xmlReader, bug);
+			} else if (name.equals("fixedCommits")) {
+				readFixedCommits(xmlReader, bug);
+			} else {
+				skipElement(xmlReader);
+			}
+		}
+
+		// TODO: set version with default version because there is not affected version for the bug.
+		bug.setVersion(SourceFileDAO.DEFAULT_VERSION_STRING);
+		return bug;
+	}
+
+	private void readBugInformation(XMLStreamReader xmlReader, Bug bug) throws Exception {
+		while (nextChildElement(xmlReader)) {
+			String name = xmlReader.getLocalName();
+			if (name.equals("summary")) {
+				bug.setSummary(readText(xmlReader));
+			} else if (name.equals("description")) {
+				bug.setDescription(readText(xmlReader));
+			} else if (name.equals("comments")) {
+				while (nextChildElement(xmlReader)) {
+					if (xmlReader.getLocalName().equals("comment")) {
+						int commentID = Integer.parseInt(xmlReader.getAttributeValue(null, "id"));
+						String commentedDateString = xmlReader.getAttributeValue(null, "date");
+						String author = xmlReader.getAttributeValue(null, "author");
+						bug.addComment(new Comment(commentID, commentedDateString, author, readText(xmlReader)));
+					} else {
+						skipElement(xmlReader);
+					}
+				}
+			} else {
+				skipElement(xmlReader);
+			}
+		}
+	}
+
+	private void readFixedCommits(XMLStreamReader xmlReader, Bug bug) throws Exception {
+		while (nextChildElement(xmlReader)) {
+			if (!xmlReader.getLocalName().equals("commit")) {
+				skipElement(xmlReader);
+				continue;
+			}
+
+			ExtendedCommitInfo fixedCommitInfo = new ExtendedCommitInfo();
+			fixedCommitInfo.setCommitID(xmlReader.getAttributeValue(null, "id"));
+			fixedCommitInfo.setCommitter(xmlReader.getAttributeValue(null, "author"));
+			fixedCommitInfo.setCommitDate(xmlReader.getAttributeValue(null, "date"));
+
+			while (nextChildElement(xmlReader)) {
+				if (!xmlReader.getLocalName().equals("file")) {
+					skipElement(xmlReader);
+					continue;
+				}
+
+				String fixedFileName = xmlReader.getAttributeValue(null, "name");
+				if (fixedFileName.contains(MODULE_PATH_PREFIX)) {
+					fixedFileName = fixedFileName.substring(MODULE_PATH_PREFIX.length(), fixedFileName.length());
+				}
+				bug.addFixedFile(fixedFileName);
+
+				while (nextChildElement(xmlReader)) {
+					if (xmlReader.getLocalName().equals("method")) {
+						String methodName = xmlReader.getAttributeValue(null, "name");
+						String returnType = xmlReader.getAttributeValue(null, "returnType");
+						String params = xmlReader.getAttributeValue(null, "parameters");
+						fixedCommitInfo.addFixedMethod(fixedFileName, new Method(methodName, returnType, params));
+					}
+					skipElement(xmlReader);
+				}
+			}
+			bug.addFixedCommitInfo(fixedCommitInfo);
+		}
+	}
+}
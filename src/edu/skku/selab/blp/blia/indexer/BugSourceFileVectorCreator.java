@@ -7,6 +7,7 @@
  */
 package edu.skku.selab.blp.blia.indexer;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
@@ -31,8 +32,8 @@ public class BugSourceFileVectorCreator {
 		SourceFileDAO sourceFileDAO = new SourceFileDAO();
 		HashMap<String, Integer> sourceFileTermMap = sourceFileDAO.getTermMap();
 		
-		SourceFileVectorCreator sourceFileVectorCreator = new SourceFileVectorCreator(); 
-		Hashtable<String, Integer> inverseDocCountTable = sourceFileVectorCreator.getInverseDocCountTable(version);
+		// Document counts of source file terms are already stored with their term weights
+		HashMap<Integer, AnalysisValue> sourceFileIdfValues = sourceFileDAO.getStoredIdfValues(version);
 		int fileCount = sourceFileDAO.getSourceFileCount(version);
 		
 		int bugID = 0;
@@ -94,8 +95,8 @@ public class BugSourceFileVectorCreator {
 			double summaryCorpusNorm = 0.0D;
 			double descriptionCorpusNorm = 0.0D;
 
-			HashSet<String> summaryTermSet = SourceFileVectorCreator.CorpusToSet(bug.getCorpus().getSummaryPart());
-			HashSet<String> descriptionTermSet = SourceFileVectorCreator.CorpusToSet(bug.getCorpus().getDescriptionPart());
+			HashSet<String> summaryTermSet = new HashSet<String>(Arrays.asList(bug.getCorpus().getSummaryPart().split(" ")));
+			HashSet<String> descriptionTermSet = new HashSet<String>(Arrays.asList(bug.getCorpus().getDescriptionPart().split(" ")));
 
 			bugTermTableIter = bugTermTable.keySet().iterator();
 			while (bugTermTableIter.hasNext()) {
@@ -103,9 +104,11 @@ public class BugSourceFileVectorCreator {
 				
 				// test code
 //				System.out.println("bugTerm:" + bugTerm);
-				if (sourceFileTermMap.containsKey(bugTerm)) {
+				AnalysisValue sourceFileIdfValue = sourceFileTermMap.containsKey(bugTerm) ?
+						sourceFileIdfValues.get(sourceFileTermMap.get(bugTerm)) : null;
+				if (null != sourceFileIdfValue) {
 					bugTermCount = bugTermTable.get(bugTerm);
-					inverseDocCount = inverseDocCountTable.get(bugTerm).intValue();
+					inverseDocCount = sourceFileIdfValue.getInvDocCount();
 					
 					// calculate TF, IDF, Vector
 					tf = getTfValue(bugTermCount, totalTermCount);
@@ -1,137 +1,188 @@
 /**
  * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
- * 
+ *
  * Permission to use, copy, modify, and distribute this software and its documentation for
  * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
  * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
  */
 package edu.skku.selab.blp.blia.indexer;
 
-import java.io.BufferedReader;
-
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map.Entry;
 
-import edu.udo.cs.wvtool.config.WVTConfigException;
-import edu.udo.cs.wvtool.config.WVTConfiguration;
-import edu.udo.cs.wvtool.config.WVTConfigurationFact;
-import edu.udo.cs.wvtool.config.WVTConfigurationRule;
-import edu.udo.cs.wvtool.generic.output.WordVectorWriter;
-import edu.udo.cs.wvtool.generic.stemmer.LovinsStemmerWrapper;
-import edu.udo.cs.wvtool.generic.stemmer.PorterStemmerWrapper;
-import edu.udo.cs.wvtool.generic.stemmer.WVTStemmer;
-import edu.udo.cs.wvtool.generic.vectorcreation.TFIDF;
-import edu.udo.cs.wvtool.main.WVTDocumentInfo;
-import edu.udo.cs.wvtool.main.WVTFileInputList;
-import edu.udo.cs.wvtool.main.WVTool;
-import edu.udo.cs.wvtool.wordlist.WVTWordList;
+import edu.udo.cs.wvtool.external.LovinsStemmer;
+import edu.udo.cs.wvtool.external.Stopwords;
 import edu.skku.selab.blp.Property;
-import edu.skku.selab.blp.db.AnalysisValue;
+import edu.skku.selab.blp.common.Bug;
+import edu.skku.selab.blp.common.BugCorpus;
 import edu.skku.selab.blp.db.dao.BugDAO;
+import edu.skku.selab.blp.db.dao.BugVectorBatchWriter;
 
 /**
+ * Creates TF-IDF vectors of bug corpora in memory, then writes bug terms and term weights with BugVectorBatchWriter.
+ *
+ * Terms and weights are the same as the former WVTool pipeline over bug corpus files.
+ * Terms are runs of letters without stopwords and words shorter than MIN_TERM_LENGTH, stemmed by the Lovins stemmer.
+ * Weight of a term is (term count / total term count of the bug) * log(bug count / document frequency),
+ * normalized by the norm of the bug vector. Only positive weights are written.
+ *
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
  *
  */
 public class BugVectorCreator {
-	private static final String HOME_FOLDER = (new StringBuilder(String.valueOf(Property.getInstance().getWorkDir()))).append(Property.getInstance().getSeparator()).toString();
-    private static final String BUG_CORPUS_FOLDER = (new StringBuilder("BugCorpus")).append(Property.getInstance().getSeparator()).toString();
-	
-	
+	private final static int MIN_TERM_LENGTH = 4;
+
+	private LovinsStemmer stemmer;
+	// <Word, stemmed term>
+	private HashMap<String, String> stems;
+
+	public BugVectorCreator() {
+		stemmer = new LovinsStemmer();
+		stems = new HashMap<String, String>();
+	}
+
 	public void create() throws Exception {
 		Property property = Property.getInstance();
-		
-		WVTool wvt = new WVTool(false);
-		WVTConfiguration config = new WVTConfiguration();
-		final WVTStemmer porterStemmer = new PorterStemmerWrapper();
-		config.setConfigurationRule("stemmer", new WVTConfigurationRule() {
-			public Object getMatchingComponent(WVTDocumentInfo d)
-					throws WVTConfigException {
-				return porterStemmer;
-			}
-		});
-		WVTStemmer stemmer = new LovinsStemmerWrapper();
-		config.setConfigurationRule("stemmer", new WVTConfigurationFact(stemmer));
-		WVTFileInputList list = new WVTFileInputList(1);
-		
-		// Can't change file interface easily.
-		list.addEntry(new WVTDocumentInfo((new StringBuilder(String.valueOf(HOME_FOLDER))).append(BUG_CORPUS_FOLDER).toString(), "txt", "", "english", 0));
-		WVTWordList wordList = wvt.createWordList(list, config);
-		wordList.pruneByFrequency(1, 0x7fffffff);
-		
-		int termCount = wordList.getNumWords();
-		property.setBugTermCount(termCount);
-		
-		String bugTermListFile = (new StringBuilder(String.valueOf(HOME_FOLDER))).append("BugTermList.txt").toString();
-		wordList.storePlain(new FileWriter(bugTermListFile));
-//		wordList.storePlain(new BufferedWriter(new OutputStreamWriter(System.out)));
-		
 		BugDAO bugDAO = new BugDAO();
-		HashMap<Integer, Integer> bugWordIndexMap = new HashMap<Integer, Integer>(); 
-		BufferedReader reader = new BufferedReader(new FileReader(bugTermListFile));
-		String line = null;
-		int index = 0;
-		while ((line = reader.readLine()) != null) {
-			String term = line;
-			int bugTermID = bugDAO.insertBugTerm(term);
-			bugWordIndexMap.put(index++, bugTermID);
+		ArrayList<Bug> bugs = bugDAO.getAllBugs(false);
+
+		// <Term, term count> of each bug
+		ArrayList<HashMap<String, Integer>> termCountsList = new ArrayList<HashMap<String, Integer>>(bugs.size());
+		int totalTermCounts[] = new int[bugs.size()];
+		// <Term, count of bugs which have the term>
+		HashMap<String, Integer> documentFrequencies = new HashMap<String, Integer>();
+		for (int i = 0; i < bugs.size(); i++) {
+			HashMap<String, Integer> termCounts = new HashMap<String, Integer>();
+			totalTermCounts[i] = countTerms(getContent(bugs.get(i).getCorpus(), property), termCounts);
+			termCountsList.add(termCounts);
+
+			Iterator<String> termIter = termCounts.keySet().iterator();
+			while (termIter.hasNext()) {
+				String term = termIter.next();
+				Integer documentFrequency = documentFrequencies.get(term);
+				documentFrequencies.put(term, (null == documentFrequency) ? 1 : documentFrequency + 1);
+			}
 		}
-		reader.close();
-
-		FileWriter outFile = new FileWriter((new StringBuilder(String.valueOf(HOME_FOLDER))).append("BugVector.txt").toString());
-		WordVectorWriter wvw = new WordVectorWriter(outFile, true);
-		config.setConfigurationRule("output", new WVTConfigurationFact(wvw));
-		config.setConfigurationRule("vectorcreation", new WVTConfigurationFact(new TFIDF()));
-		wvt.createVectors(list, config, wordList);
-		wvw.close();
-		outFile.close();
-		
-		// read "BugVector.txt" then insert vector value to DB
-		String workDir = (new StringBuilder(String.valueOf(property.getWorkDir()))).append(property.getSeparator()).toString();
-		reader = new BufferedReader(new FileReader((new StringBuilder(String.valueOf(workDir))).append("BugVector.txt").toString()));
-		while ((line = reader.readLine()) != null) {
-			String values[] = line.split(";");
-			int bugID = Integer.parseInt(values[0].split("\\.")[0]);
-			
-			if (values.length != 1) {
-				HashMap<Integer, Double> bugTermVectors = getVectors(values[1].trim(), bugWordIndexMap);
-				Iterator<Integer> corpusVectorsIter = bugTermVectors.keySet().iterator();
-				
-				while (corpusVectorsIter.hasNext()) {
-					int bugTermID =  corpusVectorsIter.next();
-					AnalysisValue analysisValue = new AnalysisValue();
-					analysisValue.setID(bugID);
-					analysisValue.setTermID(bugTermID);
-					analysisValue.setTermWeight(bugTermVectors.get(bugTermID).doubleValue());
-					bugDAO.insertBugTermWeight(analysisValue);
+		property.setBugTermCount(documentFrequencies.size());
+
+		BugVectorBatchWriter batchWriter = new BugVectorBatchWriter();
+		HashMap<String, Integer> termIDs = insertNewTerms(bugDAO, batchWriter, documentFrequencies);
+
+		double bugCount = bugs.size();
+		for (int i = 0; i < bugs.size(); i++) {
+			if (0 == totalTermCounts[i]) {
+				continue;
+			}
+
+			HashMap<String, Integer> termCounts = termCountsList.get(i);
+			HashMap<String, Double> termWeights = new HashMap<String, Double>(termCounts.size() * 2);
+			double norm = 0.0;
+			Iterator<Entry<String, Integer>> termCountIter = termCounts.entrySet().iterator();
+			while (termCountIter.hasNext()) {
+				Entry<String, Integer> termCount = termCountIter.next();
+				double tf = (double) termCount.getValue() / totalTermCounts[i];
+				double idf = Math.log(bugCount / documentFrequencies.get(termCount.getKey()));
+				double termWeight = tf * idf;
+				termWeights.put(termCount.getKey(), termWeight);
+				norm += termWeight * termWeight;
+			}
+
+			norm = Math.sqrt(norm);
+			if (norm <= 0.0) {
+				continue;
+			}
+
+			int bugID = bugs.get(i).getID();
+			Iterator<Entry<String, Double>> termWeightIter = termWeights.entrySet().iterator();
+			while (termWeightIter.hasNext()) {
+				Entry<String, Double> termWeight = termWeightIter.next();
+				double normalizedWeight = termWeight.getValue() / norm;
+				if (normalizedWeight > 0.0) {
+					batchWriter.insertTermWeight(bugID, termIDs.get(termWeight.getKey()), normalizedWeight);
 				}
 			}
 		}
-		
-		reader.close();
+		batchWriter.commit();
+	}
+
+	/**
+	 * @return summary, description and comments of the bug corpus
+	 */
+	private String getContent(BugCorpus bugCorpus, Property property) {
+		// Description part already has comments if new bug comments are included
+		if (property.isNewBugCommentsIncluded()) {
+			return bugCorpus.getSummaryPart() + " " + bugCorpus.getDescriptionPart();
+		}
+		return bugCorpus.getSummaryPart() + " " + bugCorpus.getDescriptionPart() + bugCorpus.getCommentPart();
+	}
+
+	/**
+	 * Count stemmed terms of the content
+	 *
+	 * @param termCounts <Term, term count> to be filled
+	 * @return total term count of the content
+	 */
+	private int countTerms(String content, HashMap<String, Integer> termCounts) {
+		int totalTermCount = 0;
+		int length = content.length();
+		int start = 0;
+		while (start < length) {
+			if (!Character.isLetter(content.charAt(start))) {
+				start++;
+				continue;
+			}
+
+			int end = start + 1;
+			while (end < length && Character.isLetter(content.charAt(end))) {
+				end++;
+			}
+
+			String word = content.substring(start, end);
+			start = end;
+			if (word.length() < MIN_TERM_LENGTH || Stopwords.isStopword(word)) {
+				continue;
+			}
+
+			String term = stems.get(word);
+			if (null == term) {
+				term = stemmer.stemString(word);
+				stems.put(word, term);
+			}
+
+			Integer termCount = termCounts.get(term);
+			termCounts.put(term, (null == termCount) ? 1 : termCount + 1);
+			totalTermCount++;
+		}
+		return totalTermCount;
 	}
-	
+
 	/**
-	 * 
-	 * @param vecStr
-	 * @return <BugWordID, Vector>
+	 * Insert terms which aren't in BUG_TERM_INFO yet
+	 *
+	 * @return <Term, Bug term ID> of all terms
 	 */
-	private HashMap<Integer, Double> getVectors(String vecStr, HashMap<Integer, Integer> bugWordIndexMap) {
-		String values[] = vecStr.split(" ");
-		String as[];
-		HashMap<Integer, Double> bugWordVectors = new HashMap<Integer, Double>();
-		int j = (as = values).length;
-		for (int i = 0; i < j; i++) {
-			String str = as[i];
-			int index = Integer.valueOf(Integer.parseInt(str.substring(0,str.indexOf(":"))));
-			Integer bugWordID = bugWordIndexMap.get(index);
-			Double vector = Double.parseDouble(str.substring(str.indexOf(":") + 1));
-			
-			bugWordVectors.put(bugWordID, vector);
+	private HashMap<String, Integer> insertNewTerms(BugDAO bugDAO, BugVectorBatchWriter batchWriter,
+			HashMap<String, Integer> documentFrequencies) throws Exception {
+		HashMap<String, Integer> termIDs = bugDAO.getTermMap();
+		ArrayList<String> newTerms = new ArrayList<String>();
+		Iterator<String> termIter = documentFrequencies.keySet().iterator();
+		while (termIter.hasNext()) {
+			String term = termIter.next();
+			if (!termIDs.containsKey(term)) {
+				newTerms.add(term);
+			}
+		}
+
+		if (newTerms.isEmpty()) {
+			return termIDs;
 		}
 
-		return bugWordVectors;
+		// Sorted terms get the same term IDs for the same corpora
+		Collections.sort(newTerms);
+		batchWriter.insertTerms(newTerms);
+		return bugDAO.getTermMap();
 	}
 }
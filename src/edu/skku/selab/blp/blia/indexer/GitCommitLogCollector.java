@@ -13,14 +13,9 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
-import org.eclipse.jdt.core.JavaCore;
-import org.eclipse.jdt.core.dom.AST;
-import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.MethodDeclaration;
-import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffEntry.ChangeType;
@@ -39,8 +34,9 @@ import org.eclipse.jgit.treewalk.TreeWalk;
 
 import edu.skku.selab.blp.common.CommitInfo;
 import edu.skku.selab.blp.common.ExtendedCommitInfo;
+import edu.skku.selab.blp.common.JavaSourceParser;
 import edu.skku.selab.blp.common.Method;
-import edu.skku.selab.blp.common.MethodVisitor;
+import edu.skku.selab.blp.common.SourceFileStructure;
 import edu.skku.selab.blp.db.dao.CommitDAO;
 
 /**
@@ -50,6 +46,8 @@ import edu.skku.selab.blp.db.dao.CommitDAO;
 public class GitCommitLogCollector implements ICommitLogCollector {
 	private String repoDir;
 	private boolean DEBUG_MODE = false;
+	// Reused for all sources. Method bodies are parsed, so methods of local classes are matched too.
+	private JavaSourceParser sourceParser = null;
 	
 	/**
 	 * 
@@ -59,15 +57,10 @@ public class GitCommitLogCollector implements ICommitLogCollector {
 	}
 	
 	private CompilationUnit getCompilationUnit(String source) {
-		ASTParser parser = ASTParser.newParser(AST.JLS3);
-		parser.setKind(ASTParser.K_COMPILATION_UNIT);
-		Map options = JavaCore.getOptions();
-		JavaCore.setComplianceOptions(JavaCore.VERSION_1_7, options);
-		parser.setCompilerOptions(options);
-		parser.setSource(source.toCharArray());
-		CompilationUnit cu = (CompilationUnit)parser.createAST(null);
-
-		return cu;
+		if (null == sourceParser) {
+			sourceParser = new JavaSourceParser(JavaSourceParser.getJava7Options());
+		}
+		return sourceParser.parse(source);
 	}
 	
 	
@@ -91,7 +84,7 @@ public class GitCommitLogCollector implements ICommitLogCollector {
 			RevTree tree = revCommit.getTree();
 			ObjectReader newObjectReader = git.getRepository().newObjectReader();
 			TreeWalk treeWalk = TreeWalk.forPath(newObjectReader, newPath, tree);
-			MethodVisitor visitor = null;
+			SourceFileStructure structure = null;
 			CompilationUnit cu = null;
 			String newSource = null;
 			if (treeWalk != null) {
@@ -99,8 +92,7 @@ public class GitCommitLogCollector implements ICommitLogCollector {
 				byte[] data = newObjectReader.open(treeWalk.getObjectId(0)).getBytes();
 				newSource = new String(data);
 				cu = getCompilationUnit(newSource);
-				visitor = new MethodVisitor();
-				cu.accept(visitor);
+				structure = SourceFileStructure.extract(cu, newSource);
 			}
 			
 			df.format(diff);
@@ -143,7 +135,7 @@ public class GitCommitLogCollector implements ICommitLogCollector {
 					actualModifiedEndLine = actualModifiedStartLine;
 				}
 				
-				extractMethodInfo(foundMethods, actualModifiedStartLine, actualModifiedEndLine, visitor, cu);
+				extractMethodInfo(foundMethods, actualModifiedStartLine, actualModifiedEndLine, structure, cu);
 			}
 			
 			return foundMethods;
@@ -154,13 +146,13 @@ public class GitCommitLogCollector implements ICommitLogCollector {
 	}
 	
 	private void extractMethodInfo(ArrayList<Method> commitMethodList, int actualModifiedStartLine, int actualModifiedEndLine,
-			MethodVisitor visitor, CompilationUnit cu) {
+			SourceFileStructure structure, CompilationUnit cu) {
 		if (DEBUG_MODE) {
 			System.out.printf("actualModifiedStartLine: %d, actualModifiedEndLine: %d\n", actualModifiedStartLine, actualModifiedEndLine);
 		}
 		
-		if (visitor != null && cu != null) {
-			for (MethodDeclaration md : visitor.methods) {
+		if (structure != null && cu != null) {
+			for (MethodDeclaration md : structure.getMethodDeclarations()) {
 				// comment lines before a method are ignored.
 				int methodStartLine = cu.getLineNumber(md.getName().getStartPosition());
 				int methodEndLine = cu.getLineNumber(md.getStartPosition() + md.getLength());
@@ -175,19 +167,10 @@ public class GitCommitLogCollector implements ICommitLogCollector {
 				} else if ((methodStartLine >= actualModifiedStartLine && methodStartLine <= actualModifiedEndLine) ||
 						(methodStartLine <= actualModifiedStartLine && methodEndLine >= actualModifiedStartLine) || 
 						(methodStartLine <= actualModifiedEndLine)) {
-					String methodName = md.getName().toString();
-					String returnType = (null != md.getReturnType2()) ? md.getReturnType2().toString() : "";
-					String parameters = "";
-					for (int l = 0; l < md.parameters().size(); l++) {
-						parameters += ((SingleVariableDeclaration) md.parameters().get(l)).getType().toString();
-						parameters += " ";
-					}
-					parameters = parameters.trim();
-
-					Method foundMethod = new Method(methodName, returnType, parameters);
+					Method foundMethod = SourceFileStructure.createMethod(md);
 					if (!commitMethodList.contains(foundMethod)) {
 						commitMethodList.add(foundMethod);
-//						System.out.printf("Method: %s, Return Type: %s, Parameter: %s\n", methodName, returnType, parameters);
+//						System.out.printf("Method: %s, Return Type: %s, Parameter: %s\n", foundMethod.getName(), foundMethod.getReturnType(), foundMethod.getParams());
 					}
 				} else if (methodStartLine > actualModifiedEndLine) {
 					break;
@@ -9,54 +9,100 @@ package edu.skku.selab.blp.blia.indexer;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.TreeSet;
 
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
 import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.common.SourceFileCorpus;
 import edu.skku.selab.blp.common.FileDetector;
 import edu.skku.selab.blp.common.FileParser;
+import edu.skku.selab.blp.common.JavaSourceParser;
+import edu.skku.selab.blp.common.SourceFileStructure;
 import edu.skku.selab.blp.db.dao.BaseDAO;
+import edu.skku.selab.blp.db.dao.SourceFileCorpusBatchWriter;
 import edu.skku.selab.blp.db.dao.SourceFileDAO;
+import edu.skku.selab.blp.utils.StageExecutor;
 import edu.skku.selab.blp.utils.Stem;
 import edu.skku.selab.blp.utils.Stopword;
+import edu.skku.selab.blp.utils.Tokenizer;
+import edu.skku.selab.blp.utils.Util;
 
 /**
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
  *
  */
 public class SourceFileCorpusCreator {
-	public static String stemContent(String contents[]) {
-		StringBuffer contentBuf = new StringBuffer();
-		for (int i = 0; i < contents.length; i++) {
-			String word = contents[i].toLowerCase();
-			if (word.length() > 0) {
-				String stemWord = Stem.stem(word);
-				if (!Stopword.isJavaKeyword(stemWord) && !Stopword.isProjectKeyword(stemWord) && !Stopword.isEnglishStopword(stemWord)) {
-					contentBuf.append(stemWord);
-					contentBuf.append(" ");
-				}
-			}
+	final static int FILES_PER_TASK = 16;
+	
+	/**
+	 * Appends stems of tokens which aren't keywords or stopwords
+	 */
+	protected static class SourceCodeStemmer implements Tokenizer.TokenHandler {
+		private StringBuilder contentBuf = new StringBuilder();
+
+		public void handleToken(CharSequence text, int start, int end) {
+			appendStem(contentBuf, text.subSequence(start, end).toString());
+		}
+
+		public String toString() {
+			return contentBuf.toString();
 		}
-		return contentBuf.toString();
 	}
-	
-	public static String stemContent(String content) {
-		StringBuffer contentBuf = new StringBuffer();
-		String word = content.toLowerCase();
+
+	private static void appendStem(StringBuilder contentBuf, String word) {
+		word = word.toLowerCase();
 		if (word.length() > 0) {
 			String stemWord = Stem.stem(word);
-			if (!Stopword.isJavaKeyword(stemWord) && !Stopword.isProjectKeyword(stemWord) && !Stopword.isEnglishStopword(stemWord)) {
+			if (!Stopword.isStopword(stemWord, Stopword.SOURCE_FILE_STOPWORDS)) {
 				contentBuf.append(stemWord);
 				contentBuf.append(" ");
 			}
 		}
+	}
+
+	public static String stemContent(String contents[]) {
+		StringBuilder contentBuf = new StringBuilder();
+		for (int i = 0; i < contents.length; i++) {
+			appendStem(contentBuf, contents[i]);
+		}
 		return contentBuf.toString();
 	}
+	
+	public static String stemContent(String content) {
+		StringBuilder contentBuf = new StringBuilder();
+		appendStem(contentBuf, content);
+		return contentBuf.toString();
+	}
+
+	/**
+	 * Stem camel case tokens of the source code without splitting it to an array
+	 * 
+	 * @param sourceCode
+	 * @return stems separated with a space
+	 */
+	public static String stemSourceCode(CharSequence sourceCode) {
+		SourceCodeStemmer stemmer = new SourceCodeStemmer();
+		Tokenizer.splitSourceCode(sourceCode, stemmer);
+		return stemmer.toString();
+	}
 
 	
 	public SourceFileCorpus create(File file) {
-		FileParser parser = new FileParser(file);
-		String fileName = parser.getPackageName();
+		return create(file, new FileParser(file));
+	}
+	
+	/**
+	 * @param file
+	 * @param parser parser of the file
+	 * @return
+	 */
+	protected SourceFileCorpus create(File file, FileParser parser) {
+		SourceFileStructure structure = parser.getStructure();
+		String fileName = structure.getPackageName();
 		if (fileName.trim().equals("")) {
 			fileName = file.getName();
 		} else {
@@ -65,10 +111,10 @@ public class SourceFileCorpusCreator {
 		}
 		fileName = fileName.substring(0, fileName.lastIndexOf("."));
 		
-		// parser.getImportedClasses() function should be called before calling parser.getContents()
-		ArrayList<String> importedClasses = parser.getImportedClasses();
-		String content[] = parser.getContent();
-		String sourceCodeContent = stemContent(content);
+		ArrayList<String> importedClasses = structure.getImportedClasses();
+		SourceCodeStemmer stemmer = new SourceCodeStemmer();
+		parser.tokenizeContent(stemmer);
+		String sourceCodeContent = stemmer.toString();
 		
 		String classNameAndMethodName[] = parser.getClassNameAndMethodName();
 		String names = stemContent(classNameAndMethodName);
@@ -81,46 +127,235 @@ public class SourceFileCorpusCreator {
 		return corpus;
     }
 	
+	/**
+	 * Hashes files of a task, then parses added or changed files with one JavaSourceParser
+	 */
+	private class ParseTask implements StageExecutor.Task, JavaSourceParser.Requestor {
+		private File files[];
+		private String contentHashes[];
+		private SourceFileCorpus corpuses[];
+		private HashMap<String, String> indexedHashes;
+		private HashSet<String> skippedFilePaths;
+		// <Parsed file, index of the file in files>
+		private HashMap<File, Integer> parsedFileIndexes;
+		
+		public ParseTask(File files[], HashMap<String, String> indexedHashes, HashSet<String> skippedFilePaths) {
+			this.files = files;
+			this.indexedHashes = indexedHashes;
+			this.skippedFilePaths = skippedFilePaths;
+			contentHashes = new String[files.length];
+			corpuses = new SourceFileCorpus[files.length];
+		}
+		
+		@Override
+		public void run() throws Exception {
+			ArrayList<File> parsedFiles = new ArrayList<File>();
+			parsedFileIndexes = new HashMap<File, Integer>();
+			for (int i = 0; i < files.length; i++) {
+				String filePath = files[i].getAbsolutePath();
+				contentHashes[i] = Util.getContentHash(files[i]);
+				// Unchanged files of the index aren't parsed. Skipped files may be indexed again.
+				if (null != contentHashes[i] && contentHashes[i].equals(indexedHashes.get(filePath)) &&
+						!skippedFilePaths.contains(filePath)) {
+					continue;
+				}
+				
+				parsedFileIndexes.put(files[i], i);
+				parsedFiles.add(files[i]);
+			}
+			
+			if (!parsedFiles.isEmpty()) {
+				JavaSourceParser sourceParser = new JavaSourceParser(JavaSourceParser.getDefaultOptions());
+				sourceParser.parse(parsedFiles.toArray(new File[parsedFiles.size()]), this);
+			}
+			parsedFileIndexes = null;
+		}
+		
+		@Override
+		public void acceptAST(File file, String source, CompilationUnit compilationUnit) throws Exception {
+			corpuses[parsedFileIndexes.get(file)] = create(file, new FileParser(compilationUnit, source));
+		}
+	}
+	
+	/**
+	 * Detect java files with include and exclude rules, then hash, parse and stem them in parallel with
+	 * create(File, FileParser). Each task of FILES_PER_TASK files is submitted while the walk continues.
+	 * 
+	 * In incremental indexing mode, indexed files which are deleted or changed since the last indexing
+	 * are removed from DB, and only added or changed files are returned.
+	 * Skipped files of the last indexing are returned again when an indexed file is removed,
+	 * because one of them can take the class name of the removed file.
+	 * 
+	 * @param version
+	 * @param targetFiles receives files to be inserted in the detected order
+	 * @param contentHashes receives content hashes of the target files
+	 * @return corpora of the target files
+	 * @throws Exception when a file can't be parsed, or an indexed file can't be removed
+	 */
+	protected SourceFileCorpus[] parseSourceFiles(String version, ArrayList<File> targetFiles, ArrayList<String> contentHashes) throws Exception {
+		Property property = Property.getInstance();
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		HashMap<String, String> indexedHashes = new HashMap<String, String>();
+		HashSet<String> skippedFilePaths = new HashSet<String>();
+		if (Property.INCREMENTAL_INDEX) {
+			indexedHashes = sourceFileDAO.getContentHashes(version);
+			skippedFilePaths = sourceFileDAO.getSkippedSourceFilePaths(version);
+		}
+		
+		final HashMap<String, String> taskIndexedHashes = indexedHashes;
+		final HashSet<String> taskSkippedFilePaths = skippedFilePaths;
+		final ArrayList<ParseTask> tasks = new ArrayList<ParseTask>();
+		final ArrayList<File> taskFiles = new ArrayList<File>();
+		boolean failFast = true;
+		final StageExecutor executor = new StageExecutor("Source file corpus creation", failFast);
+		FileDetector detector = new FileDetector(Property.SOURCE_INCLUDES.split(","), Property.SOURCE_EXCLUDES.split(","));
+		detector.walk(property.getSourceCodeDirList(), new FileDetector.Visitor() {
+			@Override
+			public void visitFile(File file) {
+				taskFiles.add(file);
+				if (FILES_PER_TASK == taskFiles.size()) {
+					submit();
+				}
+			}
+			
+			private void submit() {
+				ParseTask task = new ParseTask(taskFiles.toArray(new File[taskFiles.size()]), taskIndexedHashes, taskSkippedFilePaths);
+				tasks.add(task);
+				executor.submit(task);
+				taskFiles.clear();
+			}
+		});
+		if (!taskFiles.isEmpty()) {
+			ParseTask task = new ParseTask(taskFiles.toArray(new File[taskFiles.size()]), indexedHashes, skippedFilePaths);
+			tasks.add(task);
+			executor.submit(task);
+		}
+		
+		ArrayList<StageExecutor.TaskFailure> failures = executor.awaitFailures();
+		if (!failures.isEmpty()) {
+			int taskIndex = failures.get(0).getTaskIndex();
+			throw new Exception(String.format("Files from %s can't be parsed.", tasks.get(taskIndex).files[0].getAbsolutePath()),
+					failures.get(0).getCause());
+		}
+		
+		HashMap<String, String> currentHashes = new HashMap<String, String>();
+		for (int i = 0; i < tasks.size(); i++) {
+			ParseTask task = tasks.get(i);
+			for (int j = 0; j < task.files.length; j++) {
+				currentHashes.put(task.files[j].getAbsolutePath(), task.contentHashes[j]);
+			}
+		}
+		
+		if (Property.INCREMENTAL_INDEX) {
+			ArrayList<String> removedFilePaths = new ArrayList<String>();
+			boolean indexedFileRemoved = false;
+			Iterator<String> filePathIter = indexedHashes.keySet().iterator();
+			while (filePathIter.hasNext()) {
+				String filePath = filePathIter.next();
+				String currentHash = currentHashes.get(filePath);
+				if (null == currentHash || !currentHash.equals(indexedHashes.get(filePath))) {
+					removedFilePaths.add(filePath);
+					if (!skippedFilePaths.contains(filePath)) {
+						indexedFileRemoved = true;
+					}
+				}
+			}
+			
+			if (indexedFileRemoved) {
+				skippedFilePaths.removeAll(removedFilePaths);
+				removedFilePaths.addAll(skippedFilePaths);
+			}
+			
+			for (int i = 0; i < removedFilePaths.size(); i++) {
+				String filePath = removedFilePaths.get(i);
+				if (BaseDAO.INVALID == sourceFileDAO.deleteSourceFile(filePath, version)) {
+					throw new Exception(String.format("%s can't be removed from the index.", filePath));
+				}
+				indexedHashes.remove(filePath);
+			}
+			// Terms used only by removed files aren't kept
+			if (!removedFilePaths.isEmpty() && BaseDAO.INVALID == sourceFileDAO.deleteUnusedTerms()) {
+				throw new Exception("Unused terms can't be removed from the index.");
+			}
+			System.out.printf("[SourceFileCorpusCreator] %d of %d files are unchanged, %d indexed files are removed.\n",
+					indexedHashes.size(), currentHashes.size(), removedFilePaths.size());
+		}
+		
+		ArrayList<SourceFileCorpus> corpuses = new ArrayList<SourceFileCorpus>();
+		for (int i = 0; i < tasks.size(); i++) {
+			ParseTask task = tasks.get(i);
+			for (int j = 0; j < task.files.length; j++) {
+				if (!indexedHashes.containsKey(task.files[j].getAbsolutePath())) {
+					targetFiles.add(task.files[j]);
+					contentHashes.add(task.contentHashes[j]);
+					corpuses.add(task.corpuses[j]);
+				}
+			}
+			// Release parsed corpora of the task
+			tasks.set(i, null);
+		}
+		return corpuses.toArray(new SourceFileCorpus[corpuses.size()]);
+	}
+	
+	/**
+	 * Class names of indexed source files take precedence over the same class names of parsed files.
+	 * 
+	 * @param version
+	 * @return class names of indexed source files with and without ".java"
+	 * @throws Exception
+	 */
+	protected TreeSet<String> getIndexedClassNames(String version) throws Exception {
+		TreeSet<String> nameSet = new TreeSet<String>();
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		HashMap<String, String> classNames = sourceFileDAO.getClassNames(version);
+		if (null != classNames) {
+			Iterator<String> classNameIter = classNames.keySet().iterator();
+			while (classNameIter.hasNext()) {
+				String className = classNameIter.next();
+				nameSet.add(className);
+				nameSet.add(className + ".java");
+			}
+		}
+		return nameSet;
+	}
+	
 	////////////////////////////////////////////////////////////////////	
 	/* (non-Javadoc)
 	 * @see edu.skku.selab.blia.indexer.ICorpus#create()
 	 */
 	public void create(String version) throws Exception {
 		Property property = Property.getInstance();
-		FileDetector detector = new FileDetector("java");
-		File files[] = detector.detect(property.getSourceCodeDirList());
+		ArrayList<File> files = new ArrayList<File>();
+		ArrayList<String> contentHashes = new ArrayList<String>();
+		SourceFileCorpus corpuses[] = parseSourceFiles(version, files, contentHashes);
 		
-		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-		int count = 0;
-		TreeSet<String> nameSet = new TreeSet<String>();
-		for (int i = 0; i < files.length; i++) {
-			File file = files[i];
-			SourceFileCorpus corpus = create(file);
-			if (corpus != null && !nameSet.contains(corpus.getJavaFileFullClassName())) {
-				String fileName = corpus.getJavaFileFullClassName();
-				if (!corpus.getJavaFileFullClassName().endsWith(".java")) {
-					fileName += ".java";
-				}
-
-				int sourceFileID = sourceFileDAO.insertSourceFile(fileName);
-				if (BaseDAO.INVALID == sourceFileID) {
-					System.err.printf("[StructuredSourceFileCorpusCreator.create()] %s insertSourceFile() failed.\n", fileName);
-					throw new Exception(); 
-				}
-				
-				int sourceFileVersionID = sourceFileDAO.insertCorpusSet(sourceFileID, version, corpus,
-						SourceFileDAO.INIT_TOTAL_COUPUS_COUNT, SourceFileDAO.INIT_LENGTH_SCORE);
-				if (BaseDAO.INVALID == sourceFileVersionID) {
-					System.err.printf("[StructuredSourceFileCorpusCreator.create()] %s insertCorpusSet() failed.\n", fileName);
-					throw new Exception(); 
+		TreeSet<String> nameSet = getIndexedClassNames(version);
+		SourceFileCorpusBatchWriter batchWriter = new SourceFileCorpusBatchWriter(version,
+				SourceFileDAO.INIT_TOTAL_COUPUS_COUNT, SourceFileDAO.INIT_LENGTH_SCORE);
+		try {
+			for (int i = 0; i < files.size(); i++) {
+				SourceFileCorpus corpus = corpuses[i];
+				if (corpus != null && !nameSet.contains(corpus.getJavaFileFullClassName())) {
+					String fileName = corpus.getJavaFileFullClassName();
+					if (!corpus.getJavaFileFullClassName().endsWith(".java")) {
+						fileName += ".java";
+					}
+	
+					batchWriter.insertCorpus(fileName, fileName, corpus, contentHashes.get(i));
+					nameSet.add(corpus.getJavaFileFullClassName());
+				} else {
+					batchWriter.insertSkippedFile(files.get(i).getAbsolutePath(), contentHashes.get(i));
 				}
-
-				sourceFileDAO.insertImportedClasses(sourceFileVersionID, corpus.getImportedClasses());
-				nameSet.add(corpus.getJavaFileFullClassName());
-				count++;
+				// Release the parsed corpus after it is buffered
+				corpuses[i] = null;
 			}
+			batchWriter.flush();
+		} catch (Exception e) {
+			System.err.printf("[SourceFileCorpusCreator.create()] %s\n", e.getMessage());
+			throw e;
 		}
 
-		property.setFileCount(count);
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		property.setFileCount(sourceFileDAO.getSourceFileCount(version));
 	}
 }
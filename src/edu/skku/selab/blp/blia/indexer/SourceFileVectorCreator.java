@@ -7,115 +7,109 @@
  */
 package edu.skku.selab.blp.blia.indexer;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Hashtable;
 import java.util.Iterator;
-import java.util.TreeSet;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Map;
 
 import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.common.SourceFileCorpus;
 import edu.skku.selab.blp.db.AnalysisValue;
+import edu.skku.selab.blp.db.TermDictionary;
 import edu.skku.selab.blp.db.dao.SourceFileDAO;
+import edu.skku.selab.blp.db.dao.SourceFileVectorBatchWriter;
 
 /**
+ * Creates term weights, norms and length scores of source files.
+ *
+ * Corpora are read from DB once. Document counts, TF, IDF, norms and length scores are calculated in memory
+ * on term IDs of the term dictionary, then written with SourceFileVectorBatchWriter.
+ * Term weights keep referring to SF_TERM_INFO, because bug term weights share its term IDs.
+ * Each term of the dictionary is mapped to its SF_TERM_ID once.
+ *
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
  *
  */
 public class SourceFileVectorCreator {
-	private HashMap<String, Integer> totalCorpusLengths = null;
-	private HashMap<String, SourceFileCorpus> sourceFileCorpusMap = null;
-	private int fileCount = 0; 
-	
+	// Bits of the parts where a term is found
+	private final static int CLASS_PART = 1;
+	private final static int METHOD_PART = 1 << 1;
+	private final static int VARIABLE_PART = 1 << 2;
+	private final static int COMMENT_PART = 1 << 3;
 
-    public SourceFileVectorCreator() {
-    }
-    
 	/**
-	 * Calculate document counts from source code corpus data
-	 *  
-	 * @return Hashtable<String, Integer>	Corpus, Term Count 
-	 * @throws IOException
+	 * Distinct terms of a corpus and their counts in the order of first occurrence
 	 */
-	public Hashtable<String, Integer> getInverseDocCountTable(String version) throws Exception {
-		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-		HashMap<String, SourceFileCorpus> corpusSets = sourceFileDAO.getCorpusMap(version);
-		
-		Iterator<String> fileNameIter = corpusSets.keySet().iterator();
-		Hashtable<String, Integer> countTable = new Hashtable<String, Integer>();
-		
-		while(fileNameIter.hasNext()) {
-			String fileName = fileNameIter.next();
-			String courpusSet = corpusSets.get(fileName).getContent();
-			
-			String corpuses[] = courpusSet.split(" ");
-			TreeSet<String> wordSet = new TreeSet<String>();
-			for (int i = 0; i < corpuses.length; i++) {
-				String word = corpuses[i];
-				if (!word.trim().equals("") && !wordSet.contains(word)) {
-					wordSet.add(word);
-				}
+	private static class TermCounts {
+		// Term IDs of the term dictionary
+		private ArrayList<Integer> termIDs = new ArrayList<Integer>();
+		private ArrayList<Integer> counts = new ArrayList<Integer>();
+		private ArrayList<Integer> parts = new ArrayList<Integer>();
+		private int totalCount = 0;
+
+		public TermCounts(SourceFileCorpus corpus, HashSet<Integer> blankTermIDs) {
+			HashMap<Integer, Integer> termIndexes = new HashMap<Integer, Integer>();
+			add(corpus.getClassPartTermIDs(), CLASS_PART, blankTermIDs, termIndexes);
+			add(corpus.getMethodPartTermIDs(), METHOD_PART, blankTermIDs, termIndexes);
+			add(corpus.getVariablePartTermIDs(), VARIABLE_PART, blankTermIDs, termIndexes);
+			add(corpus.getCommentPartTermIDs(), COMMENT_PART, blankTermIDs, termIndexes);
+		}
+
+		private void add(int[] partTermIDs, int part, HashSet<Integer> blankTermIDs, HashMap<Integer, Integer> termIndexes) {
+			if (null == partTermIDs) {
+				return;
 			}
-			
-			Iterator<String> iterator = wordSet.iterator();
-			while (iterator.hasNext()) {
-				String word = iterator.next();
-				if (countTable.containsKey(word)) {
-					Integer count = (Integer) countTable.get(word) + 1;
-					countTable.remove(word);
-					countTable.put(word, count);
+
+			for (int i = 0; i < partTermIDs.length; i++) {
+				int termID = partTermIDs[i];
+				if (blankTermIDs.contains(termID)) {
+					continue;
+				}
+
+				totalCount++;
+				Integer termIndex = termIndexes.get(termID);
+				if (null == termIndex) {
+					termIndexes.put(termID, termIDs.size());
+					termIDs.add(termID);
+					counts.add(1);
+					parts.add(part);
 				} else {
-					countTable.put(word, 1);
+					counts.set(termIndex, counts.get(termIndex) + 1);
+					parts.set(termIndex, parts.get(termIndex) | part);
 				}
 			}
 		}
-		
-		return countTable;
-	}	
-	
+	}
+
+    public SourceFileVectorCreator() {
+    }
+
 	/**
-	 * Compute length score of each source file then write them to LengthScore.txt file  
-	 * 
-	 * @throws Exception
+	 * Compute length scores of BugLocator from total term counts of source files
+	 *
+	 * @param totalCorpusLengths	Total term counts of source files
+	 * @return length scores in the order of totalCorpusLengths
 	 */
-	public void computeLengthScore(String version) throws Exception {
-		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-		Property property = Property.getInstance();
-		
-		int max = 0x80000000;
-		HashMap<String, Integer> lensTable = sourceFileDAO.getTotalCorpusLengths(version);
-	
+	public double[] computeLengthScores(int totalCorpusLengths[]) {
 		int count = 0;
 		int sum = 0;
-		int totalCorpusLength = 0;
-		Iterator<String> lensIter = lensTable.keySet().iterator();
-		while (lensIter.hasNext()) {
-			totalCorpusLength = lensTable.get(lensIter.next());
-			if (totalCorpusLength != 0) {
+		for (int i = 0; i < totalCorpusLengths.length; i++) {
+			if (totalCorpusLengths[i] != 0) {
 				count++;
 			}
-			
-			if (totalCorpusLength > max) {
-				max = totalCorpusLength;
-			}
-			
-			sum += totalCorpusLength;
+			sum += totalCorpusLengths[i];
 		}
-		
+
 		double average = (double) sum / (double) count;
 		double squareDevi = 0.0D;
-		
- 		lensIter = lensTable.keySet().iterator();
-		while (lensIter.hasNext()) {
-			totalCorpusLength = lensTable.get(lensIter.next());
-			if (0 != totalCorpusLength) {
-				squareDevi += ((double) totalCorpusLength - average) * ((double) totalCorpusLength - average);
+		for (int i = 0; i < totalCorpusLengths.length; i++) {
+			if (0 != totalCorpusLengths[i]) {
+				squareDevi += ((double) totalCorpusLengths[i] - average) * ((double) totalCorpusLengths[i] - average);
 			}
 		}
-		
+
 		double standardDevi = Math.sqrt(squareDevi / (double) count);
 		double low = average - 3D * standardDevi;
 		double high = average + 3D * standardDevi;
@@ -123,11 +117,10 @@ public class SourceFileVectorCreator {
 		if (low > 0.0D) {
 			min = (int) low;
 		}
-		
-		lensIter = lensTable.keySet().iterator();
-		while (lensIter.hasNext()) {
-			String fileName = lensIter.next();
-			totalCorpusLength = lensTable.get(fileName);
+
+		double lengthScores[] = new double[totalCorpusLengths.length];
+		for (int i = 0; i < totalCorpusLengths.length; i++) {
+			int totalCorpusLength = totalCorpusLengths[i];
 			double score = 0.0D;
 			double nor = getNormalizedValue(totalCorpusLength, high, min);
 			if (totalCorpusLength != 0) {
@@ -141,21 +134,17 @@ public class SourceFileVectorCreator {
 			} else {
 				score = 0.0D;
 			}
-			if (nor > 6D) {
-				nor = 6D;
-			}
 			if (score < 0.5D) {
 				score = 0.5D;
 			}
-			
-//			System.out.printf("FileName: %s, score: %f\n", fileName, score);
-			sourceFileDAO.updateLengthScore(fileName, version, score);
+			lengthScores[i] = score;
 		}
+		return lengthScores;
 	}
 
 	/**
 	 * Get normalized value of x from Max. to min.
-	 * 
+	 *
 	 * @param x
 	 * @param max
 	 * @param min
@@ -167,212 +156,200 @@ public class SourceFileVectorCreator {
 
 	/**
 	 * Get length score of BugLocator
-	 * 
+	 *
 	 * @param len
 	 * @return
 	 */
 	public double getLengthScore(double len) {
 		return Math.exp(len) / (1.0D + Math.exp(len));
 	}
-	
-	/* (non-Javadoc)
-	 * @see edu.skku.selab.blia.indexer.IIndexer#createIndex()
+
+	/**
+	 * Empty terms between consecutive spaces of a corpus have term IDs too, but they aren't counted.
+	 *
+	 * @return term IDs of blank terms in the term dictionary
+	 */
+	private HashSet<Integer> getBlankTermIDs() {
+		TermDictionary termDictionary = TermDictionary.getInstance();
+		HashSet<Integer> blankTermIDs = new HashSet<Integer>();
+		synchronized (termDictionary) {
+			for (int termID = 0; termID < termDictionary.size(); termID++) {
+				if (termDictionary.getTerm(termID).trim().isEmpty()) {
+					blankTermIDs.add(termID);
+				}
+			}
+		}
+		return blankTermIDs;
+	}
+
+	/**
+	 * Insert terms which aren't in SF_TERM_INFO yet
+	 *
+	 * @return <Term ID of the term dictionary, SF_TERM_ID> of all terms of inverseDocCounts
 	 */
-	public void createIndex(String version) throws Exception {
+	private HashMap<Integer, Integer> insertNewTerms(SourceFileDAO sourceFileDAO, SourceFileVectorBatchWriter batchWriter,
+			HashMap<Integer, Integer> inverseDocCounts) throws Exception {
+		TermDictionary termDictionary = TermDictionary.getInstance();
+		HashMap<Integer, String> terms = new HashMap<Integer, String>();
+		Iterator<Integer> termIDIter = inverseDocCounts.keySet().iterator();
+		while (termIDIter.hasNext()) {
+			int termID = termIDIter.next();
+			terms.put(termID, termDictionary.getTerm(termID));
+		}
+
+		HashMap<String, Integer> sourceFileTermIDs = sourceFileDAO.getTermMap();
+		ArrayList<String> newTerms = new ArrayList<String>();
+		Iterator<String> termIter = terms.values().iterator();
+		while (termIter.hasNext()) {
+			String term = termIter.next();
+			if (!sourceFileTermIDs.containsKey(term)) {
+				newTerms.add(term);
+			}
+		}
+
+		if (!newTerms.isEmpty()) {
+			// Sorted terms get the same term IDs for the same corpora
+			Collections.sort(newTerms);
+			batchWriter.insertTerms(newTerms);
+			sourceFileTermIDs = sourceFileDAO.getTermMap();
+		}
+
+		HashMap<Integer, Integer> termIDs = new HashMap<Integer, Integer>();
+		Iterator<Map.Entry<Integer, String>> termEntryIter = terms.entrySet().iterator();
+		while (termEntryIter.hasNext()) {
+			Map.Entry<Integer, String> termEntry = termEntryIter.next();
+			termIDs.put(termEntry.getKey(), sourceFileTermIDs.get(termEntry.getValue()));
+		}
+		return termIDs;
+	}
+
+	/**
+	 * @see edu.skku.selab.blia.indexer.IVectorCreator#create()
+	 * @return count of source files whose term weights are written
+	 */
+	public int create(String version) throws Exception {
 		Property property = Property.getInstance();
-		Hashtable<String, Integer> inverseDocCountTable = getInverseDocCountTable(version);
-		// set total word count
-		property.setWordCount(inverseDocCountTable.size());	
-		
 		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		HashMap<String, SourceFileCorpus> corpusMap = sourceFileDAO.getCorpusMap(version);
+		HashMap<String, Integer> sourceFileVersionIDs = sourceFileDAO.getSourceFileVersionIDs(version);
+		int fileCount = sourceFileDAO.getSourceFileCount(version);
 
-		// insert corpus
-		String term = "";
-		Iterator<String> idcTableIter = inverseDocCountTable.keySet().iterator();
-		while (idcTableIter.hasNext()) {
-			term = idcTableIter.next();
-			sourceFileDAO.insertTerm(term);
+		// Term counts of each file and document counts of each term
+		ArrayList<String> fileNames = new ArrayList<String>(corpusMap.keySet());
+		Collections.sort(fileNames);
+		TermCounts termCountsList[] = new TermCounts[fileNames.size()];
+		int totalCorpusLengths[] = new int[fileNames.size()];
+		HashSet<Integer> blankTermIDs = getBlankTermIDs();
+		HashMap<Integer, Integer> inverseDocCounts = new HashMap<Integer, Integer>();
+		for (int i = 0; i < fileNames.size(); i++) {
+			// Corpus isn't kept after its terms are counted
+			TermCounts termCounts = new TermCounts(corpusMap.remove(fileNames.get(i)), blankTermIDs);
+			for (int j = 0; j < termCounts.termIDs.size(); j++) {
+				int termID = termCounts.termIDs.get(j);
+				Integer inverseDocCount = inverseDocCounts.get(termID);
+				inverseDocCounts.put(termID, (null == inverseDocCount) ? 1 : inverseDocCount + 1);
+			}
+			termCountsList[i] = termCounts;
+			totalCorpusLengths[i] = termCounts.totalCount;
 		}
-		
-		HashMap<String, SourceFileCorpus> corpusMap = sourceFileDAO.getCorpusMap(version);
-		
-		String fileName = "";
-		int totalCorpusCount = 0;
-		int termCount = 0;
-		int inverseDocCount = 0;
-		String corpusSet = "";
-		Iterator<String> corpusSetsIter = corpusMap.keySet().iterator();
-		while (corpusSetsIter.hasNext()) {
-			fileName = corpusSetsIter.next();
-			corpusSet = corpusMap.get(fileName).getContent();
-			
-//			System.out.printf("File Name: %s\n", fileName);
-//			System.out.printf("CorpusSet: %s\n", corpusSet);
-
-			// get term count
-			String termArray[] = corpusSet.split(" ");
-			totalCorpusCount = 0;
-			Hashtable<String, Integer> termTable = new Hashtable<String, Integer>();
-			for (int i = 0; i < termArray.length; i++) {
-				term = termArray[i];
-				if (!term.trim().equals("")) {
-					totalCorpusCount++;
-					if (termTable.containsKey(term)) {
-						Integer count = (Integer) termTable.get(term);
-						count = Integer.valueOf(count.intValue() + 1);
-						termTable.remove(term);
-						termTable.put(term, count);
-					} else {
-						termTable.put(term, Integer.valueOf(1));
-					}
+		// set total word count
+		property.setWordCount(inverseDocCounts.size());
+
+		double lengthScores[] = computeLengthScores(totalCorpusLengths);
+
+		SourceFileVectorBatchWriter batchWriter = new SourceFileVectorBatchWriter(version);
+		HashMap<Integer, Integer> sourceFileTermIDs = insertNewTerms(sourceFileDAO, batchWriter, inverseDocCounts);
+
+		// Stored term weights are kept when the document count and IDF of every term of the file are same.
+		// A changed document count changes all IDFs, so all term weights are written again.
+		HashSet<Integer> weightedVersionIDs = sourceFileDAO.getWeightedSourceFileVersionIDs(version);
+		HashMap<Integer, AnalysisValue> storedIdfValues = weightedVersionIDs.isEmpty() ?
+				new HashMap<Integer, AnalysisValue>() : sourceFileDAO.getStoredIdfValues(version);
+		int rewrittenCount = 0;
+
+		for (int i = 0; i < fileNames.size(); i++) {
+			String fileName = fileNames.get(i);
+			int sourceFileVersionID = sourceFileVersionIDs.get(fileName);
+			TermCounts termCounts = termCountsList[i];
+			// Release term counts after the weights are written
+			termCountsList[i] = null;
+
+			double corpusNorm = 0.0D;
+			double classCorpusNorm = 0.0D;
+			double methodCorpusNorm = 0.0D;
+			double variableNorm = 0.0D;
+			double commentNorm = 0.0D;
+
+			int fileTermCount = termCounts.termIDs.size();
+			int fileTermIDs[] = new int[fileTermCount];
+			int inverseDocCountArray[] = new int[fileTermCount];
+			double idfs[] = new double[fileTermCount];
+			boolean rewritten = !weightedVersionIDs.contains(sourceFileVersionID);
+			for (int j = 0; j < fileTermCount; j++) {
+				int termID = termCounts.termIDs.get(j);
+				int inverseDocCount = inverseDocCounts.get(termID);
+				fileTermIDs[j] = sourceFileTermIDs.get(termID);
+				inverseDocCountArray[j] = inverseDocCount;
+				idfs[j] = getIdfValue(inverseDocCount, fileCount);
+
+				AnalysisValue storedIdfValue = storedIdfValues.get(fileTermIDs[j]);
+				if (null == storedIdfValue || storedIdfValue.getInvDocCount() != inverseDocCount || storedIdfValue.getIdf() != idfs[j]) {
+					rewritten = true;
 				}
 			}
-			
-			sourceFileDAO.updateTotalCoupusCount(fileName, version, totalCorpusCount);
-
-			Iterator<String> termTableIter = termTable.keySet().iterator();
-			while (termTableIter.hasNext()) {
-				term = termTableIter.next();
-				termCount = termTable.get(term);
-				inverseDocCount = inverseDocCountTable.get(term).intValue();
-				AnalysisValue termWeight = new AnalysisValue(fileName, version, term, termCount, inverseDocCount);
-				sourceFileDAO.insertTermWeight(termWeight);		
+			if (rewritten) {
+				if (weightedVersionIDs.contains(sourceFileVersionID)) {
+					batchWriter.deleteTermWeights(sourceFileVersionID);
+				}
+				rewrittenCount++;
 			}
-		}
-	}
-    
-    public static HashSet<String> CorpusToSet(String corpus) {
-    	HashSet<String> termSet = new HashSet<String>();
-    	
-    	String[] stringArray = corpus.split(" ");
-   		for (int i = 0; i < stringArray.length; i++) {
-   			termSet.add(stringArray[i]);
-    	}
-    	
-    	return termSet;
-    }
-    
-    private class WorkerThread implements Runnable {
-    	private String fileName;
-    	private String version;
-    	
-    	
-        public WorkerThread(String fileName, String version){
-            this.fileName = fileName;
-            this.version = version;
-        }
-     
-        @Override
-        public void run() {
-			// Compute similarity between Bug report & source files
-        	
-        	try {
-        		insertDataToDb();
-        	} catch (Exception e) {
-        		e.printStackTrace();
-        	}
-        }
-        
-        private void insertDataToDb() throws Exception {
-        	SourceFileDAO sourceFileDAO = new SourceFileDAO();
-        	
-//			if (fileName.equalsIgnoreCase("org.eclipse.swt.internal.win32.NMCUSTOMDRAW.java")) {
-				Integer totalTermCount = totalCorpusLengths.get(fileName);
-				
-				HashMap<String, AnalysisValue> sourceFileTermMap = sourceFileDAO.getTermMap(fileName, version);
-				if (sourceFileTermMap == null) {
-					// debug code
-					System.out.printf("[SourceFileVectorCreator.create()] The file name that has no valid terms: %s\n", fileName);
-					return;
+
+			for (int j = 0; j < fileTermCount; j++) {
+				int parts = termCounts.parts.get(j);
+				int count = termCounts.counts.get(j);
+				double tf = getTfValue(count, termCounts.totalCount);
+				double idf = idfs[j];
+				double termWeightValue = (tf * idf);
+				double termWeightValueSquare = termWeightValue * termWeightValue;
+
+				corpusNorm += termWeightValueSquare;
+
+				if (0 != (parts & CLASS_PART)) {
+					classCorpusNorm += termWeightValueSquare;
 				}
 
-				double corpusNorm = 0.0D;
-				double classCorpusNorm = 0.0D;
-				double methodCorpusNorm = 0.0D;
-				double variableNorm = 0.0D;
-				double commentNorm = 0.0D;
-				
-				SourceFileCorpus sourceFileCorpus = sourceFileCorpusMap.get(fileName);
-				HashSet<String> classTermSet = CorpusToSet(sourceFileCorpus.getClassPart());
-				HashSet<String> methodTermSet = CorpusToSet(sourceFileCorpus.getMethodPart());
-				HashSet<String> variableTermSet = CorpusToSet(sourceFileCorpus.getVariablePart());
-				HashSet<String> commentTermSet = CorpusToSet(sourceFileCorpus.getCommentPart());				
-				
-				Iterator<String> sourceFileTermIter = sourceFileTermMap.keySet().iterator();
-				while (sourceFileTermIter.hasNext()) {
-					String term = sourceFileTermIter.next();
-					AnalysisValue termWeight = sourceFileTermMap.get(term);
-					double tf = getTfValue(termWeight.getTermCount(), totalTermCount.intValue());
-					double idf = getIdfValue(termWeight.getInvDocCount(), fileCount);
-					double termWeightValue = (tf * idf);
-					double termWeightValueSquare = termWeightValue * termWeightValue;
-					
-//					System.out.printf("term: %s, termCount: %d, documentCount: %d, tf: %f, idf: %f, termWeight: %f\n",
-//							term, termWeight.getTermCount(), termWeight.getInvDocCount(), tf, idf, termWeightValue);
-					corpusNorm += termWeightValueSquare;
-					
-					if (classTermSet.contains(term)) {
-						classCorpusNorm += termWeightValueSquare;
-					}
-
-					if (methodTermSet.contains(term)) {
-						methodCorpusNorm += termWeightValueSquare;
-					}
-
-					if (variableTermSet.contains(term)) {
-						variableNorm += termWeightValueSquare;
-					}
-
-					if (commentTermSet.contains(term)) {
-						commentNorm += termWeightValueSquare;
-					}
-
-					termWeight.setTf(tf);
-					termWeight.setIdf(idf);
-					sourceFileDAO.updateTermWeight(termWeight);
+				if (0 != (parts & METHOD_PART)) {
+					methodCorpusNorm += termWeightValueSquare;
 				}
-				corpusNorm = Math.sqrt(corpusNorm);
-				classCorpusNorm = Math.sqrt(classCorpusNorm);
-				methodCorpusNorm = Math.sqrt(methodCorpusNorm);
-				variableNorm = Math.sqrt(variableNorm);
-				commentNorm = Math.sqrt(commentNorm);
-//				System.out.printf(">>>> corpusNorm: %f, classCorpusNorm: %f, methodCorpusNorm: %f, variableNorm: %f, commentNorm: %f\n",
-//						corpusNorm, classCorpusNorm, methodCorpusNorm, variableNorm, variableNorm);
-				
-				sourceFileDAO.updateNormValues(fileName, version, corpusNorm, classCorpusNorm, methodCorpusNorm, variableNorm, commentNorm);
-        }
-    }
 
+				if (0 != (parts & VARIABLE_PART)) {
+					variableNorm += termWeightValueSquare;
+				}
 
-	/* (non-Javadoc)
-	 * @see edu.skku.selab.blia.indexer.IVectorCreator#create()
-	 */
-	public void create(String version) throws Exception {
-		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-		totalCorpusLengths = sourceFileDAO.getTotalCorpusLengths(version);
-		sourceFileCorpusMap = sourceFileDAO.getCorpusMap(version);
-		fileCount = sourceFileDAO.getSourceFileCount(version);
-		
-		// Calculate vector
-		Iterator<String> fileNameIter = totalCorpusLengths.keySet().iterator();
-		ExecutorService executor = Executors.newFixedThreadPool(Property.THREAD_COUNT);
-		while (fileNameIter.hasNext()) {
-			String fileName = fileNameIter.next();
-			Runnable worker = new WorkerThread(fileName, version);
-			executor.execute(worker);
-		}
-		
-		executor.shutdown();
-		while (!executor.isTerminated()) {
+				if (0 != (parts & COMMENT_PART)) {
+					commentNorm += termWeightValueSquare;
+				}
+
+				if (rewritten) {
+					batchWriter.insertTermWeight(sourceFileVersionID, fileTermIDs[j], count, inverseDocCountArray[j], tf, idf);
+				}
+			}
+
+			batchWriter.updateSourceFileVector(sourceFileVersionID, termCounts.totalCount, lengthScores[i],
+					Math.sqrt(corpusNorm), Math.sqrt(classCorpusNorm), Math.sqrt(methodCorpusNorm), Math.sqrt(variableNorm), Math.sqrt(commentNorm));
 		}
+
+		batchWriter.commit();
+		System.out.printf("[SourceFileVectorCreator] Term weights of %d of %d files are written.\n", rewrittenCount, fileNames.size());
+		return rewrittenCount;
 	}
-	
-	private float getTfValue(int freq, int totalTermCount) {
-		return (float) Math.log(freq) + 1.0F;
+
+	private double getTfValue(int freq, int totalTermCount) {
+		return Math.log(freq) + 1.0D;
 	}
 
-	private float getIdfValue(double docCount, double totalCount) {
-		return (float) Math.log(totalCount / docCount);
+	private double getIdfValue(double docCount, double totalCount) {
+		return Math.log(totalCount / docCount);
 	}
 
 }
@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.indexer;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.skku.selab.blp.common.StackFrame;
+import edu.skku.selab.blp.common.StackTrace;
+
+/**
+ * Extracts stack frames and exception types from a text of a bug in one scan.
+ * 
+ * The scanner stops only at '(' followed by a frame location, like "(Clipboard.java:275)" or "(Native Method)",
+ * then matches the precompiled frame pattern in the run of frame characters before it.
+ * Because a location always has ':' or ' ', which can't be in a frame name, found frames are the same
+ * as matches of the frame pattern over the whole text.
+ * Qualified names ending with "Exception" or "Error" out of frames are exception types.
+ * 
+ * Instances are stateless, so they can be shared by threads.
+ * 
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class StackTraceExtractor {
+	private final static String LOCATION_PATTERN_STRING =
+			"([a-zA-Z_][a-zA-Z0-9_\\-]*\\.java:[0-9]*|[a-zA-Z_][a-zA-Z0-9_\\-]*\\.java\\((?i)inlined compiled code\\)|[a-zA-Z_][a-zA-Z0-9_\\-]*\\.java\\((?i)compiled code\\)|(?i)native method|(?i)unknown source)\\)";
+	private final static Pattern FRAME_PATTERN = Pattern.compile("(([a-zA-Z0-9_\\-$]*\\.)*[a-zA-Z_<][a-zA-Z0-9_\\-$>]*" +
+			"[a-zA-Z_<(][a-zA-Z0-9_\\-$>);/\\[]*" +
+			"\\(" + LOCATION_PATTERN_STRING + ")");
+	private final static Pattern LOCATION_PATTERN = Pattern.compile(LOCATION_PATTERN_STRING);
+	
+	private final static String JAVA_FILE_EXTENSION = ".java";
+	private final static String EXCEPTION_SUFFIX = "Exception";
+	private final static String ERROR_SUFFIX = "Error";
+	
+	/**
+	 * @param content text of the description or a comment, whose HTML entities are decoded
+	 * @param bugID bug ID for error messages
+	 * @return frames and exception types in the order of the content
+	 */
+	public StackTrace extract(String content, int bugID) {
+		StackTrace stackTrace = new StackTrace();
+		Matcher frameMatcher = FRAME_PATTERN.matcher(content);
+		Matcher locationMatcher = LOCATION_PATTERN.matcher(content);
+		
+		int length = content.length();
+		// Start of the current run of frame characters
+		int runStart = 0;
+		// End of the last found frame
+		int frameEnd = 0;
+		int i = 0;
+		while (i < length) {
+			char c = content.charAt(i);
+			if (!isFrameChar(c)) {
+				runStart = ++i;
+				continue;
+			}
+			
+			if ('(' == c) {
+				locationMatcher.region(i + 1, length);
+				if (locationMatcher.lookingAt()) {
+					frameMatcher.region(Math.max(runStart, frameEnd), locationMatcher.end());
+					if (frameMatcher.find()) {
+						stackTrace.addFrame(createFrame(frameMatcher.group(), content.substring(i + 1, locationMatcher.end() - 1), bugID));
+						frameEnd = frameMatcher.end();
+						i = frameEnd;
+						continue;
+					}
+				}
+				i++;
+				continue;
+			}
+			
+			if (isNameStart(c) && (i == 0 || !isNamePart(content.charAt(i - 1)))) {
+				int nameEnd = scanQualifiedName(content, i);
+				if (nameEnd >= length || ('(' != content.charAt(nameEnd) && '.' != content.charAt(nameEnd))) {
+					String name = content.substring(i, nameEnd);
+					if (isExceptionType(name) && !stackTrace.getExceptionTypes().contains(name)) {
+						stackTrace.addExceptionType(name);
+					}
+				}
+				i = nameEnd;
+				continue;
+			}
+			i++;
+		}
+		return stackTrace;
+	}
+	
+	/**
+	 * @param foundFrame matched text of the frame pattern
+	 * @param location text between parentheses of the location
+	 */
+	private StackFrame createFrame(String foundFrame, String location, int bugID) {
+		String qualifiedMethodName = foundFrame.substring(0, foundFrame.indexOf('('));
+		
+		String className = "";
+		if (qualifiedMethodName.contains("$")) {
+			className = qualifiedMethodName.substring(0, qualifiedMethodName.lastIndexOf("$"));
+		} else {
+			if (-1 == qualifiedMethodName.lastIndexOf(".")) {
+				System.err.printf("[StackTraceExtractor.extract()] BugID: %d, Wrong stack trace: %s\n", bugID, foundFrame);
+			} else {
+				className = qualifiedMethodName.substring(0, qualifiedMethodName.lastIndexOf("."));
+			}
+		}
+		String methodName = qualifiedMethodName.substring(qualifiedMethodName.lastIndexOf(".") + 1);
+		
+		String fileName = null;
+		int lineNumber = StackFrame.UNKNOWN_LINE_NUMBER;
+		int extensionIndex = location.indexOf(JAVA_FILE_EXTENSION);
+		if (-1 != extensionIndex) {
+			int fileNameEnd = extensionIndex + JAVA_FILE_EXTENSION.length();
+			fileName = location.substring(0, fileNameEnd);
+			if (fileNameEnd + 1 < location.length() && ':' == location.charAt(fileNameEnd)) {
+				try {
+					lineNumber = Integer.parseInt(location.substring(fileNameEnd + 1));
+				} catch (NumberFormatException e) {
+					// Too long line number is kept unknown
+				}
+			}
+		}
+		
+		return new StackFrame(className, methodName, fileName, lineNumber);
+	}
+	
+	/**
+	 * @return end index of the qualified name which starts at the index
+	 */
+	private int scanQualifiedName(String content, int start) {
+		int length = content.length();
+		int end = start;
+		while (end < length) {
+			if (isNamePart(content.charAt(end))) {
+				end++;
+			} else if ('.' == content.charAt(end) && end + 1 < length && isNameStart(content.charAt(end + 1))) {
+				end += 2;
+			} else {
+				break;
+			}
+		}
+		return end;
+	}
+	
+	private boolean isExceptionType(String name) {
+		String simpleName = name.substring(name.lastIndexOf('.') + 1);
+		if (!Character.isUpperCase(simpleName.charAt(0))) {
+			return false;
+		}
+		
+		return (simpleName.length() > EXCEPTION_SUFFIX.length() && simpleName.endsWith(EXCEPTION_SUFFIX)) ||
+				(simpleName.length() > ERROR_SUFFIX.length() && simpleName.endsWith(ERROR_SUFFIX));
+	}
+	
+	/**
+	 * @return true if the character can be in a frame name before the location
+	 */
+	private boolean isFrameChar(char c) {
+		return isNamePart(c) || '.' == c || '-' == c || '<' == c || '>' == c ||
+				'(' == c || ')' == c || ';' == c || '/' == c || '[' == c;
+	}
+	
+	private boolean isNameStart(char c) {
+		return ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || '_' == c || '$' == c;
+	}
+	
+	private boolean isNamePart(char c) {
+		return isNameStart(c) || ('0' <= c && c <= '9');
+	}
+}
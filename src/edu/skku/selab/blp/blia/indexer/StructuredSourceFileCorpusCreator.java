@@ -13,11 +13,10 @@ import java.util.TreeSet;
 
 import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.common.SourceFileCorpus;
-import edu.skku.selab.blp.common.FileDetector;
 import edu.skku.selab.blp.common.FileParser;
 import edu.skku.selab.blp.common.Method;
-import edu.skku.selab.blp.db.dao.BaseDAO;
-import edu.skku.selab.blp.db.dao.MethodDAO;
+import edu.skku.selab.blp.common.SourceFileStructure;
+import edu.skku.selab.blp.db.dao.SourceFileCorpusBatchWriter;
 import edu.skku.selab.blp.db.dao.SourceFileDAO;
 
 /**
@@ -25,9 +24,10 @@ import edu.skku.selab.blp.db.dao.SourceFileDAO;
  *
  */
 public class StructuredSourceFileCorpusCreator extends SourceFileCorpusCreator {
-	public SourceFileCorpus create(File file) {
-		FileParser parser = new FileParser(file);
-		String fileName = parser.getPackageName();
+	@Override
+	protected SourceFileCorpus create(File file, FileParser parser) {
+		SourceFileStructure structure = parser.getStructure();
+		String fileName = structure.getPackageName();
 		if (fileName.trim().equals("")) {
 			fileName = file.getName();
 		} else {
@@ -36,30 +36,25 @@ public class StructuredSourceFileCorpusCreator extends SourceFileCorpusCreator {
 		}
 		fileName = fileName.substring(0, fileName.lastIndexOf("."));
 		
-		// parser.getImportedClassed() function should be called before calling parser.getContents()
-		ArrayList<String> importedClasses = parser.getImportedClasses();
+		ArrayList<String> importedClasses = structure.getImportedClasses();
 		
 		String classIdentifiers[] = parser.getStructuredContentWithFullyIdentifier(FileParser.CLASS_PART);		
 		String classPart = stemContent(classIdentifiers);
-		String classContents[] = parser.getStructuredContent(FileParser.CLASS_PART);
-		classPart += " " + stemContent(classContents);
+		classPart += " " + stemSourceCode(parser.getStructuredPart(FileParser.CLASS_PART));
 
 		String methodIdentifiers[] = parser.getStructuredContentWithFullyIdentifier(FileParser.METHOD_PART);
 		String methodPart = stemContent(methodIdentifiers);
-		String methodContents[] = parser.getStructuredContent(FileParser.METHOD_PART);
-		methodPart += " " + stemContent(methodContents);
+		methodPart += " " + stemSourceCode(parser.getStructuredPart(FileParser.METHOD_PART));
 
 //		String variablePart = parser.getStructuredContentWithFullyIdentifier(FileParser.VARIABLE_PART);	
 //		String variableContents[] = parser.getStructuredContent(FileParser.VARIABLE_PART);
 		
-		String variableContents[] = parser.getStructuredContent(FileParser.VARIABLE_PART);
-		String variablePart = stemContent(variableContents);
+		String variablePart = stemSourceCode(parser.getStructuredPart(FileParser.VARIABLE_PART));
 
-		String commentContents[] = parser.getStructuredContent(FileParser.COMMENT_PART);
-		String commentPart = stemContent(commentContents);
+		String commentPart = stemSourceCode(parser.getStructuredPart(FileParser.COMMENT_PART));
 		
 		String sourceCodeContent = classPart + " " + methodPart + " " + variablePart + " " + commentPart;
-		ArrayList<Method> methodList =  parser.getAllMethodList();
+		ArrayList<Method> methodList = structure.getAllMethodList();
 		
 		SourceFileCorpus corpus = new SourceFileCorpus();
 		corpus.setJavaFilePath(file.getAbsolutePath());
@@ -80,11 +75,11 @@ public class StructuredSourceFileCorpusCreator extends SourceFileCorpusCreator {
 	 */
 	public void create(String version) throws Exception {
 		Property property = Property.getInstance();
-		FileDetector detector = new FileDetector("java");
-		File files[] = detector.detect(property.getSourceCodeDirList());
+		ArrayList<File> files = new ArrayList<File>();
+		ArrayList<String> contentHashes = new ArrayList<String>();
 		
-		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-		MethodDAO methodDAO = new MethodDAO();
+		// Files are parsed in parallel, then inserted in the order of files to keep source file IDs and the duplicated class rule
+		SourceFileCorpus corpuses[] = parseSourceFiles(version, files, contentHashes);
 		
 		String productName = property.getProductName();
 		int totalCoupusCount = SourceFileDAO.INIT_TOTAL_COUPUS_COUNT;
@@ -94,17 +89,19 @@ public class StructuredSourceFileCorpusCreator extends SourceFileCorpusCreator {
 //		System.out.printf("Source code dir: %s\n", property.getSourceCodeDir());
 //		
 //		FileWriter tempWriter = new FileWriter(".\\temp.txt");
-//		for (int i = 0; i < files.length; i++) {
-//			tempWriter.write("[" + (i+1) + "] " + files[i].getAbsolutePath() + "\n"); 
-//			System.out.printf("[%d] %s\n", i + 1, files[i].getAbsolutePath());
+//		for (int i = 0; i < files.size(); i++) {
+//			tempWriter.write("[" + (i+1) + "] " + files.get(i).getAbsolutePath() + "\n"); 
+//			System.out.printf("[%d] %s\n", i + 1, files.get(i).getAbsolutePath());
 //		}
 //		tempWriter.close();
 
-		int count = 0;
-		TreeSet<String> nameSet = new TreeSet<String>();
-		for (int i = 0; i < files.length; i++) {
-			File file = files[i];
-			SourceFileCorpus corpus = create(file);
+		TreeSet<String> nameSet = getIndexedClassNames(version);
+		SourceFileCorpusBatchWriter batchWriter = new SourceFileCorpusBatchWriter(version, totalCoupusCount, lengthScore);
+		for (int i = 0; i < files.size(); i++) {
+			File file = files.get(i);
+			SourceFileCorpus corpus = corpuses[i];
+			// Release the parsed corpus after it is buffered
+			corpuses[i] = null;
 
 			if (corpus != null && !nameSet.contains(corpus.getJavaFileFullClassName())) {
 				String className = corpus.getJavaFileFullClassName();
@@ -128,37 +125,33 @@ public class StructuredSourceFileCorpusCreator extends SourceFileCorpusCreator {
 					// Wrong file that has invalid package or path
 					if (!fileName.endsWith(className)) {
 						System.err.printf("[StructuredSourceFileCorpusCreator.create()] %s, %s\n", fileName, className);
+						batchWriter.insertSkippedFile(file.getAbsolutePath(), contentHashes.get(i));
 						continue;
 					}
 					
 					fileName = className;
 				}
 				
-				int sourceFileID = sourceFileDAO.insertSourceFile(fileName, className);
-				if (BaseDAO.INVALID == sourceFileID) {
-					System.err.printf("[StructuredSourceFileCorpusCreator.create()] %s insertSourceFile() failed.\n", className);
-					throw new Exception(); 
-				}
-				
-				int sourceFileVersionID = sourceFileDAO.insertCorpusSet(sourceFileID, version, corpus, totalCoupusCount, lengthScore);
-				if (BaseDAO.INVALID == sourceFileVersionID) {
-					System.err.printf("[StructuredSourceFileCorpusCreator.create()] %s insertCorpusSet() failed.\n", className);
-					throw new Exception(); 
-				}
-				
-				ArrayList<Method> methodList = corpus.getMethodList();
-				for (int j = 0; j < methodList.size(); ++j) {
-					Method method = methodList.get(j);
-					method.setSourceFileVersionID(sourceFileVersionID);
-					methodDAO.insertMethod(method);
+				try {
+					batchWriter.insertCorpus(fileName, className, corpus, contentHashes.get(i));
+				} catch (Exception e) {
+					System.err.printf("[StructuredSourceFileCorpusCreator.create()] %s\n", e.getMessage());
+					throw e;
 				}
-
-				sourceFileDAO.insertImportedClasses(sourceFileVersionID, corpus.getImportedClasses());
 				nameSet.add(corpus.getJavaFileFullClassName());
-				count++;
+			} else {
+				batchWriter.insertSkippedFile(file.getAbsolutePath(), contentHashes.get(i));
 			}
 		}
+		
+		try {
+			batchWriter.flush();
+		} catch (Exception e) {
+			System.err.printf("[StructuredSourceFileCorpusCreator.create()] %s\n", e.getMessage());
+			throw e;
+		}
 
-		property.setFileCount(count);
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		property.setFileCount(sourceFileDAO.getSourceFileCount(version));
 	}
 }
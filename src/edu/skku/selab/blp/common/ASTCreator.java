@@ -7,13 +7,8 @@
  */
 package edu.skku.selab.blp.common;
 
-import java.io.BufferedReader;
-
 import java.io.File;
-import java.io.FileReader;
 
-import org.eclipse.jdt.core.dom.AST;
-import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 /**
@@ -21,6 +16,14 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
  *
  */
 public class ASTCreator {
+	// Parser of each thread, which is reused for all files of the thread
+	private static ThreadLocal<JavaSourceParser> sourceParser = new ThreadLocal<JavaSourceParser>() {
+		@Override
+		protected JavaSourceParser initialValue() {
+			return new JavaSourceParser(JavaSourceParser.getDefaultOptions());
+		}
+	};
+	
 	private String content;
 
 	public ASTCreator() {
@@ -32,26 +35,11 @@ public class ASTCreator {
 	}
 
 	public void getFileContent(String absoluteFilePath) {
-		try {
-			StringBuffer contentBuffer = new StringBuffer();
-			String line = null;
-			BufferedReader reader = new BufferedReader(new FileReader(
-					absoluteFilePath));
-			while ((line = reader.readLine()) != null)
-				contentBuffer.append((new StringBuilder(String.valueOf(line)))
-						.append("\r\n").toString());
-			content = contentBuffer.toString();
-			reader.close();
-		} catch (Exception ex) {
-			ex.printStackTrace();
-		}
+		content = JavaSourceParser.readSource(new File(absoluteFilePath));
 	}
 
 	public CompilationUnit getCompilationUnit() {
-		ASTParser parser = ASTParser.newParser(AST.JLS3);
-		parser.setSource(content.toCharArray());
-		CompilationUnit compilationUnit = (CompilationUnit) parser.createAST(null);
-		return compilationUnit;
+		return sourceParser.get().parse(content);
 	}
 
 	/**
@@ -30,6 +30,7 @@ public class Bug {
     private int	totalCorpusCount;
     private String version;
     private ArrayList<String> stackTraceClasses;
+    private StackTrace stackTrace;
     
     public Bug() {
     	this.ID = 0;
@@ -44,6 +45,7 @@ public class Bug {
     	this.fixedFiles = new TreeSet<String>();
     	this.fixedCommitInfos = new ArrayList<ExtendedCommitInfo>();
     	this.stackTraceClasses = new ArrayList<String>();
+    	this.stackTrace = new StackTrace();
     }
     
     public Bug(int ID, String openDateString, String fixedDateString, String summary, String description, String version, TreeSet<String> fixedFiles) {
@@ -59,6 +61,7 @@ public class Bug {
     	this.fixedFiles = fixedFiles;
     	this.fixedCommitInfos = new ArrayList<ExtendedCommitInfo>();
     	this.stackTraceClasses = new ArrayList<String>();
+    	this.stackTrace = new StackTrace();
     }
 
     public int getID() {
@@ -214,6 +217,21 @@ public class Bug {
 		stackTraceClasses.add(stackTraceClass);
 	}
 
+	/**
+	 * @return frames and exception types extracted from the description and comments
+	 */
+	public StackTrace getStackTrace() {
+		return stackTrace;
+	}
+
+	/**
+	 * Append frames and exception types of the stack trace, and class names of its frames to the stackTraceClasses
+	 */
+	public void addStackTrace(StackTrace stackTrace) {
+		this.stackTrace.addAll(stackTrace);
+		stackTraceClasses.addAll(stackTrace.getClassNames());
+	}
+
 	/**
 	 * @return the version
 	 */
@@ -7,6 +7,8 @@
  */
 package edu.skku.selab.blp.common;
 
+import edu.skku.selab.blp.db.TermDictionary;
+
 /**
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
  *
@@ -61,6 +63,13 @@ public class BugCorpus {
 		this.summaryPart = summaryPart;
 	}
 
+	/**
+	 * @return term IDs of the summaryPart. Terms which aren't in source files are TermDictionary.UNKNOWN_TERM_ID.
+	 */
+	public int[] getSummaryPartTermIDs() {
+		return TermDictionary.getInstance().findTermIDs(summaryPart);
+	}
+
 	/**
 	 * @return the descriptionPart
 	 */
@@ -75,6 +84,13 @@ public class BugCorpus {
 		this.descriptionPart = descriptionPart;
 	}
 
+	/**
+	 * @return term IDs of the descriptionPart. Terms which aren't in source files are TermDictionary.UNKNOWN_TERM_ID.
+	 */
+	public int[] getDescriptionPartTermIDs() {
+		return TermDictionary.getInstance().findTermIDs(descriptionPart);
+	}
+
 	/**
 	 * @return the contentNorm
 	 */
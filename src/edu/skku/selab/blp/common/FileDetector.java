@@ -1,6 +1,6 @@
 /**
  * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
- * 
+ *
  * Permission to use, copy, modify, and distribute this software and its documentation for
  * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
  * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
@@ -8,92 +8,141 @@
 package edu.skku.selab.blp.common;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.EnumSet;
 
 /**
+ * Walks directory trees with Files.walkFileTree() and detects files matched with glob rules.
+ *
+ * A rule matches a file or directory if it matches the path relative to the root, or the name.
+ * Excluded directories aren't walked. Detected files are passed to a Visitor while the walk continues.
+ *
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
  *
  */
 public class FileDetector {
-	private LinkedList<File> fileList;
+	public interface Visitor {
+		public void visitFile(File file);
+	}
+
 	private String fileType;
+	private ArrayList<PathMatcher> includeMatchers;
+	private ArrayList<PathMatcher> excludeMatchers;
 
 	public FileDetector() {
-		fileList = new LinkedList<File>();
-		fileType = null;
+		this(new String[0], new String[0]);
 	}
 
 	public FileDetector(String fileType) {
-		fileList = new LinkedList<File>();
-		this.fileType = null;
+		this();
 		this.fileType = fileType;
 	}
-	
-	public File[] detect(String absoluteFilePath) {
-		File files[] = listFiles(absoluteFilePath);
-		if (files != null)
-			classifyFileAndDirectory(files);
-		return (File[]) fileList.toArray(new File[fileList.size()]);
-	}
 
-	public File[] detect(String[] absoluteFilePathList) {
-		File files[] = listFiles(absoluteFilePathList);
-		if (files != null)
-			classifyFileAndDirectory(files);
-		return (File[]) fileList.toArray(new File[fileList.size()]);
+	/**
+	 * @param includes glob rules of detected files. All files are detected if there is no rule.
+	 * @param excludes glob rules of files and directories which aren't detected. Blank rules are ignored.
+	 */
+	public FileDetector(String includes[], String excludes[]) {
+		fileType = null;
+		includeMatchers = createMatchers(includes);
+		excludeMatchers = createMatchers(excludes);
 	}
-	
-	private File[] listFiles(String[] absoluteFilePathList) {
-		ArrayList<File[]> filesArray = new ArrayList<File[]>(); 
-		for (int i = 0; i < absoluteFilePathList.length; i++) {
-			File dir = new File(absoluteFilePathList[i]);
-			filesArray.add(dir.listFiles());
-		}
-		
-		int fileCount = 0;
-		for (int i = 0; i < filesArray.size(); i++) {
-			fileCount += filesArray.get(i).length;
-		}
-		
-		File[] totalListFile = new File[fileCount];
-		int k = 0;
-		for (int i = 0; i < filesArray.size(); i++) {
-			for (int j = 0; j < filesArray.get(i).length; j++) {
-				totalListFile[k++] = filesArray.get(i)[j];
+
+	private static ArrayList<PathMatcher> createMatchers(String globs[]) {
+		ArrayList<PathMatcher> matchers = new ArrayList<PathMatcher>();
+		for (int i = 0; i < globs.length; i++) {
+			String glob = globs[i].trim();
+			if (glob.length() > 0) {
+				matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
 			}
 		}
-		
-		return totalListFile;
+		return matchers;
 	}
-	
-	private File[] listFiles(String absoluteFilePath) {
-		File dir = new File(absoluteFilePath);
-		return dir.listFiles();
+
+	private static boolean matches(ArrayList<PathMatcher> matchers, Path relativePath) {
+		Path name = relativePath.getFileName();
+		for (int i = 0; i < matchers.size(); i++) {
+			PathMatcher matcher = matchers.get(i);
+			if (matcher.matches(relativePath) || (null != name && matcher.matches(name))) {
+				return true;
+			}
+		}
+		return false;
 	}
 
-	private void classifyFileAndDirectory(File files[]) {
-		File afile[];
-		int j = (afile = files).length;
-		for (int i = 0; i < j; i++) {
-			File file = afile[i];
-			if (file.isDirectory())
-				detect(file.getAbsolutePath());
-			else
-				addFile(file);
+	private boolean isDetected(Path relativePath) {
+		if (null != fileType && !relativePath.toString().endsWith(fileType)) {
+			return false;
 		}
 
+		if (!includeMatchers.isEmpty() && !matches(includeMatchers, relativePath)) {
+			return false;
+		}
+		return !matches(excludeMatchers, relativePath);
+	}
+
+	public File[] detect(String absoluteFilePath) {
+		String absoluteFilePathList[] = {absoluteFilePath};
+		return detect(absoluteFilePathList);
 	}
 
-	private void addFile(File file) {
-		if (fileType == null)
-			fileList.add(file);
-		else
-			addFileBySuffix(file);
+	public File[] detect(String[] absoluteFilePathList) {
+		final ArrayList<File> fileList = new ArrayList<File>();
+		walk(absoluteFilePathList, new Visitor() {
+			public void visitFile(File file) {
+				fileList.add(file);
+			}
+		});
+		return fileList.toArray(new File[fileList.size()]);
 	}
 
-	private void addFileBySuffix(File file) {
-		if (file.getName().endsWith(fileType))
-			fileList.addLast(file);
+	/**
+	 * Walk roots in the order of them. Files of a directory are visited in the listed order,
+	 * and sub directories are walked when they are listed.
+	 *
+	 * @param absoluteFilePathList roots to be walked
+	 * @param visitor receives detected files
+	 */
+	public void walk(String[] absoluteFilePathList, final Visitor visitor) {
+		for (int i = 0; i < absoluteFilePathList.length; i++) {
+			final Path root = Paths.get(absoluteFilePathList[i]);
+			try {
+				Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+					@Override
+					public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+						if (!dir.equals(root) && matches(excludeMatchers, root.relativize(dir))) {
+							return FileVisitResult.SKIP_SUBTREE;
+						}
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+						if (!attrs.isDirectory() && isDetected(root.relativize(file))) {
+							visitor.visitFile(file.toFile());
+						}
+						return FileVisitResult.CONTINUE;
+					}
+
+					@Override
+					public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+						// Unreadable files and directories are skipped
+						return FileVisitResult.CONTINUE;
+					}
+				});
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
 	}
 }
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.common;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * Parses many sources with one ASTParser and one compiler option map.
+ *
+ * Compiler option maps are created once and shared by all parsers, instead of JavaCore.getOptions()
+ * for every source. A parser isn't thread-safe, so each thread uses its own parser.
+ * Only APIs of the bundled JDT core 3.4 are used, so JLS3 is the AST level.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class JavaSourceParser {
+	public interface Requestor {
+		public void acceptAST(File file, String source, CompilationUnit compilationUnit) throws Exception;
+	}
+
+	private static Map<String, String> defaultOptions = null;
+	private static Map<String, String> java7Options = null;
+
+	private Map<String, String> options;
+	private ASTParser parser;
+
+	/**
+	 * @param options shared compiler options, which aren't modified
+	 */
+	@SuppressWarnings("deprecation")
+	public JavaSourceParser(Map<String, String> options) {
+		this.options = options;
+		// JLS3 is the latest AST level of JDT core 3.4. Later releases deprecate it but still support it.
+		parser = ASTParser.newParser(AST.JLS3);
+	}
+
+	/**
+	 * @return default compiler options of JavaCore
+	 */
+	public static synchronized Map<String, String> getDefaultOptions() {
+		if (null == defaultOptions) {
+			defaultOptions = Collections.unmodifiableMap(copyOptions(JavaCore.getOptions()));
+		}
+		return defaultOptions;
+	}
+
+	/**
+	 * @return compiler options of Java 1.7 compliance
+	 */
+	public static synchronized Map<String, String> getJava7Options() {
+		if (null == java7Options) {
+			Map<String, String> options = copyOptions(JavaCore.getOptions());
+			JavaCore.setComplianceOptions(JavaCore.VERSION_1_7, options);
+			java7Options = Collections.unmodifiableMap(options);
+		}
+		return java7Options;
+	}
+
+	/**
+	 * @param options raw option table of JavaCore
+	 * @return copy of the options with option names and values
+	 */
+	private static Map<String, String> copyOptions(Map<?, ?> options) {
+		HashMap<String, String> copiedOptions = new HashMap<String, String>(options.size() * 2);
+		for (Map.Entry<?, ?> option : options.entrySet()) {
+			copiedOptions.put((String) option.getKey(), (String) option.getValue());
+		}
+		return copiedOptions;
+	}
+
+	/**
+	 * Read the file with "\r\n" line delimiters, so comment positions are same for all platforms.
+	 *
+	 * @param file
+	 * @return content of the file, null if the file can't be read
+	 */
+	public static String readSource(File file) {
+		String content = null;
+		StringBuilder contentBuilder = new StringBuilder((int) Math.min(file.length() + 1024, Integer.MAX_VALUE));
+		try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+			String line = null;
+			while ((line = reader.readLine()) != null) {
+				contentBuilder.append(line).append("\r\n");
+			}
+			content = contentBuilder.toString();
+		} catch (Exception ex) {
+			ex.printStackTrace();
+		}
+		return content;
+	}
+
+	public CompilationUnit parse(String source) {
+		// ASTParser resets its settings after createAST(), so they are set for every source
+		parser.setKind(ASTParser.K_COMPILATION_UNIT);
+		parser.setCompilerOptions(options);
+		parser.setSource(source.toCharArray());
+		return (CompilationUnit) parser.createAST(null);
+	}
+
+	/**
+	 * Parse files in the order of them with this parser
+	 *
+	 * @param files
+	 * @param requestor receives the AST of each file
+	 * @throws Exception exception of the requestor, or a file can't be read
+	 */
+	public void parse(File files[], Requestor requestor) throws Exception {
+		for (int i = 0; i < files.length; i++) {
+			String source = readSource(files[i]);
+			if (null == source) {
+				throw new Exception(String.format("%s can't be read.", files[i].getAbsolutePath()));
+			}
+
+			requestor.acceptAST(files[i], source, parse(source));
+		}
+	}
+}
@@ -9,6 +9,8 @@ package edu.skku.selab.blp.common;
 
 import java.util.ArrayList;
 
+import edu.skku.selab.blp.db.TermDictionary;
+
 /**
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
  *
@@ -22,6 +24,12 @@ public class SourceFileCorpus {
 	private String methodPart;
 	private String variablePart;
 	private String commentPart;
+	// Term IDs of the term dictionary, created from the part when they are needed.
+	// A part set with term IDs is decoded only when it is needed.
+	private int[] classPartTermIDs;
+	private int[] methodPartTermIDs;
+	private int[] variablePartTermIDs;
+	private int[] commentPartTermIDs;
 	private ArrayList<String> importedClasses;
 	private ArrayList<Method> methodList;
 	
@@ -89,9 +97,12 @@ public class SourceFileCorpus {
 	}
 
 	/**
-	 * @return the classPart
+	 * @return the classPart, decoded from its term IDs when it is set with them
 	 */
 	public String getClassPart() {
+		if (null == classPart && null != classPartTermIDs) {
+			classPart = TermDictionary.getInstance().toCorpus(classPartTermIDs);
+		}
 		return classPart;
 	}
 
@@ -100,12 +111,34 @@ public class SourceFileCorpus {
 	 */
 	public void setClassPart(String classPart) {
 		this.classPart = classPart;
+		classPartTermIDs = null;
+	}
+
+	/**
+	 * @return term IDs of the classPart
+	 */
+	public int[] getClassPartTermIDs() {
+		if (null == classPartTermIDs) {
+			classPartTermIDs = TermDictionary.getInstance().toTermIDs(classPart);
+		}
+		return classPartTermIDs;
+	}
+
+	/**
+	 * @param classPartTermIDs term IDs of the classPart to set
+	 */
+	public void setClassPartTermIDs(int[] classPartTermIDs) {
+		this.classPart = null;
+		this.classPartTermIDs = classPartTermIDs;
 	}
 
 	/**
-	 * @return the methodPart
+	 * @return the methodPart, decoded from its term IDs when it is set with them
 	 */
 	public String getMethodPart() {
+		if (null == methodPart && null != methodPartTermIDs) {
+			methodPart = TermDictionary.getInstance().toCorpus(methodPartTermIDs);
+		}
 		return methodPart;
 	}
 
@@ -114,12 +147,34 @@ public class SourceFileCorpus {
 	 */
 	public void setMethodPart(String methodPart) {
 		this.methodPart = methodPart;
+		methodPartTermIDs = null;
+	}
+
+	/**
+	 * @return term IDs of the methodPart
+	 */
+	public int[] getMethodPartTermIDs() {
+		if (null == methodPartTermIDs) {
+			methodPartTermIDs = TermDictionary.getInstance().toTermIDs(methodPart);
+		}
+		return methodPartTermIDs;
+	}
+
+	/**
+	 * @param methodPartTermIDs term IDs of the methodPart to set
+	 */
+	public void setMethodPartTermIDs(int[] methodPartTermIDs) {
+		this.methodPart = null;
+		this.methodPartTermIDs = methodPartTermIDs;
 	}
 
 	/**
-	 * @return the variablePart
+	 * @return the variablePart, decoded from its term IDs when it is set with them
 	 */
 	public String getVariablePart() {
+		if (null == variablePart && null != variablePartTermIDs) {
+			variablePart = TermDictionary.getInstance().toCorpus(variablePartTermIDs);
+		}
 		return variablePart;
 	}
 
@@ -128,12 +183,34 @@ public class SourceFileCorpus {
 	 */
 	public void setVariablePart(String variablePart) {
 		this.variablePart = variablePart;
+		variablePartTermIDs = null;
 	}
 
 	/**
-	 * @return the commentPart
+	 * @return term IDs of the variablePart
+	 */
+	public int[] getVariablePartTermIDs() {
+		if (null == variablePartTermIDs) {
+			variablePartTermIDs = TermDictionary.getInstance().toTermIDs(variablePart);
+		}
+		return variablePartTermIDs;
+	}
+
+	/**
+	 * @param variablePartTermIDs term IDs of the variablePart to set
+	 */
+	public void setVariablePartTermIDs(int[] variablePartTermIDs) {
+		this.variablePart = null;
+		this.variablePartTermIDs = variablePartTermIDs;
+	}
+
+	/**
+	 * @return the commentPart, decoded from its term IDs when it is set with them
 	 */
 	public String getCommentPart() {
+		if (null == commentPart && null != commentPartTermIDs) {
+			commentPart = TermDictionary.getInstance().toCorpus(commentPartTermIDs);
+		}
 		return commentPart;
 	}
 
@@ -142,6 +219,25 @@ public class SourceFileCorpus {
 	 */
 	public void setCommentPart(String commentPart) {
 		this.commentPart = commentPart;
+		commentPartTermIDs = null;
+	}
+
+	/**
+	 * @return term IDs of the commentPart
+	 */
+	public int[] getCommentPartTermIDs() {
+		if (null == commentPartTermIDs) {
+			commentPartTermIDs = TermDictionary.getInstance().toTermIDs(commentPart);
+		}
+		return commentPartTermIDs;
+	}
+
+	/**
+	 * @param commentPartTermIDs term IDs of the commentPart to set
+	 */
+	public void setCommentPartTermIDs(int[] commentPartTermIDs) {
+		this.commentPart = null;
+		this.commentPartTermIDs = commentPartTermIDs;
 	}
 
 	/**
@@ -0,0 +1,324 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.BlockComment;
+import org.eclipse.jdt.core.dom.Comment;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ImportDeclaration;
+import org.eclipse.jdt.core.dom.Javadoc;
+import org.eclipse.jdt.core.dom.LineComment;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Type;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+/**
+ * Structured parts, methods and imports of a compilation unit, extracted with one AST traversal.
+ *
+ * Comments aren't nodes of the traversal, so the comment part is extracted from the comment list
+ * when it is requested at first.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class SourceFileStructure {
+	private CompilationUnit compilationUnit;
+	private String sourceString;
+
+	private String packageName;
+	private String allClassNames;
+	private String allMethodNames;
+	private String allInnerMethodNames;
+	private String allVariableNames;
+	private String allComments;
+	private ArrayList<Method> allMethodList;
+	private ArrayList<String> importedClasses;
+	private ArrayList<MethodDeclaration> methodDeclarations;
+
+	private static class ExtractionVisitor extends ASTVisitor {
+		private ArrayList<String> classNames = new ArrayList<String>();
+		private ArrayList<String> methodNames = new ArrayList<String>();
+		private ArrayList<Method> methods = new ArrayList<Method>();
+		private ArrayList<String> innerMethodNames = new ArrayList<String>();
+		private ArrayList<Method> innerMethods = new ArrayList<Method>();
+		private ArrayList<String> singleVariableNames = new ArrayList<String>();
+		private ArrayList<String> fragmentVariableNames = new ArrayList<String>();
+		private ArrayList<String> importedClasses = new ArrayList<String>();
+		private ArrayList<MethodDeclaration> methodDeclarations = new ArrayList<MethodDeclaration>();
+
+		public boolean visit(TypeDeclaration type) {
+			boolean packageMember = type.isPackageMemberTypeDeclaration();
+			if (packageMember) {
+				classNames.add(type.getName().getFullyQualifiedName());
+			}
+
+			MethodDeclaration methodDecls[] = type.getMethods();
+			for (int i = 0; i < methodDecls.length; i++) {
+				Method method = createMethod(methodDecls[i]);
+				if (packageMember) {
+					methods.add(method);
+					methodNames.add(method.getName());
+				} else {
+					innerMethods.add(method);
+					innerMethodNames.add(method.getName());
+				}
+			}
+			return super.visit(type);
+		}
+
+		public boolean visit(MethodDeclaration node) {
+			methodDeclarations.add(node);
+			return super.visit(node);
+		}
+
+		public boolean visit(SingleVariableDeclaration node) {
+			singleVariableNames.add(node.getName().getIdentifier());
+			return super.visit(node);
+		}
+
+		public boolean visit(VariableDeclarationFragment node) {
+			fragmentVariableNames.add(node.getName().getIdentifier());
+			return super.visit(node);
+		}
+
+		public boolean visit(ImportDeclaration node) {
+			importedClasses.add(node.getName().toString());
+			return super.visit(node);
+		}
+	}
+
+	private SourceFileStructure(CompilationUnit compilationUnit, String sourceString) {
+		this.compilationUnit = compilationUnit;
+		this.sourceString = sourceString;
+		allComments = null;
+	}
+
+	/**
+	 * Extract the structure before nodes of the compilation unit are deleted.
+	 *
+	 * @param compilationUnit
+	 * @param sourceString source of the compilation unit, which is used for line and block comments
+	 * @return
+	 */
+	public static SourceFileStructure extract(CompilationUnit compilationUnit, String sourceString) {
+		SourceFileStructure structure = new SourceFileStructure(compilationUnit, sourceString);
+
+		ExtractionVisitor visitor = new ExtractionVisitor();
+		compilationUnit.accept(visitor);
+
+		structure.packageName = (compilationUnit.getPackage() != null) ?
+				compilationUnit.getPackage().getName().getFullyQualifiedName() : "";
+
+		// Top level classes, methods of them and methods of inner classes are kept in this order
+		structure.allClassNames = join(visitor.classNames);
+		structure.allMethodNames = join(visitor.methodNames);
+		structure.allInnerMethodNames = join(visitor.innerMethodNames);
+		structure.allMethodList = new ArrayList<Method>(visitor.methods.size() + visitor.innerMethods.size());
+		structure.allMethodList.addAll(visitor.methods);
+		structure.allMethodList.addAll(visitor.innerMethods);
+
+		// Parameters and then variables of declaration fragments
+		ArrayList<String> variableNames = new ArrayList<String>(visitor.singleVariableNames.size() + visitor.fragmentVariableNames.size());
+		variableNames.addAll(visitor.singleVariableNames);
+		variableNames.addAll(visitor.fragmentVariableNames);
+		structure.allVariableNames = join(variableNames);
+
+		structure.importedClasses = visitor.importedClasses;
+		structure.methodDeclarations = visitor.methodDeclarations;
+		return structure;
+	}
+
+	public static Method createMethod(MethodDeclaration methodDecl) {
+		String methodName = methodDecl.getName().getFullyQualifiedName();
+
+		Type returnType = methodDecl.getReturnType2();
+		String returnTypeString = (returnType == null) ? "" : returnType.toString();
+
+		StringBuilder parameters = new StringBuilder();
+		for (int i = 0; i < methodDecl.parameters().size(); i++) {
+			if (i > 0) {
+				parameters.append(" ");
+			}
+			parameters.append(((SingleVariableDeclaration) methodDecl.parameters().get(i)).getType().toString());
+		}
+
+		return new Method(methodName, returnTypeString, parameters.toString().trim());
+	}
+
+	/**
+	 * @param words
+	 * @return words separated with a space
+	 */
+	private static String join(List<String> words) {
+		int length = 0;
+		for (int i = 0; i < words.size(); i++) {
+			length += words.get(i).length() + 1;
+		}
+
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < words.size(); i++) {
+			if (i > 0) {
+				builder.append(' ');
+			}
+			builder.append(words.get(i));
+		}
+		return builder.toString().trim();
+	}
+
+	private static String replaceHtmlSpecicalCharacters(String line) {
+		line = line.replace("&quot;", "\"");
+		line = line.replace("&amp;", "&");
+		line = line.replace("&lt;", "<");
+		line = line.replace("&gt;", ">");
+		line = line.replace("&nbsp;", " ");
+
+		return line;
+	}
+
+	private static void addJavadocWords(Javadoc node, ArrayList<String> words) {
+		String javadocComment = node.toString();
+		if (javadocComment.toLowerCase().contains("copyright")) {
+			return;
+		}
+
+		javadocComment = javadocComment.split("[/][*][*]")[1];
+		javadocComment = javadocComment.split("[*][/]")[0];
+		String[] commentLines = javadocComment.split("\n");
+
+		for (String line : commentLines) {
+			if (line.contains("@author") || line.contains("@version") || line.contains("@since") ) {
+				continue;
+			}
+
+			line = replaceHtmlSpecicalCharacters(line);
+
+			// Split line with space and html tag
+			String[] lineWords = line.split("([*\\s]|(?i)\\<[^\\>]*\\>)");
+			for (String word : lineWords) {
+				if (word.length() > 0) {
+					if ( (word.equalsIgnoreCase("@param")) || (word.equalsIgnoreCase("@return")) || (word.equalsIgnoreCase("@exception")) ||
+							(word.equalsIgnoreCase("@see")) || (word.equalsIgnoreCase("@serial")) || (word.equalsIgnoreCase("@deprecated")) )  {
+						continue;
+					}
+
+					words.add(word);
+				}
+			}
+		}
+	}
+
+	private void addLineCommentWords(LineComment node, ArrayList<String> words) {
+		int beginIndex = node.getStartPosition();
+		int endIndex = beginIndex + node.getLength();
+		String lineComment = sourceString.substring(beginIndex + 2, endIndex).trim();
+		if (lineComment.toLowerCase().contains("copyright")) {
+			return;
+		}
+
+		String[] lineWords = lineComment.split("[\\s]");
+		for (String word : lineWords) {
+			if (word.length() > 0) {
+				words.add(word);
+			}
+		}
+	}
+
+	private void addBlockCommentWords(BlockComment node, ArrayList<String> words) {
+		int beginIndex = node.getStartPosition();
+		int endIndex = beginIndex + node.getLength();
+		String blockComment = sourceString.substring(beginIndex, endIndex);
+		if (blockComment.toLowerCase().contains("copyright")) {
+			return;
+		}
+
+		String[] splitComment = blockComment.split("[/][*]");
+		if (splitComment.length == 2) {
+			blockComment = splitComment[1];
+
+			splitComment = blockComment.split("[*][/]");
+			if (splitComment.length == 1) {
+				blockComment = splitComment[0];
+
+				String[] blockWords = blockComment.split("[*\\s]");
+				for (String word : blockWords) {
+					if (word.length() > 0) {
+						words.add(word);
+					}
+				}
+			}
+		}
+	}
+
+	public String getPackageName() {
+		return packageName;
+	}
+
+	public String getAllClassNames() {
+		return allClassNames;
+	}
+
+	/**
+	 * @return names of methods in top level classes
+	 */
+	public String getAllMethodNames() {
+		return allMethodNames;
+	}
+
+	/**
+	 * @return names of methods in inner, local and anonymous classes
+	 */
+	public String getAllInnerMethodNames() {
+		return allInnerMethodNames;
+	}
+
+	public String getAllVariableNames() {
+		return allVariableNames;
+	}
+
+	@SuppressWarnings("unchecked")
+	public synchronized String getAllComments() {
+		if (allComments == null) {
+			ArrayList<String> words = new ArrayList<String>();
+			for (Comment comment : (List<Comment>) compilationUnit.getCommentList()) {
+				if (comment instanceof Javadoc) {
+					addJavadocWords((Javadoc) comment, words);
+				} else if (comment instanceof LineComment) {
+					addLineCommentWords((LineComment) comment, words);
+				} else if (comment instanceof BlockComment) {
+					addBlockCommentWords((BlockComment) comment, words);
+				}
+			}
+			allComments = join(words);
+		}
+		return allComments;
+	}
+
+	/**
+	 * @return methods of top level classes, then methods of inner classes
+	 */
+	public ArrayList<Method> getAllMethodList() {
+		return allMethodList;
+	}
+
+	public ArrayList<String> getImportedClasses() {
+		return importedClasses;
+	}
+
+	/**
+	 * @return all method declarations in the order of the source
+	 */
+	public ArrayList<MethodDeclaration> getMethodDeclarations() {
+		return methodDeclarations;
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.common;
+
+/**
+ * A frame of a stack trace, like "at org.eclipse.swt.dnd.Clipboard.getContents(Clipboard.java:275)"
+ * 
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class StackFrame {
+	public final static int UNKNOWN_LINE_NUMBER = -1;
+	
+	private String className;
+	private String methodName;
+	private String fileName;
+	private int lineNumber;
+	
+	public StackFrame() {
+		this.className = "";
+		this.methodName = "";
+		this.fileName = null;
+		this.lineNumber = UNKNOWN_LINE_NUMBER;
+	}
+	
+	public StackFrame(String className, String methodName, String fileName, int lineNumber) {
+		this.className = className;
+		this.methodName = methodName;
+		this.fileName = fileName;
+		this.lineNumber = lineNumber;
+	}
+
+	/**
+	 * @return the className, empty string if the frame hasn't a package or an outer class
+	 */
+	public String getClassName() {
+		return className;
+	}
+
+	/**
+	 * @param className the className to set
+	 */
+	public void setClassName(String className) {
+		this.className = className;
+	}
+
+	/**
+	 * @return the methodName
+	 */
+	public String getMethodName() {
+		return methodName;
+	}
+
+	/**
+	 * @param methodName the methodName to set
+	 */
+	public void setMethodName(String methodName) {
+		this.methodName = methodName;
+	}
+
+	/**
+	 * @return the fileName, null for native methods and unknown sources
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * @param fileName the fileName to set
+	 */
+	public void setFileName(String fileName) {
+		this.fileName = fileName;
+	}
+
+	/**
+	 * @return the lineNumber, UNKNOWN_LINE_NUMBER if the frame hasn't a line number
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * @param lineNumber the lineNumber to set
+	 */
+	public void setLineNumber(int lineNumber) {
+		this.lineNumber = lineNumber;
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.common;
+
+import java.util.ArrayList;
+
+/**
+ * Stack frames and exception types found in texts of a bug, in the order of the texts
+ * 
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class StackTrace {
+	private ArrayList<StackFrame> frames;
+	private ArrayList<String> exceptionTypes;
+	
+	public StackTrace() {
+		this.frames = new ArrayList<StackFrame>();
+		this.exceptionTypes = new ArrayList<String>();
+	}
+
+	/**
+	 * @return the frames
+	 */
+	public ArrayList<StackFrame> getFrames() {
+		return frames;
+	}
+	
+	public void addFrame(StackFrame frame) {
+		frames.add(frame);
+	}
+
+	/**
+	 * @return the exceptionTypes
+	 */
+	public ArrayList<String> getExceptionTypes() {
+		return exceptionTypes;
+	}
+	
+	public void addExceptionType(String exceptionType) {
+		exceptionTypes.add(exceptionType);
+	}
+	
+	/**
+	 * Append frames and exception types of the other stack trace
+	 */
+	public void addAll(StackTrace stackTrace) {
+		frames.addAll(stackTrace.getFrames());
+		exceptionTypes.addAll(stackTrace.getExceptionTypes());
+	}
+	
+	/**
+	 * @return class names of the frames in the frame order. Duplicated class names are included.
+	 */
+	public ArrayList<String> getClassNames() {
+		ArrayList<String> classNames = new ArrayList<String>(frames.size());
+		for (int i = 0; i < frames.size(); i++) {
+			classNames.add(frames.get(i).getClassName());
+		}
+		return classNames;
+	}
+}
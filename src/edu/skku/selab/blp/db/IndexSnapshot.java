@@ -0,0 +1,396 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import edu.skku.selab.blp.Property;
+import edu.skku.selab.blp.common.Method;
+import edu.skku.selab.blp.common.SourceFileCorpus;
+import edu.skku.selab.blp.db.dao.BaseDAO;
+import edu.skku.selab.blp.db.dao.SourceFileDAO;
+
+/**
+ * Binary snapshot of the source file index of a version.
+ *
+ * The snapshot has the term dictionary, term weights, corpora, norms and length scores, methods
+ * and imported classes of each source file. It is written by IndexSnapshotWriter after source file
+ * vectors are created, and analyzers read it instead of querying each source file from DB.
+ *
+ * Layout: header, term dictionary, source file term dictionary, then records of source files.
+ * Each record starts with its length, so records are indexed without being decoded.
+ * A snapshot is used only if its fingerprint equals the fingerprint of the version in DB.
+ * The file is read into a heap buffer and closed, so it can be replaced while the snapshot is open.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class IndexSnapshot {
+	final public static int MAGIC = 0x424C4958;
+	final public static int FORMAT_VERSION = 2;
+	final public static Charset CHARSET = Charset.forName("UTF-8");
+
+	private static HashMap<String, IndexSnapshot> snapshots = new HashMap<String, IndexSnapshot>();
+
+	private ByteBuffer buffer;
+	private String version;
+	private String fingerprint;
+	// <Term ID, term> of the term dictionary
+	private TreeMap<Integer, String> terms;
+	private HashMap<Integer, String> sourceFileTerms;
+	private HashMap<String, Integer> sourceFileVersionIDs;
+	// <Source file version ID, position of the record>
+	private HashMap<Integer, Integer> recordPositions;
+
+	private IndexSnapshot() {
+		terms = new TreeMap<Integer, String>();
+		sourceFileTerms = new HashMap<Integer, String>();
+		sourceFileVersionIDs = new HashMap<String, Integer>();
+		recordPositions = new HashMap<Integer, Integer>();
+	}
+
+	/**
+	 * Snapshot is kept next to the DB files, because the work directory is removed for each run.
+	 */
+	public static File getSnapshotFile(String version) {
+		return new File(BaseDAO.DB_DIR, Property.getInstance().getProductName() + "_index_" + version + ".snapshot");
+	}
+
+	/**
+	 * @param version
+	 * @return opened snapshot of the version, null if there is no snapshot or it is different from DB
+	 */
+	public static IndexSnapshot getInstance(String version) {
+		return getInstance(version, getSnapshotFile(version));
+	}
+
+	/**
+	 * @param version
+	 * @param file snapshot file of the version
+	 * @return opened snapshot of the version, null if there is no snapshot, it is different from DB
+	 * 			or its term IDs are different from the loaded term dictionary
+	 */
+	public static synchronized IndexSnapshot getInstance(String version, File file) {
+		try {
+			SourceFileDAO sourceFileDAO = new SourceFileDAO();
+			String fingerprint = sourceFileDAO.getIndexFingerprint(version);
+
+			IndexSnapshot snapshot = snapshots.get(version);
+			if (null == snapshot) {
+				if (!file.exists()) {
+					return null;
+				}
+				snapshot = open(file);
+				snapshots.put(version, snapshot);
+			}
+
+			if (!snapshot.version.equals(version) || !snapshot.fingerprint.equals(fingerprint)) {
+				snapshots.remove(version);
+				return null;
+			}
+
+			// Decode corpora of the snapshot without loading the term dictionary from DB.
+			// A loaded dictionary is never replaced, because terms of it may not be persisted yet.
+			TermDictionary termDictionary = TermDictionary.getInstance();
+			synchronized (termDictionary) {
+				if (0 == termDictionary.size()) {
+					termDictionary.load(snapshot.terms);
+				} else if (!snapshot.hasSameTermIDs(termDictionary)) {
+					System.err.printf("[IndexSnapshot] Term IDs of the snapshot of %s are different from the term dictionary.\n", version);
+					snapshots.remove(version);
+					return null;
+				}
+			}
+			return snapshot;
+		} catch (Exception e) {
+			e.printStackTrace();
+			snapshots.remove(version);
+			return null;
+		}
+	}
+
+	/**
+	 * Release the opened snapshot of the version before it is written again
+	 */
+	public static synchronized void invalidate(String version) {
+		snapshots.remove(version);
+	}
+
+	private boolean hasSameTermIDs(TermDictionary termDictionary) {
+		for (Map.Entry<Integer, String> term : terms.entrySet()) {
+			if (termDictionary.findTermID(term.getValue()) != term.getKey()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static IndexSnapshot open(File file) throws IOException {
+		IndexSnapshot snapshot = new IndexSnapshot();
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+			// A mapped file can't be replaced on Windows until the mapping is garbage collected
+			FileChannel channel = randomAccessFile.getChannel();
+			snapshot.buffer = ByteBuffer.allocate((int) channel.size());
+			while (snapshot.buffer.hasRemaining()) {
+				if (channel.read(snapshot.buffer) < 0) {
+					throw new IOException(String.format("%s is truncated.", file.getPath()));
+				}
+			}
+			snapshot.buffer.flip();
+		}
+
+		ByteBuffer buffer = snapshot.buffer.duplicate();
+		if (MAGIC != buffer.getInt() || FORMAT_VERSION != buffer.getInt()) {
+			throw new IOException(String.format("%s isn't an index snapshot of format %d.", file.getPath(), FORMAT_VERSION));
+		}
+		snapshot.version = readString(buffer);
+		snapshot.fingerprint = readString(buffer);
+
+		int termCount = buffer.getInt();
+		for (int i = 0; i < termCount; i++) {
+			int termID = buffer.getInt();
+			snapshot.terms.put(termID, readString(buffer));
+		}
+
+		int sourceFileTermCount = buffer.getInt();
+		for (int i = 0; i < sourceFileTermCount; i++) {
+			int termID = buffer.getInt();
+			snapshot.sourceFileTerms.put(termID, readString(buffer));
+		}
+
+		int fileCount = buffer.getInt();
+		for (int i = 0; i < fileCount; i++) {
+			int recordLength = buffer.getInt();
+			int recordPosition = buffer.position();
+			int sourceFileVersionID = buffer.getInt();
+			snapshot.sourceFileVersionIDs.put(readString(buffer), sourceFileVersionID);
+			snapshot.recordPositions.put(sourceFileVersionID, recordPosition);
+			buffer.position(recordPosition + recordLength);
+		}
+		return snapshot;
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+
+		byte bytes[] = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, CHARSET);
+	}
+
+	private static int[] readIntArray(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+
+		int values[] = new int[length];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + length * 4);
+		return values;
+	}
+
+	private static void skipIntArray(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length > 0) {
+			buffer.position(buffer.position() + length * 4);
+		}
+	}
+
+	/**
+	 * @return buffer positioned at the length score of the record, null if the record isn't found
+	 */
+	private ByteBuffer getRecord(int sourceFileVersionID) {
+		Integer recordPosition = recordPositions.get(sourceFileVersionID);
+		if (null == recordPosition) {
+			return null;
+		}
+
+		// Each caller has its own position, so records are read by many threads
+		ByteBuffer record = buffer.duplicate();
+		record.position(recordPosition + 4);
+		readString(record);
+		return record;
+	}
+
+	/**
+	 * Skip the length score, norms and corpora of the record
+	 */
+	private static void skipCorpus(ByteBuffer record) {
+		record.position(record.position() + 8 * 6);
+		for (int i = 0; i < 5; i++) {
+			skipIntArray(record);
+		}
+	}
+
+	private static void skipTermWeights(ByteBuffer record) {
+		int termWeightCount = record.getInt();
+		record.position(record.position() + termWeightCount * (4 * 3 + 8 * 2));
+	}
+
+	private static void skipMethods(ByteBuffer record) {
+		int methodCount = record.getInt();
+		for (int i = 0; i < methodCount; i++) {
+			record.getInt();
+			for (int j = 0; j < 4; j++) {
+				readString(record);
+			}
+		}
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public String getFingerprint() {
+		return fingerprint;
+	}
+
+	/**
+	 * @return <Source file name, source file version ID>
+	 */
+	public HashMap<String, Integer> getSourceFileVersionIDs() {
+		return new HashMap<String, Integer>(sourceFileVersionIDs);
+	}
+
+	public double getLengthScore(int sourceFileVersionID) {
+		ByteBuffer record = getRecord(sourceFileVersionID);
+		return (null == record) ? 0 : record.getDouble();
+	}
+
+	/**
+	 * @return corpus and norms of the source file, null if it isn't found
+	 */
+	public SourceFileCorpus getCorpus(int sourceFileVersionID) {
+		ByteBuffer record = getRecord(sourceFileVersionID);
+		if (null == record) {
+			return null;
+		}
+
+		record.getDouble();
+		SourceFileCorpus corpus = new SourceFileCorpus();
+		corpus.setContentNorm(record.getDouble());
+		corpus.setClassCorpusNorm(record.getDouble());
+		corpus.setMethodCorpusNorm(record.getDouble());
+		corpus.setVariableCorpusNorm(record.getDouble());
+		corpus.setCommentCorpusNorm(record.getDouble());
+		// Content is built from the parts
+		readIntArray(record);
+		corpus.setClassPartTermIDs(readIntArray(record));
+		corpus.setMethodPartTermIDs(readIntArray(record));
+		corpus.setVariablePartTermIDs(readIntArray(record));
+		corpus.setCommentPartTermIDs(readIntArray(record));
+		return corpus;
+	}
+
+	/**
+	 * @return <Term, term weight> of the source file, null if it has no term
+	 */
+	public HashMap<String, AnalysisValue> getTermMap(int sourceFileVersionID) {
+		ByteBuffer record = getRecord(sourceFileVersionID);
+		if (null == record) {
+			return null;
+		}
+
+		skipCorpus(record);
+		int termWeightCount = record.getInt();
+		if (0 == termWeightCount) {
+			return null;
+		}
+
+		HashMap<String, AnalysisValue> termMap = new HashMap<String, AnalysisValue>(termWeightCount * 2);
+		for (int i = 0; i < termWeightCount; i++) {
+			AnalysisValue analysisValue = new AnalysisValue();
+			int termID = record.getInt();
+			String term = sourceFileTerms.get(termID);
+			analysisValue.setTerm(term);
+			analysisValue.setSourceFileVersionID(sourceFileVersionID);
+			analysisValue.setTermID(termID);
+			analysisValue.setTermCount(record.getInt());
+			analysisValue.setInvDocCount(record.getInt());
+			analysisValue.setTf(record.getDouble());
+			analysisValue.setIdf(record.getDouble());
+			termMap.put(term, analysisValue);
+		}
+		return termMap;
+	}
+
+	/**
+	 * @return methods of the source file in the order of method IDs
+	 */
+	public ArrayList<Method> getMethods(int sourceFileVersionID) {
+		ArrayList<Method> methods = new ArrayList<Method>();
+		ByteBuffer record = getRecord(sourceFileVersionID);
+		if (null == record) {
+			return methods;
+		}
+
+		skipCorpus(record);
+		skipTermWeights(record);
+		int methodCount = record.getInt();
+		for (int i = 0; i < methodCount; i++) {
+			int methodID = record.getInt();
+			String name = readString(record);
+			String returnType = readString(record);
+			String params = readString(record);
+			String hashKey = readString(record);
+			methods.add(new Method(methodID, sourceFileVersionID, name, returnType, params, hashKey));
+		}
+		return methods;
+	}
+
+	/**
+	 * @return <Source file version ID, methods> of source files which have methods
+	 */
+	public HashMap<Integer, ArrayList<Method>> getAllMethods() {
+		HashMap<Integer, ArrayList<Method>> methodMap = new HashMap<Integer, ArrayList<Method>>();
+		for (Integer sourceFileVersionID : recordPositions.keySet()) {
+			ArrayList<Method> methods = getMethods(sourceFileVersionID);
+			if (!methods.isEmpty()) {
+				methodMap.put(sourceFileVersionID, methods);
+			}
+		}
+		return methodMap;
+	}
+
+	/**
+	 * @return imported classes of the source file, null if it has no import
+	 */
+	public ArrayList<String> getImportedClasses(int sourceFileVersionID) {
+		ByteBuffer record = getRecord(sourceFileVersionID);
+		if (null == record) {
+			return null;
+		}
+
+		skipCorpus(record);
+		skipTermWeights(record);
+		skipMethods(record);
+		int importCount = record.getInt();
+		if (0 == importCount) {
+			return null;
+		}
+
+		ArrayList<String> importedClasses = new ArrayList<String>(importCount);
+		for (int i = 0; i < importCount; i++) {
+			importedClasses.add(readString(record));
+		}
+		return importedClasses;
+	}
+}
@@ -0,0 +1,415 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory replacement of INT_ANALYSIS table.
+ *
+ * Scores are kept per (bug index, source file version index) cell in primitive double columns,
+ * one column per score component. Each bug row holds only the cells which were inserted,
+ * and update of a missing cell is ignored like UPDATE of INT_ANALYSIS.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class IntegratedScoreMatrix {
+	final public static int VSM_SCORE = 0;
+	final public static int SIMI_SCORE = 1;
+	final public static int BL_SCORE = 2;
+	final public static int STRACE_SCORE = 3;
+	final public static int COMM_SCORE = 4;
+	final public static int MID_SF_SCORE = 5;
+	final public static int BLIA_SF_SCORE = 6;
+	final private static int COLUMN_COUNT = 7;
+
+	private static IntegratedScoreMatrix scoreMatrix = null;
+
+	private ConcurrentHashMap<Integer, Row> rows;
+	private ArrayList<Integer> bugIDs;
+	private ConcurrentHashMap<Integer, Integer> sourceFileIndexes;
+	private int[] sourceFileVersionIDs;
+	private int sourceFileCount;
+
+	/**
+	 * Cells of one bug. Slot of a cell is found with open addressing on source file version index.
+	 */
+	private static class Row {
+		private int bugID;
+		private int size;
+		private int[] sourceFileIndexes;
+		private double[][] columns;
+		private int[] slotTable;
+
+		public Row(int bugID) {
+			this.bugID = bugID;
+			size = 0;
+			sourceFileIndexes = new int[16];
+			columns = new double[COLUMN_COUNT][16];
+			slotTable = new int[32];
+			Arrays.fill(slotTable, -1);
+		}
+
+		public int findSlot(int sourceFileIndex) {
+			int mask = slotTable.length - 1;
+			int position = (sourceFileIndex * 0x9E3779B9) & mask;
+			while (slotTable[position] != -1) {
+				int slot = slotTable[position];
+				if (sourceFileIndexes[slot] == sourceFileIndex) {
+					return slot;
+				}
+				position = (position + 1) & mask;
+			}
+			return -1;
+		}
+
+		public int addSlot(int sourceFileIndex) {
+			if (size == sourceFileIndexes.length) {
+				int capacity = size * 2;
+				sourceFileIndexes = Arrays.copyOf(sourceFileIndexes, capacity);
+				for (int i = 0; i < COLUMN_COUNT; i++) {
+					columns[i] = Arrays.copyOf(columns[i], capacity);
+				}
+			}
+
+			if ((size + 1) * 2 > slotTable.length) {
+				slotTable = new int[slotTable.length * 2];
+				Arrays.fill(slotTable, -1);
+				for (int slot = 0; slot < size; slot++) {
+					putSlot(sourceFileIndexes[slot], slot);
+				}
+			}
+
+			int slot = size++;
+			sourceFileIndexes[slot] = sourceFileIndex;
+			putSlot(sourceFileIndex, slot);
+			return slot;
+		}
+
+		private void putSlot(int sourceFileIndex, int slot) {
+			int mask = slotTable.length - 1;
+			int position = (sourceFileIndex * 0x9E3779B9) & mask;
+			while (slotTable[position] != -1) {
+				position = (position + 1) & mask;
+			}
+			slotTable[position] = slot;
+		}
+	}
+
+	private IntegratedScoreMatrix() {
+		rows = new ConcurrentHashMap<Integer, Row>();
+		bugIDs = new ArrayList<Integer>();
+		sourceFileIndexes = new ConcurrentHashMap<Integer, Integer>();
+		sourceFileVersionIDs = new int[1024];
+		sourceFileCount = 0;
+	}
+
+	public static synchronized IntegratedScoreMatrix getInstance() {
+		if (null == scoreMatrix) {
+			scoreMatrix = new IntegratedScoreMatrix();
+		}
+		return scoreMatrix;
+	}
+
+	/**
+	 * @return true when analyzers wrote scores into the matrix
+	 */
+	public static synchronized boolean hasInstance() {
+		return (null != scoreMatrix) && (0 != scoreMatrix.getBugCount());
+	}
+
+	/**
+	 * Remove all scores
+	 */
+	public synchronized void clear() {
+		rows.clear();
+		bugIDs.clear();
+		sourceFileIndexes.clear();
+		sourceFileCount = 0;
+	}
+
+	private Row getRow(int bugID, boolean create) {
+		Row row = rows.get(bugID);
+		if (null == row && create) {
+			synchronized (this) {
+				row = rows.get(bugID);
+				if (null == row) {
+					row = new Row(bugID);
+					rows.put(bugID, row);
+					bugIDs.add(bugID);
+				}
+			}
+		}
+		return row;
+	}
+
+	private int getSourceFileIndex(int sourceFileVersionID) {
+		Integer sourceFileIndex = sourceFileIndexes.get(sourceFileVersionID);
+		if (null == sourceFileIndex) {
+			synchronized (this) {
+				sourceFileIndex = sourceFileIndexes.get(sourceFileVersionID);
+				if (null == sourceFileIndex) {
+					if (sourceFileCount == sourceFileVersionIDs.length) {
+						sourceFileVersionIDs = Arrays.copyOf(sourceFileVersionIDs, sourceFileCount * 2);
+					}
+					sourceFileIndex = sourceFileCount;
+					sourceFileVersionIDs[sourceFileCount++] = sourceFileVersionID;
+					sourceFileIndexes.put(sourceFileVersionID, sourceFileIndex);
+				}
+			}
+		}
+		return sourceFileIndex;
+	}
+
+	private synchronized int getSourceFileVersionID(int sourceFileIndex) {
+		return sourceFileVersionIDs[sourceFileIndex];
+	}
+
+	/**
+	 * Insert all scores of the value. Same as INSERT INTO INT_ANALYSIS, a duplicated cell isn't inserted.
+	 *
+	 * @param integratedAnalysisValue
+	 * @return inserted cell count
+	 */
+	public int insertAnalysisVaule(IntegratedAnalysisValue integratedAnalysisValue) {
+		Row row = getRow(integratedAnalysisValue.getBugID(), true);
+		int sourceFileIndex = getSourceFileIndex(integratedAnalysisValue.getSourceFileVersionID());
+
+		synchronized (row) {
+			if (-1 != row.findSlot(sourceFileIndex)) {
+				return 0;
+			}
+
+			int slot = row.addSlot(sourceFileIndex);
+			row.columns[VSM_SCORE][slot] = integratedAnalysisValue.getVsmScore();
+			row.columns[SIMI_SCORE][slot] = integratedAnalysisValue.getSimilarityScore();
+			row.columns[BL_SCORE][slot] = integratedAnalysisValue.getBugLocatorScore();
+			row.columns[STRACE_SCORE][slot] = integratedAnalysisValue.getStackTraceScore();
+			row.columns[COMM_SCORE][slot] = integratedAnalysisValue.getCommitLogScore();
+			row.columns[MID_SF_SCORE][slot] = integratedAnalysisValue.getMiddleSourceFileScore();
+			row.columns[BLIA_SF_SCORE][slot] = integratedAnalysisValue.getBliaSourceFileScore();
+		}
+		return 1;
+	}
+
+	/**
+	 * Update one score column of an existing cell
+	 *
+	 * @return updated cell count
+	 */
+	public int updateScore(int bugID, int sourceFileVersionID, int column, double score) {
+		Row row = getRow(bugID, false);
+		Integer sourceFileIndex = sourceFileIndexes.get(sourceFileVersionID);
+		if (null == row || null == sourceFileIndex) {
+			return 0;
+		}
+
+		synchronized (row) {
+			int slot = row.findSlot(sourceFileIndex);
+			if (-1 == slot) {
+				return 0;
+			}
+			row.columns[column][slot] = score;
+		}
+		return 1;
+	}
+
+	/**
+	 * Update one score column of existing cells of a bug under one lock of the bug row
+	 *
+	 * @param count count of cells in the arrays to update
+	 * @return updated cell count
+	 */
+	public int updateScores(int bugID, int column, int[] sourceFileVersionIDs, double[] scores, int count) {
+		Row row = getRow(bugID, false);
+		if (null == row) {
+			return 0;
+		}
+
+		int updatedCount = 0;
+		synchronized (row) {
+			for (int i = 0; i < count; i++) {
+				Integer sourceFileIndex = sourceFileIndexes.get(sourceFileVersionIDs[i]);
+				int slot = (null == sourceFileIndex) ? -1 : row.findSlot(sourceFileIndex);
+				if (-1 != slot) {
+					row.columns[column][slot] = scores[i];
+					updatedCount++;
+				}
+			}
+		}
+		return updatedCount;
+	}
+
+	/**
+	 * Update similar score, or insert a new cell when there is no cell to update.
+	 */
+	public int updateSimilarScore(IntegratedAnalysisValue integratedAnalysisValue) {
+		int updatedCount = updateScore(integratedAnalysisValue.getBugID(), integratedAnalysisValue.getSourceFileVersionID(),
+				SIMI_SCORE, integratedAnalysisValue.getSimilarityScore());
+		if (0 == updatedCount) {
+			updatedCount = insertAnalysisVaule(integratedAnalysisValue);
+		}
+		return updatedCount;
+	}
+
+	public int updateStackTraceScore(IntegratedAnalysisValue integratedAnalysisValue) {
+		return updateScore(integratedAnalysisValue.getBugID(), integratedAnalysisValue.getSourceFileVersionID(),
+				STRACE_SCORE, integratedAnalysisValue.getStackTraceScore());
+	}
+
+	public int updateCommitLogScore(IntegratedAnalysisValue integratedAnalysisValue) {
+		return updateScore(integratedAnalysisValue.getBugID(), integratedAnalysisValue.getSourceFileVersionID(),
+				COMM_SCORE, integratedAnalysisValue.getCommitLogScore());
+	}
+
+	public int updateBliaSourceFileScore(IntegratedAnalysisValue integratedAnalysisValue) {
+		Row row = getRow(integratedAnalysisValue.getBugID(), false);
+		Integer sourceFileIndex = sourceFileIndexes.get(integratedAnalysisValue.getSourceFileVersionID());
+		if (null == row || null == sourceFileIndex) {
+			return 0;
+		}
+
+		synchronized (row) {
+			int slot = row.findSlot(sourceFileIndex);
+			if (-1 == slot) {
+				return 0;
+			}
+			row.columns[BL_SCORE][slot] = integratedAnalysisValue.getBugLocatorScore();
+			row.columns[MID_SF_SCORE][slot] = integratedAnalysisValue.getMiddleSourceFileScore();
+			row.columns[BLIA_SF_SCORE][slot] = integratedAnalysisValue.getBliaSourceFileScore();
+		}
+		return 1;
+	}
+
+	private IntegratedAnalysisValue getAnalysisValue(Row row, int slot) {
+		IntegratedAnalysisValue integratedAnalysisValue = new IntegratedAnalysisValue();
+		integratedAnalysisValue.setBugID(row.bugID);
+		integratedAnalysisValue.setSourceFileVersionID(getSourceFileVersionID(row.sourceFileIndexes[slot]));
+		integratedAnalysisValue.setVsmScore(row.columns[VSM_SCORE][slot]);
+		integratedAnalysisValue.setSimilarityScore(row.columns[SIMI_SCORE][slot]);
+		integratedAnalysisValue.setBugLocatorScore(row.columns[BL_SCORE][slot]);
+		integratedAnalysisValue.setStackTraceScore(row.columns[STRACE_SCORE][slot]);
+		integratedAnalysisValue.setCommitLogScore(row.columns[COMM_SCORE][slot]);
+		integratedAnalysisValue.setMiddleSourceFileScore(row.columns[MID_SF_SCORE][slot]);
+		integratedAnalysisValue.setBliaSourceFileScore(row.columns[BLIA_SF_SCORE][slot]);
+		return integratedAnalysisValue;
+	}
+
+	/**
+	 * Same as IntegratedAnalysisDAO.getAnalysisValues()
+	 *
+	 * @param bugID
+	 * @return <source file version ID, IntegratedAnalysisValue>, or null when the bug has no cell
+	 */
+	public HashMap<Integer, IntegratedAnalysisValue> getAnalysisValues(int bugID) {
+		Row row = getRow(bugID, false);
+		if (null == row) {
+			return null;
+		}
+
+		HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = null;
+		synchronized (row) {
+			for (int slot = 0; slot < row.size; slot++) {
+				if (null == integratedAnalysisValues) {
+					integratedAnalysisValues = new HashMap<Integer, IntegratedAnalysisValue>();
+				}
+				IntegratedAnalysisValue integratedAnalysisValue = getAnalysisValue(row, slot);
+				integratedAnalysisValues.put(integratedAnalysisValue.getSourceFileVersionID(), integratedAnalysisValue);
+			}
+		}
+		return integratedAnalysisValues;
+	}
+
+	/**
+	 * Same as the ranked value queries of IntegratedAnalysisDAO; cells with zero score are excluded.
+	 *
+	 * @param bugID
+	 * @param column score column to rank with
+	 * @param limit 0 for all cells
+	 * @return ranked values in descending order of the score, or null when there is no cell
+	 */
+	public ArrayList<IntegratedAnalysisValue> getRankedValues(int bugID, final int column, int limit) {
+		Row row = getRow(bugID, false);
+		if (null == row) {
+			return null;
+		}
+
+		ArrayList<IntegratedAnalysisValue> rankedValues = new ArrayList<IntegratedAnalysisValue>();
+		synchronized (row) {
+			Integer[] slots = new Integer[row.size];
+			int count = 0;
+			for (int slot = 0; slot < row.size; slot++) {
+				if (row.columns[column][slot] != 0) {
+					slots[count++] = slot;
+				}
+			}
+
+			final double[] columnScores = row.columns[column];
+			Arrays.sort(slots, 0, count, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer first, Integer second) {
+					return Double.compare(columnScores[second], columnScores[first]);
+				}
+			});
+
+			if (limit != 0 && count > limit) {
+				count = limit;
+			}
+			for (int i = 0; i < count; i++) {
+				rankedValues.add(getAnalysisValue(row, slots[i]));
+			}
+		}
+
+		return rankedValues.isEmpty() ? null : rankedValues;
+	}
+
+	/**
+	 * @return bug IDs in the order of the first write
+	 */
+	public synchronized ArrayList<Integer> getBugIDs() {
+		return new ArrayList<Integer>(bugIDs);
+	}
+
+	public int getBugCount() {
+		return rows.size();
+	}
+
+	public synchronized int getSourceFileCount() {
+		return sourceFileCount;
+	}
+
+	/**
+	 * @return total cell count of all bugs
+	 */
+	public int getCellCount() {
+		int cellCount = 0;
+		ArrayList<Row> allRows = new ArrayList<Row>(rows.values());
+		for (int i = 0; i < allRows.size(); i++) {
+			Row row = allRows.get(i);
+			synchronized (row) {
+				cellCount += row.size;
+			}
+		}
+		return cellCount;
+	}
+
+	/**
+	 * Sort bug IDs to visit the matrix deterministically
+	 */
+	public ArrayList<Integer> getSortedBugIDs() {
+		ArrayList<Integer> sortedBugIDs = getBugIDs();
+		Collections.sort(sortedBugIDs);
+		return sortedBugIDs;
+	}
+}
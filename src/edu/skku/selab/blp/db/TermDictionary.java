@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Global dictionary of interned terms shared by source file and bug corpora.
+ *
+ * A corpus is kept as int[] of term IDs instead of space-joined string, and stored in DB
+ * as bytes of variable length term IDs. Term IDs are assigned in the order terms are found,
+ * and saved to TERM_DICT table so that stored corpora can be decoded in the next run.
+ * Only source file terms are added. Bug and query terms are looked up with findTermIDs().
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class TermDictionary {
+	final public static int UNKNOWN_TERM_ID = -1;
+	final private static int[] EMPTY_TERM_IDS = new int[0];
+
+	private static TermDictionary termDictionary = null;
+
+	private HashMap<String, Integer> termIDs;
+	private ArrayList<String> terms;
+	private int persistedCount;
+
+	private TermDictionary() {
+		termIDs = new HashMap<String, Integer>();
+		terms = new ArrayList<String>();
+		persistedCount = 0;
+	}
+
+	public static synchronized TermDictionary getInstance() {
+		if (null == termDictionary) {
+			termDictionary = new TermDictionary();
+		}
+		return termDictionary;
+	}
+
+	public synchronized void clear() {
+		termIDs.clear();
+		terms.clear();
+		persistedCount = 0;
+	}
+
+	/**
+	 * Replace all terms with the terms saved in DB. Each term keeps its saved term ID.
+	 *
+	 * @param persistedTerms <term ID, term>
+	 * @throws IllegalStateException when a term ID is missing or a term is duplicated,
+	 * 			because stored corpora can't be decoded to the right terms. The dictionary is cleared.
+	 */
+	public synchronized void load(SortedMap<Integer, String> persistedTerms) {
+		clear();
+		Iterator<Map.Entry<Integer, String>> persistedTermIter = persistedTerms.entrySet().iterator();
+		while (persistedTermIter.hasNext()) {
+			Map.Entry<Integer, String> persistedTerm = persistedTermIter.next();
+			int termID = persistedTerm.getKey();
+			String term = persistedTerm.getValue();
+			if (termID != terms.size()) {
+				clear();
+				throw new IllegalStateException(String.format("Term ID %d is missing in the saved term dictionary.", terms.size()));
+			}
+			if (termIDs.containsKey(term)) {
+				clear();
+				throw new IllegalStateException(String.format("Term \"%s\" of term ID %d is duplicated in the saved term dictionary.", term, termID));
+			}
+
+			termIDs.put(term, termID);
+			terms.add(term);
+		}
+		persistedCount = terms.size();
+	}
+
+	/**
+	 * @return term ID of the term, new ID is assigned if the term isn't found
+	 */
+	public synchronized int getTermID(String term) {
+		Integer termID = termIDs.get(term);
+		if (null == termID) {
+			termID = terms.size();
+			termIDs.put(term, termID);
+			terms.add(term);
+		}
+		return termID;
+	}
+
+	/**
+	 * @return term ID of the term, UNKNOWN_TERM_ID if the term isn't found
+	 */
+	public synchronized int findTermID(String term) {
+		Integer termID = termIDs.get(term);
+		return (null == termID) ? UNKNOWN_TERM_ID : termID;
+	}
+
+	public synchronized String getTerm(int termID) {
+		return terms.get(termID);
+	}
+
+	public synchronized int size() {
+		return terms.size();
+	}
+
+	/**
+	 * @return terms which aren't saved to DB yet, from the term ID of getPersistedCount()
+	 */
+	public synchronized ArrayList<String> getUnpersistedTerms() {
+		return new ArrayList<String>(terms.subList(persistedCount, terms.size()));
+	}
+
+	/**
+	 * @return the term ID which the first term of getUnpersistedTerms() has
+	 */
+	public synchronized int getPersistedCount() {
+		return persistedCount;
+	}
+
+	/**
+	 * Mark terms as saved after they are committed to DB
+	 *
+	 * @param persistedCount count of saved terms from term ID 0
+	 */
+	public synchronized void markPersisted(int persistedCount) {
+		if (persistedCount > this.persistedCount) {
+			this.persistedCount = Math.min(persistedCount, terms.size());
+		}
+	}
+
+	/**
+	 * Split space-joined corpus to term IDs. New terms are added to the dictionary.
+	 * Empty terms between consecutive spaces are kept,
+	 * so toCorpus() restores the same corpus string.
+	 *
+	 * @param corpus space-joined terms
+	 * @return term IDs in the order of the corpus, null if corpus is null
+	 */
+	public int[] toTermIDs(String corpus) {
+		if (null == corpus) {
+			return null;
+		}
+		if (corpus.isEmpty()) {
+			return EMPTY_TERM_IDS;
+		}
+
+		String[] corpusTerms = corpus.split(" ", -1);
+		int[] corpusTermIDs = new int[corpusTerms.length];
+		synchronized (this) {
+			for (int i = 0; i < corpusTerms.length; i++) {
+				corpusTermIDs[i] = getTermID(corpusTerms[i]);
+			}
+		}
+		return corpusTermIDs;
+	}
+
+	/**
+	 * Split space-joined corpus to term IDs without adding new terms
+	 *
+	 * @param corpus space-joined terms
+	 * @return term IDs in the order of the corpus, UNKNOWN_TERM_ID for terms which aren't found. null if corpus is null
+	 */
+	public int[] findTermIDs(String corpus) {
+		if (null == corpus) {
+			return null;
+		}
+		if (corpus.isEmpty()) {
+			return EMPTY_TERM_IDS;
+		}
+
+		String[] corpusTerms = corpus.split(" ", -1);
+		int[] corpusTermIDs = new int[corpusTerms.length];
+		synchronized (this) {
+			for (int i = 0; i < corpusTerms.length; i++) {
+				corpusTermIDs[i] = findTermID(corpusTerms[i]);
+			}
+		}
+		return corpusTermIDs;
+	}
+
+	/**
+	 * @param corpusTermIDs term IDs in the order of the corpus
+	 * @return space-joined terms, null if corpusTermIDs is null
+	 */
+	public String toCorpus(int[] corpusTermIDs) {
+		if (null == corpusTermIDs) {
+			return null;
+		}
+
+		StringBuilder corpus = new StringBuilder(corpusTermIDs.length * 8);
+		synchronized (this) {
+			for (int i = 0; i < corpusTermIDs.length; i++) {
+				if (i > 0) {
+					corpus.append(' ');
+				}
+				corpus.append(terms.get(corpusTermIDs[i]));
+			}
+		}
+		return corpus.toString();
+	}
+
+	/**
+	 * Encode term IDs to bytes. Each term ID takes 7 bits per byte and the high bit marks following byte.
+	 *
+	 * @return encoded bytes, null if termIDs is null
+	 */
+	public static byte[] encode(int[] termIDs) {
+		if (null == termIDs) {
+			return null;
+		}
+
+		byte[] bytes = new byte[termIDs.length * 2];
+		int length = 0;
+		for (int i = 0; i < termIDs.length; i++) {
+			if (length + 5 > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 5));
+			}
+
+			int termID = termIDs[i];
+			while ((termID & ~0x7F) != 0) {
+				bytes[length++] = (byte) ((termID & 0x7F) | 0x80);
+				termID >>>= 7;
+			}
+			bytes[length++] = (byte) termID;
+		}
+		return Arrays.copyOf(bytes, length);
+	}
+
+	/**
+	 * @param bytes bytes from encode()
+	 * @return decoded term IDs, null if bytes is null
+	 */
+	public static int[] decode(byte[] bytes) {
+		if (null == bytes) {
+			return null;
+		}
+
+		int[] termIDs = new int[bytes.length];
+		int count = 0;
+		int position = 0;
+		while (position < bytes.length) {
+			int termID = 0;
+			int shift = 0;
+			byte currentByte;
+			do {
+				currentByte = bytes[position++];
+				termID |= (currentByte & 0x7F) << shift;
+				shift += 7;
+			} while ((currentByte & 0x80) != 0);
+			termIDs[count++] = termID;
+		}
+		return Arrays.copyOf(termIDs, count);
+	}
+}
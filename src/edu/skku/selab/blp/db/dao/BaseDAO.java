@@ -10,6 +10,12 @@ package edu.skku.selab.blp.db.dao;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.h2.jdbcx.JdbcConnectionPool;
 
@@ -20,13 +26,155 @@ import edu.skku.selab.blp.Property;
  *
  */
 public class BaseDAO {
-	protected static Connection analysisDbConnection = null;
+	private static JdbcConnectionPool analysisConnectionPool = null;
+	// Each thread works on its own pooled connection so worker threads don't serialize on one H2 session.
+	private static HashMap<Thread, PooledConnection> analysisDbConnections = new HashMap<Thread, PooledConnection>();
 	protected static Connection evaluationDbConnection = null;
-	protected PreparedStatement ps = null;
-	protected ResultSet rs = null;
 	
 	final public static int INVALID = -1;
+	// Directory of H2 DB files and files kept with them
+	final public static String DB_DIR = "./db/";
 	final static String DEFAULT_DB_NAME = "sample";
+	final static int STATEMENT_CACHE_SIZE = 128;
+	
+	/**
+	 * Pooled connection of a thread and its prepared statements cached by SQL text
+	 */
+	private static class PooledConnection {
+		private Connection connection;
+		private LinkedHashMap<String, PreparedStatement> statementCache;
+		
+		public PooledConnection(Connection connection) {
+			this.connection = connection;
+			statementCache = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+					if (size() > STATEMENT_CACHE_SIZE) {
+						closeStatement(eldest.getValue());
+						return true;
+					}
+					return false;
+				}
+			};
+		}
+		
+		public PreparedStatement prepareStatement(String sql) throws SQLException {
+			PreparedStatement statement = statementCache.get(sql);
+			if (null == statement || statement.isClosed()) {
+				statement = connection.prepareStatement(sql);
+				statementCache.put(sql, statement);
+			}
+			return statement;
+		}
+		
+		public void close() throws SQLException {
+			Iterator<PreparedStatement> statementIter = statementCache.values().iterator();
+			while (statementIter.hasNext()) {
+				closeStatement(statementIter.next());
+			}
+			statementCache.clear();
+			
+			// Returns the connection to the pool
+			connection.close();
+		}
+		
+		private static void closeStatement(PreparedStatement statement) {
+			try {
+				statement.close();
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Transaction on the connection of the current thread whose statements are executed as JDBC batches.
+	 * The auto-commit mode of the connection is restored when the transaction ends, and batches of
+	 * the statements are cleared when it is rolled back.
+	 */
+	protected static class BatchTransaction {
+		private String[] sqls;
+		private Connection connection;
+		private boolean autoCommit;
+		private boolean started;
+		
+		/**
+		 * @param sqls SQLs of cached statements which are batched in the transaction
+		 */
+		public BatchTransaction(String... sqls) {
+			this.sqls = sqls;
+			started = false;
+		}
+		
+		public boolean isStarted() {
+			return started;
+		}
+		
+		/**
+		 * Start the transaction unless it is started
+		 * 
+		 * @throws SQLException
+		 */
+		public void begin() throws SQLException {
+			if (started) {
+				return;
+			}
+			
+			connection = getAnalysisDbConnection();
+			if (null == connection) {
+				throw new SQLException("Analysis DB connection isn't opened.");
+			}
+			autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			started = true;
+		}
+		
+		/**
+		 * @throws SQLException when the transaction can't be committed. The transaction is rolled back.
+		 */
+		public void commit() throws SQLException {
+			if (!started) {
+				return;
+			}
+			
+			try {
+				connection.commit();
+			} catch (SQLException e) {
+				rollback();
+				throw e;
+			}
+			end();
+		}
+		
+		public void rollback() throws SQLException {
+			if (!started) {
+				return;
+			}
+			
+			try {
+				connection.rollback();
+				clearBatches();
+			} finally {
+				end();
+			}
+		}
+		
+		/**
+		 * Clear batches of cached statements which aren't executed because of a failure
+		 */
+		private void clearBatches() throws SQLException {
+			for (int i = 0; i < sqls.length; i++) {
+				prepareStatement(sqls[i]).clearBatch();
+			}
+		}
+		
+		private void end() throws SQLException {
+			started = false;
+			connection.setAutoCommit(autoCommit);
+		}
+	}
 	
 	public BaseDAO() throws Exception {
 		Property property = Property.getInstance(); 
@@ -42,7 +190,7 @@ public class BaseDAO {
 	public static void openEvaluationDbConnection() throws Exception {
 		if (null == evaluationDbConnection) {
 			Class.forName("org.h2.Driver");
-			String connectionURL = "jdbc:h2:file:./db/evaluation";
+			String connectionURL = "jdbc:h2:file:" + DB_DIR + "evaluation";
 			JdbcConnectionPool connectionPool = JdbcConnectionPool.create(connectionURL, "sa", "");
 			evaluationDbConnection = connectionPool.getConnection();
 		}
@@ -51,17 +199,30 @@ public class BaseDAO {
 	public static void openConnection(String dbName) throws Exception {
 		openEvaluationDbConnection();
 		
-		if (null == analysisDbConnection) {
-			Class.forName("org.h2.Driver");
-			String connectionURL = "jdbc:h2:file:./db/" + dbName;
-			JdbcConnectionPool connectionPool = JdbcConnectionPool.create(connectionURL, "sa", "");
-			analysisDbConnection = connectionPool.getConnection();
+		synchronized (analysisDbConnections) {
+			if (null == analysisConnectionPool) {
+				Class.forName("org.h2.Driver");
+				String connectionURL = "jdbc:h2:file:" + DB_DIR + dbName + ";LOCK_TIMEOUT=10000;MULTI_THREADED=TRUE";
+				analysisConnectionPool = JdbcConnectionPool.create(connectionURL, "sa", "");
+				analysisConnectionPool.setMaxConnections(Property.DB_POOL_SIZE);
+				TermDictionaryDAO.invalidateTermDictionary();
+			}
 		}
 	}
+	
 	public static void closeConnection() throws Exception {
-		if (null != analysisDbConnection) {
-			analysisDbConnection.close();
-			analysisDbConnection = null;
+		synchronized (analysisDbConnections) {
+			Iterator<PooledConnection> connectionIter = analysisDbConnections.values().iterator();
+			while (connectionIter.hasNext()) {
+				connectionIter.next().close();
+			}
+			analysisDbConnections.clear();
+			
+			if (null != analysisConnectionPool) {
+				analysisConnectionPool.dispose();
+				analysisConnectionPool = null;
+				TermDictionaryDAO.invalidateTermDictionary();
+			}
 		}
 		
 		if (null != evaluationDbConnection) {
@@ -70,8 +231,101 @@ public class BaseDAO {
 		}
 	}
 	
+	/**
+	 * Return the connection of the current thread to the pool.
+	 * 
+	 * @throws Exception
+	 */
+	public static void releaseConnection() throws Exception {
+		PooledConnection pooledConnection = null;
+		synchronized (analysisDbConnections) {
+			pooledConnection = analysisDbConnections.remove(Thread.currentThread());
+		}
+		
+		if (null != pooledConnection) {
+			pooledConnection.close();
+		}
+	}
+	
+	private static PooledConnection getPooledConnection() throws SQLException {
+		Thread currentThread = Thread.currentThread();
+		ArrayList<PooledConnection> releasedConnections = new ArrayList<PooledConnection>();
+		JdbcConnectionPool connectionPool = null;
+		
+		synchronized (analysisDbConnections) {
+			PooledConnection pooledConnection = analysisDbConnections.get(currentThread);
+			if (null != pooledConnection) {
+				return pooledConnection;
+			}
+			
+			if (null == analysisConnectionPool) {
+				return null;
+			}
+			connectionPool = analysisConnectionPool;
+			
+			// Reclaim connections of finished worker threads before the pool runs out
+			if (connectionPool.getActiveConnections() >= Property.DB_POOL_SIZE) {
+				Iterator<Map.Entry<Thread, PooledConnection>> connectionIter = analysisDbConnections.entrySet().iterator();
+				while (connectionIter.hasNext()) {
+					Map.Entry<Thread, PooledConnection> entry = connectionIter.next();
+					if (!entry.getKey().isAlive()) {
+						releasedConnections.add(entry.getValue());
+						connectionIter.remove();
+					}
+				}
+			}
+		}
+		
+		for (int i = 0; i < releasedConnections.size(); i++) {
+			releasedConnections.get(i).close();
+		}
+		
+		// Waits outside the lock when every pooled connection is in use
+		PooledConnection pooledConnection = new PooledConnection(connectionPool.getConnection());
+		synchronized (analysisDbConnections) {
+			analysisDbConnections.put(currentThread, pooledConnection);
+		}
+		
+		return pooledConnection;
+	}
+	
+	/**
+	 * Get the cached prepared statement of the current thread's connection for the SQL
+	 * 
+	 * @param sql
+	 * @return
+	 * @throws SQLException
+	 */
+	protected static PreparedStatement prepareStatement(String sql) throws SQLException {
+		return getPooledConnection().prepareStatement(sql);
+	}
+	
+	/**
+	 * Get a pooled connection which isn't bound to the current thread, for writes committed
+	 * apart from the transaction of the thread. The caller must close it.
+	 *
+	 * @throws SQLException
+	 */
+	protected static Connection openDetachedConnection() throws SQLException {
+		JdbcConnectionPool connectionPool = null;
+		synchronized (analysisDbConnections) {
+			connectionPool = analysisConnectionPool;
+		}
+		if (null == connectionPool) {
+			throw new SQLException("Analysis DB connection isn't opened.");
+		}
+		return connectionPool.getConnection();
+	}
+	
 	public static Connection getAnalysisDbConnection() {
-		return analysisDbConnection;
+		PooledConnection pooledConnection = null;
+		try {
+			pooledConnection = getPooledConnection();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		
+		return (null == pooledConnection) ? null : pooledConnection.connection;
 	}
 	
 	public static Connection getEvaluationDbConnection() {
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import edu.skku.selab.blp.Property;
+import edu.skku.selab.blp.common.Bug;
+import edu.skku.selab.blp.common.BugCorpus;
+import edu.skku.selab.blp.common.Comment;
+import edu.skku.selab.blp.common.ExtendedCommitInfo;
+import edu.skku.selab.blp.common.Method;
+
+/**
+ * Buffers bugs with their corpora, stack trace classes, comments, fixed files and fixed methods
+ * and writes them with JDBC batches in a single transaction per flush.
+ *
+ * Bugs are written in the buffered order. A fixed method which isn't in MTH_INFO is inserted,
+ * and it is linked to the bug only when a later fixed method of the same hash key refers to it.
+ * Stack trace classes of a duplicated bug ID aren't inserted again.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class BugBatchWriter extends BaseDAO implements AutoCloseable {
+	private final static String INSERT_BUG_SQL = "INSERT INTO BUG_INFO (BUG_ID, OPEN_DATE, FIXED_DATE, SMR_COR, DESC_COR, CMT_COR, TOT_CNT, VER) " +
+			"VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+	private final static String INSERT_STACK_TRACE_CLASS_SQL = "INSERT INTO BUG_STRACE_INFO (BUG_ID, STRACE_CLASS) VALUES (?, ?)";
+	private final static String INSERT_COMMENT_SQL = "INSERT INTO BUG_CMT_INFO (BUG_ID, CMT_ID, ATHR, CMT_DATE, CMT_COR) VALUES (?, ?, ?, ?, ?)";
+	private final static String INSERT_FIXED_FILE_SQL = "INSERT INTO BUG_FIX_SF_INFO (BUG_ID, FIXED_SF_VER_ID) VALUES (?, ?)";
+	private final static String INSERT_FIXED_METHOD_SQL = "INSERT INTO BUG_FIX_MTH_INFO (BUG_ID, FIXED_MTH_ID) VALUES (?, ?)";
+
+	private String version;
+	private int batchSize;
+	private int insertedCount;
+	private ArrayList<Bug> pendingBugs;
+	private HashSet<Integer> insertedBugIDs;
+	// <Source file name, source file version ID>
+	private HashMap<String, Integer> sourceFileVersionIDs;
+	// <Hash key and method name, method ID>
+	private HashMap<String, Integer> methodIDs;
+	private BatchTransaction transaction;
+
+	private SourceFileDAO sourceFileDAO;
+	private MethodDAO methodDAO;
+
+	/**
+	 * @param version version of fixed files and fixed methods
+	 * @throws Exception
+	 */
+	public BugBatchWriter(String version) throws Exception {
+		this(version, Property.DB_BATCH_SIZE);
+	}
+
+	/**
+	 * @param version version of fixed files and fixed methods
+	 * @param batchSize maximum buffered bug count before flush
+	 * @throws Exception
+	 */
+	public BugBatchWriter(String version, int batchSize) throws Exception {
+		super();
+
+		this.version = version;
+		this.batchSize = (batchSize > 0) ? batchSize : 1;
+		insertedCount = 0;
+		pendingBugs = new ArrayList<Bug>();
+		insertedBugIDs = new HashSet<Integer>();
+		sourceFileVersionIDs = new HashMap<String, Integer>();
+		methodIDs = new HashMap<String, Integer>();
+		transaction = new BatchTransaction(INSERT_BUG_SQL, INSERT_STACK_TRACE_CLASS_SQL, INSERT_COMMENT_SQL,
+				INSERT_FIXED_FILE_SQL, INSERT_FIXED_METHOD_SQL);
+		sourceFileDAO = new SourceFileDAO();
+		methodDAO = new MethodDAO();
+	}
+
+	/**
+	 * @param bug bug with its corpus
+	 * @throws SQLException when flushed bugs can't be inserted
+	 */
+	public void insertBug(Bug bug) throws SQLException {
+		pendingBugs.add(bug);
+		if (pendingBugs.size() >= batchSize) {
+			flush();
+		}
+	}
+
+	private int getSourceFileVersionID(String fileName) {
+		Integer sourceFileVersionID = sourceFileVersionIDs.get(fileName);
+		if (null == sourceFileVersionID) {
+			sourceFileVersionID = sourceFileDAO.getSourceFileVersionID(fileName, version);
+			sourceFileVersionIDs.put(fileName, sourceFileVersionID);
+		}
+		return sourceFileVersionID;
+	}
+
+	/**
+	 * @return method ID of the fixed method, INVALID if the method is inserted to MTH_INFO now
+	 */
+	private int getFixedMethodID(Method method) throws SQLException {
+		String key = method.getHashKey() + "|" + method.getName();
+		Integer methodID = methodIDs.get(key);
+		if (null != methodID) {
+			return methodID;
+		}
+
+		methodID = methodDAO.getMethodID(method);
+		if (INVALID != methodID) {
+			methodIDs.put(key, methodID);
+			return methodID;
+		}
+
+		// Fixed method isn't found from the current source version
+		methodID = methodDAO.insertMethod(method);
+		if (INVALID == methodID) {
+			throw new SQLException(String.format("%s insertMethod() failed.", method.getName()));
+		}
+		methodIDs.put(key, methodID);
+		return INVALID;
+	}
+
+	/**
+	 * Insert all buffered bugs in one transaction
+	 *
+	 * @return inserted bug count
+	 * @throws SQLException when a bug can't be inserted. The transaction is rolled back.
+	 */
+	public int flush() throws SQLException {
+		if (pendingBugs.isEmpty()) {
+			return 0;
+		}
+
+		// The connection belongs to the current thread, so the transaction includes inserts of methodDAO.
+		int flushedCount = pendingBugs.size();
+		HashSet<Integer> flushedBugIDs = new HashSet<Integer>();
+		HashMap<String, Integer> flushedMethodIDs = new HashMap<String, Integer>(methodIDs);
+		try {
+			transaction.begin();
+
+			PreparedStatement bugStatement = prepareStatement(INSERT_BUG_SQL);
+			PreparedStatement stackTraceStatement = prepareStatement(INSERT_STACK_TRACE_CLASS_SQL);
+			PreparedStatement commentStatement = prepareStatement(INSERT_COMMENT_SQL);
+			PreparedStatement fixedFileStatement = prepareStatement(INSERT_FIXED_FILE_SQL);
+			PreparedStatement fixedMethodStatement = prepareStatement(INSERT_FIXED_METHOD_SQL);
+			for (int i = 0; i < pendingBugs.size(); i++) {
+				Bug bug = pendingBugs.get(i);
+				int bugID = bug.getID();
+
+				if (!insertedBugIDs.contains(bugID) && flushedBugIDs.add(bugID)) {
+					BugCorpus bugCorpus = bug.getCorpus();
+					bugStatement.setInt(1, bugID);
+					bugStatement.setString(2, bug.getOpenDateString());
+					bugStatement.setString(3, bug.getFixedDateString());
+					bugStatement.setString(4, bugCorpus.getSummaryPart());
+					bugStatement.setString(5, bugCorpus.getDescriptionPart());
+					bugStatement.setString(6, bug.getAllCommentsCorpus());
+					bugStatement.setInt(7, bug.getTotalCorpusCount());
+					bugStatement.setString(8, bug.getVersion());
+					bugStatement.addBatch();
+
+					ArrayList<String> stackTraceClasses = bug.getStackTraceClasses();
+					if (null != stackTraceClasses) {
+						for (int j = 0; j < stackTraceClasses.size(); j++) {
+							stackTraceStatement.setInt(1, bugID);
+							stackTraceStatement.setString(2, stackTraceClasses.get(j));
+							stackTraceStatement.addBatch();
+						}
+					}
+				}
+
+				ArrayList<Comment> comments = bug.getComments();
+				for (int j = 0; j < comments.size(); j++) {
+					Comment comment = comments.get(j);
+					commentStatement.setInt(1, bugID);
+					commentStatement.setInt(2, comment.getID());
+					commentStatement.setString(3, comment.getAuthor());
+					commentStatement.setString(4, comment.getCommentedDateString());
+					commentStatement.setString(5, comment.getCommentCorpus());
+					commentStatement.addBatch();
+				}
+
+				Iterator<String> fixedFilesIter = bug.getFixedFiles().iterator();
+				while (fixedFilesIter.hasNext()) {
+					fixedFileStatement.setInt(1, bugID);
+					fixedFileStatement.setInt(2, getSourceFileVersionID(fixedFilesIter.next()));
+					fixedFileStatement.addBatch();
+				}
+
+				ArrayList<ExtendedCommitInfo> fixedCommitInfos = bug.getFixedCommitInfos();
+				for (int j = 0; j < fixedCommitInfos.size(); j++) {
+					HashMap<String, ArrayList<Method>> allFixedMethodsMap = fixedCommitInfos.get(j).getAllFixedMethods();
+					Iterator<String> fixedMethodsIter = allFixedMethodsMap.keySet().iterator();
+					while (fixedMethodsIter.hasNext()) {
+						String fixedFileName = fixedMethodsIter.next();
+						int sourceFileVersionID = getSourceFileVersionID(fixedFileName);
+
+						ArrayList<Method> fixedMethods = allFixedMethodsMap.get(fixedFileName);
+						for (int k = 0; k < fixedMethods.size(); k++) {
+							Method method = fixedMethods.get(k);
+							method.setSourceFileVersionID(sourceFileVersionID);
+							int methodID = getFixedMethodID(method);
+							if (INVALID != methodID) {
+								fixedMethodStatement.setInt(1, bugID);
+								fixedMethodStatement.setInt(2, methodID);
+								fixedMethodStatement.addBatch();
+							}
+						}
+					}
+				}
+			}
+
+			bugStatement.executeBatch();
+			stackTraceStatement.executeBatch();
+			commentStatement.executeBatch();
+			fixedFileStatement.executeBatch();
+			fixedMethodStatement.executeBatch();
+
+			transaction.commit();
+		} catch (Exception e) {
+			transaction.rollback();
+			// Methods inserted by the rolled back transaction aren't in MTH_INFO
+			methodIDs = flushedMethodIDs;
+			throw e;
+		} finally {
+			pendingBugs.clear();
+		}
+
+		insertedBugIDs.addAll(flushedBugIDs);
+		insertedCount += flushedCount;
+		return flushedCount;
+	}
+
+	/**
+	 * @return count of bugs inserted by flushes
+	 */
+	public int getInsertedCount() {
+		return insertedCount;
+	}
+
+	/**
+	 * @return the batchSize
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Flush remaining bugs
+	 */
+	@Override
+	public void close() throws SQLException {
+		flush();
+	}
+}
@@ -7,6 +7,8 @@
  */
 package edu.skku.selab.blp.db.dao;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -43,7 +45,7 @@ public class BugDAO extends BaseDAO {
 		
 		// releaseDate format : "2004-10-18 17:40:00"
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bug.getID());
 			ps.setString(2, bug.getOpenDateString());
 			ps.setString(3, bug.getFixedDateString());
@@ -79,7 +81,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -95,27 +97,28 @@ public class BugDAO extends BaseDAO {
 		String sql = "SELECT BUG_ID, OPEN_DATE, FIXED_DATE, COR, SMR_COR, DESC_COR, TOT_CNT, COR_NORM, SMR_COR_NORM, DESC_COR_NORM, VER FROM BUG_INFO";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			Bug bug = null;
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				bug = new Bug();
-				bug.setID(rs.getInt("BUG_ID"));
-				bug.setOpenDate(rs.getTimestamp("OPEN_DATE"));
-				bug.setFixedDate(rs.getTimestamp("FIXED_DATE"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					bug = new Bug();
+					bug.setID(rs.getInt("BUG_ID"));
+					bug.setOpenDate(rs.getTimestamp("OPEN_DATE"));
+					bug.setFixedDate(rs.getTimestamp("FIXED_DATE"));
 				
-				BugCorpus bugCorpus = new BugCorpus();
-				bugCorpus.setSummaryPart(rs.getString("SMR_COR"));
-				bugCorpus.setDescriptionPart(rs.getString("DESC_COR"));
-				bugCorpus.setContentNorm(rs.getDouble("COR_NORM"));
-				bugCorpus.setSummaryCorpusNorm(rs.getDouble("SMR_COR_NORM"));
-				bugCorpus.setDecriptionCorpusNorm(rs.getDouble("DESC_COR_NORM"));
-				bug.setCorpus(bugCorpus);
+					BugCorpus bugCorpus = new BugCorpus();
+					bugCorpus.setSummaryPart(rs.getString("SMR_COR"));
+					bugCorpus.setDescriptionPart(rs.getString("DESC_COR"));
+					bugCorpus.setContentNorm(rs.getDouble("COR_NORM"));
+					bugCorpus.setSummaryCorpusNorm(rs.getDouble("SMR_COR_NORM"));
+					bugCorpus.setDecriptionCorpusNorm(rs.getDouble("DESC_COR_NORM"));
+					bug.setCorpus(bugCorpus);
 				
-				bug.setTotalCorpusCount(rs.getInt("TOT_CNT"));
-				bug.setVersion(rs.getString("VER"));
-				bugs.put(bug.getID(), bug);
+					bug.setTotalCorpusCount(rs.getInt("TOT_CNT"));
+					bug.setVersion(rs.getString("VER"));
+					bugs.put(bug.getID(), bug);
+				}
 			}
 			
 			Iterator<Integer> bugsIter = bugs.keySet().iterator();
@@ -141,28 +144,29 @@ public class BugDAO extends BaseDAO {
 		}
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			Bug bug = null;
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				bug = new Bug();
-				bug.setID(rs.getInt("BUG_ID"));
-				bug.setOpenDate(rs.getTimestamp("OPEN_DATE"));
-				bug.setFixedDate(rs.getTimestamp("FIXED_DATE"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					bug = new Bug();
+					bug.setID(rs.getInt("BUG_ID"));
+					bug.setOpenDate(rs.getTimestamp("OPEN_DATE"));
+					bug.setFixedDate(rs.getTimestamp("FIXED_DATE"));
 
-				BugCorpus bugCorpus = new BugCorpus();
-				bugCorpus.setSummaryPart(rs.getString("SMR_COR"));
-				bugCorpus.setDescriptionPart(rs.getString("DESC_COR"));
-				bugCorpus.setCommentPart(rs.getString("CMT_COR"));
-				bugCorpus.setContentNorm(rs.getDouble("COR_NORM"));
-				bugCorpus.setSummaryCorpusNorm(rs.getDouble("SMR_COR_NORM"));
-				bugCorpus.setDecriptionCorpusNorm(rs.getDouble("DESC_COR_NORM"));
-				bug.setCorpus(bugCorpus);
+					BugCorpus bugCorpus = new BugCorpus();
+					bugCorpus.setSummaryPart(rs.getString("SMR_COR"));
+					bugCorpus.setDescriptionPart(rs.getString("DESC_COR"));
+					bugCorpus.setCommentPart(rs.getString("CMT_COR"));
+					bugCorpus.setContentNorm(rs.getDouble("COR_NORM"));
+					bugCorpus.setSummaryCorpusNorm(rs.getDouble("SMR_COR_NORM"));
+					bugCorpus.setDecriptionCorpusNorm(rs.getDouble("DESC_COR_NORM"));
+					bug.setCorpus(bugCorpus);
 
-				bug.setTotalCorpusCount(rs.getInt("TOT_CNT"));
-				bug.setVersion(rs.getString("VER"));
-				bugs.add(bug);
+					bug.setTotalCorpusCount(rs.getInt("TOT_CNT"));
+					bug.setVersion(rs.getString("VER"));
+					bugs.add(bug);
+				}
 			}
 			
 			for (int i = 0; i < bugs.size(); i++) {
@@ -181,13 +185,14 @@ public class BugDAO extends BaseDAO {
 		String sql = "SELECT BUG_ID, COR_NORM FROM BUG_INFO ";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				int bugID = rs.getInt("BUG_ID");
-				double bugNorm = rs.getDouble("COR_NORM");
-				bugNormMap.put(bugID, bugNorm);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					int bugID = rs.getInt("BUG_ID");
+					double bugNorm = rs.getDouble("COR_NORM");
+					bugNormMap.put(bugID, bugNorm);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -201,12 +206,13 @@ public class BugDAO extends BaseDAO {
 		
 		int count = 0;
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, dateString);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				count = rs.getInt(1); 
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					count = rs.getInt(1); 
+				}
 			}
 			
 		} catch (Exception e) {
@@ -222,29 +228,30 @@ public class BugDAO extends BaseDAO {
 				"WHERE FIXED_DATE <= ? AND BUG_ID != ? ORDER BY FIXED_DATE";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, fixedDateString);
 			ps.setInt(2, exceptedBugID);
 			
 			Bug bug = null;
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				bug = new Bug();
-				bug.setID(rs.getInt("BUG_ID"));
-				bug.setOpenDate(rs.getTimestamp("OPEN_DATE"));
-				bug.setFixedDate(rs.getTimestamp("FIXED_DATE"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					bug = new Bug();
+					bug.setID(rs.getInt("BUG_ID"));
+					bug.setOpenDate(rs.getTimestamp("OPEN_DATE"));
+					bug.setFixedDate(rs.getTimestamp("FIXED_DATE"));
 
-				BugCorpus bugCorpus = new BugCorpus();
-				bugCorpus.setSummaryPart(rs.getString("SMR_COR"));
-				bugCorpus.setDescriptionPart(rs.getString("DESC_COR"));
-				bugCorpus.setContentNorm(rs.getDouble("COR_NORM"));
-				bugCorpus.setSummaryCorpusNorm(rs.getDouble("SMR_COR_NORM"));
-				bugCorpus.setDecriptionCorpusNorm(rs.getDouble("DESC_COR_NORM"));
-				bug.setCorpus(bugCorpus);
+					BugCorpus bugCorpus = new BugCorpus();
+					bugCorpus.setSummaryPart(rs.getString("SMR_COR"));
+					bugCorpus.setDescriptionPart(rs.getString("DESC_COR"));
+					bugCorpus.setContentNorm(rs.getDouble("COR_NORM"));
+					bugCorpus.setSummaryCorpusNorm(rs.getDouble("SMR_COR_NORM"));
+					bugCorpus.setDecriptionCorpusNorm(rs.getDouble("DESC_COR_NORM"));
+					bug.setCorpus(bugCorpus);
 
-				bug.setTotalCorpusCount(rs.getInt("TOT_CNT"));
-				bug.setVersion(rs.getString("VER"));
-				bugs.add(bug);
+					bug.setTotalCorpusCount(rs.getInt("TOT_CNT"));
+					bug.setVersion(rs.getString("VER"));
+					bugs.add(bug);
+				}
 			}
 			
 			for (int i = 0; i < bugs.size(); i++) {
@@ -262,23 +269,24 @@ public class BugDAO extends BaseDAO {
 		Bug bug = null;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				bug = new Bug();
-				bug.setID(bugID);
-				bug.setOpenDate(rs.getTimestamp("OPEN_DATE"));
-				bug.setFixedDate(rs.getTimestamp("FIXED_DATE"));
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					bug = new Bug();
+					bug.setID(bugID);
+					bug.setOpenDate(rs.getTimestamp("OPEN_DATE"));
+					bug.setFixedDate(rs.getTimestamp("FIXED_DATE"));
 
-				BugCorpus bugCorpus = new BugCorpus();
-				bugCorpus.setSummaryPart(rs.getString("SMR_COR"));
-				bugCorpus.setDescriptionPart(rs.getString("DESC_COR"));
-				bug.setCorpus(bugCorpus);
+					BugCorpus bugCorpus = new BugCorpus();
+					bugCorpus.setSummaryPart(rs.getString("SMR_COR"));
+					bugCorpus.setDescriptionPart(rs.getString("DESC_COR"));
+					bug.setCorpus(bugCorpus);
 
-				bug.setTotalCorpusCount(rs.getInt("TOT_CNT"));
-				bug.setVersion(rs.getString("VER"));
+					bug.setTotalCorpusCount(rs.getInt("TOT_CNT"));
+					bug.setVersion(rs.getString("VER"));
+				}
 			}
 			
 			bug.setStackTraceClasses(getStackTraceClasses(bugID));
@@ -294,18 +302,19 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, term);
 			
 			returnValue = ps.executeUpdate();
 			
 			sql = "SELECT BUG_TERM_ID FROM BUG_TERM_INFO WHERE TERM = ?";
-			ps = analysisDbConnection.prepareStatement(sql);
+			ps = prepareStatement(sql);
 			ps.setString(1, term);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				returnValue = rs.getInt("BUG_TERM_ID");	
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = rs.getInt("BUG_TERM_ID");	
+				}
 			}
 		} catch (JdbcSQLException e) {
 			e.printStackTrace();
@@ -325,7 +334,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -347,11 +356,12 @@ public class BugDAO extends BaseDAO {
 					"FROM BUG_INFO";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				corpusMap.put(rs.getInt("BUG_ID"), rs.getString("COR"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					corpusMap.put(rs.getInt("BUG_ID"), rs.getString("COR"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -373,12 +383,13 @@ public class BugDAO extends BaseDAO {
 					"WHERE BUG_ID = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				norm = rs.getDouble("COR_NORM");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					norm = rs.getDouble("COR_NORM");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -394,11 +405,12 @@ public class BugDAO extends BaseDAO {
 		String sql = "SELECT TERM, BUG_TERM_ID FROM BUG_TERM_INFO";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				termMap.put(rs.getString("TERM"), rs.getInt("BUG_TERM_ID"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					termMap.put(rs.getString("TERM"), rs.getInt("BUG_TERM_ID"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -412,10 +424,11 @@ public class BugDAO extends BaseDAO {
 		int allTermCount = 0;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				allTermCount = rs.getInt(1);
+			PreparedStatement ps = prepareStatement(sql);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					allTermCount = rs.getInt(1);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -429,10 +442,11 @@ public class BugDAO extends BaseDAO {
 		int bugCount = 0;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				bugCount = rs.getInt(1);
+			PreparedStatement ps = prepareStatement(sql);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					bugCount = rs.getInt(1);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -445,12 +459,13 @@ public class BugDAO extends BaseDAO {
 		String sql = "SELECT SF_TERM_ID FROM SF_TERM_INFO WHERE TERM = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, term);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				returnValue = rs.getInt("SF_TERM_ID");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = rs.getInt("SF_TERM_ID");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -463,21 +478,22 @@ public class BugDAO extends BaseDAO {
 		
 		HashMap<String, AnalysisValue> sourceFileTermMap = null;
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				if (null == sourceFileTermMap) {
-					sourceFileTermMap = new HashMap<String, AnalysisValue>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == sourceFileTermMap) {
+						sourceFileTermMap = new HashMap<String, AnalysisValue>();
+					}
 				
-				AnalysisValue sourceFileTermWeight = new AnalysisValue();
-				sourceFileTermWeight.setTf(rs.getDouble("TF"));
-				sourceFileTermWeight.setIdf(rs.getDouble("IDF"));
+					AnalysisValue sourceFileTermWeight = new AnalysisValue();
+					sourceFileTermWeight.setTf(rs.getDouble("TF"));
+					sourceFileTermWeight.setIdf(rs.getDouble("IDF"));
 				
-				String term = rs.getString("TERM");
-				sourceFileTermMap.put(term, sourceFileTermWeight);
+					String term = rs.getString("TERM");
+					sourceFileTermMap.put(term, sourceFileTermWeight);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -485,12 +501,40 @@ public class BugDAO extends BaseDAO {
 		return sourceFileTermMap;	
 	}
 	
+	public HashMap<String, AnalysisValue> getMthTermMap(int bugID) {
+		String sql = "SELECT A.TF, A.IDF, B.TERM FROM BUG_MTH_TERM_WGT A, SF_TERM_INFO B WHERE A.BUG_ID = ? AND A.MTH_TERM_ID = B.SF_TERM_ID";
+		
+		HashMap<String, AnalysisValue> methodTermMap = null;
+		try {
+			PreparedStatement ps = prepareStatement(sql);
+			ps.setInt(1, bugID);
+			
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == methodTermMap) {
+						methodTermMap = new HashMap<String, AnalysisValue>();
+					}
+				
+					AnalysisValue methodTermWeight = new AnalysisValue();
+					methodTermWeight.setTf(rs.getDouble("TF"));
+					methodTermWeight.setIdf(rs.getDouble("IDF"));
+				
+					String term = rs.getString("TERM");
+					methodTermMap.put(term, methodTermWeight);
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return methodTermMap;	
+	}
+	
 	public int insertStackTraceClass(int bugID, String className) {
 		String sql = "INSERT INTO BUG_STRACE_INFO (BUG_ID, STRACE_CLASS) VALUES (?, ?)";
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			ps.setString(2, className);
 			
@@ -513,7 +557,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -531,17 +575,17 @@ public class BugDAO extends BaseDAO {
 				"WHERE BUG_ID = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == stackTraceClasses) {
-					stackTraceClasses = new ArrayList<String>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == stackTraceClasses) {
+						stackTraceClasses = new ArrayList<String>();
+					}
 				
-				stackTraceClasses.add(rs.getString("STRACE_CLASS"));
+					stackTraceClasses.add(rs.getString("STRACE_CLASS"));
+				}
 			}
 
 		} catch (Exception e) {
@@ -559,7 +603,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugSfTermWeight.getID());
 			ps.setInt(2, termID);
 			ps.setInt(3, bugSfTermWeight.getTermCount());
@@ -583,7 +627,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugMthTermWeight.getID());
 			ps.setInt(2, termID);
 			ps.setInt(3, bugMthTermWeight.getTermCount());
@@ -604,7 +648,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -619,7 +663,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -639,21 +683,21 @@ public class BugDAO extends BaseDAO {
 				"B.SF_TERM_ID = C.SF_TERM_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			ps.setString(2, term);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				termWeight = new AnalysisValue();
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					termWeight = new AnalysisValue();
 				
-				termWeight.setID(bugID);
-				termWeight.setTerm(term);
-				termWeight.setTermCount(rs.getInt("TERM_CNT"));
-				termWeight.setInvDocCount(rs.getInt("INV_DOC_CNT"));
-				termWeight.setTf(rs.getDouble("TF"));
-				termWeight.setIdf(rs.getDouble("IDF"));
+					termWeight.setID(bugID);
+					termWeight.setTerm(term);
+					termWeight.setTermCount(rs.getInt("TERM_CNT"));
+					termWeight.setInvDocCount(rs.getInt("INV_DOC_CNT"));
+					termWeight.setTf(rs.getDouble("TF"));
+					termWeight.setIdf(rs.getDouble("IDF"));
+				}
 			}
 
 		} catch (Exception e) {
@@ -673,21 +717,21 @@ public class BugDAO extends BaseDAO {
 				"B.SF_TERM_ID = C.MTH_TERM_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			ps.setString(2, term);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				termWeight = new AnalysisValue();
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					termWeight = new AnalysisValue();
 				
-				termWeight.setID(bugID);
-				termWeight.setTerm(term);
-				termWeight.setTermCount(rs.getInt("TERM_CNT"));
-				termWeight.setInvDocCount(rs.getInt("INV_DOC_CNT"));
-				termWeight.setTf(rs.getDouble("TF"));
-				termWeight.setIdf(rs.getDouble("IDF"));
+					termWeight.setID(bugID);
+					termWeight.setTerm(term);
+					termWeight.setTermCount(rs.getInt("TERM_CNT"));
+					termWeight.setInvDocCount(rs.getInt("INV_DOC_CNT"));
+					termWeight.setTf(rs.getDouble("TF"));
+					termWeight.setIdf(rs.getDouble("IDF"));
+				}
 			}
 
 		} catch (Exception e) {
@@ -702,12 +746,13 @@ public class BugDAO extends BaseDAO {
 		String sql = "SELECT BUG_TERM_ID FROM BUG_TERM_INFO WHERE TERM = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, term);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				returnValue = rs.getInt("BUG_TERM_ID");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = rs.getInt("BUG_TERM_ID");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -726,7 +771,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, analysisValue.getID());
 			ps.setInt(2, termID);
 			ps.setDouble(3, analysisValue.getTermWeight());
@@ -744,7 +789,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -763,18 +808,18 @@ public class BugDAO extends BaseDAO {
 				"A.BUG_ID = C.BUG_ID AND B.TERM = ? AND B.BUG_TERM_ID = C.BUG_TERM_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			ps.setString(2, term);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				returnValue = new AnalysisValue();
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = new AnalysisValue();
 				
-				returnValue.setID(bugID);
-				returnValue.setTerm(term);
-				returnValue.setTermWeight(rs.getDouble("TW"));				
+					returnValue.setID(bugID);
+					returnValue.setTerm(term);
+					returnValue.setTermWeight(rs.getDouble("TW"));				
+				}
 			}
 
 		} catch (Exception e) {
@@ -793,23 +838,23 @@ public class BugDAO extends BaseDAO {
 				"WHERE C.BUG_ID = ? AND B.BUG_TERM_ID = C.BUG_TERM_ID ORDER BY C.BUG_TERM_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == bugAnalysisValues) {
-					bugAnalysisValues = new ArrayList<AnalysisValue>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == bugAnalysisValues) {
+						bugAnalysisValues = new ArrayList<AnalysisValue>();
+					}
 				
-				bugTermWeight = new AnalysisValue();
-				bugTermWeight.setID(bugID);
-				bugTermWeight.setTerm(rs.getString("TERM"));
-				bugTermWeight.setTermID(rs.getInt("BUG_TERM_ID"));
-				bugTermWeight.setTermWeight(rs.getDouble("TW"));
+					bugTermWeight = new AnalysisValue();
+					bugTermWeight.setID(bugID);
+					bugTermWeight.setTerm(rs.getString("TERM"));
+					bugTermWeight.setTermID(rs.getInt("BUG_TERM_ID"));
+					bugTermWeight.setTermWeight(rs.getDouble("TW"));
 				
-				bugAnalysisValues.add(bugTermWeight);
+					bugAnalysisValues.add(bugTermWeight);
+				}
 			}
 
 		} catch (Exception e) {
@@ -827,7 +872,7 @@ public class BugDAO extends BaseDAO {
 			SourceFileDAO sourceFileDAO = new SourceFileDAO();
 			int fixedSourceFileID = sourceFileDAO.getSourceFileVersionID(fileName, version);
 
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			ps.setInt(2, fixedSourceFileID);
 			
@@ -848,7 +893,7 @@ public class BugDAO extends BaseDAO {
 			int fixedMethodID = methodDAO.getMethodID(method);;
 			
 			if (INVALID != fixedMethodID) {
-				ps = analysisDbConnection.prepareStatement(sql);
+				PreparedStatement ps = prepareStatement(sql);
 				ps.setInt(1, bugID);
 				ps.setInt(2, fixedMethodID);
 				
@@ -867,7 +912,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -878,7 +923,7 @@ public class BugDAO extends BaseDAO {
 		returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -895,22 +940,22 @@ public class BugDAO extends BaseDAO {
 				"WHERE C.BUG_ID = ? AND C.FIXED_SF_VER_ID = B.SF_VER_ID AND A.SF_ID = B.SF_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == fixedFiles) {
-					fixedFiles = new HashSet<SourceFile>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == fixedFiles) {
+						fixedFiles = new HashSet<SourceFile>();
+					}
 
-				SourceFile sourceFile = new SourceFile();
-				sourceFile.setName(rs.getString("SF_NAME"));
-				sourceFile.setVersion(rs.getString("VER"));
-				sourceFile.setSourceFileVersionID(rs.getInt("FIXED_SF_VER_ID"));
+					SourceFile sourceFile = new SourceFile();
+					sourceFile.setName(rs.getString("SF_NAME"));
+					sourceFile.setVersion(rs.getString("VER"));
+					sourceFile.setSourceFileVersionID(rs.getInt("FIXED_SF_VER_ID"));
 
-				fixedFiles.add(sourceFile);
+					fixedFiles.add(sourceFile);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -930,7 +975,7 @@ public class BugDAO extends BaseDAO {
 //				"WHERE A.BUG_ID = B.BUG_ID";
 //		
 //		try {
-//			ps = analysisDbConnection.prepareStatement(sql);
+//			ps = prepareStatement(sql);
 //			
 //			rs = ps.executeQuery();
 //			
@@ -955,25 +1000,25 @@ public class BugDAO extends BaseDAO {
 				"WHERE B.BUG_ID = ? AND B.FIXED_MTH_ID = A.MTH_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == fixedMethods) {
-					fixedMethods = new HashSet<Method>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == fixedMethods) {
+						fixedMethods = new HashSet<Method>();
+					}
 
-				Method method = new Method();
-				method.setID(rs.getInt("MTH_ID"));
-				method.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
-				method.setName(rs.getString("MTH_NAME"));
-				method.setReturnType(rs.getString("RET_TYPE"));
-				method.setParams(rs.getString("PARAMS"));
-				method.setHashKey(rs.getString("HASH_KEY"));
+					Method method = new Method();
+					method.setID(rs.getInt("MTH_ID"));
+					method.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
+					method.setName(rs.getString("MTH_NAME"));
+					method.setReturnType(rs.getString("RET_TYPE"));
+					method.setParams(rs.getString("PARAMS"));
+					method.setHashKey(rs.getString("HASH_KEY"));
 
-				fixedMethods.add(method);
+					fixedMethods.add(method);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -987,7 +1032,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			ps.setInt(2, similarBugID);
 			ps.setDouble(3, similarityScore);
@@ -1000,12 +1045,44 @@ public class BugDAO extends BaseDAO {
 		return returnValue;
 	}
 	
+	/**
+	 * Insert similar bugs of a bug with one batch
+	 * 
+	 * @param bugID
+	 * @param similarBugInfos
+	 * @return inserted row count
+	 */
+	public int insertSimilarBugInfos(int bugID, ArrayList<SimilarBugInfo> similarBugInfos) {
+		String sql = "INSERT INTO SIMI_BUG_ANAYSIS (BUG_ID, SIMI_BUG_ID, SIMI_BUG_SCORE) VALUES (?, ?, ?)";
+		int returnValue = INVALID;
+		
+		try {
+			PreparedStatement ps = prepareStatement(sql);
+			for (int i = 0; i < similarBugInfos.size(); i++) {
+				ps.setInt(1, bugID);
+				ps.setInt(2, similarBugInfos.get(i).getSimilarBugID());
+				ps.setDouble(3, similarBugInfos.get(i).getSimilarityScore());
+				ps.addBatch();
+			}
+			
+			returnValue = 0;
+			int[] insertedCounts = ps.executeBatch();
+			for (int i = 0; i < insertedCounts.length; i++) {
+				returnValue += insertedCounts[i];
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		
+		return returnValue;
+	}
+	
 	public int deleteAllSimilarBugInfo() {
 		String sql = "DELETE FROM SIMI_BUG_ANAYSIS";
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -1022,21 +1099,21 @@ public class BugDAO extends BaseDAO {
 				"WHERE BUG_ID = ? AND SIMI_BUG_SCORE != 0.0";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == similarBugInfos) {
-					similarBugInfos = new HashSet<SimilarBugInfo>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == similarBugInfos) {
+						similarBugInfos = new HashSet<SimilarBugInfo>();
+					}
 
-				SimilarBugInfo similarBugInfo = new SimilarBugInfo();
-				similarBugInfo.setSimilarBugID(rs.getInt("SIMI_BUG_ID"));
-				similarBugInfo.setSimilarityScore(rs.getDouble("SIMI_BUG_SCORE"));
+					SimilarBugInfo similarBugInfo = new SimilarBugInfo();
+					similarBugInfo.setSimilarBugID(rs.getInt("SIMI_BUG_ID"));
+					similarBugInfo.setSimilarityScore(rs.getDouble("SIMI_BUG_SCORE"));
 
-				similarBugInfos.add(similarBugInfo);
+					similarBugInfos.add(similarBugInfo);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -1051,7 +1128,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, totalTermCount);
 			ps.setInt(2, bugID);
 			
@@ -1069,7 +1146,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, totalTermCount);
 			ps.setInt(2, bugID);
 			
@@ -1087,7 +1164,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, corpusNorm);
 			ps.setDouble(2, summaryCorpusNorm);
 			ps.setDouble(3, descriptionCorpusNorm);
@@ -1108,7 +1185,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, methodNorm);
 			ps.setInt(2, bugID);
 			
@@ -1125,7 +1202,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			ps.setInt(2, comment.getID());
 			ps.setString(3, comment.getAuthor());
@@ -1151,7 +1228,7 @@ public class BugDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -1169,19 +1246,19 @@ public class BugDAO extends BaseDAO {
 				"WHERE BUG_ID = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == comments) {
-					comments = new ArrayList<Comment>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == comments) {
+						comments = new ArrayList<Comment>();
+					}
 				
-				Comment comment = new Comment(rs.getInt("CMT_ID"), rs.getTimestamp("CMT_DATE"),
-						rs.getString("ATHR"), rs.getString("CMT_COR"));
-				comments.add(comment);
+					Comment comment = new Comment(rs.getInt("CMT_ID"), rs.getTimestamp("CMT_DATE"),
+							rs.getString("ATHR"), rs.getString("CMT_COR"));
+					comments.add(comment);
+				}
 			}
 
 		} catch (Exception e) {
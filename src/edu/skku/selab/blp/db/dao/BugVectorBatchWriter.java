@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+
+import edu.skku.selab.blp.Property;
+
+/**
+ * Writes bug terms and bug term weights calculated in memory with JDBC batches.
+ *
+ * All bug term weights are replaced in a single transaction, which starts with the first written weight
+ * and ends with commit(). Nothing is changed when a write fails, because the transaction is rolled back.
+ * commit() without a written weight deletes all bug term weights.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class BugVectorBatchWriter extends BaseDAO {
+	private final static String INSERT_TERM_SQL = "INSERT INTO BUG_TERM_INFO (TERM) VALUES (?)";
+	private final static String DELETE_TERM_WEIGHTS_SQL = "DELETE FROM BUG_TERM_WGT";
+	private final static String INSERT_TERM_WEIGHT_SQL = "INSERT INTO BUG_TERM_WGT (BUG_ID, BUG_TERM_ID, TW) VALUES (?, ?, ?)";
+
+	private int batchSize;
+
+	private BatchTransaction transaction;
+	private PreparedStatement termWeightStatement;
+	private int pendingTermWeightCount;
+	private int termWeightCount;
+
+	/**
+	 * @throws Exception
+	 */
+	public BugVectorBatchWriter() throws Exception {
+		this(Property.DB_BATCH_SIZE);
+	}
+
+	/**
+	 * @param batchSize maximum pending row count of a batch
+	 * @throws Exception
+	 */
+	public BugVectorBatchWriter(int batchSize) throws Exception {
+		super();
+
+		this.batchSize = (batchSize > 0) ? batchSize : 1;
+		transaction = new BatchTransaction(INSERT_TERM_WEIGHT_SQL);
+		pendingTermWeightCount = 0;
+		termWeightCount = 0;
+	}
+
+	/**
+	 * Insert terms in one transaction. BUG_TERM_ID of terms are assigned in the order of them.
+	 *
+	 * @param terms new terms which aren't in BUG_TERM_INFO
+	 * @return inserted term count
+	 * @throws Exception when a term can't be inserted. The transaction is rolled back.
+	 */
+	public int insertTerms(ArrayList<String> terms) throws Exception {
+		if (terms.isEmpty()) {
+			return 0;
+		}
+
+		BatchTransaction termTransaction = new BatchTransaction(INSERT_TERM_SQL);
+		try {
+			termTransaction.begin();
+
+			PreparedStatement ps = prepareStatement(INSERT_TERM_SQL);
+			for (int i = 0; i < terms.size(); i++) {
+				ps.setString(1, terms.get(i));
+				ps.addBatch();
+				if ((i + 1) % batchSize == 0) {
+					ps.executeBatch();
+				}
+			}
+			ps.executeBatch();
+
+			termTransaction.commit();
+		} catch (Exception e) {
+			termTransaction.rollback();
+			throw e;
+		}
+
+		return terms.size();
+	}
+
+	/**
+	 * Delete all bug term weights, then start the transaction
+	 */
+	private void begin() throws Exception {
+		if (transaction.isStarted()) {
+			return;
+		}
+
+		transaction.begin();
+		PreparedStatement ps = prepareStatement(DELETE_TERM_WEIGHTS_SQL);
+		ps.executeUpdate();
+
+		termWeightStatement = prepareStatement(INSERT_TERM_WEIGHT_SQL);
+	}
+
+	private void rollback() throws Exception {
+		try {
+			transaction.rollback();
+		} finally {
+			pendingTermWeightCount = 0;
+			termWeightCount = 0;
+		}
+	}
+
+	public void insertTermWeight(int bugID, int termID, double termWeight) throws Exception {
+		try {
+			begin();
+
+			termWeightStatement.setInt(1, bugID);
+			termWeightStatement.setInt(2, termID);
+			termWeightStatement.setDouble(3, termWeight);
+			termWeightStatement.addBatch();
+			termWeightCount++;
+
+			if (++pendingTermWeightCount >= batchSize) {
+				termWeightStatement.executeBatch();
+				pendingTermWeightCount = 0;
+			}
+		} catch (Exception e) {
+			rollback();
+			throw e;
+		}
+	}
+
+	/**
+	 * Execute the remaining batch and commit the transaction
+	 *
+	 * @return count of inserted term weights
+	 * @throws Exception when the transaction can't be committed. The transaction is rolled back.
+	 */
+	public int commit() throws Exception {
+		int returnValue = termWeightCount;
+		try {
+			// Bug term weights are deleted even if no weight is written
+			begin();
+
+			termWeightStatement.executeBatch();
+			transaction.commit();
+		} catch (Exception e) {
+			rollback();
+			throw e;
+		}
+
+		pendingTermWeightCount = 0;
+		termWeightCount = 0;
+		return returnValue;
+	}
+}
@@ -7,6 +7,8 @@
  */
 package edu.skku.selab.blp.db.dao;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -36,7 +38,7 @@ public class CommitDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, extendedCommitInfo.getCommitID());
 			ps.setString(2, extendedCommitInfo.getCommitDateString());
 			ps.setString(3, extendedCommitInfo.getMessage());
@@ -55,7 +57,7 @@ public class CommitDAO extends BaseDAO {
 					String checkedInFileName = commitFilesIter.next();
 					sql = "INSERT INTO COMM_SF_INFO (COMM_ID, COMM_SF, COMM_TYPE) VALUES (?, ?, ?)";
 					
-					ps = analysisDbConnection.prepareStatement(sql);
+					ps = prepareStatement(sql);
 					ps.setString(1, extendedCommitInfo.getCommitID());
 					ps.setString(2, checkedInFileName);
 					ps.setInt(3, commitType);
@@ -76,7 +78,7 @@ public class CommitDAO extends BaseDAO {
 					
 					sql = "INSERT INTO COMM_MTH_INFO (COMM_ID, COMM_SF, COMM_MTH, COM_MTH_HASH_KEY) VALUES (?, ?, ?, ?)";
 					
-					ps = analysisDbConnection.prepareStatement(sql);
+					ps = prepareStatement(sql);
 					ps.setString(1, extendedCommitInfo.getCommitID());
 					ps.setString(2, fixedFile);
 					ps.setString(3, method.getConcatenatedString());
@@ -98,7 +100,7 @@ public class CommitDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -115,23 +117,23 @@ public class CommitDAO extends BaseDAO {
 				"WHERE COMM_ID = ? ORDER BY COMM_TYPE";
 
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, commitID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == allCommitFiles) {
-					allCommitFiles = new HashMap<Integer, HashSet<String>>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == allCommitFiles) {
+						allCommitFiles = new HashMap<Integer, HashSet<String>>();
+					}
 
-				int commitType = rs.getInt("COMM_TYPE");
-				HashSet<String> commitFiles = allCommitFiles.get(commitType);
-				if (null == commitFiles) {
-					commitFiles = new HashSet<String>();
-					allCommitFiles.put(commitType, commitFiles);
+					int commitType = rs.getInt("COMM_TYPE");
+					HashSet<String> commitFiles = allCommitFiles.get(commitType);
+					if (null == commitFiles) {
+						commitFiles = new HashSet<String>();
+						allCommitFiles.put(commitType, commitFiles);
+					}
+					commitFiles.add(rs.getString("COMM_SF"));
 				}
-				commitFiles.add(rs.getString("COMM_SF"));
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -147,23 +149,23 @@ public class CommitDAO extends BaseDAO {
 				"WHERE COMM_ID = ? ORDER BY COMM_SF";
 
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, commitID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == allCommitMethods) {
-					allCommitMethods = new HashMap<String, ArrayList<Method>>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == allCommitMethods) {
+						allCommitMethods = new HashMap<String, ArrayList<Method>>();
+					}
 
-				String commitFile = rs.getString("COMM_SF");
-				ArrayList<Method> commitMethods = allCommitMethods.get(commitFile);
-				if (null == commitMethods) {
-					commitMethods = new ArrayList<Method>();
-					allCommitMethods.put(commitFile, commitMethods);
+					String commitFile = rs.getString("COMM_SF");
+					ArrayList<Method> commitMethods = allCommitMethods.get(commitFile);
+					if (null == commitMethods) {
+						commitMethods = new ArrayList<Method>();
+						allCommitMethods.put(commitFile, commitMethods);
+					}
+					commitMethods.add(new Method(rs.getString("COMM_MTH")));
 				}
-				commitMethods.add(new Method(rs.getString("COMM_MTH")));
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -179,18 +181,18 @@ public class CommitDAO extends BaseDAO {
 				"WHERE COMM_ID = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, commitID);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				commitInfo = new CommitInfo();
-				commitInfo.setCommitID(commitID);
-				commitInfo.setCommitDate(rs.getTimestamp("COMM_DATE"));
-				commitInfo.setMessage(rs.getString("MSG"));
-				commitInfo.setCommitter(rs.getString("COMMITTER"));
-				commitInfo.setCommitFiles(this.getCommitFiles(commitID));
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					commitInfo = new CommitInfo();
+					commitInfo.setCommitID(commitID);
+					commitInfo.setCommitDate(rs.getTimestamp("COMM_DATE"));
+					commitInfo.setMessage(rs.getString("MSG"));
+					commitInfo.setCommitter(rs.getString("COMMITTER"));
+					commitInfo.setCommitFiles(this.getCommitFiles(commitID));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -204,11 +206,12 @@ public class CommitDAO extends BaseDAO {
 		
 		int commitInfoCount = 0;
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				commitInfoCount = rs.getInt(1);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					commitInfoCount = rs.getInt(1);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -225,20 +228,20 @@ public class CommitDAO extends BaseDAO {
 				"ORDER BY COMM_DATE";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == allCommitInfos) {
-					allCommitInfos = new ArrayList<CommitInfo>();
+			PreparedStatement ps = prepareStatement(sql);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == allCommitInfos) {
+						allCommitInfos = new ArrayList<CommitInfo>();
+					}
+					commitInfo = new CommitInfo();
+					String commitID = rs.getString("COMM_ID");
+					commitInfo.setCommitID(commitID);
+					commitInfo.setCommitDate(rs.getTimestamp("COMM_DATE"));
+					commitInfo.setMessage(rs.getString("MSG"));
+					commitInfo.setCommitter(rs.getString("COMMITTER"));
+					allCommitInfos.add(commitInfo);
 				}
-				commitInfo = new CommitInfo();
-				String commitID = rs.getString("COMM_ID");
-				commitInfo.setCommitID(commitID);
-				commitInfo.setCommitDate(rs.getTimestamp("COMM_DATE"));
-				commitInfo.setMessage(rs.getString("MSG"));
-				commitInfo.setCommitter(rs.getString("COMMITTER"));
-				allCommitInfos.add(commitInfo);
 			}
 			
 			for (int i = 0; i < allCommitInfos.size(); i++) {
@@ -260,32 +263,32 @@ public class CommitDAO extends BaseDAO {
 				"ORDER BY COMM_DATE";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == filteredCommitInfos) {
-					filteredCommitInfos = new ArrayList<ExtendedCommitInfo>();
-				}
-				commitInfo = new ExtendedCommitInfo();
-				String commitID = rs.getString("COMM_ID");
-				commitInfo.setCommitID(commitID);
-				commitInfo.setCommitDate(rs.getTimestamp("COMM_DATE"));
-				commitInfo.setMessage(rs.getString("MSG"));
-				commitInfo.setCommitter(rs.getString("COMMITTER"));
+			PreparedStatement ps = prepareStatement(sql);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == filteredCommitInfos) {
+						filteredCommitInfos = new ArrayList<ExtendedCommitInfo>();
+					}
+					commitInfo = new ExtendedCommitInfo();
+					String commitID = rs.getString("COMM_ID");
+					commitInfo.setCommitID(commitID);
+					commitInfo.setCommitDate(rs.getTimestamp("COMM_DATE"));
+					commitInfo.setMessage(rs.getString("MSG"));
+					commitInfo.setCommitter(rs.getString("COMMITTER"));
 				
-				if (filtered) {
-					String pattern = "(?i)(.*fix.*)|(?i)(.*bug.*)|(?i)(.*issue.*)|(?i)(.*fail.*)|(?i)(.*error.*)|(?i)(.*problem.*)|(?i)(.*crash.*)";
-			        Pattern r = Pattern.compile(pattern);
-			        Matcher m = r.matcher(commitInfo.getMessage());
+					if (filtered) {
+						String pattern = "(?i)(.*fix.*)|(?i)(.*bug.*)|(?i)(.*issue.*)|(?i)(.*fail.*)|(?i)(.*error.*)|(?i)(.*problem.*)|(?i)(.*crash.*)";
+				        Pattern r = Pattern.compile(pattern);
+				        Matcher m = r.matcher(commitInfo.getMessage());
 
-			        if (m.find()) {
-			        	// debug code
+				        if (m.find()) {
+				        	// debug code
 //			        	System.out.printf("Commit Message: %s\n", commitInfo.getMessage());
+							filteredCommitInfos.add(commitInfo);
+				        }
+					} else {
 						filteredCommitInfos.add(commitInfo);
-			        }
-				} else {
-					filteredCommitInfos.add(commitInfo);
+					}
 				}
 			}
 			
@@ -306,7 +309,7 @@ public class CommitDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -321,7 +324,7 @@ public class CommitDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -339,16 +342,16 @@ public class CommitDAO extends BaseDAO {
 				"WHERE COMM_ID = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, commitID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				String fixedFile = rs.getString("COMM_SF");
-				String fixedMethodInfo = rs.getString("COMM_MTH");
-				Method fixedMethod = new Method(fixedMethodInfo);
-				fixedCommitInfo.addFixedMethod(fixedFile, fixedMethod);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					String fixedFile = rs.getString("COMM_SF");
+					String fixedMethodInfo = rs.getString("COMM_MTH");
+					Method fixedMethod = new Method(fixedMethodInfo);
+					fixedCommitInfo.addFixedMethod(fixedFile, fixedMethod);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
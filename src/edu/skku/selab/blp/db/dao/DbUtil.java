@@ -8,7 +8,6 @@
 package edu.skku.selab.blp.db.dao;
 
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 
 import edu.skku.selab.blp.Property;
 
@@ -17,8 +16,6 @@ import edu.skku.selab.blp.Property;
  *
  */
 public class DbUtil {
-	protected PreparedStatement ps = null;
-	protected ResultSet rs = null;
 	
 	public void openConnetion() throws Exception {
 		String dbName = BaseDAO.DEFAULT_DB_NAME;
@@ -43,13 +40,18 @@ public class DbUtil {
 				"CREATE UNIQUE HASH INDEX IDX_SF_INFO_CLS_NAME ON SF_INFO(CLS_NAME); " +
 				
 				"CREATE MEMORY TABLE SF_VER_INFO (SF_VER_ID INT PRIMARY KEY HASH AUTO_INCREMENT, SF_ID INT, VER VARCHAR(15),"
-				+ " COR VARCHAR, CLS_COR VARCHAR, MTH_COR VARCHAR, VAR_COR VARCHAR, CMT_COR VARCHAR, TOT_CNT INT, LEN_SCORE DOUBLE,"
+				+ " COR VARBINARY, CLS_COR VARBINARY, MTH_COR VARBINARY, VAR_COR VARBINARY, CMT_COR VARBINARY, TOT_CNT INT, LEN_SCORE DOUBLE,"
 				+ " COR_NORM DOUBLE, CLS_COR_NORM DOUBLE, MTH_COR_NORM DOUBLE, VAR_COR_NORM DOUBLE, CMT_COR_NORM DOUBLE); " +
 				"CREATE INDEX COMP_IDX_SF_VER_ID ON SF_VER_INFO(SF_ID, VER); " +
 				
+				"CREATE MEMORY TABLE SF_CONT_HASH (SF_PATH VARCHAR(511), VER VARCHAR(15), SF_VER_ID INT, CONT_HASH VARCHAR(40)); " +
+				"CREATE UNIQUE INDEX COMP_IDX_SF_CONT_HASH ON SF_CONT_HASH(SF_PATH, VER); " +
+				
 				"CREATE MEMORY TABLE SF_TERM_INFO (SF_TERM_ID INT PRIMARY KEY HASH AUTO_INCREMENT, TERM VARCHAR(255)); " + 
 				"CREATE UNIQUE HASH INDEX IDX_SF_TERM ON SF_TERM_INFO(TERM); " +
 				
+				"CREATE MEMORY TABLE TERM_DICT (TERM_ID INT PRIMARY KEY HASH, TERM VARCHAR); " +
+				
 				"CREATE MEMORY TABLE SF_IMP_INFO (SF_VER_ID INT, IMP_CLASS VARCHAR(255)); " +
 				"CREATE INDEX IDX_SF_IMP_INFO ON SF_IMP_INFO(SF_VER_ID); " +
 				
@@ -118,9 +120,7 @@ public class DbUtil {
 
 
 		int returnValue = BaseDAO.INVALID;
-		try {
-			ps = BaseDAO.getAnalysisDbConnection().prepareStatement(sql);
-			
+		try (PreparedStatement ps = BaseDAO.getAnalysisDbConnection().prepareStatement(sql)) {
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -136,9 +136,7 @@ public class DbUtil {
 				"CREATE INDEX IDX_EXP_INFO_ALG ON EXP_INFO(ALG_NAME); ";
 				
 		int returnValue = BaseDAO.INVALID;
-		try {
-			ps = BaseDAO.getEvaluationDbConnection().prepareStatement(sql);
-			
+		try (PreparedStatement ps = BaseDAO.getEvaluationDbConnection().prepareStatement(sql)) {
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -150,7 +148,9 @@ public class DbUtil {
 	public int dropAllAnalysisTables() throws Exception {
 		String sql = "DROP TABLE SF_INFO; " +
 				"DROP TABLE SF_VER_INFO; " +
+				"DROP TABLE SF_CONT_HASH; " +
 				"DROP TABLE SF_TERM_INFO; " +
+				"DROP TABLE TERM_DICT; " +
 				"DROP TABLE SF_IMP_INFO; " +
 				"DROP TABLE SF_TERM_WGT; " +
 
@@ -175,9 +175,7 @@ public class DbUtil {
 				"DROP TABLE VER_INFO; ";
 		
 		int returnValue = BaseDAO.INVALID;
-		try {
-			ps = BaseDAO.getAnalysisDbConnection().prepareStatement(sql);
-			
+		try (PreparedStatement ps = BaseDAO.getAnalysisDbConnection().prepareStatement(sql)) {
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -190,9 +188,7 @@ public class DbUtil {
 		String sql = "DROP TABLE EXP_INFO; ";
 
 		int returnValue = BaseDAO.INVALID;
-		try {
-			ps = BaseDAO.getEvaluationDbConnection().prepareStatement(sql);
-			
+		try (PreparedStatement ps = BaseDAO.getEvaluationDbConnection().prepareStatement(sql)) {
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -207,16 +203,32 @@ public class DbUtil {
 	}
 	
 	public void initializeAllData(boolean commitDataIncluded) throws Exception {
-		SourceFileDAO sourceFileDAO = new SourceFileDAO();
-		sourceFileDAO.deleteAllSourceFiles();
-		sourceFileDAO.deleteAllVersions();
-		sourceFileDAO.deleteAllCorpuses();
-		sourceFileDAO.deleteAllTerms();
-		sourceFileDAO.deleteAllImportedClasses();
-		sourceFileDAO.deleteAllTermWeights();
-		
-		MethodDAO methodDAO = new MethodDAO();
-		methodDAO.deleteAllMethods();
+		boolean sourceFileDataIncluded = true;
+		initializeAllData(commitDataIncluded, sourceFileDataIncluded);
+	}
+	
+	/**
+	 * @param commitDataIncluded
+	 * @param sourceFileDataIncluded false keeps indexed source files, methods and the term dictionary for incremental indexing
+	 * @throws Exception
+	 */
+	public void initializeAllData(boolean commitDataIncluded, boolean sourceFileDataIncluded) throws Exception {
+		if (sourceFileDataIncluded) {
+			SourceFileDAO sourceFileDAO = new SourceFileDAO();
+			sourceFileDAO.deleteAllSourceFiles();
+			sourceFileDAO.deleteAllVersions();
+			sourceFileDAO.deleteAllCorpuses();
+			sourceFileDAO.deleteAllContentHashes();
+			sourceFileDAO.deleteAllTerms();
+			sourceFileDAO.deleteAllImportedClasses();
+			sourceFileDAO.deleteAllTermWeights();
+			
+			TermDictionaryDAO termDictionaryDAO = new TermDictionaryDAO();
+			termDictionaryDAO.deleteAllTerms();
+			
+			MethodDAO methodDAO = new MethodDAO();
+			methodDAO.deleteAllMethods();
+		}
 		
 		BugDAO bugDAO = new BugDAO();
 		bugDAO.deleteAllBugs();
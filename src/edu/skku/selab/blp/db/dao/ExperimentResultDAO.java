@@ -7,6 +7,9 @@
  */
 package edu.skku.selab.blp.db.dao;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
 import edu.skku.selab.blp.db.ExperimentResult;
 
 /**
@@ -27,8 +30,7 @@ public class ExperimentResultDAO extends BaseDAO {
 				+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 		int returnValue = INVALID;
 		
-		try {
-			ps = evaluationDbConnection.prepareStatement(sql);
+		try (PreparedStatement ps = evaluationDbConnection.prepareStatement(sql)) {
 			ps.setInt(1, experimentResult.getTop1());
 			ps.setInt(2, experimentResult.getTop5());
 			ps.setInt(3, experimentResult.getTop10());
@@ -58,9 +60,7 @@ public class ExperimentResultDAO extends BaseDAO {
 		String sql = "DELETE FROM EXP_INFO";
 		int returnValue = INVALID;
 		
-		try {
-			ps = evaluationDbConnection.prepareStatement(sql);
-			
+		try (PreparedStatement ps = evaluationDbConnection.prepareStatement(sql)) {
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -76,32 +76,31 @@ public class ExperimentResultDAO extends BaseDAO {
 				"FROM EXP_INFO " +
 				"WHERE PROD_NAME = ? AND ALG_NAME = ?";
 		
-		try {
-			ps = evaluationDbConnection.prepareStatement(sql);
+		try (PreparedStatement ps = evaluationDbConnection.prepareStatement(sql)) {
 			ps.setString(1, productName);
 			ps.setString(2, algorithmName);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				returnValue = new ExperimentResult();
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = new ExperimentResult();
 				
-				returnValue.setTop1(rs.getInt("TOP1"));
-				returnValue.setTop5(rs.getInt("TOP5"));
-				returnValue.setTop10(rs.getInt("TOP10"));
-				returnValue.setTop1Rate(rs.getDouble("TOP1_RATE"));
-				returnValue.setTop5Rate(rs.getDouble("TOP5_RATE"));
-				returnValue.setTop10Rate(rs.getDouble("TOP10_RATE"));
-				returnValue.setMRR(rs.getDouble("MRR"));
-				returnValue.setMAP(rs.getDouble("MAP"));
-				returnValue.setProductName(productName);
-				returnValue.setAlgorithmName(algorithmName);
-				returnValue.setAlgorithmDescription(rs.getString("ALG_DESC"));
-				returnValue.setAlpha(rs.getDouble("ALPHA"));
-				returnValue.setBeta(rs.getDouble("BETA"));
-				returnValue.setBeta(rs.getDouble("GAMMA"));
-				returnValue.setPastDays(rs.getInt("PAST_DAYS"));
-				returnValue.setExperimentDate(rs.getTimestamp("EXP_DATE"));
+					returnValue.setTop1(rs.getInt("TOP1"));
+					returnValue.setTop5(rs.getInt("TOP5"));
+					returnValue.setTop10(rs.getInt("TOP10"));
+					returnValue.setTop1Rate(rs.getDouble("TOP1_RATE"));
+					returnValue.setTop5Rate(rs.getDouble("TOP5_RATE"));
+					returnValue.setTop10Rate(rs.getDouble("TOP10_RATE"));
+					returnValue.setMRR(rs.getDouble("MRR"));
+					returnValue.setMAP(rs.getDouble("MAP"));
+					returnValue.setProductName(productName);
+					returnValue.setAlgorithmName(algorithmName);
+					returnValue.setAlgorithmDescription(rs.getString("ALG_DESC"));
+					returnValue.setAlpha(rs.getDouble("ALPHA"));
+					returnValue.setBeta(rs.getDouble("BETA"));
+					returnValue.setBeta(rs.getDouble("GAMMA"));
+					returnValue.setPastDays(rs.getInt("PAST_DAYS"));
+					returnValue.setExperimentDate(rs.getTimestamp("EXP_DATE"));
+				}
 			}
 
 		} catch (Exception e) {
@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.TreeMap;
+
+import edu.skku.selab.blp.db.IndexSnapshot;
+import edu.skku.selab.blp.db.TermDictionary;
+
+/**
+ * Writes the index snapshot of a version, which is read by IndexSnapshot.
+ *
+ * Every table is read with one query, and records of source files are written in the order of
+ * source file version IDs. The snapshot is written to a temporary file first and renamed,
+ * so a partially written snapshot is never opened.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class IndexSnapshotWriter extends BaseDAO {
+	private final static String SELECT_TERMS_SQL = "SELECT TERM_ID, TERM FROM TERM_DICT ORDER BY TERM_ID";
+	private final static String SELECT_SOURCE_FILE_TERMS_SQL = "SELECT SF_TERM_ID, TERM FROM SF_TERM_INFO";
+	private final static String SELECT_SOURCE_FILES_SQL = "SELECT A.SF_NAME, B.SF_VER_ID, B.LEN_SCORE, " +
+			"B.COR_NORM, B.CLS_COR_NORM, B.MTH_COR_NORM, B.VAR_COR_NORM, B.CMT_COR_NORM, " +
+			"B.COR, B.CLS_COR, B.MTH_COR, B.VAR_COR, B.CMT_COR " +
+			"FROM SF_INFO A, SF_VER_INFO B WHERE A.SF_ID = B.SF_ID AND B.VER = ?";
+	private final static String SELECT_TERM_WEIGHTS_SQL = "SELECT D.SF_VER_ID, D.SF_TERM_ID, D.TERM_CNT, D.INV_DOC_CNT, D.TF, D.IDF " +
+			"FROM SF_VER_INFO B, SF_TERM_WGT D WHERE B.SF_VER_ID = D.SF_VER_ID AND B.VER = ?";
+	private final static String SELECT_METHODS_SQL = "SELECT C.MTH_ID, C.SF_VER_ID, C.MTH_NAME, C.RET_TYPE, C.PARAMS, C.HASH_KEY " +
+			"FROM SF_VER_INFO B, MTH_INFO C WHERE B.SF_VER_ID = C.SF_VER_ID AND B.VER = ? ORDER BY C.MTH_ID";
+	private final static String SELECT_IMPORTED_CLASSES_SQL = "SELECT C.SF_VER_ID, C.IMP_CLASS " +
+			"FROM SF_VER_INFO B, SF_IMP_INFO C WHERE B.SF_VER_ID = C.SF_VER_ID AND B.VER = ?";
+
+	/**
+	 * Encoded parts of a source file record. The header of the record is written first.
+	 */
+	private static class Record {
+		private ByteArrayOutputStream header = new ByteArrayOutputStream();
+		private ByteArrayOutputStream termWeights = new ByteArrayOutputStream();
+		private ByteArrayOutputStream methods = new ByteArrayOutputStream();
+		private ByteArrayOutputStream importedClasses = new ByteArrayOutputStream();
+		private int termWeightCount = 0;
+		private int methodCount = 0;
+		private int importedClassCount = 0;
+	}
+
+	/**
+	 * @throws Exception
+	 */
+	public IndexSnapshotWriter() throws Exception {
+		super();
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws Exception {
+		if (null == value) {
+			output.writeInt(-1);
+		} else {
+			byte bytes[] = value.getBytes(IndexSnapshot.CHARSET);
+			output.writeInt(bytes.length);
+			output.write(bytes);
+		}
+	}
+
+	private static void writeIntArray(DataOutputStream output, byte encodedValues[]) throws Exception {
+		int values[] = TermDictionary.decode(encodedValues);
+		if (null == values) {
+			output.writeInt(-1);
+		} else {
+			output.writeInt(values.length);
+			for (int i = 0; i < values.length; i++) {
+				output.writeInt(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Write term dictionaries to the output and read records of source files of the version.
+	 *
+	 * @return <Source file version ID, record>
+	 */
+	private TreeMap<Integer, Record> readRecords(String version, DataOutputStream output) throws Exception {
+		PreparedStatement ps = prepareStatement(SELECT_TERMS_SQL);
+		ByteArrayOutputStream terms = new ByteArrayOutputStream();
+		DataOutputStream termOutput = new DataOutputStream(terms);
+		int termCount = 0;
+		try (ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				termOutput.writeInt(rs.getInt("TERM_ID"));
+				writeString(termOutput, rs.getString("TERM"));
+				termCount++;
+			}
+		}
+		output.writeInt(termCount);
+		terms.writeTo(output);
+
+		ps = prepareStatement(SELECT_SOURCE_FILE_TERMS_SQL);
+		ByteArrayOutputStream sourceFileTerms = new ByteArrayOutputStream();
+		DataOutputStream sourceFileTermOutput = new DataOutputStream(sourceFileTerms);
+		int sourceFileTermCount = 0;
+		try (ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				sourceFileTermOutput.writeInt(rs.getInt("SF_TERM_ID"));
+				writeString(sourceFileTermOutput, rs.getString("TERM"));
+				sourceFileTermCount++;
+			}
+		}
+		output.writeInt(sourceFileTermCount);
+		sourceFileTerms.writeTo(output);
+
+		TreeMap<Integer, Record> records = new TreeMap<Integer, Record>();
+		ps = prepareStatement(SELECT_SOURCE_FILES_SQL);
+		ps.setString(1, version);
+		try (ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				Record record = new Record();
+				DataOutputStream recordOutput = new DataOutputStream(record.header);
+				int sourceFileVersionID = rs.getInt("SF_VER_ID");
+				recordOutput.writeInt(sourceFileVersionID);
+				writeString(recordOutput, rs.getString("SF_NAME"));
+				recordOutput.writeDouble(rs.getDouble("LEN_SCORE"));
+				recordOutput.writeDouble(rs.getDouble("COR_NORM"));
+				recordOutput.writeDouble(rs.getDouble("CLS_COR_NORM"));
+				recordOutput.writeDouble(rs.getDouble("MTH_COR_NORM"));
+				recordOutput.writeDouble(rs.getDouble("VAR_COR_NORM"));
+				recordOutput.writeDouble(rs.getDouble("CMT_COR_NORM"));
+				writeIntArray(recordOutput, rs.getBytes("COR"));
+				writeIntArray(recordOutput, rs.getBytes("CLS_COR"));
+				writeIntArray(recordOutput, rs.getBytes("MTH_COR"));
+				writeIntArray(recordOutput, rs.getBytes("VAR_COR"));
+				writeIntArray(recordOutput, rs.getBytes("CMT_COR"));
+				records.put(sourceFileVersionID, record);
+			}
+		}
+
+		ps = prepareStatement(SELECT_TERM_WEIGHTS_SQL);
+		ps.setString(1, version);
+		try (ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				Record record = records.get(rs.getInt("SF_VER_ID"));
+				if (null != record) {
+					DataOutputStream recordOutput = new DataOutputStream(record.termWeights);
+					recordOutput.writeInt(rs.getInt("SF_TERM_ID"));
+					recordOutput.writeInt(rs.getInt("TERM_CNT"));
+					recordOutput.writeInt(rs.getInt("INV_DOC_CNT"));
+					recordOutput.writeDouble(rs.getDouble("TF"));
+					recordOutput.writeDouble(rs.getDouble("IDF"));
+					record.termWeightCount++;
+				}
+			}
+		}
+
+		ps = prepareStatement(SELECT_METHODS_SQL);
+		ps.setString(1, version);
+		try (ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				Record record = records.get(rs.getInt("SF_VER_ID"));
+				if (null != record) {
+					DataOutputStream recordOutput = new DataOutputStream(record.methods);
+					recordOutput.writeInt(rs.getInt("MTH_ID"));
+					writeString(recordOutput, rs.getString("MTH_NAME"));
+					writeString(recordOutput, rs.getString("RET_TYPE"));
+					writeString(recordOutput, rs.getString("PARAMS"));
+					writeString(recordOutput, rs.getString("HASH_KEY"));
+					record.methodCount++;
+				}
+			}
+		}
+
+		ps = prepareStatement(SELECT_IMPORTED_CLASSES_SQL);
+		ps.setString(1, version);
+		try (ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				Record record = records.get(rs.getInt("SF_VER_ID"));
+				if (null != record) {
+					writeString(new DataOutputStream(record.importedClasses), rs.getString("IMP_CLASS"));
+					record.importedClassCount++;
+				}
+			}
+		}
+		return records;
+	}
+
+	private static void writeRecord(DataOutputStream output, Record record) throws Exception {
+		ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(record.header.size() + record.termWeights.size() +
+				record.methods.size() + record.importedClasses.size() + 12);
+		DataOutputStream recordOutput = new DataOutputStream(recordBytes);
+		record.header.writeTo(recordOutput);
+		recordOutput.writeInt(record.termWeightCount);
+		record.termWeights.writeTo(recordOutput);
+		recordOutput.writeInt(record.methodCount);
+		record.methods.writeTo(recordOutput);
+		recordOutput.writeInt(record.importedClassCount);
+		record.importedClasses.writeTo(recordOutput);
+
+		output.writeInt(recordBytes.size());
+		recordBytes.writeTo(output);
+	}
+
+	/**
+	 * Write the index snapshot of the version to the file.
+	 *
+	 * @param version
+	 * @param file snapshot file, which is replaced
+	 * @return count of written source files, INVALID if the snapshot isn't written
+	 */
+	public int write(String version, File file) {
+		int returnValue = INVALID;
+		IndexSnapshot.invalidate(version);
+
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		try {
+			temporaryFile.getAbsoluteFile().getParentFile().mkdirs();
+			String fingerprint = new SourceFileDAO().getIndexFingerprint(version);
+			DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile), 1 << 16));
+			try {
+				output.writeInt(IndexSnapshot.MAGIC);
+				output.writeInt(IndexSnapshot.FORMAT_VERSION);
+				writeString(output, version);
+				writeString(output, fingerprint);
+
+				TreeMap<Integer, Record> records = readRecords(version, output);
+				output.writeInt(records.size());
+				for (Record record : records.values()) {
+					writeRecord(output, record);
+				}
+				returnValue = records.size();
+			} finally {
+				output.close();
+			}
+
+			Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (Exception e) {
+			e.printStackTrace();
+			temporaryFile.delete();
+			returnValue = INVALID;
+		}
+		return returnValue;
+	}
+}
@@ -0,0 +1,356 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import edu.skku.selab.blp.Property;
+import edu.skku.selab.blp.db.ExtendedIntegratedAnalysisValue;
+import edu.skku.selab.blp.db.IntegratedAnalysisValue;
+
+/**
+ * Buffers INT_ANALYSIS / INT_MTH_ANALYSIS writes of one bug and flushes them with JDBC batches
+ * in a single transaction, instead of one prepareStatement() and executeUpdate() per row.
+ *
+ * Rows are flushed when the buffered count reaches the batch size, and on close().
+ * Source file version IDs of a version are loaded once, instead of one query per row.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class IntegratedAnalysisBatchWriter extends BaseDAO implements AutoCloseable {
+	private final static String INSERT_ANALYSIS_SQL = "INSERT INTO INT_ANALYSIS (BUG_ID, SF_VER_ID, VSM_SCORE, SIMI_SCORE, BL_SCORE, STRACE_SCORE, COMM_SCORE, MID_SF_SCORE, BLIA_SF_SCORE) "+
+			"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	private final static String MERGE_ANALYSIS_SQL = "MERGE INTO INT_ANALYSIS (BUG_ID, SF_VER_ID, VSM_SCORE, SIMI_SCORE, BL_SCORE, STRACE_SCORE, COMM_SCORE, MID_SF_SCORE, BLIA_SF_SCORE) "+
+			"KEY (BUG_ID, SF_VER_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	private final static String INSERT_METHOD_ANALYSIS_SQL = "INSERT INTO INT_MTH_ANALYSIS (BUG_ID, MTH_ID, VSM_SCORE, COMM_SCORE, BLIA_MTH_SCORE) "+
+			"VALUES (?, ?, ?, ?, ?)";
+	private final static String UPDATE_STRACE_SCORE_SQL = "UPDATE INT_ANALYSIS SET STRACE_SCORE = ? WHERE BUG_ID = ? AND SF_VER_ID = ?";
+	private final static String UPDATE_COMMIT_LOG_SCORE_SQL = "UPDATE INT_ANALYSIS SET COMM_SCORE = ? WHERE BUG_ID = ? AND SF_VER_ID = ?";
+	private final static String UPDATE_BLIA_SF_SCORE_SQL = "UPDATE INT_ANALYSIS SET BL_SCORE = ?, MID_SF_SCORE = ?, BLIA_SF_SCORE = ? WHERE BUG_ID = ? AND SF_VER_ID = ?";
+	private final static String UPDATE_BLIA_MTH_SCORE_SQL = "UPDATE INT_MTH_ANALYSIS SET BLIA_MTH_SCORE = ? WHERE BUG_ID = ? AND MTH_ID = ?";
+
+	// Statement types, which are indexes of ALL_SQLS
+	private final static int ANALYSIS_VALUE = 0;
+	private final static int MERGED_ANALYSIS_VALUE = 1;
+	private final static int METHOD_ANALYSIS_VALUE = 2;
+	private final static int STRACE_SCORE = 3;
+	private final static int COMMIT_LOG_SCORE = 4;
+	private final static int BLIA_SF_SCORE = 5;
+	private final static int BLIA_MTH_SCORE = 6;
+	private final static String[] ALL_SQLS = {INSERT_ANALYSIS_SQL, MERGE_ANALYSIS_SQL, INSERT_METHOD_ANALYSIS_SQL,
+			UPDATE_STRACE_SCORE_SQL, UPDATE_COMMIT_LOG_SCORE_SQL, UPDATE_BLIA_SF_SCORE_SQL, UPDATE_BLIA_MTH_SCORE_SQL};
+
+	private int batchSize;
+	private int pendingCount;
+	private int failedCount;
+	private BatchTransaction transaction;
+
+	private ArrayList<IntegratedAnalysisValue> analysisValues;
+	private ArrayList<IntegratedAnalysisValue> mergedAnalysisValues;
+	private ArrayList<ExtendedIntegratedAnalysisValue> methodAnalysisValues;
+	private ArrayList<IntegratedAnalysisValue> stackTraceScores;
+	private ArrayList<IntegratedAnalysisValue> commitLogScores;
+	private ArrayList<IntegratedAnalysisValue> bliaSourceFileScores;
+	private ArrayList<ExtendedIntegratedAnalysisValue> bliaMethodScores;
+
+	private SourceFileDAO sourceFileDAO = null;
+	private HashMap<String, HashMap<String, Integer>> sourceFileVersionIDsMap;
+
+	/**
+	 * @throws Exception
+	 */
+	public IntegratedAnalysisBatchWriter() throws Exception {
+		this(Property.DB_BATCH_SIZE);
+	}
+
+	/**
+	 * @param batchSize maximum buffered row count before flush
+	 * @throws Exception
+	 */
+	public IntegratedAnalysisBatchWriter(int batchSize) throws Exception {
+		super();
+
+		this.batchSize = (batchSize > 0) ? batchSize : 1;
+		pendingCount = 0;
+		failedCount = 0;
+		transaction = new BatchTransaction(ALL_SQLS);
+
+		analysisValues = new ArrayList<IntegratedAnalysisValue>();
+		mergedAnalysisValues = new ArrayList<IntegratedAnalysisValue>();
+		methodAnalysisValues = new ArrayList<ExtendedIntegratedAnalysisValue>();
+		stackTraceScores = new ArrayList<IntegratedAnalysisValue>();
+		commitLogScores = new ArrayList<IntegratedAnalysisValue>();
+		bliaSourceFileScores = new ArrayList<IntegratedAnalysisValue>();
+		bliaMethodScores = new ArrayList<ExtendedIntegratedAnalysisValue>();
+		sourceFileVersionIDsMap = new HashMap<String, HashMap<String, Integer>>();
+	}
+
+	private int getSourceFileVersionID(String fileName, String version) throws Exception {
+		HashMap<String, Integer> sourceFileVersionIDs = sourceFileVersionIDsMap.get(version);
+		if (null == sourceFileVersionIDs) {
+			if (null == sourceFileDAO) {
+				sourceFileDAO = new SourceFileDAO();
+			}
+			sourceFileVersionIDs = sourceFileDAO.getSourceFileVersionIDs(version);
+			sourceFileVersionIDsMap.put(version, sourceFileVersionIDs);
+		}
+
+		Integer sourceFileVersionID = sourceFileVersionIDs.get(fileName);
+		return (null == sourceFileVersionID) ? INVALID : sourceFileVersionID;
+	}
+
+	public int insertAnalysisVaule(IntegratedAnalysisValue integratedAnalysisValue) throws Exception {
+		if (INVALID == integratedAnalysisValue.getSourceFileVersionID()) {
+			int sourceFileVersionID = getSourceFileVersionID(integratedAnalysisValue.getFileName(), integratedAnalysisValue.getVersion());
+			integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionID);
+		}
+
+		analysisValues.add(integratedAnalysisValue);
+		return addPending();
+	}
+
+	/**
+	 * Insert all scores of the value, or overwrite them when the row already exists.
+	 */
+	public int mergeAnalysisVaule(IntegratedAnalysisValue integratedAnalysisValue) throws Exception {
+		mergedAnalysisValues.add(integratedAnalysisValue);
+		return addPending();
+	}
+
+	public int insertMethodAnalysisVaule(ExtendedIntegratedAnalysisValue integratedMethodAnalysisValue) throws Exception {
+		methodAnalysisValues.add(integratedMethodAnalysisValue);
+		return addPending();
+	}
+
+	public int updateStackTraceScore(IntegratedAnalysisValue integratedAnalysisValue) throws Exception {
+		stackTraceScores.add(integratedAnalysisValue);
+		return addPending();
+	}
+
+	public int updateCommitLogScore(IntegratedAnalysisValue integratedAnalysisValue) throws Exception {
+		if (INVALID == integratedAnalysisValue.getSourceFileVersionID()) {
+			String fileName = integratedAnalysisValue.getFileName();
+			if (fileName.contains(".java")) {
+				fileName = IntegratedAnalysisDAO.fixFileName(fileName);
+				integratedAnalysisValue.setFileName(fileName);
+			}
+
+			int sourceFileVersionID = getSourceFileVersionID(fileName, integratedAnalysisValue.getVersion());
+			if (INVALID == sourceFileVersionID) {
+				return INVALID;
+			}
+			integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionID);
+		}
+
+		commitLogScores.add(integratedAnalysisValue);
+		return addPending();
+	}
+
+	public int updateBliaSourceFileScore(IntegratedAnalysisValue integratedAnalysisValue) throws Exception {
+		bliaSourceFileScores.add(integratedAnalysisValue);
+		return addPending();
+	}
+
+	public int updateBliaMethodScore(ExtendedIntegratedAnalysisValue integratedMethodAnalysisValue) throws Exception {
+		bliaMethodScores.add(integratedMethodAnalysisValue);
+		return addPending();
+	}
+
+	private int addPending() throws SQLException {
+		pendingCount++;
+		if (pendingCount >= batchSize) {
+			flush();
+		}
+
+		return pendingCount;
+	}
+
+	/**
+	 * Execute all buffered rows in one transaction.
+	 *
+	 * When a row of a batch fails, the transaction is rolled back and buffered rows are executed again one by one,
+	 * so only the failed rows are lost and counted as failed. They are executed in the restored auto-commit mode.
+	 *
+	 * @return updated row count
+	 */
+	public int flush() throws SQLException {
+		if (0 == pendingCount) {
+			return 0;
+		}
+
+		int returnValue = 0;
+
+		// The connection belongs to the current thread, so the transaction doesn't include other writers.
+		try {
+			transaction.begin();
+			returnValue = executeAll(true);
+			transaction.commit();
+		} catch (SQLException e) {
+			e.printStackTrace();
+			transaction.rollback();
+			returnValue = executeAll(false);
+		} finally {
+			analysisValues.clear();
+			mergedAnalysisValues.clear();
+			methodAnalysisValues.clear();
+			stackTraceScores.clear();
+			commitLogScores.clear();
+			bliaSourceFileScores.clear();
+			bliaMethodScores.clear();
+			pendingCount = 0;
+		}
+
+		return returnValue;
+	}
+
+	/**
+	 * @param batch true to execute rows with JDBC batches, false to execute them one by one
+	 * @return updated row count
+	 */
+	private int executeAll(boolean batch) throws SQLException {
+		int returnValue = 0;
+		returnValue += sum(execute(ANALYSIS_VALUE, analysisValues, batch));
+		returnValue += sum(execute(MERGED_ANALYSIS_VALUE, mergedAnalysisValues, batch));
+		returnValue += sum(execute(METHOD_ANALYSIS_VALUE, methodAnalysisValues, batch));
+
+		returnValue += sum(execute(STRACE_SCORE, stackTraceScores, batch));
+		returnValue += sum(execute(COMMIT_LOG_SCORE, commitLogScores, batch));
+
+		int[] updatedCounts = execute(BLIA_SF_SCORE, bliaSourceFileScores, batch);
+		for (int i = 0; i < updatedCounts.length; i++) {
+			if (0 == updatedCounts[i]) {
+				failedCount++;
+			}
+		}
+		returnValue += sum(updatedCounts);
+
+		updatedCounts = execute(BLIA_MTH_SCORE, bliaMethodScores, batch);
+		for (int i = 0; i < updatedCounts.length; i++) {
+			if (0 == updatedCounts[i]) {
+				failedCount++;
+			}
+		}
+		returnValue += sum(updatedCounts);
+
+		return returnValue;
+	}
+
+	/**
+	 * @return updated row count of each value. Statement.EXECUTE_FAILED for a failed row of row by row execution.
+	 */
+	private int[] execute(int statementType, ArrayList<? extends IntegratedAnalysisValue> values, boolean batch) throws SQLException {
+		int[] updatedCounts = new int[values.size()];
+		if (values.isEmpty()) {
+			return updatedCounts;
+		}
+
+		PreparedStatement ps = prepareStatement(ALL_SQLS[statementType]);
+		for (int i = 0; i < values.size(); i++) {
+			setParameters(ps, statementType, values.get(i));
+			if (batch) {
+				ps.addBatch();
+				continue;
+			}
+
+			try {
+				updatedCounts[i] = ps.executeUpdate();
+			} catch (SQLException e) {
+				e.printStackTrace();
+				updatedCounts[i] = Statement.EXECUTE_FAILED;
+				failedCount++;
+			}
+		}
+
+		return batch ? ps.executeBatch() : updatedCounts;
+	}
+
+	private void setParameters(PreparedStatement ps, int statementType, IntegratedAnalysisValue value) throws SQLException {
+		int index = 1;
+		switch (statementType) {
+		case ANALYSIS_VALUE:
+		case MERGED_ANALYSIS_VALUE:
+			ps.setInt(index++, value.getBugID());
+			ps.setInt(index++, value.getSourceFileVersionID());
+			ps.setDouble(index++, value.getVsmScore());
+			ps.setDouble(index++, value.getSimilarityScore());
+			ps.setDouble(index++, value.getBugLocatorScore());
+			ps.setDouble(index++, value.getStackTraceScore());
+			ps.setDouble(index++, value.getCommitLogScore());
+			ps.setDouble(index++, value.getMiddleSourceFileScore());
+			ps.setDouble(index++, value.getBliaSourceFileScore());
+			return;
+		case METHOD_ANALYSIS_VALUE:
+			ExtendedIntegratedAnalysisValue methodValue = (ExtendedIntegratedAnalysisValue) value;
+			ps.setInt(index++, methodValue.getBugID());
+			ps.setInt(index++, methodValue.getMethodID());
+			ps.setDouble(index++, methodValue.getVsmScore());
+			ps.setDouble(index++, methodValue.getCommitLogScore());
+			ps.setDouble(index++, methodValue.getBliaMethodScore());
+			return;
+		case BLIA_MTH_SCORE:
+			methodValue = (ExtendedIntegratedAnalysisValue) value;
+			ps.setDouble(index++, methodValue.getBliaMethodScore());
+			ps.setInt(index++, methodValue.getBugID());
+			ps.setInt(index++, methodValue.getMethodID());
+			return;
+		case STRACE_SCORE:
+			ps.setDouble(index++, value.getStackTraceScore());
+			break;
+		case COMMIT_LOG_SCORE:
+			ps.setDouble(index++, value.getCommitLogScore());
+			break;
+		default:
+			ps.setDouble(index++, value.getBugLocatorScore());
+			ps.setDouble(index++, value.getMiddleSourceFileScore());
+			ps.setDouble(index++, value.getBliaSourceFileScore());
+			break;
+		}
+		ps.setInt(index++, value.getBugID());
+		ps.setInt(index++, value.getSourceFileVersionID());
+	}
+
+	private int getUpdatedCount(int updatedCount) {
+		// Some drivers don't report the row count of batched statements
+		return (Statement.SUCCESS_NO_INFO == updatedCount) ? 1 : Math.max(updatedCount, 0);
+	}
+
+	private int sum(int[] updatedCounts) {
+		int returnValue = 0;
+		for (int i = 0; i < updatedCounts.length; i++) {
+			returnValue += getUpdatedCount(updatedCounts[i]);
+		}
+		return returnValue;
+	}
+
+	/**
+	 * @return the count of failed rows and BLIA source file and method score updates which didn't find a row
+	 */
+	public int getFailedCount() {
+		return failedCount;
+	}
+
+	/**
+	 * @return the batchSize
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Flush remaining rows
+	 */
+	@Override
+	public void close() throws SQLException {
+		flush();
+	}
+}
@@ -7,6 +7,8 @@
  */
 package edu.skku.selab.blp.db.dao;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.HashMap;
 
@@ -42,7 +44,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 				sourceFileVersionID = sourceFileDAO.getSourceFileVersionID(integratedAnalysisValue.getFileName(), integratedAnalysisValue.getVersion());
 			}
 			
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, integratedAnalysisValue.getBugID());
 			ps.setInt(2, sourceFileVersionID);
 			ps.setDouble(3, integratedAnalysisValue.getVsmScore());
@@ -67,7 +69,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, integratedMethodAnalysisValue.getBugID());
 			ps.setInt(2, integratedMethodAnalysisValue.getMethodID());
 			ps.setDouble(3, integratedMethodAnalysisValue.getVsmScore());
@@ -87,7 +89,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, integratedAnalysisValue.getVsmScore());
 			ps.setInt(2, integratedAnalysisValue.getBugID());
 			ps.setInt(3, integratedAnalysisValue.getSourceFileVersionID());
@@ -105,7 +107,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, integratedAnalysisValue.getVsmScore());
 			ps.setInt(2, integratedAnalysisValue.getBugID());
 			ps.setInt(3, integratedAnalysisValue.getMethodID());
@@ -123,7 +125,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, integratedAnalysisValue.getSimilarityScore());
 			ps.setInt(2, integratedAnalysisValue.getBugID());
 			ps.setInt(3, integratedAnalysisValue.getSourceFileVersionID());
@@ -141,7 +143,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, integratedAnalysisValue.getBugLocatorScore());
 			ps.setInt(2, integratedAnalysisValue.getBugID());
 			ps.setInt(3, integratedAnalysisValue.getSourceFileVersionID());
@@ -160,7 +162,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		
 //		System.out.printf("Bug ID: %d, SourceFileVerID: %d\n", integratedAnalysisValue.getBugID(), integratedAnalysisValue.getSourceFileVersionID());
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, integratedAnalysisValue.getBugLocatorScore());
 			ps.setDouble(2, integratedAnalysisValue.getMiddleSourceFileScore());
 			ps.setDouble(3, integratedAnalysisValue.getBliaSourceFileScore());
@@ -183,7 +185,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 //				integratedMethodAnalysisValue.getMethodID(),
 //				integratedMethodAnalysisValue.getBliaMethodScore());
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, integratedMethodAnalysisValue.getBliaMethodScore());
 			ps.setDouble(2, integratedMethodAnalysisValue.getBugID());
 			ps.setInt(3, integratedMethodAnalysisValue.getMethodID());
@@ -201,7 +203,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, integratedAnalysisValue.getStackTraceScore());
 			ps.setInt(2, integratedAnalysisValue.getBugID());
 			ps.setInt(3, integratedAnalysisValue.getSourceFileVersionID());
@@ -219,7 +221,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, integratedAnalysisValue.getMiddleSourceFileScore());
 			ps.setInt(2, integratedAnalysisValue.getBugID());
 			ps.setInt(3, integratedAnalysisValue.getSourceFileVersionID());
@@ -256,7 +258,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		}
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, integratedAnalysisValue.getCommitLogScore());
 			ps.setInt(2, integratedAnalysisValue.getBugID());
 			ps.setInt(3, integratedAnalysisValue.getSourceFileVersionID());
@@ -269,7 +271,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		return returnValue;		
 	}
 	
-	private String fixFileName(String javaFileName) {
+	public static String fixFileName(String javaFileName) {
 		String productName = Property.getInstance().getProductName();
 		
 		String fixedFileName = javaFileName;
@@ -316,7 +318,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -330,7 +332,7 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -348,24 +350,24 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 				"WHERE A.BUG_ID = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == integratedMethodAnalysisValues) {
-					integratedMethodAnalysisValues = new HashMap<Integer, ExtendedIntegratedAnalysisValue>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == integratedMethodAnalysisValues) {
+						integratedMethodAnalysisValues = new HashMap<Integer, ExtendedIntegratedAnalysisValue>();
+					}
 				
-				resultValue = new ExtendedIntegratedAnalysisValue();
-				resultValue.setBugID(bugID);
-				resultValue.setMethodID(rs.getInt("MTH_ID"));
-				resultValue.setVsmScore(rs.getDouble("VSM_SCORE"));
-				resultValue.setCommitLogScore(rs.getDouble("COMM_SCORE"));
-				resultValue.setBliaMethodScore(rs.getDouble("BLIA_MTH_SCORE"));
+					resultValue = new ExtendedIntegratedAnalysisValue();
+					resultValue.setBugID(bugID);
+					resultValue.setMethodID(rs.getInt("MTH_ID"));
+					resultValue.setVsmScore(rs.getDouble("VSM_SCORE"));
+					resultValue.setCommitLogScore(rs.getDouble("COMM_SCORE"));
+					resultValue.setBliaMethodScore(rs.getDouble("BLIA_MTH_SCORE"));
 				
-				integratedMethodAnalysisValues.put(resultValue.getMethodID(), resultValue);
+					integratedMethodAnalysisValues.put(resultValue.getMethodID(), resultValue);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -383,28 +385,28 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 				"WHERE A.BUG_ID = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == integratedAnalysisValues) {
-					integratedAnalysisValues = new HashMap<Integer, IntegratedAnalysisValue>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == integratedAnalysisValues) {
+						integratedAnalysisValues = new HashMap<Integer, IntegratedAnalysisValue>();
+					}
 				
-				resultValue = new IntegratedAnalysisValue();
-				resultValue.setBugID(bugID);
-				resultValue.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
-				resultValue.setVsmScore(rs.getDouble("VSM_SCORE"));
-				resultValue.setSimilarityScore(rs.getDouble("SIMI_SCORE"));
-				resultValue.setBugLocatorScore(rs.getDouble("BL_SCORE"));
-				resultValue.setStackTraceScore(rs.getDouble("STRACE_SCORE"));
-				resultValue.setCommitLogScore(rs.getDouble("COMM_SCORE"));
-				resultValue.setMiddleSourceFileScore(rs.getDouble("MID_SF_SCORE"));
-				resultValue.setBliaSourceFileScore(rs.getDouble("BLIA_SF_SCORE"));
+					resultValue = new IntegratedAnalysisValue();
+					resultValue.setBugID(bugID);
+					resultValue.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
+					resultValue.setVsmScore(rs.getDouble("VSM_SCORE"));
+					resultValue.setSimilarityScore(rs.getDouble("SIMI_SCORE"));
+					resultValue.setBugLocatorScore(rs.getDouble("BL_SCORE"));
+					resultValue.setStackTraceScore(rs.getDouble("STRACE_SCORE"));
+					resultValue.setCommitLogScore(rs.getDouble("COMM_SCORE"));
+					resultValue.setMiddleSourceFileScore(rs.getDouble("MID_SF_SCORE"));
+					resultValue.setBliaSourceFileScore(rs.getDouble("BLIA_SF_SCORE"));
 				
-				integratedAnalysisValues.put(resultValue.getSourceFileVersionID(), resultValue);
+					integratedAnalysisValues.put(resultValue.getSourceFileVersionID(), resultValue);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -427,27 +429,27 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		}
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == bugLocatorRankedValues) {
-					bugLocatorRankedValues = new ArrayList<IntegratedAnalysisValue>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == bugLocatorRankedValues) {
+						bugLocatorRankedValues = new ArrayList<IntegratedAnalysisValue>();
+					}
 				
-				resultValue = new ExtendedIntegratedAnalysisValue();
-				resultValue.setBugID(bugID);
-				resultValue.setFileName(rs.getString("SF_NAME"));
-				resultValue.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
-				resultValue.setVsmScore(rs.getDouble("VSM_SCORE"));
-				resultValue.setSimilarityScore(rs.getDouble("SIMI_SCORE"));
-				resultValue.setBugLocatorScore(rs.getDouble("BL_SCORE"));
-				resultValue.setStackTraceScore(rs.getDouble("STRACE_SCORE"));
-				resultValue.setBliaSourceFileScore(rs.getDouble("BLIA_SF_SCORE"));
+					resultValue = new ExtendedIntegratedAnalysisValue();
+					resultValue.setBugID(bugID);
+					resultValue.setFileName(rs.getString("SF_NAME"));
+					resultValue.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
+					resultValue.setVsmScore(rs.getDouble("VSM_SCORE"));
+					resultValue.setSimilarityScore(rs.getDouble("SIMI_SCORE"));
+					resultValue.setBugLocatorScore(rs.getDouble("BL_SCORE"));
+					resultValue.setStackTraceScore(rs.getDouble("STRACE_SCORE"));
+					resultValue.setBliaSourceFileScore(rs.getDouble("BLIA_SF_SCORE"));
 				
-				bugLocatorRankedValues.add(resultValue);
+					bugLocatorRankedValues.add(resultValue);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -471,22 +473,22 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		}
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == bliaSourceFileRankedValues) {
-					bliaSourceFileRankedValues = new ArrayList<IntegratedAnalysisValue>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == bliaSourceFileRankedValues) {
+						bliaSourceFileRankedValues = new ArrayList<IntegratedAnalysisValue>();
+					}
 				
-				resultValue = new ExtendedIntegratedAnalysisValue();
-				resultValue.setBugID(bugID);
-				resultValue.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
-				resultValue.setBliaSourceFileScore(rs.getDouble("BLIA_SF_SCORE"));
+					resultValue = new ExtendedIntegratedAnalysisValue();
+					resultValue.setBugID(bugID);
+					resultValue.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
+					resultValue.setBliaSourceFileScore(rs.getDouble("BLIA_SF_SCORE"));
 				
-				bliaSourceFileRankedValues.add(resultValue);
+					bliaSourceFileRankedValues.add(resultValue);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -510,22 +512,22 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		}
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == middleSourceFileRankedValues) {
-					middleSourceFileRankedValues = new ArrayList<IntegratedAnalysisValue>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == middleSourceFileRankedValues) {
+						middleSourceFileRankedValues = new ArrayList<IntegratedAnalysisValue>();
+					}
 				
-				resultValue = new ExtendedIntegratedAnalysisValue();
-				resultValue.setBugID(bugID);
-				resultValue.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
-				resultValue.setMiddleSourceFileScore(rs.getDouble("MID_SF_SCORE"));
+					resultValue = new ExtendedIntegratedAnalysisValue();
+					resultValue.setBugID(bugID);
+					resultValue.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
+					resultValue.setMiddleSourceFileScore(rs.getDouble("MID_SF_SCORE"));
 				
-				middleSourceFileRankedValues.add(resultValue);
+					middleSourceFileRankedValues.add(resultValue);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -549,22 +551,22 @@ public class IntegratedAnalysisDAO extends BaseDAO {
 		}
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, bugID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == extendedBliaRankedValues) {
-					extendedBliaRankedValues = new ArrayList<ExtendedIntegratedAnalysisValue>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == extendedBliaRankedValues) {
+						extendedBliaRankedValues = new ArrayList<ExtendedIntegratedAnalysisValue>();
+					}
 				
-				resultValue = new ExtendedIntegratedAnalysisValue();
-				resultValue.setBugID(bugID);
-				resultValue.setMethodID(rs.getInt("MTH_ID"));
-				resultValue.setBliaSourceFileScore(rs.getDouble("BLIA_MTH_SCORE"));
+					resultValue = new ExtendedIntegratedAnalysisValue();
+					resultValue.setBugID(bugID);
+					resultValue.setMethodID(rs.getInt("MTH_ID"));
+					resultValue.setBliaSourceFileScore(rs.getDouble("BLIA_MTH_SCORE"));
 				
-				extendedBliaRankedValues.add(resultValue);
+					extendedBliaRankedValues.add(resultValue);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -7,6 +7,8 @@
  */
 package edu.skku.selab.blp.db.dao;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.HashMap;
 
@@ -30,7 +32,7 @@ public class MethodDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, method.getSourceFileVersionID());
 			ps.setString(2, method.getName());
 			ps.setString(3, method.getReturnType());
@@ -55,14 +57,14 @@ public class MethodDAO extends BaseDAO {
 				"WHERE HASH_KEY = ? AND MTH_NAME = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, method.getHashKey());
 			ps.setString(2, method.getName());
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				returnValue = rs.getInt("MTH_ID");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = rs.getInt("MTH_ID");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -77,15 +79,16 @@ public class MethodDAO extends BaseDAO {
 		String sql = "SELECT MTH_ID, MTH_NAME, RET_TYPE, PARAMS, HASH_KEY FROM MTH_INFO WHERE SF_VER_ID = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, sourceFileVersionID);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				Method method = new Method(rs.getInt("MTH_ID"), sourceFileVersionID,
-						rs.getString("MTH_NAME"), rs.getString("RET_TYPE"), rs.getString("PARAMS"),
-						rs.getString("HASH_KEY"));
-				methodInfo.put(rs.getString("HASH_KEY"), method);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					Method method = new Method(rs.getInt("MTH_ID"), sourceFileVersionID,
+							rs.getString("MTH_NAME"), rs.getString("RET_TYPE"), rs.getString("PARAMS"),
+							rs.getString("HASH_KEY"));
+					methodInfo.put(rs.getString("HASH_KEY"), method);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -100,20 +103,21 @@ public class MethodDAO extends BaseDAO {
 		String sql = "SELECT MTH_ID, SF_VER_ID, MTH_NAME, RET_TYPE, PARAMS, HASH_KEY FROM MTH_INFO";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				int sourceFileVersionID = rs.getInt("SF_VER_ID");
-				Method method = new Method(rs.getInt("MTH_ID"), sourceFileVersionID,
-						rs.getString("MTH_NAME"), rs.getString("RET_TYPE"), rs.getString("PARAMS"),
-						rs.getString("HASH_KEY"));
-				ArrayList<Method> methods = methodMap.get(sourceFileVersionID);
-				if (methods == null) {
-					methods = new ArrayList<Method>();
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					int sourceFileVersionID = rs.getInt("SF_VER_ID");
+					Method method = new Method(rs.getInt("MTH_ID"), sourceFileVersionID,
+							rs.getString("MTH_NAME"), rs.getString("RET_TYPE"), rs.getString("PARAMS"),
+							rs.getString("HASH_KEY"));
+					ArrayList<Method> methods = methodMap.get(sourceFileVersionID);
+					if (methods == null) {
+						methods = new ArrayList<Method>();
+					}
+					methods.add(method);
+					methodMap.put(sourceFileVersionID, methods);
 				}
-				methods.add(method);
-				methodMap.put(sourceFileVersionID, methods);
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -126,7 +130,7 @@ public class MethodDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+import edu.skku.selab.blp.Property;
+import edu.skku.selab.blp.common.Method;
+import edu.skku.selab.blp.common.SourceFileCorpus;
+
+/**
+ * Buffers source files, corpus sets, methods and imported classes of created corpora
+ * and writes them in a single transaction per flush.
+ *
+ * Source files are inserted in the buffered order, so source file IDs don't depend on the parsing order.
+ * Methods, imported classes and content hashes are inserted with JDBC batches.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class SourceFileCorpusBatchWriter extends BaseDAO implements AutoCloseable {
+	private final static String INSERT_METHOD_SQL = "INSERT INTO MTH_INFO (SF_VER_ID, MTH_NAME, RET_TYPE, PARAMS, HASH_KEY) VALUES (?, ?, ?, ?, ?)";
+	private final static String INSERT_IMPORTED_CLASS_SQL = "INSERT INTO SF_IMP_INFO (SF_VER_ID, IMP_CLASS) VALUES (?, ?)";
+	private final static String INSERT_CONTENT_HASH_SQL = "INSERT INTO SF_CONT_HASH (SF_PATH, VER, SF_VER_ID, CONT_HASH) VALUES (?, ?, ?, ?)";
+
+	private static class PendingCorpus {
+		private String fileName;
+		private String className;
+		private SourceFileCorpus corpus;
+		private String contentHash;
+
+		public PendingCorpus(String fileName, String className, SourceFileCorpus corpus, String contentHash) {
+			this.fileName = fileName;
+			this.className = className;
+			this.corpus = corpus;
+			this.contentHash = contentHash;
+		}
+	}
+
+	private String version;
+	private int totalCorpusCount;
+	private double lengthScore;
+	private int batchSize;
+	private int insertedCount;
+	private ArrayList<PendingCorpus> pendingCorpuses;
+	private ArrayList<String> skippedFilePaths;
+	private ArrayList<String> skippedContentHashes;
+	private BatchTransaction transaction;
+
+	private SourceFileDAO sourceFileDAO;
+
+	/**
+	 * @param version
+	 * @param totalCorpusCount initial total corpus count of corpus sets
+	 * @param lengthScore initial length score of corpus sets
+	 * @throws Exception
+	 */
+	public SourceFileCorpusBatchWriter(String version, int totalCorpusCount, double lengthScore) throws Exception {
+		this(version, totalCorpusCount, lengthScore, Property.DB_BATCH_SIZE);
+	}
+
+	/**
+	 * @param version
+	 * @param totalCorpusCount initial total corpus count of corpus sets
+	 * @param lengthScore initial length score of corpus sets
+	 * @param batchSize maximum buffered source file count before flush
+	 * @throws Exception
+	 */
+	public SourceFileCorpusBatchWriter(String version, int totalCorpusCount, double lengthScore, int batchSize) throws Exception {
+		super();
+
+		this.version = version;
+		this.totalCorpusCount = totalCorpusCount;
+		this.lengthScore = lengthScore;
+		this.batchSize = (batchSize > 0) ? batchSize : 1;
+		insertedCount = 0;
+		pendingCorpuses = new ArrayList<PendingCorpus>();
+		skippedFilePaths = new ArrayList<String>();
+		skippedContentHashes = new ArrayList<String>();
+		transaction = new BatchTransaction(INSERT_METHOD_SQL, INSERT_IMPORTED_CLASS_SQL, INSERT_CONTENT_HASH_SQL);
+		sourceFileDAO = new SourceFileDAO();
+	}
+
+	/**
+	 * @param fileName
+	 * @param className
+	 * @param corpus corpus with imported classes and methods. Method list can be null.
+	 * @throws SQLException when flushed source files can't be inserted
+	 */
+	public void insertCorpus(String fileName, String className, SourceFileCorpus corpus) throws SQLException {
+		insertCorpus(fileName, className, corpus, null);
+	}
+
+	/**
+	 * @param fileName
+	 * @param className
+	 * @param corpus corpus with imported classes and methods. Method list can be null.
+	 * @param contentHash hash of the file at the java file path of the corpus, null if it isn't stored
+	 * @throws SQLException when flushed source files can't be inserted
+	 */
+	public void insertCorpus(String fileName, String className, SourceFileCorpus corpus, String contentHash) throws SQLException {
+		pendingCorpuses.add(new PendingCorpus(fileName, className, corpus, contentHash));
+		if (pendingCorpuses.size() >= batchSize) {
+			flush();
+		}
+	}
+
+	/**
+	 * Store the content hash of a file which isn't indexed, so it isn't parsed again while it is unchanged.
+	 *
+	 * @param filePath absolute path of the file
+	 * @param contentHash
+	 */
+	public void insertSkippedFile(String filePath, String contentHash) {
+		skippedFilePaths.add(filePath);
+		skippedContentHashes.add(contentHash);
+	}
+
+	/**
+	 * Insert all buffered source files in one transaction
+	 *
+	 * @return inserted source file count
+	 * @throws SQLException when a source file or corpus set can't be inserted. The transaction is rolled back.
+	 */
+	public int flush() throws SQLException {
+		if (pendingCorpuses.isEmpty() && skippedFilePaths.isEmpty()) {
+			return 0;
+		}
+
+		// The connection belongs to the current thread, so the transaction includes inserts of sourceFileDAO.
+		int flushedCount = pendingCorpuses.size();
+		try {
+			transaction.begin();
+
+			ArrayList<Method> methods = new ArrayList<Method>();
+			ArrayList<Integer> importSourceFileVersionIDs = new ArrayList<Integer>();
+			ArrayList<String> importedClasses = new ArrayList<String>();
+			ArrayList<String> hashedFilePaths = new ArrayList<String>(skippedFilePaths);
+			ArrayList<String> contentHashes = new ArrayList<String>(skippedContentHashes);
+			ArrayList<Integer> hashSourceFileVersionIDs = new ArrayList<Integer>();
+			for (int i = 0; i < skippedFilePaths.size(); i++) {
+				hashSourceFileVersionIDs.add(INVALID);
+			}
+			for (int i = 0; i < pendingCorpuses.size(); i++) {
+				PendingCorpus pendingCorpus = pendingCorpuses.get(i);
+				SourceFileCorpus corpus = pendingCorpus.corpus;
+
+				int sourceFileID = sourceFileDAO.insertSourceFile(pendingCorpus.fileName, pendingCorpus.className);
+				if (INVALID == sourceFileID) {
+					throw new SQLException(String.format("%s insertSourceFile() failed.", pendingCorpus.className));
+				}
+
+				int sourceFileVersionID = sourceFileDAO.insertCorpusSet(sourceFileID, version, corpus, totalCorpusCount, lengthScore);
+				if (INVALID == sourceFileVersionID) {
+					throw new SQLException(String.format("%s insertCorpusSet() failed.", pendingCorpus.className));
+				}
+
+				ArrayList<Method> methodList = corpus.getMethodList();
+				if (null != methodList) {
+					for (int j = 0; j < methodList.size(); j++) {
+						Method method = methodList.get(j);
+						method.setSourceFileVersionID(sourceFileVersionID);
+						methods.add(method);
+					}
+				}
+
+				ArrayList<String> corpusImportedClasses = corpus.getImportedClasses();
+				if (null != corpusImportedClasses) {
+					for (int j = 0; j < corpusImportedClasses.size(); j++) {
+						importSourceFileVersionIDs.add(sourceFileVersionID);
+						importedClasses.add(corpusImportedClasses.get(j));
+					}
+				}
+
+				if (null != pendingCorpus.contentHash) {
+					hashedFilePaths.add(corpus.getJavaFilePath());
+					hashSourceFileVersionIDs.add(sourceFileVersionID);
+					contentHashes.add(pendingCorpus.contentHash);
+				}
+			}
+
+			executeMethodInsertBatch(methods);
+			executeImportedClassInsertBatch(importSourceFileVersionIDs, importedClasses);
+			executeContentHashInsertBatch(hashedFilePaths, hashSourceFileVersionIDs, contentHashes);
+
+			transaction.commit();
+		} catch (Exception e) {
+			transaction.rollback();
+			throw e;
+		} finally {
+			pendingCorpuses.clear();
+			skippedFilePaths.clear();
+			skippedContentHashes.clear();
+		}
+
+		insertedCount += flushedCount;
+		return flushedCount;
+	}
+
+	private void executeMethodInsertBatch(ArrayList<Method> methods) throws SQLException {
+		if (methods.isEmpty()) {
+			return;
+		}
+
+		PreparedStatement ps = prepareStatement(INSERT_METHOD_SQL);
+		for (Method method : methods) {
+			ps.setInt(1, method.getSourceFileVersionID());
+			ps.setString(2, method.getName());
+			ps.setString(3, method.getReturnType());
+			ps.setString(4, method.getParams());
+			ps.setString(5, method.getHashKey());
+			ps.addBatch();
+		}
+		ps.executeBatch();
+	}
+
+	private void executeImportedClassInsertBatch(ArrayList<Integer> sourceFileVersionIDs, ArrayList<String> importedClasses) throws SQLException {
+		if (importedClasses.isEmpty()) {
+			return;
+		}
+
+		PreparedStatement ps = prepareStatement(INSERT_IMPORTED_CLASS_SQL);
+		for (int i = 0; i < importedClasses.size(); i++) {
+			ps.setInt(1, sourceFileVersionIDs.get(i));
+			ps.setString(2, importedClasses.get(i));
+			ps.addBatch();
+		}
+		ps.executeBatch();
+	}
+
+	private void executeContentHashInsertBatch(ArrayList<String> filePaths, ArrayList<Integer> sourceFileVersionIDs,
+			ArrayList<String> contentHashes) throws SQLException {
+		if (filePaths.isEmpty()) {
+			return;
+		}
+
+		PreparedStatement ps = prepareStatement(INSERT_CONTENT_HASH_SQL);
+		for (int i = 0; i < filePaths.size(); i++) {
+			ps.setString(1, filePaths.get(i));
+			ps.setString(2, version);
+			ps.setInt(3, sourceFileVersionIDs.get(i));
+			ps.setString(4, contentHashes.get(i));
+			ps.addBatch();
+		}
+		ps.executeBatch();
+	}
+
+	/**
+	 * @return count of source files inserted by flushes
+	 */
+	public int getInsertedCount() {
+		return insertedCount;
+	}
+
+	/**
+	 * @return the batchSize
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Flush remaining source files
+	 */
+	@Override
+	public void close() throws SQLException {
+		flush();
+	}
+}
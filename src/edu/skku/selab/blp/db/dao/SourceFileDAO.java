@@ -7,6 +7,11 @@
  */
 package edu.skku.selab.blp.db.dao;
 
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -17,6 +22,7 @@ import org.h2.jdbc.JdbcSQLException;
 
 import edu.skku.selab.blp.common.SourceFileCorpus;
 import edu.skku.selab.blp.db.AnalysisValue;
+import edu.skku.selab.blp.db.TermDictionary;
 
 /**
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
@@ -27,12 +33,27 @@ public class SourceFileDAO extends BaseDAO {
 	final static public double INIT_LENGTH_SCORE = 0.0;
 	final static public int INIT_TOTAL_COUPUS_COUNT = 0;
 	
+	private TermDictionaryDAO termDictionaryDAO;
 	
 	/**
 	 * @throws Exception
 	 */
 	public SourceFileDAO() throws Exception {
 		super();
+		termDictionaryDAO = new TermDictionaryDAO();
+	}
+	
+	/**
+	 * Corpora of SF_VER_INFO are stored as encoded term IDs of the term dictionary.
+	 */
+	private byte[] encodeCorpus(String corpus) throws Exception {
+		termDictionaryDAO.loadTermDictionaryIfNeeded();
+		return TermDictionary.encode(TermDictionary.getInstance().toTermIDs(corpus));
+	}
+	
+	private int[] decodeCorpus(byte[] encodedCorpus) throws Exception {
+		termDictionaryDAO.loadTermDictionaryIfNeeded();
+		return TermDictionary.decode(encodedCorpus);
 	}
 	
 	public int insertSourceFile(String fileName) {
@@ -40,7 +61,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, fileName);
 			ps.setString(2, fileName);
 			
@@ -61,7 +82,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, fileName);
 			ps.setString(2, className);
 			
@@ -82,7 +103,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -98,11 +119,12 @@ public class SourceFileDAO extends BaseDAO {
 		String sql = "SELECT SF_NAME, SF_ID FROM SF_INFO";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				fileInfo.put(rs.getString("SF_NAME"), rs.getInt("SF_ID"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					fileInfo.put(rs.getString("SF_NAME"), rs.getInt("SF_ID"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -115,18 +137,64 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, version);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				returnValue = rs.getInt(1);
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = rs.getInt(1);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 		return returnValue;
 	}
+	
+	/**
+	 * Get the fingerprint of indexed source files of the version.
+	 * It is changed when source files of the version are added, removed or indexed again,
+	 * when their contents are changed, and when their vectors are written again.
+	 * 
+	 * @param version
+	 * @return count of source file versions and MD5 digest of their IDs, term counts, norms and content hashes,
+	 * 			null if it can't be read
+	 */
+	public String getIndexFingerprint(String version) {
+		String sql = "SELECT A.SF_VER_ID, A.TOT_CNT, A.LEN_SCORE, A.COR_NORM, A.CLS_COR_NORM, A.MTH_COR_NORM, A.VAR_COR_NORM, A.CMT_COR_NORM, B.CONT_HASH " +
+				"FROM SF_VER_INFO A LEFT OUTER JOIN SF_CONT_HASH B ON A.SF_VER_ID = B.SF_VER_ID AND A.VER = B.VER " +
+				"WHERE A.VER = ? ORDER BY A.SF_VER_ID";
+		String fingerprint = null;
+		
+		try {
+			PreparedStatement ps = prepareStatement(sql);
+			ps.setString(1, version);
+			
+			MessageDigest md = MessageDigest.getInstance("MD5");
+			int count = 0;
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					StringBuilder row = new StringBuilder();
+					row.append(rs.getInt("SF_VER_ID")).append(':').append(rs.getInt("TOT_CNT"));
+					row.append(':').append(rs.getDouble("LEN_SCORE")).append(':').append(rs.getDouble("COR_NORM"));
+					row.append(':').append(rs.getDouble("CLS_COR_NORM")).append(':').append(rs.getDouble("MTH_COR_NORM"));
+					row.append(':').append(rs.getDouble("VAR_COR_NORM")).append(':').append(rs.getDouble("CMT_COR_NORM"));
+					row.append(':').append(rs.getString("CONT_HASH")).append('\n');
+					md.update(row.toString().getBytes("UTF-8"));
+					count++;
+				}
+			}
+			
+			StringBuilder digest = new StringBuilder();
+			for (byte value : md.digest()) {
+				digest.append(Integer.toString((value & 0xff) + 0x100, 16).substring(1));
+			}
+			fingerprint = count + ":" + digest.toString();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return fingerprint;
+	}
 
 	public int insertVersion(String version, String releaseDate) {
 		String sql = "INSERT INTO VER_INFO (VER, REL_DATE) VALUES (?, ?)";
@@ -134,7 +202,7 @@ public class SourceFileDAO extends BaseDAO {
 		
 		// releaseDate format : "2004-10-18 17:40:00"
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, version);
 			ps.setString(2, releaseDate);
 			
@@ -151,7 +219,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -167,11 +235,12 @@ public class SourceFileDAO extends BaseDAO {
 		String sql = "SELECT VER, REL_DATE FROM VER_INFO";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				versions.put(rs.getString("VER"), rs.getTimestamp("REL_DATE"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					versions.put(rs.getString("VER"), rs.getTimestamp("REL_DATE"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -185,13 +254,13 @@ public class SourceFileDAO extends BaseDAO {
 				"WHERE SF_NAME = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, fileName);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				sourceFilePath = rs.getString("SF_PATH");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					sourceFilePath = rs.getString("SF_PATH");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -205,13 +274,13 @@ public class SourceFileDAO extends BaseDAO {
 				"WHERE SF_NAME = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, fileName);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				returnValue = rs.getInt("SF_ID");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = rs.getInt("SF_ID");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -225,14 +294,14 @@ public class SourceFileDAO extends BaseDAO {
 				"WHERE SF_NAME = ? AND CLS_NAME = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, fileName);
 			ps.setString(2, className);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				returnValue = rs.getInt("SF_ID");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = rs.getInt("SF_ID");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -246,14 +315,14 @@ public class SourceFileDAO extends BaseDAO {
 				"WHERE SF_ID = ? AND VER = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, sourceFileID);
 			ps.setString(2, version);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				returnValue = rs.getInt("SF_VER_ID");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = rs.getInt("SF_VER_ID");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -267,14 +336,14 @@ public class SourceFileDAO extends BaseDAO {
 				"WHERE A.SF_NAME = ? AND B.VER = ? AND A.SF_ID = B.SF_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, fileName);
 			ps.setString(2, version);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				returnValue = rs.getInt("SF_VER_ID");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = rs.getInt("SF_VER_ID");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -288,16 +357,16 @@ public class SourceFileDAO extends BaseDAO {
 				"WHERE B.VER = ? AND A.SF_ID = B.SF_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, version);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == sourceFileNames) {
-					sourceFileNames = new HashSet<String>();
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == sourceFileNames) {
+						sourceFileNames = new HashSet<String>();
+					}
+					sourceFileNames.add(rs.getString("SF_NAME"));
 				}
-				sourceFileNames.add(rs.getString("SF_NAME"));
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -311,13 +380,13 @@ public class SourceFileDAO extends BaseDAO {
 				"WHERE B.SF_VER_ID = ? AND A.SF_ID = B.SF_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, sourceFileVersionID);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				sourceFileName = rs.getString("SF_NAME");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					sourceFileName = rs.getString("SF_NAME");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -331,20 +400,20 @@ public class SourceFileDAO extends BaseDAO {
 				"WHERE B.VER = ? AND A.SF_ID = B.SF_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, version);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == sourceFileNames) {
-					sourceFileNames = new HashMap<String, String>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == sourceFileNames) {
+						sourceFileNames = new HashMap<String, String>();
+					}
 				
-				String classNameWithExtension = rs.getString("CLS_NAME");
-				String className = classNameWithExtension.substring(0, classNameWithExtension.lastIndexOf("."));
-				String fileName = rs.getString("SF_NAME");
-				sourceFileNames.put(className, fileName);
+					String classNameWithExtension = rs.getString("CLS_NAME");
+					String className = classNameWithExtension.substring(0, classNameWithExtension.lastIndexOf("."));
+					String fileName = rs.getString("SF_NAME");
+					sourceFileNames.put(className, fileName);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -357,15 +426,16 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, sourceFileID);
 			ps.setString(2, version);
-			ps.setString(3, corpus.getClassPart());
-			ps.setString(4, corpus.getMethodPart());
-			ps.setString(5, corpus.getVariablePart());
-			ps.setString(6, corpus.getCommentPart());
+			ps.setBytes(3, encodeCorpus(corpus.getClassPart()));
+			ps.setBytes(4, encodeCorpus(corpus.getMethodPart()));
+			ps.setBytes(5, encodeCorpus(corpus.getVariablePart()));
+			ps.setBytes(6, encodeCorpus(corpus.getCommentPart()));
 			ps.setInt(7, totalCorpusCount);
 			ps.setDouble(8, lengthScore);
+			termDictionaryDAO.persistTermDictionary();
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -384,16 +454,17 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, sourceFileID);
 			ps.setString(2, version);
-			ps.setString(3, corpus.getContent());
-			ps.setString(4, corpus.getClassPart());
-			ps.setString(5, corpus.getMethodPart());
-			ps.setString(6, corpus.getVariablePart());
-			ps.setString(7, corpus.getCommentPart());
+			ps.setBytes(3, encodeCorpus(corpus.getContent()));
+			ps.setBytes(4, encodeCorpus(corpus.getClassPart()));
+			ps.setBytes(5, encodeCorpus(corpus.getMethodPart()));
+			ps.setBytes(6, encodeCorpus(corpus.getVariablePart()));
+			ps.setBytes(7, encodeCorpus(corpus.getCommentPart()));
 			ps.setInt(8, totalCorpusCount);
 			ps.setDouble(9, lengthScore);
+			termDictionaryDAO.persistTermDictionary();
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -412,8 +483,199 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
+			
+			returnValue = ps.executeUpdate();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		
+		return returnValue;
+	}
+	
+	/**
+	 * @param filePath			Absolute path of the source file
+	 * @param version			Version
+	 * @param sourceFileVersionID	Indexed source file version ID, INVALID if the file was skipped
+	 * @param contentHash		Hash of the file content
+	 * @return
+	 */
+	public int insertContentHash(String filePath, String version, int sourceFileVersionID, String contentHash) {
+		String sql = "INSERT INTO SF_CONT_HASH (SF_PATH, VER, SF_VER_ID, CONT_HASH) VALUES (?, ?, ?, ?)";
+		int returnValue = INVALID;
+		
+		try {
+			PreparedStatement ps = prepareStatement(sql);
+			ps.setString(1, filePath);
+			ps.setString(2, version);
+			ps.setInt(3, sourceFileVersionID);
+			ps.setString(4, contentHash);
+			
+			returnValue = ps.executeUpdate();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		
+		return returnValue;
+	}
+	
+	public int deleteAllContentHashes() {
+		String sql = "DELETE FROM SF_CONT_HASH";
+		int returnValue = INVALID;
+		
+		try {
+			PreparedStatement ps = prepareStatement(sql);
+			
+			returnValue = ps.executeUpdate();
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		
+		return returnValue;
+	}
+	
+	/**
+	 * Get content hashes of indexed and skipped files
+	 * 
+	 * @param version		Version
+	 * @return HashMap<String, String>	<Absolute path of source file, Content hash>
+	 */
+	public HashMap<String, String> getContentHashes(String version) {
+		HashMap<String, String> contentHashes = new HashMap<String, String>();
+		
+		String sql = "SELECT SF_PATH, CONT_HASH FROM SF_CONT_HASH WHERE VER = ?";
+		
+		try {
+			PreparedStatement ps = prepareStatement(sql);
+			ps.setString(1, version);
+			
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					contentHashes.put(rs.getString("SF_PATH"), rs.getString("CONT_HASH"));
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return contentHashes;
+	}
+	
+	/**
+	 * @param version		Version
+	 * @return paths of files which were skipped by duplicated class names or invalid paths
+	 */
+	public HashSet<String> getSkippedSourceFilePaths(String version) {
+		HashSet<String> skippedFilePaths = new HashSet<String>();
+		
+		String sql = "SELECT SF_PATH FROM SF_CONT_HASH WHERE VER = ? AND SF_VER_ID = ?";
+		
+		try {
+			PreparedStatement ps = prepareStatement(sql);
+			ps.setString(1, version);
+			ps.setInt(2, INVALID);
+			
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					skippedFilePaths.add(rs.getString("SF_PATH"));
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return skippedFilePaths;
+	}
+	
+	/**
+	 * Delete the indexed source file version of the path with its term weights, imported classes, methods and content hash.
+	 * The source file is deleted when no other version refers to it. All rows are deleted in one transaction.
+	 * 
+	 * @param filePath		Absolute path of the source file
+	 * @param version		Version
+	 * @return count of deleted source file versions, INVALID if deletion failed
+	 */
+	public int deleteSourceFile(String filePath, String version) {
+		int returnValue = INVALID;
+		
+		try {
+			Connection connection = getAnalysisDbConnection();
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try {
+				returnValue = deleteSourceFileRows(filePath, version);
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			returnValue = INVALID;
+		}
+		
+		return returnValue;
+	}
+	
+	private int deleteSourceFileRows(String filePath, String version) throws SQLException {
+		String sql = "SELECT A.SF_VER_ID, B.SF_ID FROM SF_CONT_HASH A, SF_VER_INFO B " +
+				"WHERE A.SF_PATH = ? AND A.VER = ? AND A.SF_VER_ID = B.SF_VER_ID";
+		int returnValue = 0;
+		
+		PreparedStatement ps = prepareStatement(sql);
+		ps.setString(1, filePath);
+		ps.setString(2, version);
+		
+		int sourceFileVersionID = INVALID;
+		int sourceFileID = INVALID;
+		try (ResultSet rs = ps.executeQuery()) {
+			if (rs.next()) {
+				sourceFileVersionID = rs.getInt("SF_VER_ID");
+				sourceFileID = rs.getInt("SF_ID");
+			}
+		}
+		
+		if (INVALID != sourceFileVersionID) {
+			String deleteSqls[] = { "DELETE FROM SF_TERM_WGT WHERE SF_VER_ID = ?",
+					"DELETE FROM SF_IMP_INFO WHERE SF_VER_ID = ?",
+					"DELETE FROM MTH_INFO WHERE SF_VER_ID = ?",
+					"DELETE FROM SF_VER_INFO WHERE SF_VER_ID = ?" };
+			for (int i = 0; i < deleteSqls.length; i++) {
+				ps = prepareStatement(deleteSqls[i]);
+				ps.setInt(1, sourceFileVersionID);
+				returnValue = ps.executeUpdate();
+			}
 			
+			sql = "DELETE FROM SF_INFO A WHERE A.SF_ID = ? AND NOT EXISTS (SELECT B.SF_VER_ID FROM SF_VER_INFO B WHERE B.SF_ID = A.SF_ID)";
+			ps = prepareStatement(sql);
+			ps.setInt(1, sourceFileID);
+			ps.executeUpdate();
+		}
+		
+		sql = "DELETE FROM SF_CONT_HASH WHERE SF_PATH = ? AND VER = ?";
+		ps = prepareStatement(sql);
+		ps.setString(1, filePath);
+		ps.setString(2, version);
+		ps.executeUpdate();
+		
+		return returnValue;
+	}
+	
+	/**
+	 * Delete terms of SF_TERM_INFO which no source file or bug term weight refers to,
+	 * such as terms used only by deleted source files.
+	 * 
+	 * @return count of deleted terms, INVALID if deletion failed
+	 */
+	public int deleteUnusedTerms() {
+		String sql = "DELETE FROM SF_TERM_INFO " +
+				"WHERE SF_TERM_ID NOT IN (SELECT SF_TERM_ID FROM SF_TERM_WGT) " +
+				"AND SF_TERM_ID NOT IN (SELECT SF_TERM_ID FROM BUG_SF_TERM_WGT) " +
+				"AND SF_TERM_ID NOT IN (SELECT MTH_TERM_ID FROM BUG_MTH_TERM_WGT)";
+		int returnValue = INVALID;
+		
+		try {
+			PreparedStatement ps = prepareStatement(sql);
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -431,23 +693,23 @@ public class SourceFileDAO extends BaseDAO {
 	public HashMap<String, SourceFileCorpus> getCorpusMap(String version) {
 		HashMap<String, SourceFileCorpus> corpusSets = new HashMap<String, SourceFileCorpus>();
 		
-		String sql = "SELECT A.SF_NAME, B.COR, B.CLS_COR, B.MTH_COR, B.VAR_COR, B.CMT_COR " +
+		String sql = "SELECT A.SF_NAME, B.CLS_COR, B.MTH_COR, B.VAR_COR, B.CMT_COR " +
 					"FROM SF_INFO A, SF_VER_INFO B " +
 					"WHERE A.SF_ID = B.SF_ID AND B.VER = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, version);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				SourceFileCorpus corpus = new SourceFileCorpus();
-				corpus.setContent(rs.getString("COR"));
-				corpus.setClassPart(rs.getString("CLS_COR"));
-				corpus.setMethodPart(rs.getString("MTH_COR"));
-				corpus.setVariablePart(rs.getString("VAR_COR"));
-				corpus.setCommentPart(rs.getString("CMT_COR"));
-				corpusSets.put(rs.getString("SF_NAME"), corpus);
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					SourceFileCorpus corpus = new SourceFileCorpus();
+					corpus.setClassPartTermIDs(decodeCorpus(rs.getBytes("CLS_COR")));
+					corpus.setMethodPartTermIDs(decodeCorpus(rs.getBytes("MTH_COR")));
+					corpus.setVariablePartTermIDs(decodeCorpus(rs.getBytes("VAR_COR")));
+					corpus.setCommentPartTermIDs(decodeCorpus(rs.getBytes("CMT_COR")));
+					corpusSets.put(rs.getString("SF_NAME"), corpus);
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -462,28 +724,28 @@ public class SourceFileDAO extends BaseDAO {
 	 * @return SourceFileCorpus		Source file corpus
 	 */
 	public SourceFileCorpus getCorpus(int sourceFileVersionID) {
-		String sql = "SELECT COR, CLS_COR, MTH_COR, VAR_COR, CMT_COR, COR_NORM, CLS_COR_NORM, MTH_COR_NORM, VAR_COR_NORM, CMT_COR_NORM  " +
+		String sql = "SELECT CLS_COR, MTH_COR, VAR_COR, CMT_COR, COR_NORM, CLS_COR_NORM, MTH_COR_NORM, VAR_COR_NORM, CMT_COR_NORM  " +
 					"FROM SF_VER_INFO B " +
 					"WHERE SF_VER_ID = ?";
 		
 		SourceFileCorpus corpus = null;
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, sourceFileVersionID);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				corpus = new SourceFileCorpus();
-				corpus.setContent(rs.getString("COR"));
-				corpus.setClassPart(rs.getString("CLS_COR"));
-				corpus.setMethodPart(rs.getString("MTH_COR"));
-				corpus.setVariablePart(rs.getString("VAR_COR"));
-				corpus.setCommentPart(rs.getString("CMT_COR"));
-				corpus.setContentNorm(rs.getDouble("COR_NORM"));
-				corpus.setClassCorpusNorm(rs.getDouble("CLS_COR_NORM"));
-				corpus.setMethodCorpusNorm(rs.getDouble("MTH_COR_NORM"));
-				corpus.setVariableCorpusNorm(rs.getDouble("VAR_COR_NORM"));
-				corpus.setCommentCorpusNorm(rs.getDouble("CMT_COR_NORM"));
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					corpus = new SourceFileCorpus();
+					corpus.setClassPartTermIDs(decodeCorpus(rs.getBytes("CLS_COR")));
+					corpus.setMethodPartTermIDs(decodeCorpus(rs.getBytes("MTH_COR")));
+					corpus.setVariablePartTermIDs(decodeCorpus(rs.getBytes("VAR_COR")));
+					corpus.setCommentPartTermIDs(decodeCorpus(rs.getBytes("CMT_COR")));
+					corpus.setContentNorm(rs.getDouble("COR_NORM"));
+					corpus.setClassCorpusNorm(rs.getDouble("CLS_COR_NORM"));
+					corpus.setMethodCorpusNorm(rs.getDouble("MTH_COR_NORM"));
+					corpus.setVariableCorpusNorm(rs.getDouble("VAR_COR_NORM"));
+					corpus.setCommentCorpusNorm(rs.getDouble("CMT_COR_NORM"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -499,12 +761,13 @@ public class SourceFileDAO extends BaseDAO {
 		
 		double norm = 0;
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, sourceFileVersionID);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				norm = rs.getDouble("COR_NORM");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					norm = rs.getDouble("COR_NORM");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -526,17 +789,18 @@ public class SourceFileDAO extends BaseDAO {
 		
 		SourceFileCorpus corpus = null;
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, sourceFileVersionID);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				corpus = new SourceFileCorpus();
-				corpus.setContentNorm(rs.getDouble("COR_NORM"));
-				corpus.setClassCorpusNorm(rs.getDouble("CLS_COR_NORM"));
-				corpus.setMethodCorpusNorm(rs.getDouble("MTH_COR_NORM"));
-				corpus.setVariableCorpusNorm(rs.getDouble("VAR_COR_NORM"));
-				corpus.setCommentCorpusNorm(rs.getDouble("CMT_COR_NORM"));
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					corpus = new SourceFileCorpus();
+					corpus.setContentNorm(rs.getDouble("COR_NORM"));
+					corpus.setClassCorpusNorm(rs.getDouble("CLS_COR_NORM"));
+					corpus.setMethodCorpusNorm(rs.getDouble("MTH_COR_NORM"));
+					corpus.setVariableCorpusNorm(rs.getDouble("VAR_COR_NORM"));
+					corpus.setCommentCorpusNorm(rs.getDouble("CMT_COR_NORM"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -553,12 +817,39 @@ public class SourceFileDAO extends BaseDAO {
 					"WHERE A.SF_ID = B.SF_ID AND B.VER = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, version);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				sourceFileVersionIDs.put(rs.getString("SF_NAME"), rs.getInt("SF_VER_ID"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					sourceFileVersionIDs.put(rs.getString("SF_NAME"), rs.getInt("SF_VER_ID"));
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return sourceFileVersionIDs;
+	}
+	
+	/**
+	 * @param version
+	 * @return IDs of source file versions which have stored term weights
+	 */
+	public HashSet<Integer> getWeightedSourceFileVersionIDs(String version) {
+		HashSet<Integer> sourceFileVersionIDs = new HashSet<Integer>();
+		
+		String sql = "SELECT DISTINCT A.SF_VER_ID " +
+					"FROM SF_TERM_WGT A, SF_VER_INFO B " +
+					"WHERE A.SF_VER_ID = B.SF_VER_ID AND B.VER = ?";
+		
+		try {
+			PreparedStatement ps = prepareStatement(sql);
+			ps.setString(1, version);
+			
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					sourceFileVersionIDs.add(rs.getInt("SF_VER_ID"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -566,6 +857,47 @@ public class SourceFileDAO extends BaseDAO {
 		return sourceFileVersionIDs;
 	}
 	
+	/**
+	 * Get stored document count and IDF of each term. Both are same for all term weights of a term,
+	 * otherwise the document count of the term is INVALID.
+	 * 
+	 * @param version
+	 * @return <Term ID, AnalysisValue with the document count and IDF>
+	 */
+	public HashMap<Integer, AnalysisValue> getStoredIdfValues(String version) {
+		HashMap<Integer, AnalysisValue> idfValues = new HashMap<Integer, AnalysisValue>();
+		
+		String sql = "SELECT A.SF_TERM_ID, A.INV_DOC_CNT, A.IDF " +
+					"FROM SF_TERM_WGT A, SF_VER_INFO B " +
+					"WHERE A.SF_VER_ID = B.SF_VER_ID AND B.VER = ?";
+		
+		try {
+			PreparedStatement ps = prepareStatement(sql);
+			ps.setString(1, version);
+			
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					int termID = rs.getInt("SF_TERM_ID");
+					int inverseDocCount = rs.getInt("INV_DOC_CNT");
+					double idf = rs.getDouble("IDF");
+					AnalysisValue idfValue = idfValues.get(termID);
+					if (null == idfValue) {
+						idfValue = new AnalysisValue();
+						idfValue.setTermID(termID);
+						idfValue.setInvDocCount(inverseDocCount);
+						idfValue.setIdf(idf);
+						idfValues.put(termID, idfValue);
+					} else if (idfValue.getInvDocCount() != inverseDocCount || idfValue.getIdf() != idf) {
+						idfValue.setInvDocCount(INVALID);
+					}
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		return idfValues;
+	}
+	
 	public HashMap<String, Integer> getTotalCorpusLengths(String version) {
 		HashMap<String, Integer> totalCorpusLengths = new HashMap<String, Integer>();
 		
@@ -574,12 +906,13 @@ public class SourceFileDAO extends BaseDAO {
 					"WHERE A.SF_ID = B.SF_ID AND B.VER = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, version);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				totalCorpusLengths.put(rs.getString("SF_NAME"), rs.getInt("TOT_CNT"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					totalCorpusLengths.put(rs.getString("SF_NAME"), rs.getInt("TOT_CNT"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -594,7 +927,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, lengthScore);
 			ps.setString(2, fileName);
 			ps.setString(3, version);
@@ -614,7 +947,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, totalCorpusCount);
 			ps.setString(2, fileName);
 			ps.setString(3, version);
@@ -634,7 +967,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, corpusNorm);
 			ps.setString(2, fileName);
 			ps.setString(3, version);
@@ -655,7 +988,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setDouble(1, corpusNorm);
 			ps.setDouble(2, classNorm);
 			ps.setDouble(3, methodNorm);
@@ -681,12 +1014,13 @@ public class SourceFileDAO extends BaseDAO {
 					"WHERE A.SF_ID = B.SF_ID AND B.VER = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, version);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				lengthScores.put(rs.getString("SF_NAME"), rs.getDouble("LEN_SCORE"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					lengthScores.put(rs.getString("SF_NAME"), rs.getDouble("LEN_SCORE"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -702,12 +1036,13 @@ public class SourceFileDAO extends BaseDAO {
 					"WHERE SF_VER_ID = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, sourceFileVersionID);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				lengthScore = rs.getDouble("LEN_SCORE");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					lengthScore = rs.getDouble("LEN_SCORE");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -720,7 +1055,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, term);
 			
 			returnValue = ps.executeUpdate();
@@ -742,7 +1077,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -758,11 +1093,12 @@ public class SourceFileDAO extends BaseDAO {
 		String sql = "SELECT TERM, SF_TERM_ID FROM SF_TERM_INFO";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				fileInfo.put(rs.getString("TERM"), rs.getInt("SF_TERM_ID"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					fileInfo.put(rs.getString("TERM"), rs.getInt("SF_TERM_ID"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -775,12 +1111,13 @@ public class SourceFileDAO extends BaseDAO {
 		String sql = "SELECT SF_TERM_ID FROM SF_TERM_INFO WHERE TERM = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, term);
 			
-			rs = ps.executeQuery();
-			if (rs.next()) {
-				returnValue = rs.getInt("SF_TERM_ID");
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = rs.getInt("SF_TERM_ID");
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -795,7 +1132,7 @@ public class SourceFileDAO extends BaseDAO {
 		for (int i = 0; i < importedClasses.size(); i++) {
 			try {
 				String importedClass = importedClasses.get(i);
-				ps = analysisDbConnection.prepareStatement(sql);
+				PreparedStatement ps = prepareStatement(sql);
 				ps.setInt(1, sourceFileVersionID);
 				ps.setString(2, importedClass);
 				
@@ -823,7 +1160,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -842,20 +1179,21 @@ public class SourceFileDAO extends BaseDAO {
 					"B.SF_VER_ID = C.SF_VER_ID AND B.VER = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, version);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				String sourceFilename = rs.getString("SF_NAME");
-				if (importedClassesMap.containsKey(sourceFilename)) {
-					ArrayList<String> importedClasses = importedClassesMap.get(sourceFilename);
-					importedClasses.add(rs.getString("IMP_CLASS"));
-				} else {
-					ArrayList<String> importedClasses = new ArrayList<String>();
-					importedClasses.add(rs.getString("IMP_CLASS"));
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					String sourceFilename = rs.getString("SF_NAME");
+					if (importedClassesMap.containsKey(sourceFilename)) {
+						ArrayList<String> importedClasses = importedClassesMap.get(sourceFilename);
+						importedClasses.add(rs.getString("IMP_CLASS"));
+					} else {
+						ArrayList<String> importedClasses = new ArrayList<String>();
+						importedClasses.add(rs.getString("IMP_CLASS"));
 					
-					importedClassesMap.put(sourceFilename, importedClasses);	
+						importedClassesMap.put(sourceFilename, importedClasses);	
+					}
 				}
 			}
 		} catch (Exception e) {
@@ -873,17 +1211,18 @@ public class SourceFileDAO extends BaseDAO {
 					"B.SF_VER_ID = C.SF_VER_ID AND B.VER = ? AND A.SF_NAME = ?";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, version);
 			ps.setString(2, fileName);
 			
-			rs = ps.executeQuery();
-			while (rs.next()) {
-				if (null == importedClasses) {
-					importedClasses = new ArrayList<String>();
-				}
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == importedClasses) {
+						importedClasses = new ArrayList<String>();
+					}
 				
-				importedClasses.add(rs.getString("IMP_CLASS"));
+					importedClasses.add(rs.getString("IMP_CLASS"));
+				}
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
@@ -901,7 +1240,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, fileVersionID);
 			ps.setInt(2, termID);
 			ps.setInt(3, termWeight.getTermCount());
@@ -923,7 +1262,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, termWeight.getTermCount());
 			ps.setInt(2, termWeight.getInvDocCount());
 			ps.setDouble(3, termWeight.getTf());
@@ -944,7 +1283,7 @@ public class SourceFileDAO extends BaseDAO {
 		int returnValue = INVALID;
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			
 			returnValue = ps.executeUpdate();
 		} catch (Exception e) {
@@ -964,23 +1303,23 @@ public class SourceFileDAO extends BaseDAO {
 				"C.SF_TERM_ID = D.SF_TERM_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, fileName);
 			ps.setString(2, version);
 			ps.setString(3, term);
 			
-			rs = ps.executeQuery();
-			
-			if (rs.next()) {
-				returnValue = new AnalysisValue();
+			try (ResultSet rs = ps.executeQuery()) {
+				if (rs.next()) {
+					returnValue = new AnalysisValue();
 				
-				returnValue.setName(fileName);
-				returnValue.setVersion(version);
-				returnValue.setTerm(term);
-				returnValue.setTermCount(rs.getInt("TERM_CNT"));
-				returnValue.setInvDocCount(rs.getInt("INV_DOC_CNT"));
-				returnValue.setTf(rs.getDouble("TF"));
-				returnValue.setIdf(rs.getDouble("IDF"));
+					returnValue.setName(fileName);
+					returnValue.setVersion(version);
+					returnValue.setTerm(term);
+					returnValue.setTermCount(rs.getInt("TERM_CNT"));
+					returnValue.setInvDocCount(rs.getInt("INV_DOC_CNT"));
+					returnValue.setTf(rs.getDouble("TF"));
+					returnValue.setIdf(rs.getDouble("IDF"));
+				}
 			}
 
 		} catch (Exception e) {
@@ -1000,30 +1339,30 @@ public class SourceFileDAO extends BaseDAO {
 				"C.SF_TERM_ID = D.SF_TERM_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setString(1, fileName);
 			ps.setString(2, version);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == termMap) {
-					termMap = new HashMap<String, AnalysisValue>();
-				}
-				AnalysisValue termWeight = new AnalysisValue();
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == termMap) {
+						termMap = new HashMap<String, AnalysisValue>();
+					}
+					AnalysisValue termWeight = new AnalysisValue();
 				
-				String term = rs.getString("TERM");
-				termWeight.setName(fileName);
-				termWeight.setVersion(version);
-				termWeight.setTerm(term);
-				termWeight.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
-				termWeight.setTermID(rs.getInt("SF_TERM_ID"));
-				termWeight.setTermCount(rs.getInt("TERM_CNT"));
-				termWeight.setInvDocCount(rs.getInt("INV_DOC_CNT"));
-				termWeight.setTf(rs.getDouble("TF"));
-				termWeight.setIdf(rs.getDouble("IDF"));
+					String term = rs.getString("TERM");
+					termWeight.setName(fileName);
+					termWeight.setVersion(version);
+					termWeight.setTerm(term);
+					termWeight.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
+					termWeight.setTermID(rs.getInt("SF_TERM_ID"));
+					termWeight.setTermCount(rs.getInt("TERM_CNT"));
+					termWeight.setInvDocCount(rs.getInt("INV_DOC_CNT"));
+					termWeight.setTf(rs.getDouble("TF"));
+					termWeight.setIdf(rs.getDouble("IDF"));
 				
-				termMap.put(term, termWeight);
+					termMap.put(term, termWeight);
+				}
 			}
 
 		} catch (Exception e) {
@@ -1041,27 +1380,27 @@ public class SourceFileDAO extends BaseDAO {
 				"WHERE D.SF_VER_ID = ? AND C.SF_TERM_ID = D.SF_TERM_ID";
 		
 		try {
-			ps = analysisDbConnection.prepareStatement(sql);
+			PreparedStatement ps = prepareStatement(sql);
 			ps.setInt(1, sourceFileVersionID);
 			
-			rs = ps.executeQuery();
-			
-			while (rs.next()) {
-				if (null == termMap) {
-					termMap = new HashMap<String, AnalysisValue>();
-				}
-				AnalysisValue analysisValue = new AnalysisValue();
+			try (ResultSet rs = ps.executeQuery()) {
+				while (rs.next()) {
+					if (null == termMap) {
+						termMap = new HashMap<String, AnalysisValue>();
+					}
+					AnalysisValue analysisValue = new AnalysisValue();
 				
-				String term = rs.getString("TERM");
-				analysisValue.setTerm(term);
-				analysisValue.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
-				analysisValue.setTermID(rs.getInt("SF_TERM_ID"));
-				analysisValue.setTermCount(rs.getInt("TERM_CNT"));
-				analysisValue.setInvDocCount(rs.getInt("INV_DOC_CNT"));
-				analysisValue.setTf(rs.getDouble("TF"));
-				analysisValue.setIdf(rs.getDouble("IDF"));
+					String term = rs.getString("TERM");
+					analysisValue.setTerm(term);
+					analysisValue.setSourceFileVersionID(rs.getInt("SF_VER_ID"));
+					analysisValue.setTermID(rs.getInt("SF_TERM_ID"));
+					analysisValue.setTermCount(rs.getInt("TERM_CNT"));
+					analysisValue.setInvDocCount(rs.getInt("INV_DOC_CNT"));
+					analysisValue.setTf(rs.getDouble("TF"));
+					analysisValue.setIdf(rs.getDouble("IDF"));
 				
-				termMap.put(term, analysisValue);
+					termMap.put(term, analysisValue);
+				}
 			}
 
 		} catch (Exception e) {
@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+
+import edu.skku.selab.blp.Property;
+
+/**
+ * Writes source file terms, term weights and vector values calculated in memory with JDBC batches.
+ *
+ * Term weights of source file versions are replaced in a single transaction, which starts with the first written value
+ * and ends with commit(). Nothing is changed when a write fails, because the transaction is rolled back.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class SourceFileVectorBatchWriter extends BaseDAO {
+	private final static String INSERT_TERM_SQL = "INSERT INTO SF_TERM_INFO (TERM) VALUES (?)";
+	private final static String DELETE_TERM_WEIGHTS_SQL = "DELETE FROM SF_TERM_WGT WHERE SF_VER_ID = ?";
+	private final static String INSERT_TERM_WEIGHT_SQL = "INSERT INTO SF_TERM_WGT (SF_VER_ID, SF_TERM_ID, TERM_CNT, INV_DOC_CNT, TF, IDF) VALUES (?, ?, ?, ?, ?, ?)";
+	private final static String UPDATE_VECTOR_SQL = "UPDATE SF_VER_INFO SET TOT_CNT = ?, LEN_SCORE = ?, " +
+			"COR_NORM = ?, CLS_COR_NORM = ?, MTH_COR_NORM = ?, VAR_COR_NORM = ?, CMT_COR_NORM = ? WHERE SF_VER_ID = ?";
+
+	private String version;
+	private int batchSize;
+
+	private BatchTransaction transaction;
+	private PreparedStatement deleteStatement;
+	private PreparedStatement termWeightStatement;
+	private PreparedStatement vectorStatement;
+	private int pendingDeleteCount;
+	private int pendingTermWeightCount;
+	private int pendingVectorCount;
+	private int termWeightCount;
+
+	/**
+	 * @param version
+	 * @throws Exception
+	 */
+	public SourceFileVectorBatchWriter(String version) throws Exception {
+		this(version, Property.DB_BATCH_SIZE);
+	}
+
+	/**
+	 * @param version
+	 * @param batchSize maximum pending row count of a batch
+	 * @throws Exception
+	 */
+	public SourceFileVectorBatchWriter(String version, int batchSize) throws Exception {
+		super();
+
+		this.version = version;
+		this.batchSize = (batchSize > 0) ? batchSize : 1;
+		transaction = new BatchTransaction(DELETE_TERM_WEIGHTS_SQL, INSERT_TERM_WEIGHT_SQL, UPDATE_VECTOR_SQL);
+		pendingDeleteCount = 0;
+		pendingTermWeightCount = 0;
+		pendingVectorCount = 0;
+		termWeightCount = 0;
+	}
+
+	/**
+	 * Insert terms in one transaction. SF_TERM_ID of terms are assigned in the order of them.
+	 *
+	 * @param terms new terms which aren't in SF_TERM_INFO
+	 * @return inserted term count
+	 * @throws Exception when a term can't be inserted. The transaction is rolled back.
+	 */
+	public int insertTerms(ArrayList<String> terms) throws Exception {
+		if (terms.isEmpty()) {
+			return 0;
+		}
+
+		BatchTransaction termTransaction = new BatchTransaction(INSERT_TERM_SQL);
+		try {
+			termTransaction.begin();
+
+			PreparedStatement ps = prepareStatement(INSERT_TERM_SQL);
+			for (int i = 0; i < terms.size(); i++) {
+				ps.setString(1, terms.get(i));
+				ps.addBatch();
+				if ((i + 1) % batchSize == 0) {
+					ps.executeBatch();
+				}
+			}
+			ps.executeBatch();
+
+			termTransaction.commit();
+		} catch (Exception e) {
+			termTransaction.rollback();
+			throw e;
+		}
+
+		return terms.size();
+	}
+
+	/**
+	 * Start the transaction
+	 */
+	private void begin() throws Exception {
+		if (transaction.isStarted()) {
+			return;
+		}
+
+		transaction.begin();
+		deleteStatement = prepareStatement(DELETE_TERM_WEIGHTS_SQL);
+		termWeightStatement = prepareStatement(INSERT_TERM_WEIGHT_SQL);
+		vectorStatement = prepareStatement(UPDATE_VECTOR_SQL);
+	}
+
+	private void rollback() throws Exception {
+		try {
+			transaction.rollback();
+		} finally {
+			pendingDeleteCount = 0;
+			pendingTermWeightCount = 0;
+			pendingVectorCount = 0;
+			termWeightCount = 0;
+		}
+	}
+
+	/**
+	 * Delete stored term weights of a source file version before its term weights are inserted again
+	 */
+	public void deleteTermWeights(int sourceFileVersionID) throws Exception {
+		try {
+			begin();
+
+			deleteStatement.setInt(1, sourceFileVersionID);
+			deleteStatement.addBatch();
+
+			if (++pendingDeleteCount >= batchSize) {
+				executeDeleteBatch();
+			}
+		} catch (Exception e) {
+			rollback();
+			throw e;
+		}
+	}
+
+	/**
+	 * Deletes are executed before inserts of the same term weights
+	 */
+	private void executeDeleteBatch() throws Exception {
+		if (pendingDeleteCount > 0) {
+			deleteStatement.executeBatch();
+			pendingDeleteCount = 0;
+		}
+	}
+
+	public void insertTermWeight(int sourceFileVersionID, int termID, int termCount, int inverseDocCount, double tf, double idf) throws Exception {
+		try {
+			begin();
+
+			termWeightStatement.setInt(1, sourceFileVersionID);
+			termWeightStatement.setInt(2, termID);
+			termWeightStatement.setInt(3, termCount);
+			termWeightStatement.setInt(4, inverseDocCount);
+			termWeightStatement.setDouble(5, tf);
+			termWeightStatement.setDouble(6, idf);
+			termWeightStatement.addBatch();
+			termWeightCount++;
+
+			if (++pendingTermWeightCount >= batchSize) {
+				executeDeleteBatch();
+				termWeightStatement.executeBatch();
+				pendingTermWeightCount = 0;
+			}
+		} catch (Exception e) {
+			rollback();
+			throw e;
+		}
+	}
+
+	/**
+	 * Update total term count, length score and norms of a source file version
+	 */
+	public void updateSourceFileVector(int sourceFileVersionID, int totalCorpusCount, double lengthScore,
+			double corpusNorm, double classNorm, double methodNorm, double variableNorm, double commentNorm) throws Exception {
+		try {
+			begin();
+
+			vectorStatement.setInt(1, totalCorpusCount);
+			vectorStatement.setDouble(2, lengthScore);
+			vectorStatement.setDouble(3, corpusNorm);
+			vectorStatement.setDouble(4, classNorm);
+			vectorStatement.setDouble(5, methodNorm);
+			vectorStatement.setDouble(6, variableNorm);
+			vectorStatement.setDouble(7, commentNorm);
+			vectorStatement.setInt(8, sourceFileVersionID);
+			vectorStatement.addBatch();
+
+			if (++pendingVectorCount >= batchSize) {
+				vectorStatement.executeBatch();
+				pendingVectorCount = 0;
+			}
+		} catch (Exception e) {
+			rollback();
+			throw e;
+		}
+	}
+
+	/**
+	 * Execute remaining batches and commit the transaction
+	 *
+	 * @return count of inserted term weights
+	 * @throws Exception when the transaction can't be committed. The transaction is rolled back.
+	 */
+	public int commit() throws Exception {
+		if (!transaction.isStarted()) {
+			return 0;
+		}
+
+		int returnValue = termWeightCount;
+		try {
+			executeDeleteBatch();
+			termWeightStatement.executeBatch();
+			vectorStatement.executeBatch();
+			transaction.commit();
+		} catch (Exception e) {
+			rollback();
+			throw e;
+		}
+
+		pendingDeleteCount = 0;
+		pendingTermWeightCount = 0;
+		pendingVectorCount = 0;
+		termWeightCount = 0;
+		return returnValue;
+	}
+}
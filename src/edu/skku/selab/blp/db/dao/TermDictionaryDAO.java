@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+import edu.skku.selab.blp.db.TermDictionary;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class TermDictionaryDAO extends BaseDAO {
+	// Terms are loaded again when a new analysis DB connection is opened
+	private static boolean termDictionaryLoaded = false;
+	// Terms are saved by one thread at a time, so the same term IDs aren't inserted twice
+	private final static Object persistLock = new Object();
+
+	/**
+	 * @throws Exception
+	 */
+	public TermDictionaryDAO() throws Exception {
+		super();
+	}
+
+	public static synchronized void invalidateTermDictionary() {
+		termDictionaryLoaded = false;
+	}
+
+	/**
+	 * Load the term dictionary only once per analysis DB connection.
+	 * It must be called before term IDs are assigned or decoded with DB.
+	 *
+	 * @throws Exception when TERM_DICT can't be read or has a missing term ID
+	 */
+	public void loadTermDictionaryIfNeeded() throws Exception {
+		synchronized (TermDictionaryDAO.class) {
+			if (!termDictionaryLoaded) {
+				loadTermDictionary();
+				termDictionaryLoaded = true;
+			}
+		}
+	}
+
+	/**
+	 * Load terms of TERM_DICT table to the term dictionary with their term IDs.
+	 *
+	 * @return count of loaded terms
+	 * @throws Exception when TERM_DICT can't be read or has a missing term ID
+	 */
+	public int loadTermDictionary() throws Exception {
+		String sql = "SELECT TERM_ID, TERM FROM TERM_DICT ORDER BY TERM_ID";
+
+		PreparedStatement ps = prepareStatement(sql);
+		TreeMap<Integer, String> terms = new TreeMap<Integer, String>();
+		try (ResultSet rs = ps.executeQuery()) {
+			while (rs.next()) {
+				terms.put(rs.getInt("TERM_ID"), rs.getString("TERM"));
+			}
+		}
+		// Saving terms must not mark the replaced terms as saved
+		synchronized (persistLock) {
+			TermDictionary.getInstance().load(terms);
+		}
+
+		return terms.size();
+	}
+
+	/**
+	 * Save terms of the term dictionary which aren't saved yet.
+	 *
+	 * Terms are committed with a connection of their own, so they are kept even if the transaction
+	 * of the caller is rolled back, and they are marked as saved only after the commit.
+	 * The term dictionary isn't locked while terms are written, so other threads keep adding terms.
+	 *
+	 * @return count of saved terms
+	 * @throws SQLException when terms can't be saved. They are saved again by the next call.
+	 */
+	public int persistTermDictionary() throws SQLException {
+		String sql = "INSERT INTO TERM_DICT (TERM_ID, TERM) VALUES (?, ?)";
+
+		TermDictionary termDictionary = TermDictionary.getInstance();
+		synchronized (persistLock) {
+			int persistedCount = 0;
+			ArrayList<String> terms = null;
+			synchronized (termDictionary) {
+				persistedCount = termDictionary.getPersistedCount();
+				terms = termDictionary.getUnpersistedTerms();
+			}
+			if (0 == terms.size()) {
+				return 0;
+			}
+
+			try (Connection connection = openDetachedConnection();
+					PreparedStatement ps = connection.prepareStatement(sql)) {
+				connection.setAutoCommit(false);
+				try {
+					for (int i = 0; i < terms.size(); i++) {
+						ps.setInt(1, persistedCount + i);
+						ps.setString(2, terms.get(i));
+						ps.addBatch();
+					}
+					ps.executeBatch();
+					connection.commit();
+				} catch (SQLException e) {
+					connection.rollback();
+					throw e;
+				} finally {
+					connection.setAutoCommit(true);
+				}
+			}
+
+			termDictionary.markPersisted(persistedCount + terms.size());
+			return terms.size();
+		}
+	}
+
+	public int deleteAllTerms() {
+		String sql = "DELETE FROM TERM_DICT";
+		int returnValue = INVALID;
+
+		try {
+			PreparedStatement ps = prepareStatement(sql);
+
+			synchronized (persistLock) {
+				returnValue = ps.executeUpdate();
+				TermDictionary.getInstance().clear();
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+
+		return returnValue;
+	}
+}
@@ -13,18 +13,17 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
-import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.common.Bug;
 import edu.skku.selab.blp.common.SourceFile;
 import edu.skku.selab.blp.db.ExperimentResult;
 import edu.skku.selab.blp.db.IntegratedAnalysisValue;
+import edu.skku.selab.blp.db.IntegratedScoreMatrix;
 import edu.skku.selab.blp.db.dao.BugDAO;
 import edu.skku.selab.blp.db.dao.ExperimentResultDAO;
 import edu.skku.selab.blp.db.dao.IntegratedAnalysisDAO;
 import edu.skku.selab.blp.utils.Util;
+import edu.skku.selab.blp.utils.StageExecutor;
 
 /**
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
@@ -100,8 +99,19 @@ public class Evaluator {
 	}
 	
 	private ArrayList<IntegratedAnalysisValue> getRankedValues(int bugID, int limit) throws Exception {
-		IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
 		ArrayList<IntegratedAnalysisValue> rankedValues = null;
+		if (IntegratedScoreMatrix.hasInstance()) {
+			// Scores calculated in this process are read without DB access
+			IntegratedScoreMatrix scoreMatrix = IntegratedScoreMatrix.getInstance();
+			if (experimentResult.getAlgorithmName().equalsIgnoreCase(Evaluator.ALG_BUG_LOCATOR)) {
+				rankedValues = scoreMatrix.getRankedValues(bugID, IntegratedScoreMatrix.BL_SCORE, limit);
+			} else if (experimentResult.getAlgorithmName().equalsIgnoreCase(Evaluator.ALG_BLIA_FILE)) {
+				rankedValues = scoreMatrix.getRankedValues(bugID, IntegratedScoreMatrix.BLIA_SF_SCORE, limit);
+			}
+			return rankedValues;
+		}
+		
+		IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
 		if (experimentResult.getAlgorithmName().equalsIgnoreCase(Evaluator.ALG_BUG_LOCATOR)) {
 			rankedValues = integratedAnalysisDAO.getBugLocatorRankedValues(bugID, limit);
 		} else if (experimentResult.getAlgorithmName().equalsIgnoreCase(Evaluator.ALG_BLIA_FILE)) {
@@ -110,7 +120,7 @@ public class Evaluator {
 		return rankedValues;
 	}
 	
-    private class WorkerThread implements Runnable {
+    private class WorkerThread implements StageExecutor.Task {
     	private int bugID;
     	
         public WorkerThread(int bugID) {
@@ -118,14 +128,10 @@ public class Evaluator {
         }
      
         @Override
-        public void run() {
-        	try {
-        		calculateTopN();
-        		calculateMRR();
-        		calulateMAP();
-        	} catch (Exception e) {
-        		e.printStackTrace();
-        	}
+        public void run() throws Exception {
+        	calculateTopN();
+        	calculateMRR();
+        	calulateMAP();
         }
         
         private void calculateTopN() throws Exception {
@@ -295,16 +301,14 @@ public class Evaluator {
 		String outputFileName = getOutputFileName();
 		writer = new FileWriter(outputFileName, false);
 		
-		ExecutorService executor = Executors.newFixedThreadPool(Property.THREAD_COUNT);
+		StageExecutor executor = new StageExecutor("Evaluation");
 //		boolean isCounted = false;
 		for (int i = 0; i < bugs.size(); i++) {
-			Runnable worker = new WorkerThread(bugs.get(i).getID());
-			executor.execute(worker);
+			StageExecutor.Task worker = new WorkerThread(bugs.get(i).getID());
+			executor.submit(worker);
 		}
 		
-		executor.shutdown();
-		while (!executor.isTerminated()) {
-		}
+		executor.await();
 		
 		experimentResult.setTop1(top1);
 		experimentResult.setTop5(top5);
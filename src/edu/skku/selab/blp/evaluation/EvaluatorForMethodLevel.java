@@ -13,16 +13,14 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
-import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.common.Method;
 import edu.skku.selab.blp.db.ExtendedIntegratedAnalysisValue;
 import edu.skku.selab.blp.db.dao.BugDAO;
 import edu.skku.selab.blp.db.dao.ExperimentResultDAO;
 import edu.skku.selab.blp.db.dao.IntegratedAnalysisDAO;
 import edu.skku.selab.blp.utils.Util;
+import edu.skku.selab.blp.utils.StageExecutor;
 
 /**
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
@@ -91,16 +89,14 @@ public class EvaluatorForMethodLevel extends Evaluator {
 		String outputFileName = getOutputFileName();
 		writer = new FileWriter(outputFileName, false);
 		
-		ExecutorService executor = Executors.newFixedThreadPool(Property.THREAD_COUNT);
+		StageExecutor executor = new StageExecutor("Method level evaluation");
 //		boolean isCounted = false;
 		for (int i = 0; i < bugs.size(); i++) {
-			Runnable worker = new WorkerThread(bugs.get(i).getID());
-			executor.execute(worker);
+			StageExecutor.Task worker = new WorkerThread(bugs.get(i).getID());
+			executor.submit(worker);
 		}
 		
-		executor.shutdown();
-		while (!executor.isTerminated()) {
-		}
+		executor.await();
 		
 		experimentResult.setTop1(top1);
 		experimentResult.setTop5(top5);
@@ -143,7 +139,7 @@ public class EvaluatorForMethodLevel extends Evaluator {
 		writer.close();
 	}
 	
-    private class WorkerThread implements Runnable {
+    private class WorkerThread implements StageExecutor.Task {
     	private int bugID;
     	
         public WorkerThread(int bugID) {
@@ -151,14 +147,10 @@ public class EvaluatorForMethodLevel extends Evaluator {
         }
      
         @Override
-        public void run() {
-        	try {
-        		calculateTopN();
-        		calculateMRR();
-        		calulateMAP();
-        	} catch (Exception e) {
-        		e.printStackTrace();
-        	}
+        public void run() throws Exception {
+        	calculateTopN();
+        	calculateMRR();
+        	calulateMAP();
         }
         
         private void calculateTopN() throws Exception {
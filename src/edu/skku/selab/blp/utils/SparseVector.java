@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.utils;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sparse vector of term weights.
+ *
+ * Non-zero values are kept in the ascending order of their indices, so operations between two vectors
+ * are merge joins which cost the count of non-zero values, not the vocabulary size.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class SparseVector {
+	final public static SparseVector EMPTY = new SparseVector(new int[0], new double[0], true);
+
+	private int[] indices;
+	private double[] values;
+	private double norm;
+
+	/**
+	 * Arrays of the caller are copied, so changing them later doesn't change the vector.
+	 *
+	 * @param indices non-negative term IDs in any order. Values of the same index are added.
+	 * @param values weights of the indices
+	 */
+	public SparseVector(int[] indices, double[] values) {
+		this(Arrays.copyOf(indices, indices.length), Arrays.copyOf(values, values.length), isSorted(indices));
+	}
+
+	private SparseVector(int[] indices, double[] values, boolean sorted) {
+		if (indices.length != values.length) {
+			throw new IllegalArgumentException("Count of indices and values are different.");
+		}
+
+		if (sorted) {
+			this.indices = indices;
+			this.values = values;
+		} else {
+			sort(indices, values);
+		}
+
+		double length = 0.0;
+		for (int i = 0; i < this.values.length; i++) {
+			length += this.values[i] * this.values[i];
+		}
+		norm = Math.sqrt(length);
+	}
+
+	private static boolean isSorted(int[] indices) {
+		for (int i = 1; i < indices.length; i++) {
+			if (indices[i - 1] >= indices[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void sort(int[] unsortedIndices, double[] unsortedValues) {
+		// Sort positions by index with packed long keys, then merge values of the same index
+		long[] keys = new long[unsortedIndices.length];
+		for (int i = 0; i < unsortedIndices.length; i++) {
+			keys[i] = ((long) unsortedIndices[i] << 32) | i;
+		}
+		Arrays.sort(keys);
+
+		indices = new int[keys.length];
+		values = new double[keys.length];
+		int count = 0;
+		for (int i = 0; i < keys.length; i++) {
+			int index = (int) (keys[i] >> 32);
+			double value = unsortedValues[(int) keys[i]];
+			if (count > 0 && indices[count - 1] == index) {
+				values[count - 1] += value;
+			} else {
+				indices[count] = index;
+				values[count] = value;
+				count++;
+			}
+		}
+		if (count < keys.length) {
+			indices = Arrays.copyOf(indices, count);
+			values = Arrays.copyOf(values, count);
+		}
+	}
+
+	/**
+	 * @return count of stored values
+	 */
+	public int size() {
+		return indices.length;
+	}
+
+	public int getIndex(int position) {
+		return indices[position];
+	}
+
+	public double getValue(int position) {
+		return values[position];
+	}
+
+	/**
+	 * @param index
+	 * @return value of the index, 0 if the index isn't stored
+	 */
+	public double get(int index) {
+		int position = Arrays.binarySearch(indices, index);
+		return (position >= 0) ? values[position] : 0.0;
+	}
+
+	/**
+	 * @return Euclidean norm, calculated when the vector is created
+	 */
+	public double norm() {
+		return norm;
+	}
+
+	public double dot(SparseVector other) {
+		int[] otherIndices = other.indices;
+		double[] otherValues = other.values;
+		double product = 0.0;
+
+		int i = 0;
+		int j = 0;
+		while (i < indices.length && j < otherIndices.length) {
+			if (indices[i] < otherIndices[j]) {
+				i++;
+			} else if (indices[i] > otherIndices[j]) {
+				j++;
+			} else {
+				product += values[i++] * otherValues[j++];
+			}
+		}
+		return product;
+	}
+
+	/**
+	 * @return cosine similarity, 0 if one of vectors is zero vector
+	 */
+	public double cosine(SparseVector other) {
+		double norms = norm() * other.norm();
+		if (0 == norms) {
+			return 0.0;
+		}
+		return dot(other) / norms;
+	}
+
+	/**
+	 * @return new vector of this + scale * other
+	 */
+	public SparseVector addScaled(SparseVector other, double scale) {
+		int[] otherIndices = other.indices;
+		double[] otherValues = other.values;
+		int[] sumIndices = new int[indices.length + otherIndices.length];
+		double[] sumValues = new double[sumIndices.length];
+
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < indices.length || j < otherIndices.length) {
+			if (j == otherIndices.length || (i < indices.length && indices[i] < otherIndices[j])) {
+				sumIndices[count] = indices[i];
+				sumValues[count++] = values[i++];
+			} else if (i == indices.length || indices[i] > otherIndices[j]) {
+				sumIndices[count] = otherIndices[j];
+				sumValues[count++] = scale * otherValues[j++];
+			} else {
+				sumIndices[count] = indices[i];
+				sumValues[count++] = values[i++] + scale * otherValues[j++];
+			}
+		}
+		return new SparseVector(Arrays.copyOf(sumIndices, count), Arrays.copyOf(sumValues, count), true);
+	}
+}
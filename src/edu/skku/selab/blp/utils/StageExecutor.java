@@ -0,0 +1,261 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.skku.selab.blp.Property;
+
+/**
+ * Runs the tasks of one pipeline stage on the work-stealing pool shared by all stages.
+ *
+ * Usage: submit() all tasks of the stage, then await() blocks until they are done.
+ * Exceptions of each task are collected as TaskFailure instead of stopping the stage,
+ * and await() throws after all tasks are done when any of them failed.
+ * Callers which handle failed tasks by themselves use awaitFailures().
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class StageExecutor {
+	public interface Task {
+		public void run() throws Exception;
+	}
+
+	public static class TaskFailure {
+		private int taskIndex;
+		private Task task;
+		private Throwable cause;
+
+		public TaskFailure(int taskIndex, Task task, Throwable cause) {
+			this.taskIndex = taskIndex;
+			this.task = task;
+			this.cause = cause;
+		}
+
+		/**
+		 * @return the submitted order of the task
+		 */
+		public int getTaskIndex() {
+			return taskIndex;
+		}
+
+		public Task getTask() {
+			return task;
+		}
+
+		public Throwable getCause() {
+			return cause;
+		}
+	}
+
+	private static ForkJoinPool sharedPool = null;
+
+	private String stageName;
+	private boolean failFast;
+	private volatile boolean cancelled;
+	private long startTime;
+	private long elapsedTime;
+	private ArrayList<ForkJoinTask<?>> futures;
+	private ArrayList<TaskFailure> failures;
+	private AtomicInteger completedCount;
+
+	/**
+	 * @param stageName name printed with the throughput of the stage
+	 */
+	public StageExecutor(String stageName) {
+		this(stageName, false);
+	}
+
+	/**
+	 * @param stageName name printed with the throughput of the stage
+	 * @param failFast cancel remaining tasks when a task fails
+	 */
+	public StageExecutor(String stageName, boolean failFast) {
+		this.stageName = stageName;
+		this.failFast = failFast;
+		cancelled = false;
+		startTime = 0;
+		elapsedTime = 0;
+		futures = new ArrayList<ForkJoinTask<?>>();
+		failures = new ArrayList<TaskFailure>();
+		completedCount = new AtomicInteger(0);
+	}
+
+	/**
+	 * Worker threads are daemon threads and stay alive between stages.
+	 *
+	 * @return pool of THREAD_COUNT workers shared by all stages
+	 */
+	public static synchronized ForkJoinPool getSharedPool() {
+		if (null == sharedPool) {
+			boolean asyncMode = true;
+			sharedPool = new ForkJoinPool(Property.THREAD_COUNT, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, asyncMode);
+		}
+		return sharedPool;
+	}
+
+	public void submit(final Task task) {
+		synchronized (futures) {
+			if (cancelled) {
+				return;
+			}
+
+			if (0 == startTime) {
+				startTime = System.currentTimeMillis();
+			}
+
+			final int taskIndex = futures.size();
+			ForkJoinTask<?> future = ForkJoinTask.adapt(new Runnable() {
+				@Override
+				public void run() {
+					if (cancelled) {
+						return;
+					}
+
+					try {
+						task.run();
+						completedCount.incrementAndGet();
+					} catch (Exception e) {
+						addFailure(new TaskFailure(taskIndex, task, e));
+						if (failFast) {
+							cancel();
+						}
+					}
+				}
+			});
+			futures.add(future);
+			getSharedPool().execute(future);
+		}
+	}
+
+	private void addFailure(TaskFailure failure) {
+		synchronized (failures) {
+			failures.add(failure);
+		}
+	}
+
+	/**
+	 * Cancel tasks which didn't start yet. Running tasks are completed.
+	 */
+	public void cancel() {
+		synchronized (futures) {
+			cancelled = true;
+			for (int i = 0; i < futures.size(); i++) {
+				futures.get(i).cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * Wait until all submitted tasks are done.
+	 *
+	 * @throws Exception when any task failed, caused by the failure of the first failed task
+	 */
+	public void await() throws Exception {
+		ArrayList<TaskFailure> failures = awaitFailures();
+		if (failures.isEmpty()) {
+			return;
+		}
+
+		TaskFailure firstFailure = failures.get(0);
+		Exception exception = new Exception(String.format("%s: %d tasks failed, first failed task #%d.",
+				stageName, failures.size(), firstFailure.getTaskIndex()), firstFailure.getCause());
+		for (int i = 1; i < failures.size(); i++) {
+			exception.addSuppressed(failures.get(i).getCause());
+		}
+		throw exception;
+	}
+
+	/**
+	 * Wait until all submitted tasks are done, then print the throughput and failures of the stage.
+	 *
+	 * @return failures in the submitted order of the tasks, empty when all tasks succeeded
+	 * @throws InterruptedException
+	 */
+	public ArrayList<TaskFailure> awaitFailures() throws InterruptedException {
+		ArrayList<ForkJoinTask<?>> submittedFutures = null;
+		synchronized (futures) {
+			submittedFutures = new ArrayList<ForkJoinTask<?>>(futures);
+		}
+
+		for (int i = 0; i < submittedFutures.size(); i++) {
+			try {
+				submittedFutures.get(i).get();
+			} catch (CancellationException e) {
+				// Cancelled task isn't a failure
+			} catch (ExecutionException e) {
+				// Errors which aren't caught in the task
+				addFailure(new TaskFailure(i, null, e.getCause()));
+			}
+		}
+
+		elapsedTime = (0 == startTime) ? 0 : System.currentTimeMillis() - startTime;
+		ArrayList<TaskFailure> sortedFailures = getFailures();
+
+		double seconds = elapsedTime / 1000.0;
+		double throughput = (seconds > 0) ? completedCount.get() / seconds : completedCount.get();
+		System.out.printf("[STAGE] %s: %d/%d tasks done, %d failed%s (%.3f sec, %.2f tasks/sec)\n",
+				stageName, completedCount.get(), submittedFutures.size(), sortedFailures.size(),
+				cancelled ? ", cancelled" : "", seconds, throughput);
+		for (int i = 0; i < sortedFailures.size(); i++) {
+			TaskFailure failure = sortedFailures.get(i);
+			System.err.printf("[ERROR] %s: task #%d failed.\n", stageName, failure.getTaskIndex());
+			failure.getCause().printStackTrace();
+		}
+
+		return sortedFailures;
+	}
+
+	public ArrayList<TaskFailure> getFailures() {
+		ArrayList<TaskFailure> sortedFailures = null;
+		synchronized (failures) {
+			sortedFailures = new ArrayList<TaskFailure>(failures);
+		}
+
+		Collections.sort(sortedFailures, new Comparator<TaskFailure>() {
+			@Override
+			public int compare(TaskFailure first, TaskFailure second) {
+				return Integer.compare(first.getTaskIndex(), second.getTaskIndex());
+			}
+		});
+		return sortedFailures;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public int getTaskCount() {
+		synchronized (futures) {
+			return futures.size();
+		}
+	}
+
+	public int getCompletedCount() {
+		return completedCount.get();
+	}
+
+	/**
+	 * @return milliseconds from the first submit() to the end of await()
+	 */
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+
+	public String getStageName() {
+		return stageName;
+	}
+}
@@ -1,6 +1,6 @@
 /**
  * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
- * 
+ *
  * Permission to use, copy, modify, and distribute this software and its documentation for
  * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
  * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
@@ -8,21 +8,86 @@
 
 package edu.skku.selab.blp.utils;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-// Referenced classes of package utils:
-//            PorterStemmer
+import edu.skku.selab.blp.Property;
 
+/**
+ * Thread-safe Porter stemming with a bounded cache of stems.
+ *
+ * Each thread reuses its own PorterStemmer. When the cache is full, it is cleared, so stems of
+ * the current stage are kept instead of stems of previous stages.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
 public class Stem
 {
-    public Stem()
-    {
-    }
-
-    public static String stem(String word)
-    {
-        PorterStemmer stemmer = new PorterStemmer();
-        stemmer.reset();
-        stemmer.stem(word);
-        return stemmer.toString();
-    }
+	private static int cacheSize = Property.STEM_CACHE_SIZE;
+	private static ConcurrentHashMap<String, String> stemCache = new ConcurrentHashMap<String, String>();
+	private static AtomicLong hitCount = new AtomicLong(0);
+	private static AtomicLong missCount = new AtomicLong(0);
+
+	private static ThreadLocal<PorterStemmer> stemmers = new ThreadLocal<PorterStemmer>() {
+		protected PorterStemmer initialValue() {
+			return new PorterStemmer();
+		}
+	};
+
+	public Stem()
+	{
+	}
+
+	public static String stem(String word)
+	{
+		String stemWord = stemCache.get(word);
+		if (null != stemWord) {
+			hitCount.incrementAndGet();
+			return stemWord;
+		}
+
+		missCount.incrementAndGet();
+		PorterStemmer stemmer = stemmers.get();
+		stemmer.stem(word);
+		stemWord = stemmer.toString();
+
+		if (cacheSize > 0) {
+			if (stemCache.size() >= cacheSize) {
+				stemCache.clear();
+			}
+			stemCache.put(word, stemWord);
+		}
+		return stemWord;
+	}
+
+	/**
+	 * @param size max count of cached stems, 0 disables the cache. Cached stems are cleared.
+	 */
+	public static void setCacheSize(int size) {
+		cacheSize = size;
+		stemCache.clear();
+	}
+
+	public static long getHitCount() {
+		return hitCount.get();
+	}
+
+	public static long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return rate of stems found in the cache, 0 if no word is stemmed
+	 */
+	public static double getHitRate() {
+		long hits = hitCount.get();
+		long total = hits + missCount.get();
+		return (0 == total) ? 0.0 : (double) hits / (double) total;
+	}
+
+	public static void resetStatistics() {
+		hitCount.set(0);
+		missCount.set(0);
+	}
 }
@@ -8,20 +8,40 @@
 
 package edu.skku.selab.blp.utils;
 
-import java.util.TreeSet;
+import java.util.HashMap;
 
 public class Stopword
 {
+    final public static int JAVA_KEYWORD = 1;
+    final public static int PROJECT_KEYWORD = 2;
+    final public static int ENGLISH_STOPWORD = 4;
+    
+    // Stopwords of source file terms
+    final public static int SOURCE_FILE_STOPWORDS = JAVA_KEYWORD | PROJECT_KEYWORD | ENGLISH_STOPWORD;
+    // Stopwords of bug report terms, which aren't source code
+    final public static int BUG_REPORT_STOPWORDS = PROJECT_KEYWORD | ENGLISH_STOPWORD;
 
     public Stopword()
     {
     }
 
+    /**
+     * Check all kinds of stopwords with one lookup
+     * 
+     * @param word stemmed word
+     * @param kinds sum of JAVA_KEYWORD, PROJECT_KEYWORD and ENGLISH_STOPWORD
+     * @return true if the word is one of the kinds
+     */
+    public static boolean isStopword(String word, int kinds)
+    {
+        Integer wordKinds = STOP_WORD_KINDS.get(word);
+        return (null != wordKinds) && ((wordKinds & kinds) != 0);
+    }
+
     // For checking source file term
     public static boolean isJavaKeyword(String word)
     {
-        boolean isKeyword = JAVA_KEYWORDS_STOP_WORD_SET.contains(word);
-        return isKeyword;
+        return isStopword(word, JAVA_KEYWORD);
     }
     
     public static boolean isProjectKeyword(String word)
@@ -29,20 +49,23 @@ public class Stopword
     	// for experiment
 //    	return false;
     	
-        boolean isProjectKeyword = PROJECT_KEYWORDS_STOP_WORD_SET.contains(word);
-        return isProjectKeyword;
+        return isStopword(word, PROJECT_KEYWORD);
     }
 
     // For checking source file term and bug report
     public static boolean isEnglishStopword(String word)
     {
-        boolean isEnglishStopword = ENG_STOP_WORDS_SET.contains(word);
-        return isEnglishStopword;
+        return isStopword(word, ENGLISH_STOPWORD);
+    }
+
+    private static void addStopword(String word, int kind)
+    {
+        Integer wordKinds = STOP_WORD_KINDS.get(word);
+        STOP_WORD_KINDS.put(word, (null == wordKinds) ? kind : (wordKinds | kind));
     }
 
-    private static final TreeSet<String> JAVA_KEYWORDS_STOP_WORD_SET;
-    private static final TreeSet<String> PROJECT_KEYWORDS_STOP_WORD_SET;
-    private static final TreeSet<String> ENG_STOP_WORDS_SET;
+    // Stemmed stopword, kinds of it
+    private static final HashMap<String, Integer> STOP_WORD_KINDS;
 
     static 
     {
@@ -57,12 +80,12 @@ public class Stopword
                 "class", "finally", "long", "strictfp", "volatile", "const", "float", "native", "super", "while", 
                 "false", "true", "null" };
         
-        JAVA_KEYWORDS_STOP_WORD_SET = new TreeSet<String>();
+        STOP_WORD_KINDS = new HashMap<String, Integer>();
         for(int i = 0; i < javaKeywords.length; i++)
         {
             String word = javaKeywords[i].trim().toLowerCase();
             word = Stem.stem(word);
-            JAVA_KEYWORDS_STOP_WORD_SET.add(word);
+            addStopword(word, JAVA_KEYWORD);
         }
         
         String projectKeywords[] = {
@@ -70,12 +93,11 @@ public class Stopword
                 "aspectj", "swt", "eclipse", "zxing", "string", "java", "org", "javadoc"
                 };
         
-        PROJECT_KEYWORDS_STOP_WORD_SET = new TreeSet<String>();
         for(int i = 0; i < projectKeywords.length; i++)
         {
             String word = projectKeywords[i].trim().toLowerCase();
             word = Stem.stem(word);
-            PROJECT_KEYWORDS_STOP_WORD_SET.add(word);
+            addStopword(word, PROJECT_KEYWORD);
         }
 
         String EngStopWord[] = {
@@ -138,12 +160,11 @@ public class Stopword
             "you", "you'd", "you'll", "you're", "you've", "your", "yours", "yourself", "yourselves", "z", 
             "zero"
         };
-        ENG_STOP_WORDS_SET = new TreeSet<String>();
         for(int i = 0; i < EngStopWord.length; i++)
         {
             String word = EngStopWord[i].toLowerCase().trim();
             word = Stem.stem(word);
-            ENG_STOP_WORDS_SET.add(word);
+            addStopword(word, ENGLISH_STOPWORD);
         }
     }
 }
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.utils;
+
+import java.util.ArrayList;
+
+/**
+ * Splits nature language and source code with one scan of the characters.
+ *
+ * Words, camel case tokens and possessive stems are handled while scanning, and each token is passed to a
+ * TokenHandler as a range of the text. No buffer, intermediate string or array is created for splitting.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class Tokenizer {
+	public interface TokenHandler {
+		/**
+		 * @param text scanned text
+		 * @param start start index of the token
+		 * @param end end index of the token, exclusive
+		 */
+		public void handleToken(CharSequence text, int start, int end);
+	}
+
+	/**
+	 * Collects tokens as strings. It can be reused after clear().
+	 */
+	public static class TokenList implements TokenHandler {
+		private ArrayList<String> tokens = new ArrayList<String>();
+		private boolean lowerCase;
+
+		/**
+		 * @param lowerCase true if tokens are converted to lower case
+		 */
+		public TokenList(boolean lowerCase) {
+			this.lowerCase = lowerCase;
+		}
+
+		public void handleToken(CharSequence text, int start, int end) {
+			String token = text.subSequence(start, end).toString();
+			tokens.add(lowerCase ? token.toLowerCase() : token);
+		}
+
+		public ArrayList<String> getTokens() {
+			return tokens;
+		}
+
+		public String[] toArray() {
+			return tokens.toArray(new String[tokens.size()]);
+		}
+
+		public void clear() {
+			tokens.clear();
+		}
+	}
+
+	private static boolean isUpperCase(char c) {
+		return c >= 'A' && c <= 'Z';
+	}
+
+	private static boolean isLowerCase(char c) {
+		return c >= 'a' && c <= 'z';
+	}
+
+	private static boolean isLetter(char c) {
+		return isUpperCase(c) || isLowerCase(c);
+	}
+
+	private static boolean isWordCharacter(char c) {
+		return isLetter(c) || (c >= '0' && c <= '9') || c == '\'';
+	}
+
+	/**
+	 * Split words of letters, digits and apostrophes
+	 *
+	 * @param natureLanguage
+	 * @param handler receives non-empty words
+	 */
+	public static void splitNatureLanguage(CharSequence natureLanguage, TokenHandler handler) {
+		int length = natureLanguage.length();
+		int wordStart = 0;
+		for (int i = 0; i <= length; i++) {
+			if (i < length && isWordCharacter(natureLanguage.charAt(i))) {
+				continue;
+			}
+
+			if (wordStart < i) {
+				handler.handleToken(natureLanguage, wordStart, i);
+			}
+			wordStart = i + 1;
+		}
+	}
+
+	/**
+	 * Split words of letters, digits and apostrophes. A word is followed by its stem without "'s",
+	 * or by its camel case tokens if it has no apostrophe.
+	 *
+	 * The last word of the text is passed without its stem and tokens, as the previous splitter did.
+	 *
+	 * @param natureLanguage
+	 * @param handler receives non-empty words and tokens
+	 */
+	public static void splitNatureLanguageEx(CharSequence natureLanguage, TokenHandler handler) {
+		int length = natureLanguage.length();
+		int wordStart = 0;
+		for (int i = 0; i < length; i++) {
+			if (isWordCharacter(natureLanguage.charAt(i))) {
+				continue;
+			}
+
+			if (wordStart < i) {
+				splitWord(natureLanguage, wordStart, i, handler);
+			}
+			wordStart = i + 1;
+		}
+
+		if (wordStart < length) {
+			handler.handleToken(natureLanguage, wordStart, length);
+		}
+	}
+
+	private static void splitWord(CharSequence text, int start, int end, TokenHandler handler) {
+		// add full identifier
+		handler.handleToken(text, start, end);
+
+		int apostrophe = -1;
+		int possessive = -1;
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) == '\'') {
+				apostrophe = i;
+				if (i + 1 < end && text.charAt(i + 1) == 's') {
+					possessive = i;
+				}
+			}
+		}
+
+		if (possessive > start) {
+			handler.handleToken(text, start, possessive);
+		} else if (apostrophe < 0) {	// except as like "I'll", "I've"
+			if (splitByCharacterType(text, start, end, null) > 1) {
+				splitByCharacterType(text, start, end, handler);
+			}
+		}
+	}
+
+	/**
+	 * Split a word where the character type changes. An upper case character before lower case characters
+	 * begins a new token, as StringUtils.splitByCharacterTypeCamelCase() does.
+	 *
+	 * @param handler receives tokens, or null to count them only
+	 * @return count of tokens
+	 */
+	private static int splitByCharacterType(CharSequence text, int start, int end, TokenHandler handler) {
+		int count = 0;
+		int tokenStart = start;
+		int currentType = Character.getType(text.charAt(start));
+		for (int i = start + 1; i < end; i++) {
+			int type = Character.getType(text.charAt(i));
+			if (type == currentType) {
+				continue;
+			}
+
+			if (type == Character.LOWERCASE_LETTER && currentType == Character.UPPERCASE_LETTER) {
+				int newTokenStart = i - 1;
+				if (newTokenStart != tokenStart) {
+					if (null != handler) {
+						handler.handleToken(text, tokenStart, newTokenStart);
+					}
+					count++;
+					tokenStart = newTokenStart;
+				}
+			} else {
+				if (null != handler) {
+					handler.handleToken(text, tokenStart, i);
+				}
+				count++;
+				tokenStart = i;
+			}
+			currentType = type;
+		}
+
+		if (null != handler) {
+			handler.handleToken(text, tokenStart, end);
+		}
+		return count + 1;
+	}
+
+	/**
+	 * Split identifiers of letters into camel case tokens. Tokens shorter than 2 characters are dropped.
+	 *
+	 * @param sourceCode
+	 * @param handler receives tokens in the case of the source code
+	 */
+	public static void splitSourceCode(CharSequence sourceCode, TokenHandler handler) {
+		int length = sourceCode.length();
+		int wordStart = -1;
+		for (int i = 0; i <= length; i++) {
+			if (i < length && isLetter(sourceCode.charAt(i))) {
+				if (wordStart < 0) {
+					wordStart = i;
+				}
+				continue;
+			}
+
+			if (wordStart >= 0) {
+				splitCamelCase(sourceCode, wordStart, i, handler);
+				wordStart = -1;
+			}
+		}
+	}
+
+	private static void splitCamelCase(CharSequence text, int start, int end, TokenHandler handler) {
+		int tokenStart = start;
+		for (int i = start; i < end - 1; i++) {
+			char first = text.charAt(i);
+			char second = text.charAt(i + 1);
+			if (isUpperCase(first) && isLowerCase(second)) {
+				handleSourceCodeToken(text, tokenStart, i, handler);
+				tokenStart = i;
+			} else if (isLowerCase(first) && isUpperCase(second)) {
+				handleSourceCodeToken(text, tokenStart, i + 1, handler);
+				tokenStart = i + 1;
+			}
+		}
+
+		handleSourceCodeToken(text, tokenStart, end, handler);
+	}
+
+	private static void handleSourceCodeToken(CharSequence text, int start, int end, TokenHandler handler) {
+		if (end - start >= 2) {
+			handler.handleToken(text, start, end);
+		}
+	}
+}
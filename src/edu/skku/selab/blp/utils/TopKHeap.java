@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.utils;
+
+/**
+ * Bounded min-heap which keeps the K largest scores offered so far.
+ *
+ * Equal scores are counted separately, so the threshold is the K-th largest score
+ * including duplicates. Values whose score is equal to or greater than the threshold are in top K.
+ *
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class TopKHeap {
+	private double[] heap;
+	private int size;
+
+	/**
+	 * @param k count of scores to keep, at least 1
+	 */
+	public TopKHeap(int k) {
+		heap = new double[Math.max(1, k)];
+		size = 0;
+	}
+
+	/**
+	 * @param score
+	 * @return true if the score is in top K at this moment
+	 */
+	public boolean offer(double score) {
+		if (size < heap.length) {
+			heap[size] = score;
+			siftUp(size++);
+			return true;
+		}
+
+		if (score < heap[0]) {
+			return false;
+		}
+
+		if (score > heap[0]) {
+			heap[0] = score;
+			siftDown(0);
+		}
+		return true;
+	}
+
+	/**
+	 * @return K-th largest score, NEGATIVE_INFINITY until K scores are offered
+	 */
+	public double getThreshold() {
+		return isFull() ? heap[0] : Double.NEGATIVE_INFINITY;
+	}
+
+	public boolean isFull() {
+		return size == heap.length;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getK() {
+		return heap.length;
+	}
+
+	private void siftUp(int index) {
+		double score = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (heap[parent] <= score) {
+				break;
+			}
+			heap[index] = heap[parent];
+			index = parent;
+		}
+		heap[index] = score;
+	}
+
+	private void siftDown(int index) {
+		double score = heap[index];
+		int half = size >>> 1;
+		while (index < half) {
+			int child = 2 * index + 1;
+			if (child + 1 < size && heap[child + 1] < heap[child]) {
+				child++;
+			}
+			if (score <= heap[child]) {
+				break;
+			}
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = score;
+	}
+}
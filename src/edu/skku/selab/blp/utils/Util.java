@@ -7,6 +7,11 @@
  */
 package edu.skku.selab.blp.utils;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+
 /**
  * @author Klaus Changsun Youm(klausyoum@skku.edu)
  *
@@ -17,4 +22,40 @@ public class Util {
 		String elpsedTimeString = (elapsedTime / 1000) + "." + (elapsedTime % 1000);
 		return elpsedTimeString;
 	}
+	
+	/**
+	 * @param file
+	 * @return SHA-1 hex string of the file content, null if the file can't be read
+	 */
+	public static String getContentHash(File file) {
+		String contentHash = null;
+		InputStream inputStream = null;
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-1");
+			inputStream = new FileInputStream(file);
+			byte buffer[] = new byte[8192];
+			int length = 0;
+			while ((length = inputStream.read(buffer)) > 0) {
+				md.update(buffer, 0, length);
+			}
+			
+			byte byteData[] = md.digest();
+			StringBuilder hashBuilder = new StringBuilder(byteData.length * 2);
+			for (int i = 0; i < byteData.length; i++) {
+				hashBuilder.append(Integer.toString((byteData[i] & 0xff) + 0x100, 16).substring(1));
+			}
+			contentHash = hashBuilder.toString();
+		} catch (Exception e) {
+			e.printStackTrace();
+		} finally {
+			if (null != inputStream) {
+				try {
+					inputStream.close();
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		return contentHash;
+	}
 }
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.analysis;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import edu.skku.selab.blp.common.Bug;
+import edu.skku.selab.blp.db.SimilarBugInfo;
+import edu.skku.selab.blp.utils.SparseVector;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class BugSimilarityIndexTest {
+	private Bug createBug(int bugID, String openDateString, String fixedDateString) {
+		Bug bug = new Bug();
+		bug.setID(bugID);
+		bug.setOpenDate(openDateString);
+		bug.setFixedDate(fixedDateString);
+		return bug;
+	}
+
+	@Test
+	public void verifyGetSimilarBugs() {
+		ArrayList<Bug> bugs = new ArrayList<Bug>();
+		bugs.add(createBug(1, "2004-01-01 10:00:00", "2004-01-10 10:00:00"));
+		bugs.add(createBug(2, "2004-01-02 10:00:00", "2004-01-11 10:00:00"));
+		bugs.add(createBug(3, "2004-01-03 10:00:00", "2004-01-12 10:00:00"));
+		bugs.add(createBug(4, "2004-02-01 10:00:00", "2004-02-10 10:00:00"));
+
+		HashMap<Integer, SparseVector> bugVectors = new HashMap<Integer, SparseVector>();
+		bugVectors.put(1, new SparseVector(new int[] {1, 2}, new double[] {1.0, 1.0}));
+		bugVectors.put(2, new SparseVector(new int[] {2, 3}, new double[] {2.0, 1.0}));
+		bugVectors.put(3, new SparseVector(new int[] {4}, new double[] {1.0}));
+		bugVectors.put(4, new SparseVector(new int[] {1, 2, 3}, new double[] {1.0, 1.0, 1.0}));
+
+		BugSimilarityIndex similarityIndex = new BugSimilarityIndex(bugs, bugVectors);
+		assertEquals(4, similarityIndex.getBugCount());
+		assertEquals(4, similarityIndex.getTermCount());
+		assertEquals(3, similarityIndex.getFixedBugCount(bugs.get(3).getOpenDate().getTime()));
+
+		// No bug was fixed before bug 2 is opened, so only bug 1 before it is compared
+		ArrayList<SimilarBugInfo> similarBugInfos = similarityIndex.getSimilarBugs(1, bugVectors.get(2), 0);
+		assertEquals(1, similarBugInfos.size());
+		assertEquals(1, similarBugInfos.get(0).getSimilarBugID());
+		assertEquals(2.0 / (Math.sqrt(2.0) * Math.sqrt(5.0)), similarBugInfos.get(0).getSimilarityScore(), 0.000001);
+
+		// Bug 3 doesn't share any term with previous bugs
+		assertEquals(0, similarityIndex.getSimilarBugs(2, bugVectors.get(3), 0).size());
+
+		// Bugs 1, 2 and 3 were fixed before bug 4 is opened
+		similarBugInfos = similarityIndex.getSimilarBugs(3, bugVectors.get(4), 0);
+		assertEquals(2, similarBugInfos.size());
+		assertEquals(1, similarBugInfos.get(0).getSimilarBugID());
+		assertEquals(2.0 / (Math.sqrt(3.0) * Math.sqrt(2.0)), similarBugInfos.get(0).getSimilarityScore(), 0.000001);
+		assertEquals(2, similarBugInfos.get(1).getSimilarBugID());
+		assertEquals(3.0 / (Math.sqrt(3.0) * Math.sqrt(5.0)), similarBugInfos.get(1).getSimilarityScore(), 0.000001);
+
+		similarBugInfos = similarityIndex.getSimilarBugs(3, bugVectors.get(4), 1);
+		assertEquals(1, similarBugInfos.size());
+		assertEquals(1, similarBugInfos.get(0).getSimilarBugID());
+	}
+}
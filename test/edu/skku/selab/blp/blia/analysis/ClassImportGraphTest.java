@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.analysis;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class ClassImportGraphTest {
+	@Test
+	public void verifyClassImportGraph() {
+		HashMap<String, String> classNames = new HashMap<String, String>();
+		classNames.put("org.test.A", "org.test.A.java");
+		classNames.put("org.test.B", "org.test.B.java");
+		classNames.put("org.test.C", "org.test.C.java");
+
+		HashMap<String, Integer> sourceFileVersionIDs = new HashMap<String, Integer>();
+		sourceFileVersionIDs.put("org.test.A.java", 10);
+		sourceFileVersionIDs.put("org.test.B.java", 20);
+		sourceFileVersionIDs.put("org.test.C.java", 30);
+
+		HashMap<String, ArrayList<String>> importedClassesMap = new HashMap<String, ArrayList<String>>();
+		ArrayList<String> importedClasses = new ArrayList<String>();
+		importedClasses.add("org.test.C");
+		importedClasses.add("java.util.ArrayList");
+		importedClasses.add("org.test.B");
+		importedClassesMap.put("org.test.A.java", importedClasses);
+		importedClasses = new ArrayList<String>();
+		importedClasses.add("java.io.File");
+		importedClassesMap.put("org.test.C.java", importedClasses);
+
+		ClassImportGraph graph = new ClassImportGraph(classNames, sourceFileVersionIDs, importedClassesMap);
+		assertEquals(3, graph.getClassCount());
+		assertEquals(-1, graph.getClassIndex("org.test.D"));
+
+		int classIndexA = graph.getClassIndex("org.test.A");
+		int classIndexB = graph.getClassIndex("org.test.B");
+		int classIndexC = graph.getClassIndex("org.test.C");
+		assertEquals(10, graph.getSourceFileVersionID(classIndexA));
+		assertEquals(20, graph.getSourceFileVersionID(classIndexB));
+		assertEquals(30, graph.getSourceFileVersionID(classIndexC));
+
+		assertEquals(3, graph.getImportCount(classIndexA));
+		assertEquals(classIndexC, graph.getImportedClassIndex(classIndexA, 0));
+		assertEquals(-1, graph.getImportedClassIndex(classIndexA, 1));
+		assertEquals(classIndexB, graph.getImportedClassIndex(classIndexA, 2));
+		assertEquals(0, graph.getImportCount(classIndexB));
+		assertEquals(1, graph.getImportCount(classIndexC));
+		assertEquals(-1, graph.getImportedClassIndex(classIndexC, 0));
+	}
+
+	@Test
+	public void verifyEmptyGraph() {
+		ClassImportGraph graph = new ClassImportGraph(null, new HashMap<String, Integer>(), new HashMap<String, ArrayList<String>>());
+		assertEquals(0, graph.getClassCount());
+		assertEquals(-1, graph.getClassIndex("org.test.A"));
+	}
+}
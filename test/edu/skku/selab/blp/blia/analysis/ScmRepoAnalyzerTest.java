@@ -80,20 +80,15 @@ public class ScmRepoAnalyzerTest {
 		calendar.set(2015, 2, 12);
 		Date targetDate = calendar.getTime();
 		
-		Method getDiffDaysMethod = ScmRepoAnalyzer.class.getDeclaredMethod("getDiffDays", Date.class, Date.class);
+		Method getDiffDaysMethod = ScmRepoAnalyzer.class.getDeclaredMethod("getDiffDays", long.class, long.class);
 		getDiffDaysMethod.setAccessible(true);
 		
-		Double returnValue = (Double) getDiffDaysMethod.invoke(scmRepoAnalyzer, sourceDate, targetDate);
+		Double returnValue = (Double) getDiffDaysMethod.invoke(scmRepoAnalyzer, sourceDate.getTime(), targetDate.getTime());
 		assertEquals(11.0, returnValue.doubleValue(), 0.001);
 	}
 	
 	@Test
-	public void verifyFindCommitInfoWithinDays() throws NoSuchMethodException, SecurityException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-		ScmRepoAnalyzer scmRepoAnalyzer = new ScmRepoAnalyzer();
-
-		Method findCommitInfoWithinDaysMethod = ScmRepoAnalyzer.class.getDeclaredMethod("findCommitInfoWithinDays", ArrayList.class, Date.class, Integer.class);
-		findCommitInfoWithinDaysMethod.setAccessible(true);
-		
+	public void verifyFindCommitWindow() {
 		CommitInfo commitInfo1 = new CommitInfo();
 		commitInfo1.setCommitDate("2004-10-07 01:02:22");
 
@@ -116,18 +111,26 @@ public class ScmRepoAnalyzerTest {
 		calendar.set(2004, Calendar.OCTOBER, 27, 9, 10, 22);
 		Date openDate = calendar.getTime();
 		
-		@SuppressWarnings("unchecked")
-		ArrayList<CommitInfo> foundCommitInfos = (ArrayList<CommitInfo>) findCommitInfoWithinDaysMethod.invoke(scmRepoAnalyzer, commitInfos, openDate, new Integer(15));
-		assertEquals(2, foundCommitInfos.size());
-		assertEquals(commitInfo2.getCommitDate(), foundCommitInfos.get(0).getCommitDate());
-		assertEquals(commitInfo3.getCommitDate(), foundCommitInfos.get(1).getCommitDate());
+		CommitWindowIndex commitWindowIndex = new CommitWindowIndex(commitInfos);
+		int windowStart = commitWindowIndex.findWindowStart(openDate.getTime(), 15);
+		int windowEnd = commitWindowIndex.findWindowEnd(openDate.getTime());
+		assertEquals(2, windowEnd - windowStart);
+		assertEquals(commitInfo2.getCommitDate().getTime(), commitWindowIndex.getCommitTime(windowStart));
+		assertEquals(commitInfo3.getCommitDate().getTime(), commitWindowIndex.getCommitTime(windowStart + 1));
+		
+		// A commit at the open date isn't in the window, and a commit just 15 days before it is in the window
+		assertEquals(2, commitWindowIndex.findWindowEnd(commitInfo3.getCommitDate().getTime()));
+		assertEquals(1, commitWindowIndex.findWindowStart(commitInfo2.getCommitDate().getTime() + 15L * 24 * 60 * 60 * 1000, 15));
+		
+		// No commit is before the first commit
+		assertEquals(0, commitWindowIndex.findWindowEnd(commitInfo1.getCommitDate().getTime()));
 	}
 	
 	@Test
 	public void verifyCalculateCommitLogScore() throws NoSuchMethodException, SecurityException, IllegalAccessException, IllegalArgumentException, InvocationTargetException {
 		ScmRepoAnalyzer scmRepoAnalyzer = new ScmRepoAnalyzer();
 
-		Method calculateCommitLogScoreMethod = ScmRepoAnalyzer.class.getDeclaredMethod("calculateCommitLogScore", Date.class, Date.class, Integer.class);
+		Method calculateCommitLogScoreMethod = ScmRepoAnalyzer.class.getDeclaredMethod("calculateCommitLogScore", long.class, long.class, int.class);
 		calculateCommitLogScoreMethod.setAccessible(true);
 		
 		Calendar calendar = GregorianCalendar.getInstance();
@@ -137,7 +140,7 @@ public class ScmRepoAnalyzerTest {
 		Date openDate = calendar.getTime();
 		Integer pastDays = new Integer(15);
 
-		Double commitLogScore = (Double) calculateCommitLogScoreMethod.invoke(scmRepoAnalyzer, commitDate, openDate, pastDays);
+		Double commitLogScore = (Double) calculateCommitLogScoreMethod.invoke(scmRepoAnalyzer, commitDate.getTime(), openDate.getTime(), pastDays);
 		assertEquals(commitLogScore.doubleValue(), 0.009, 0.0001);
 	}
 }
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.analysis;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.skku.selab.blp.common.Bug;
+import edu.skku.selab.blp.common.SourceFileCorpus;
+import edu.skku.selab.blp.db.IntegratedAnalysisValue;
+import edu.skku.selab.blp.db.IntegratedScoreMatrix;
+import edu.skku.selab.blp.db.dao.DbUtil;
+import edu.skku.selab.blp.db.dao.SourceFileCorpusBatchWriter;
+import edu.skku.selab.blp.db.dao.SourceFileDAO;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class StackTraceAnalyzerTest {
+	private String version = SourceFileDAO.DEFAULT_VERSION_STRING;
+	private int bugID = 100;
+	private double delta = 0.000001;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		DbUtil dbUtil = new DbUtil();
+		dbUtil.openConnetion();
+		dbUtil.initializeAllData();
+		dbUtil.closeConnection();
+
+		SourceFileCorpusBatchWriter batchWriter = new SourceFileCorpusBatchWriter(version,
+				SourceFileDAO.INIT_TOTAL_COUPUS_COUNT, SourceFileDAO.INIT_LENGTH_SCORE);
+		ArrayList<String> importedClasses = new ArrayList<String>();
+		importedClasses.add("org.test.B");
+		importedClasses.add("java.util.List");
+		importedClasses.add("org.test.C");
+		insertSourceFile(batchWriter, "org.test.A", importedClasses);
+		insertSourceFile(batchWriter, "org.test.B", null);
+		insertSourceFile(batchWriter, "org.test.C", null);
+		insertSourceFile(batchWriter, "org.test.D", null);
+		batchWriter.close();
+
+		IntegratedScoreMatrix.getInstance().clear();
+		HashMap<String, Integer> sourceFileVersionIDs = new SourceFileDAO().getSourceFileVersionIDs(version);
+		for (Integer sourceFileVersionID : sourceFileVersionIDs.values()) {
+			IntegratedAnalysisValue integratedAnalysisValue = new IntegratedAnalysisValue();
+			integratedAnalysisValue.setBugID(bugID);
+			integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionID);
+			IntegratedScoreMatrix.getInstance().insertAnalysisVaule(integratedAnalysisValue);
+		}
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		IntegratedScoreMatrix.getInstance().clear();
+	}
+
+	private void insertSourceFile(SourceFileCorpusBatchWriter batchWriter, String className,
+			ArrayList<String> importedClasses) throws Exception {
+		SourceFileCorpus corpus = new SourceFileCorpus();
+		corpus.setContent("acc");
+		corpus.setClassPart("acc");
+		corpus.setImportedClasses(importedClasses);
+		batchWriter.insertCorpus(className + ".java", className + ".java", corpus);
+	}
+
+	private double getStackTraceScore(String className) throws Exception {
+		int sourceFileVersionID = new SourceFileDAO().getSourceFileVersionIDs(version).get(className + ".java");
+		return IntegratedScoreMatrix.getInstance().getAnalysisValues(bugID).get(sourceFileVersionID).getStackTraceScore();
+	}
+
+	@Test
+	public void verifyAnalyze() throws Exception {
+		ArrayList<String> stackTraceClasses = new ArrayList<String>();
+		stackTraceClasses.add("java.lang.Thread");
+		stackTraceClasses.add("org.test.C");
+		stackTraceClasses.add("org.test.A");
+		stackTraceClasses.add("org.test.C");
+
+		Bug bug = new Bug();
+		bug.setID(bugID);
+		bug.setVersion(version);
+		bug.setStackTraceClasses(stackTraceClasses);
+		ArrayList<Bug> bugs = new ArrayList<Bug>();
+		bugs.add(bug);
+		new StackTraceAnalyzer(bugs).analyze();
+
+		// Ranks are positions in the stack trace, and only the first position of a class is scored
+		assertEquals(1.0 / 2, getStackTraceScore("org.test.C"), delta);
+		assertEquals(1.0 / 3, getStackTraceScore("org.test.A"), delta);
+		// Imported classes which aren't stack trace classes get the boost score
+		assertEquals(0.1, getStackTraceScore("org.test.B"), delta);
+		assertEquals(0.0, getStackTraceScore("org.test.D"), delta);
+	}
+
+	@Test
+	public void verifyAnalyzeWithoutImports() throws Exception {
+		ArrayList<String> stackTraceClasses = new ArrayList<String>();
+		stackTraceClasses.add("org.test.B");
+		stackTraceClasses.add("org.test.D");
+
+		Bug bug = new Bug();
+		bug.setID(bugID);
+		bug.setVersion(version);
+		bug.setStackTraceClasses(stackTraceClasses);
+		ArrayList<Bug> bugs = new ArrayList<Bug>();
+		bugs.add(bug);
+		new StackTraceAnalyzer(bugs).analyze();
+
+		// Stack trace classes are scored even when they import no class
+		assertEquals(1.0, getStackTraceScore("org.test.B"), delta);
+		assertEquals(1.0 / 2, getStackTraceScore("org.test.D"), delta);
+		assertEquals(0.0, getStackTraceScore("org.test.A"), delta);
+	}
+}
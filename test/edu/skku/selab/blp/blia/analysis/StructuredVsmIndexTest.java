@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.analysis;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+import edu.skku.selab.blp.common.BugCorpus;
+import edu.skku.selab.blp.common.SourceFileCorpus;
+import edu.skku.selab.blp.db.AnalysisValue;
+import edu.skku.selab.blp.db.IntegratedAnalysisValue;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class StructuredVsmIndexTest {
+	private HashMap<String, AnalysisValue> createTermMap(String[] terms, double[] idfs) {
+		HashMap<String, AnalysisValue> termMap = new HashMap<String, AnalysisValue>();
+		for (int i = 0; i < terms.length; i++) {
+			AnalysisValue termValue = new AnalysisValue();
+			termValue.setTerm(terms[i]);
+			termValue.setTf(1.0 + i);
+			termValue.setIdf(idfs[i]);
+			termMap.put(terms[i], termValue);
+		}
+		return termMap;
+	}
+
+	@Test
+	public void verifyScore() {
+		String[] terms = {"open", "file", "reader", "close", "buffer"};
+		double[] idfs = {1.5, 2.0, 0.5, 3.0, 1.0};
+		HashMap<String, AnalysisValue> termMap = createTermMap(terms, idfs);
+
+		HashMap<String, Integer> sourceFileVersionIDs = new HashMap<String, Integer>();
+		HashMap<Integer, HashMap<String, AnalysisValue>> sourceFileTermMaps = new HashMap<Integer, HashMap<String, AnalysisValue>>();
+		HashMap<Integer, SourceFileCorpus> sourceFileCorpusMap = new HashMap<Integer, SourceFileCorpus>();
+		HashMap<Integer, Double> sourceFileLengthScoreMap = new HashMap<Integer, Double>();
+
+		// File 1 shares "file" twice in class part and "reader" in comment part
+		SourceFileCorpus corpus1 = new SourceFileCorpus();
+		corpus1.setClassPart("file file");
+		corpus1.setMethodPart("");
+		corpus1.setVariablePart("");
+		corpus1.setCommentPart("reader");
+		corpus1.setClassCorpusNorm(2.0);
+		corpus1.setCommentCorpusNorm(4.0);
+		sourceFileVersionIDs.put("File1.java", 1);
+		sourceFileTermMaps.put(1, termMap);
+		sourceFileCorpusMap.put(1, corpus1);
+		sourceFileLengthScoreMap.put(1, 0.5);
+
+		// File 2 doesn't share any term
+		SourceFileCorpus corpus2 = new SourceFileCorpus();
+		corpus2.setClassPart("buffer");
+		corpus2.setMethodPart("close");
+		corpus2.setVariablePart("");
+		corpus2.setCommentPart("");
+		corpus2.setClassCorpusNorm(1.0);
+		corpus2.setMethodCorpusNorm(1.0);
+		sourceFileVersionIDs.put("File2.java", 2);
+		sourceFileTermMaps.put(2, termMap);
+		sourceFileCorpusMap.put(2, corpus2);
+		sourceFileLengthScoreMap.put(2, 1.0);
+
+		StructuredVsmIndex vsmIndex = new StructuredVsmIndex(sourceFileVersionIDs, sourceFileTermMaps,
+				sourceFileCorpusMap, sourceFileLengthScoreMap);
+		assertEquals(2, vsmIndex.getFileCount());
+		assertEquals(4, vsmIndex.getTermCount());
+
+		BugCorpus bugCorpus = new BugCorpus();
+		bugCorpus.setSummaryPart("file file open");
+		bugCorpus.setDescriptionPart("reader");
+		bugCorpus.setSummaryCorpusNorm(2.0);
+		bugCorpus.setDecriptionCorpusNorm(1.0);
+
+		ArrayList<IntegratedAnalysisValue> integratedAnalysisValues = vsmIndex.score(10, bugCorpus, termMap);
+		assertEquals(1, integratedAnalysisValues.size());
+		IntegratedAnalysisValue integratedAnalysisValue = integratedAnalysisValues.get(0);
+		assertEquals(10, integratedAnalysisValue.getBugID());
+		assertEquals(1, integratedAnalysisValue.getSourceFileVersionID());
+
+		// (class part x summary) + (comment part x description) * 0.5 of comment weight, then length score
+		double fileWeight = termMap.get("file").getTf() * termMap.get("file").getIdf();
+		double readerWeight = termMap.get("reader").getTf() * termMap.get("reader").getIdf();
+		double classScore = (2 * 2.0 * 2.0 * fileWeight) / (2.0 * 2.0);
+		double commentScore = (0.5 * 0.5 * readerWeight) / (4.0 * 1.0) * 0.5;
+		double expectedScore = (classScore + commentScore) * 0.5;
+		assertEquals(expectedScore, integratedAnalysisValue.getVsmScore(), 0.000001);
+	}
+
+	private String createRandomPart(Random random, String[] terms, int termCount) {
+		StringBuilder part = new StringBuilder();
+		for (int i = 0; i < termCount; i++) {
+			if (i > 0) {
+				part.append(' ');
+			}
+			part.append(terms[random.nextInt(terms.length)]);
+		}
+		return part.toString();
+	}
+
+	@Test
+	public void verifyScoreTopK() {
+		Random random = new Random(7);
+		String[] terms = new String[60];
+		double[] idfs = new double[terms.length];
+		for (int i = 0; i < terms.length; i++) {
+			terms[i] = "term" + i;
+			idfs[i] = random.nextDouble() * 3;
+		}
+		HashMap<String, AnalysisValue> termMap = createTermMap(terms, idfs);
+
+		HashMap<String, Integer> sourceFileVersionIDs = new HashMap<String, Integer>();
+		HashMap<Integer, HashMap<String, AnalysisValue>> sourceFileTermMaps = new HashMap<Integer, HashMap<String, AnalysisValue>>();
+		HashMap<Integer, SourceFileCorpus> sourceFileCorpusMap = new HashMap<Integer, SourceFileCorpus>();
+		HashMap<Integer, Double> sourceFileLengthScoreMap = new HashMap<Integer, Double>();
+		int fileCount = 300;
+		for (int i = 1; i <= fileCount; i++) {
+			SourceFileCorpus corpus = new SourceFileCorpus();
+			corpus.setClassPart(createRandomPart(random, terms, 1 + random.nextInt(3)));
+			corpus.setMethodPart(createRandomPart(random, terms, random.nextInt(6)));
+			corpus.setVariablePart(createRandomPart(random, terms, random.nextInt(6)));
+			corpus.setCommentPart(createRandomPart(random, terms, random.nextInt(10)));
+			corpus.setClassCorpusNorm(1.0 + random.nextDouble());
+			corpus.setMethodCorpusNorm(1.0 + random.nextDouble());
+			corpus.setVariableCorpusNorm(1.0 + random.nextDouble());
+			corpus.setCommentCorpusNorm(1.0 + random.nextDouble());
+			sourceFileVersionIDs.put("File" + i + ".java", i);
+			sourceFileTermMaps.put(i, termMap);
+			sourceFileCorpusMap.put(i, corpus);
+			sourceFileLengthScoreMap.put(i, random.nextDouble());
+		}
+
+		StructuredVsmIndex vsmIndex = new StructuredVsmIndex(sourceFileVersionIDs, sourceFileTermMaps,
+				sourceFileCorpusMap, sourceFileLengthScoreMap);
+
+		for (int bugID = 1; bugID <= 20; bugID++) {
+			BugCorpus bugCorpus = new BugCorpus();
+			bugCorpus.setSummaryPart(createRandomPart(random, terms, 1 + random.nextInt(5)));
+			bugCorpus.setDescriptionPart(createRandomPart(random, terms, random.nextInt(20)));
+			bugCorpus.setSummaryCorpusNorm(1.0 + random.nextDouble());
+			bugCorpus.setDecriptionCorpusNorm(1.0 + random.nextDouble());
+
+			ArrayList<IntegratedAnalysisValue> allValues = vsmIndex.score(bugID, bugCorpus, termMap);
+			double[] allScores = new double[allValues.size()];
+			for (int i = 0; i < allValues.size(); i++) {
+				allScores[i] = allValues.get(i).getVsmScore();
+			}
+			Arrays.sort(allScores);
+
+			int limitSize = 10;
+			double threshold = allScores[allScores.length - limitSize];
+			ArrayList<IntegratedAnalysisValue> topValues = vsmIndex.score(bugID, bugCorpus, termMap, limitSize);
+			assertEquals(limitSize, topValues.size());
+
+			int topIndex = 0;
+			for (int i = 0; i < allValues.size(); i++) {
+				IntegratedAnalysisValue value = allValues.get(i);
+				if (value.getVsmScore() >= threshold) {
+					IntegratedAnalysisValue topValue = topValues.get(topIndex++);
+					assertEquals(value.getSourceFileVersionID(), topValue.getSourceFileVersionID());
+					assertEquals(value.getVsmScore(), topValue.getVsmScore(), 0.000001);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.indexer;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.skku.selab.blp.common.Bug;
+import edu.skku.selab.blp.common.ExtendedCommitInfo;
+import edu.skku.selab.blp.common.Method;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class BugRepositoryReaderTest {
+	private File bugFile;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		bugFile = File.createTempFile("BugRepository", ".xml");
+		Writer writer = new OutputStreamWriter(new FileOutputStream(bugFile), "UTF-8");
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+				"<bugrepository name=\"Test\">\n" +
+				"  <bug id=\"100\" opendate=\"2003-1-3 10:28:00\" fixdate=\"2003-1-14 14:30:16\">\n" +
+				"    <buginformation>\n" +
+				"      <summary>&quot;Compiler error&quot;</summary>\n" +
+				"      <description>at org.foo.Foo.run(Foo.java:10) &amp;lt;init&amp;gt;</description>\n" +
+				"      <comments>\n" +
+				"        <comment id=\"1\" date=\"2003-01-03 10:31:40 EST\" author=\"Tester\">Created attachment</comment>\n" +
+				"      </comments>\n" +
+				"    </buginformation>\n" +
+				"    <fixedCommits>\n" +
+				"      <commit id=\"abc\" author=\"Fixer\" date=\"2003-01-14 14:30:16\">\n" +
+				"        <file name=\"org.aspectj/modules/weaver/src/org/foo/Foo.java\">\n" +
+				"          <method name=\"run\" returnType=\"void\" parameters=\"int\"/>\n" +
+				"        </file>\n" +
+				"      </commit>\n" +
+				"    </fixedCommits>\n" +
+				"  </bug>\n" +
+				"  <bug id=\"101\" opendate=\"2003-2-3 10:28:00\" fixdate=\"2003-2-14 14:30:16\">\n" +
+				"    <buginformation><summary>Second</summary><description/></buginformation>\n" +
+				"  </bug>\n" +
+				"</bugrepository>\n");
+		writer.close();
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		bugFile.delete();
+	}
+
+	@Test
+	public void verifyRead() throws Exception {
+		final ArrayList<Bug> bugs = new ArrayList<Bug>();
+		BugRepositoryReader reader = new BugRepositoryReader(bugFile.getAbsolutePath());
+		assertEquals(2, reader.read(new BugRepositoryReader.Visitor() {
+			public void visitBug(Bug bug) {
+				bugs.add(bug);
+			}
+		}));
+
+		Bug bug = bugs.get(0);
+		assertEquals(100, bug.getID());
+		assertEquals("\"Compiler error\"", bug.getSummary());
+		// Descriptions are parsed by BugCorpusCreator
+		assertEquals("at org.foo.Foo.run(Foo.java:10) &lt;init&gt;", bug.getDescription());
+		assertEquals(1, bug.getComments().size());
+		assertEquals("Tester", bug.getComments().get(0).getAuthor());
+		assertEquals("Created attachment", bug.getComments().get(0).getCommentCorpus());
+		assertTrue(bug.getFixedFiles().contains("weaver/src/org/foo/Foo.java"));
+
+		ExtendedCommitInfo fixedCommitInfo = bug.getFixedCommitInfos().get(0);
+		assertEquals("abc", fixedCommitInfo.getCommitID());
+		Method method = fixedCommitInfo.getFixedMethodList("weaver/src/org/foo/Foo.java").get(0);
+		assertEquals("run", method.getName());
+		assertEquals("int", method.getParams());
+
+		assertEquals("Second", bugs.get(1).getSummary());
+		assertEquals("", bugs.get(1).getDescription());
+	}
+
+	@Test
+	public void verifyTake() throws Exception {
+		BugRepositoryReader reader = new BugRepositoryReader(bugFile.getAbsolutePath());
+		int capacity = 1;
+		reader.start(capacity);
+		assertEquals(100, reader.take().getID());
+		assertEquals(101, reader.take().getID());
+		assertNull(reader.take());
+		assertNull(reader.take());
+	}
+
+	@Test(expected = Exception.class)
+	public void verifyTakeWithWrongFile() throws Exception {
+		BugRepositoryReader reader = new BugRepositoryReader(bugFile.getAbsolutePath() + ".none");
+		reader.start(1);
+		reader.take();
+	}
+}
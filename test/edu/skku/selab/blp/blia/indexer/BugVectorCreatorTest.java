@@ -7,6 +7,8 @@
  */
 package edu.skku.selab.blp.blia.indexer;
 
+import static org.junit.Assert.*;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -16,6 +18,7 @@ import org.junit.Test;
 import edu.skku.selab.blp.Property;
 import edu.skku.selab.blp.blia.indexer.BugCorpusCreator;
 import edu.skku.selab.blp.blia.indexer.BugVectorCreator;
+import edu.skku.selab.blp.db.dao.BugDAO;
 import edu.skku.selab.blp.db.dao.DbUtil;
 
 /**
@@ -70,6 +73,10 @@ public class BugVectorCreatorTest {
 		
 		BugVectorCreator bugVectorCreator = new BugVectorCreator();
 		bugVectorCreator.create();
+		
+		int bugTermCount = Property.getInstance().getBugTermCount();
+		assertTrue(bugTermCount > 0);
+		assertEquals(bugTermCount, new BugDAO().getAllTermCount());
 	}
 	
 }
@@ -7,6 +7,8 @@
  */
 package edu.skku.selab.blp.blia.indexer;
 
+import static org.junit.Assert.*;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -75,7 +77,6 @@ public class SourceFileVectorCreatorTest {
 		sourceFileCorpusCreator.create(version);
 		
 		SourceFileVectorCreator sourceFileVectorCreator = new SourceFileVectorCreator();
-		sourceFileVectorCreator.createIndex(version);
 		sourceFileVectorCreator.create(version);
 	}
 	
@@ -89,19 +90,9 @@ public class SourceFileVectorCreatorTest {
 		sourceFileCorpusCreator.create(version);
 		System.out.printf("[DONE] StructuredSourceFileCorpusCreator.create().(Total %s sec)\n", Util.getElapsedTimeSting(startTime));
 		
-		startTime = System.currentTimeMillis();
-		System.out.printf("[STARTED] SourceFileVectorCreator.createIndex()\n");
-		SourceFileVectorCreator sourceFileVectorCreator = new SourceFileVectorCreator();
-		sourceFileVectorCreator.createIndex(version);
-		System.out.printf("[DONE] SourceFileVectorCreator.createIndex().(Total %s sec)\n", Util.getElapsedTimeSting(startTime));
-
-		startTime = System.currentTimeMillis();
-		System.out.printf("[STARTED] SourceFileVectorCreator.computeLengthScore()\n");
-		sourceFileVectorCreator.computeLengthScore(version);
-		System.out.printf("[DONE] SourceFileVectorCreator.computeLengthScore().(Total %s sec)\n", Util.getElapsedTimeSting(startTime));
-		
 		startTime = System.currentTimeMillis();
 		System.out.printf("[STARTED] SourceFileVectorCreator.create()\n");
+		SourceFileVectorCreator sourceFileVectorCreator = new SourceFileVectorCreator();
 		sourceFileVectorCreator.create(version);
 		System.out.printf("[DONE] SourceFileVectorCreator.create().(Total %s sec)\n", Util.getElapsedTimeSting(startTime));
 	}
@@ -114,8 +105,35 @@ public class SourceFileVectorCreatorTest {
 		sourceFileCorpusCreator.create(version);
 		
 		SourceFileVectorCreator sourceFileVectorCreator = new SourceFileVectorCreator();
-		sourceFileVectorCreator.createIndex(version);
-		sourceFileVectorCreator.computeLengthScore(version);
+		sourceFileVectorCreator.create(version);
+	}
+
+	@Test
+	public void verifyCreateKeepsUnchangedTermWeights() throws Exception {
+		String version = SourceFileDAO.DEFAULT_VERSION_STRING;
+		StructuredSourceFileCorpusCreator sourceFileCorpusCreator = new StructuredSourceFileCorpusCreator();
+		sourceFileCorpusCreator.create(version);
+		
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		int fileCount = sourceFileDAO.getSourceFileCount(version);
+		SourceFileVectorCreator sourceFileVectorCreator = new SourceFileVectorCreator();
+		assertEquals(fileCount, sourceFileVectorCreator.create(version));
+		int weightedFileCount = sourceFileDAO.getWeightedSourceFileVersionIDs(version).size();
+		
+		// Document counts and IDFs are same, so no term weight is written again
+		assertEquals(0, sourceFileVectorCreator.create(version));
+		assertEquals(weightedFileCount, sourceFileDAO.getWeightedSourceFileVersionIDs(version).size());
+	}
+
+	@Test
+	public void verifyComputeLengthScores() throws Exception {
+		SourceFileVectorCreator sourceFileVectorCreator = new SourceFileVectorCreator();
+		int totalCorpusLengths[] = {0, 10, 20, 30};
+		double lengthScores[] = sourceFileVectorCreator.computeLengthScores(totalCorpusLengths);
+		assertEquals(4, lengthScores.length);
+		assertEquals(0.5, lengthScores[0], 0.000001);
+		assertTrue(lengthScores[1] < lengthScores[2]);
+		assertTrue(lengthScores[2] < lengthScores[3]);
 	}
 
 
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.blia.indexer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import edu.skku.selab.blp.common.StackFrame;
+import edu.skku.selab.blp.common.StackTrace;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class StackTraceExtractorTest {
+	
+	@Test
+	public void verifyExtract() {
+		String content = "Clicking the button fails. java.lang.NullPointerException: widget is disposed " +
+				"at org.eclipse.swt.internal.motif.OS._XtGetSelectionValue(Native Method) " +
+				"at org.eclipse.swt.dnd.Clipboard.getContents(Clipboard.java:275) " +
+				"at junit.framework.TestResult$1.protect(TestResult.java:106) " +
+				"at sun.reflect.NativeMethodAccessorImpl.invoke(Unknown Source) " +
+				"Caused by: org.eclipse.core.runtime.CoreException at org.test.A.run(A.java(compiled code))";
+		StackTrace stackTrace = new StackTraceExtractor().extract(content, 1);
+		
+		ArrayList<StackFrame> frames = stackTrace.getFrames();
+		assertEquals(5, frames.size());
+		
+		assertEquals("org.eclipse.swt.internal.motif.OS", frames.get(0).getClassName());
+		assertEquals("_XtGetSelectionValue", frames.get(0).getMethodName());
+		assertNull(frames.get(0).getFileName());
+		assertEquals(StackFrame.UNKNOWN_LINE_NUMBER, frames.get(0).getLineNumber());
+		
+		assertEquals("org.eclipse.swt.dnd.Clipboard", frames.get(1).getClassName());
+		assertEquals("getContents", frames.get(1).getMethodName());
+		assertEquals("Clipboard.java", frames.get(1).getFileName());
+		assertEquals(275, frames.get(1).getLineNumber());
+		
+		assertEquals("junit.framework.TestResult", frames.get(2).getClassName());
+		assertEquals("protect", frames.get(2).getMethodName());
+		assertEquals(106, frames.get(2).getLineNumber());
+		
+		assertEquals("sun.reflect.NativeMethodAccessorImpl", frames.get(3).getClassName());
+		assertEquals("org.test.A", frames.get(4).getClassName());
+		assertEquals("A.java", frames.get(4).getFileName());
+		assertEquals(StackFrame.UNKNOWN_LINE_NUMBER, frames.get(4).getLineNumber());
+		
+		ArrayList<String> exceptionTypes = stackTrace.getExceptionTypes();
+		assertEquals(2, exceptionTypes.size());
+		assertEquals("java.lang.NullPointerException", exceptionTypes.get(0));
+		assertEquals("org.eclipse.core.runtime.CoreException", exceptionTypes.get(1));
+	}
+	
+	@Test
+	public void verifyExtractWithoutStackTrace() {
+		StackTrace stackTrace = new StackTraceExtractor().extract("The dialog (see attached image) has no Error label.", 1);
+		assertEquals(0, stackTrace.getFrames().size());
+		assertEquals(0, stackTrace.getExceptionTypes().size());
+	}
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.common;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class FileDetectorTest {
+	private File rootDir;
+	private File secondRootDir;
+
+	private static void createFile(File dir, String path) throws Exception {
+		File file = new File(dir, path);
+		file.getParentFile().mkdirs();
+		file.createNewFile();
+	}
+
+	private static void delete(File file) {
+		File files[] = file.listFiles();
+		if (null != files) {
+			for (int i = 0; i < files.length; i++) {
+				delete(files[i]);
+			}
+		}
+		file.delete();
+	}
+
+	private static TreeSet<String> getRelativePaths(File root, File files[]) {
+		TreeSet<String> paths = new TreeSet<String>();
+		for (int i = 0; i < files.length; i++) {
+			if (files[i].getAbsolutePath().startsWith(root.getAbsolutePath())) {
+				paths.add(root.toPath().relativize(files[i].toPath()).toString().replace(File.separatorChar, '/'));
+			}
+		}
+		return paths;
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		rootDir = Files.createTempDirectory("blp-src").toFile();
+		createFile(rootDir, "org/foo/Foo.java");
+		createFile(rootDir, "org/foo/readme.txt");
+		createFile(rootDir, "org/foo/test/FooTest.java");
+		createFile(rootDir, "bin/org/foo/Foo.java");
+		createFile(rootDir, "Main.java");
+
+		secondRootDir = Files.createTempDirectory("blp-src").toFile();
+		createFile(secondRootDir, "org/bar/Bar.java");
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		delete(rootDir);
+		delete(secondRootDir);
+	}
+
+	@Test
+	public void verifyDetect() throws Exception {
+		String includes[] = {"*.java"};
+		String excludes[] = {"bin", "**/test/**", " "};
+		FileDetector detector = new FileDetector(includes, excludes);
+		String roots[] = {rootDir.getAbsolutePath(), secondRootDir.getAbsolutePath()};
+		File files[] = detector.detect(roots);
+
+		assertEquals(3, files.length);
+		assertEquals(new TreeSet<String>(Arrays.asList("Main.java", "org/foo/Foo.java")), getRelativePaths(rootDir, files));
+		// Roots are walked in the order of them
+		assertEquals(new File(secondRootDir, "org/bar/Bar.java").getAbsolutePath(), files[2].getAbsolutePath());
+	}
+
+	@Test
+	public void verifyDetectAllFiles() throws Exception {
+		FileDetector detector = new FileDetector();
+		File files[] = detector.detect(rootDir.getAbsolutePath());
+		assertEquals(5, files.length);
+
+		detector = new FileDetector("java");
+		files = detector.detect(rootDir.getAbsolutePath());
+		assertEquals(4, files.length);
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.common;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclarationStatement;
+import org.junit.Test;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class JavaSourceParserTest {
+
+	@Test
+	public void verifyReadSource() throws Exception {
+		File file = File.createTempFile("JavaSourceParserTest", ".java");
+		file.deleteOnExit();
+		FileWriter writer = new FileWriter(file);
+		writer.write("package a;\n// comment\r\nclass A {}");
+		writer.close();
+		
+		// Line delimiters are normalized to "\r\n"
+		assertEquals("package a;\r\n// comment\r\nclass A {}\r\n", JavaSourceParser.readSource(file));
+		
+		file.delete();
+		assertNull(JavaSourceParser.readSource(file));
+	}
+	
+	@Test
+	public void verifyParseFiles() throws Exception {
+		File first = File.createTempFile("JavaSourceParserTest", ".java");
+		first.deleteOnExit();
+		FileWriter writer = new FileWriter(first);
+		writer.write("class A {\r\n	int run(int count) {\r\n		int total = count + 1;\r\n		return total;\r\n	}\r\n}\r\n");
+		writer.close();
+		File second = File.createTempFile("JavaSourceParserTest", ".java");
+		second.deleteOnExit();
+		writer = new FileWriter(second);
+		writer.write("class B {\r\n	void run() {\r\n		class Local {\r\n			void call() {}\r\n		}\r\n	}\r\n}\r\n");
+		writer.close();
+		
+		final ArrayList<File> acceptedFiles = new ArrayList<File>();
+		final ArrayList<CompilationUnit> compilationUnits = new ArrayList<CompilationUnit>();
+		JavaSourceParser sourceParser = new JavaSourceParser(JavaSourceParser.getDefaultOptions());
+		sourceParser.parse(new File[] {first, second}, new JavaSourceParser.Requestor() {
+			@Override
+			public void acceptAST(File file, String source, CompilationUnit compilationUnit) throws Exception {
+				acceptedFiles.add(file);
+				compilationUnits.add(compilationUnit);
+			}
+		});
+		
+		// ASTs are accepted in order of files
+		assertEquals(2, acceptedFiles.size());
+		assertEquals(first, acceptedFiles.get(0));
+		assertEquals(second, acceptedFiles.get(1));
+		
+		// Method bodies are parsed, so local classes are found
+		assertEquals(2, getFirstMethod(compilationUnits.get(0)).getBody().statements().size());
+		Block body = getFirstMethod(compilationUnits.get(1)).getBody();
+		TypeDeclaration localType = (TypeDeclaration) ((TypeDeclarationStatement) body.statements().get(0)).getDeclaration();
+		assertEquals("call", localType.getMethods()[0].getName().getIdentifier());
+	}
+	
+	@Test(expected = Exception.class)
+	public void verifyParseUnreadableFile() throws Exception {
+		File file = File.createTempFile("JavaSourceParserTest", ".java");
+		file.delete();
+		new JavaSourceParser(JavaSourceParser.getDefaultOptions()).parse(new File[] {file}, new JavaSourceParser.Requestor() {
+			@Override
+			public void acceptAST(File file, String source, CompilationUnit compilationUnit) throws Exception {
+				fail();
+			}
+		});
+	}
+	
+	private MethodDeclaration getFirstMethod(CompilationUnit compilationUnit) {
+		TypeDeclaration type = (TypeDeclaration) compilationUnit.types().get(0);
+		return type.getMethods()[0];
+	}
+}
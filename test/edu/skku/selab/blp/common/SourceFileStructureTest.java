@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.common;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.Test;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class SourceFileStructureTest {
+	private final static String SOURCE =
+			"/* Copyright (c) 2014 */\r\n" +
+			"package edu.skku.sample;\r\n" +
+			"\r\n" +
+			"import java.io.File;\r\n" +
+			"import java.util.List;\r\n" +
+			"\r\n" +
+			"/**\r\n" +
+			" * Reads <b>sample</b> files\r\n" +
+			" * @author someone\r\n" +
+			" */\r\n" +
+			"public class Reader {\r\n" +
+			"	private int count, total;\r\n" +
+			"\r\n" +
+			"	// open the file\r\n" +
+			"	public File open(String path, int mode) {\r\n" +
+			"		int length = 0;\r\n" +
+			"		/* block note */\r\n" +
+			"		return null;\r\n" +
+			"	}\r\n" +
+			"\r\n" +
+			"	class Buffer {\r\n" +
+			"		void fill() {}\r\n" +
+			"	}\r\n" +
+			"}\r\n";
+
+	@Test
+	public void verifyExtract() {
+		JavaSourceParser parser = new JavaSourceParser(JavaSourceParser.getDefaultOptions());
+		CompilationUnit compilationUnit = parser.parse(SOURCE);
+		SourceFileStructure structure = SourceFileStructure.extract(compilationUnit, SOURCE);
+
+		assertEquals("edu.skku.sample", structure.getPackageName());
+		// Only top level classes are class names, and methods of inner classes are kept apart
+		assertEquals("Reader", structure.getAllClassNames());
+		assertEquals("open", structure.getAllMethodNames());
+		assertEquals("fill", structure.getAllInnerMethodNames());
+		// Parameters, then variables of declaration fragments
+		assertEquals("path mode count total length", structure.getAllVariableNames());
+		// Copyright comments, Javadoc tags and html tags are skipped
+		assertEquals("Reads sample files open the file block note", structure.getAllComments());
+
+		ArrayList<Method> methods = structure.getAllMethodList();
+		assertEquals(2, methods.size());
+		assertEquals("open", methods.get(0).getName());
+		assertEquals("File", methods.get(0).getReturnType());
+		assertEquals("String int", methods.get(0).getParams());
+		assertEquals("fill", methods.get(1).getName());
+
+		ArrayList<String> importedClasses = structure.getImportedClasses();
+		assertEquals(2, importedClasses.size());
+		assertEquals("java.io.File", importedClasses.get(0));
+		assertEquals("java.util.List", importedClasses.get(1));
+		assertEquals(2, structure.getMethodDeclarations().size());
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class IntegratedScoreMatrixTest {
+	private IntegratedScoreMatrix scoreMatrix;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		scoreMatrix = IntegratedScoreMatrix.getInstance();
+		scoreMatrix.clear();
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		scoreMatrix.clear();
+	}
+
+	private IntegratedAnalysisValue createValue(int bugID, int sourceFileVersionID) {
+		IntegratedAnalysisValue integratedAnalysisValue = new IntegratedAnalysisValue();
+		integratedAnalysisValue.setBugID(bugID);
+		integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionID);
+		return integratedAnalysisValue;
+	}
+
+	@Test
+	public void verifyInsertAndUpdate() {
+		int bugID = 101;
+		IntegratedAnalysisValue integratedAnalysisValue = createValue(bugID, 1);
+		integratedAnalysisValue.setVsmScore(0.3);
+		assertEquals(1, scoreMatrix.insertAnalysisVaule(integratedAnalysisValue));
+		assertEquals("Duplicated cell is inserted.", 0, scoreMatrix.insertAnalysisVaule(integratedAnalysisValue));
+
+		// Similar score is inserted when there is no cell
+		integratedAnalysisValue = createValue(bugID, 2);
+		integratedAnalysisValue.setSimilarityScore(0.5);
+		assertEquals(1, scoreMatrix.updateSimilarScore(integratedAnalysisValue));
+
+		integratedAnalysisValue = createValue(bugID, 1);
+		integratedAnalysisValue.setSimilarityScore(0.4);
+		assertEquals(1, scoreMatrix.updateSimilarScore(integratedAnalysisValue));
+
+		integratedAnalysisValue.setStackTraceScore(0.1);
+		assertEquals(1, scoreMatrix.updateStackTraceScore(integratedAnalysisValue));
+		integratedAnalysisValue.setCommitLogScore(0.2);
+		assertEquals(1, scoreMatrix.updateCommitLogScore(integratedAnalysisValue));
+
+		// Other scores aren't inserted when there is no cell
+		integratedAnalysisValue = createValue(bugID, 3);
+		integratedAnalysisValue.setStackTraceScore(0.1);
+		assertEquals(0, scoreMatrix.updateStackTraceScore(integratedAnalysisValue));
+		integratedAnalysisValue = createValue(102, 1);
+		integratedAnalysisValue.setCommitLogScore(0.1);
+		assertEquals(0, scoreMatrix.updateCommitLogScore(integratedAnalysisValue));
+
+		HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = scoreMatrix.getAnalysisValues(bugID);
+		assertEquals(2, integratedAnalysisValues.size());
+		IntegratedAnalysisValue returnValue = integratedAnalysisValues.get(1);
+		assertEquals(bugID, returnValue.getBugID());
+		assertEquals(0.3, returnValue.getVsmScore(), 0.00001);
+		assertEquals(0.4, returnValue.getSimilarityScore(), 0.00001);
+		assertEquals(0.1, returnValue.getStackTraceScore(), 0.00001);
+		assertEquals(0.2, returnValue.getCommitLogScore(), 0.00001);
+
+		returnValue = integratedAnalysisValues.get(2);
+		assertEquals(0.0, returnValue.getVsmScore(), 0.00001);
+		assertEquals(0.5, returnValue.getSimilarityScore(), 0.00001);
+
+		assertNull(scoreMatrix.getAnalysisValues(102));
+		assertEquals(1, scoreMatrix.getBugCount());
+		assertEquals(2, scoreMatrix.getCellCount());
+	}
+
+	@Test
+	public void verifyUpdateScores() {
+		int bugID = 301;
+		scoreMatrix.insertAnalysisVaule(createValue(bugID, 1));
+		scoreMatrix.insertAnalysisVaule(createValue(bugID, 2));
+
+		// Cell of source file 3 doesn't exist, and only the first two cells are updated
+		int[] sourceFileVersionIDs = {2, 3, 1};
+		double[] scores = {0.5, 0.25, 1.0};
+		assertEquals(1, scoreMatrix.updateScores(bugID, IntegratedScoreMatrix.STRACE_SCORE, sourceFileVersionIDs, scores, 2));
+		assertEquals(2, scoreMatrix.updateScores(bugID, IntegratedScoreMatrix.STRACE_SCORE, sourceFileVersionIDs, scores, 3));
+		assertEquals(0, scoreMatrix.updateScores(302, IntegratedScoreMatrix.STRACE_SCORE, sourceFileVersionIDs, scores, 3));
+
+		HashMap<Integer, IntegratedAnalysisValue> integratedAnalysisValues = scoreMatrix.getAnalysisValues(bugID);
+		assertEquals(1.0, integratedAnalysisValues.get(1).getStackTraceScore(), 0.00001);
+		assertEquals(0.5, integratedAnalysisValues.get(2).getStackTraceScore(), 0.00001);
+		assertEquals(0.0, integratedAnalysisValues.get(2).getVsmScore(), 0.00001);
+	}
+
+	@Test
+	public void verifyGetRankedValues() {
+		int bugID = 201;
+		int cellCount = 100;
+		for (int i = 0; i < cellCount; i++) {
+			IntegratedAnalysisValue integratedAnalysisValue = createValue(bugID, i + 1);
+			integratedAnalysisValue.setVsmScore(i % 10);
+			scoreMatrix.insertAnalysisVaule(integratedAnalysisValue);
+
+			integratedAnalysisValue.setBugLocatorScore(i % 10);
+			integratedAnalysisValue.setMiddleSourceFileScore(i);
+			integratedAnalysisValue.setBliaSourceFileScore(cellCount - i);
+			assertEquals(1, scoreMatrix.updateBliaSourceFileScore(integratedAnalysisValue));
+		}
+
+		ArrayList<IntegratedAnalysisValue> rankedValues = scoreMatrix.getRankedValues(bugID, IntegratedScoreMatrix.MID_SF_SCORE, 10);
+		assertEquals(10, rankedValues.size());
+		for (int i = 0; i < rankedValues.size(); i++) {
+			assertEquals(cellCount - i, rankedValues.get(i).getSourceFileVersionID());
+		}
+
+		rankedValues = scoreMatrix.getRankedValues(bugID, IntegratedScoreMatrix.BLIA_SF_SCORE, 0);
+		assertEquals(cellCount, rankedValues.size());
+		assertEquals(1, rankedValues.get(0).getSourceFileVersionID());
+
+		// Zero scores are excluded
+		rankedValues = scoreMatrix.getRankedValues(bugID, IntegratedScoreMatrix.BL_SCORE, 0);
+		assertEquals(90, rankedValues.size());
+		assertEquals(9.0, rankedValues.get(0).getBugLocatorScore(), 0.00001);
+
+		assertNull(scoreMatrix.getRankedValues(bugID, IntegratedScoreMatrix.COMM_SCORE, 0));
+		assertNull(scoreMatrix.getRankedValues(202, IntegratedScoreMatrix.BLIA_SF_SCORE, 0));
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class TermDictionaryTest {
+	private TermDictionary termDictionary;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		termDictionary = TermDictionary.getInstance();
+		termDictionary.clear();
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		termDictionary.clear();
+	}
+
+	@Test
+	public void verifyTermIDs() {
+		String corpus = "open file  reader file";
+		int[] termIDs = termDictionary.toTermIDs(corpus);
+		assertArrayEquals(new int[] {0, 1, 2, 3, 1}, termIDs);
+		assertEquals(4, termDictionary.size());
+		assertEquals("reader", termDictionary.getTerm(3));
+		assertEquals(1, termDictionary.findTermID("file"));
+		assertEquals(TermDictionary.UNKNOWN_TERM_ID, termDictionary.findTermID("close"));
+		assertEquals(corpus, termDictionary.toCorpus(termIDs));
+
+		assertEquals(0, termDictionary.toTermIDs("").length);
+		assertEquals("", termDictionary.toCorpus(new int[0]));
+		assertNull(termDictionary.toTermIDs(null));
+		assertNull(termDictionary.toCorpus(null));
+
+		ArrayList<String> unpersistedTerms = termDictionary.getUnpersistedTerms();
+		assertEquals(4, unpersistedTerms.size());
+		assertEquals(0, termDictionary.getPersistedCount());
+		termDictionary.markPersisted(unpersistedTerms.size());
+		assertEquals(4, termDictionary.getPersistedCount());
+		termDictionary.getTermID("close");
+		unpersistedTerms = termDictionary.getUnpersistedTerms();
+		assertEquals(1, unpersistedTerms.size());
+		assertEquals("close", unpersistedTerms.get(0));
+		// Terms of a failed save are kept until they are marked as saved
+		assertEquals(1, termDictionary.getUnpersistedTerms().size());
+	}
+
+	@Test
+	public void verifyFindTermIDs() {
+		termDictionary.toTermIDs("open file");
+		assertArrayEquals(new int[] {1, TermDictionary.UNKNOWN_TERM_ID, 0}, termDictionary.findTermIDs("file stream open"));
+		assertEquals(2, termDictionary.size());
+		assertEquals(0, termDictionary.findTermIDs("").length);
+		assertNull(termDictionary.findTermIDs(null));
+	}
+
+	@Test
+	public void verifyLoad() {
+		TreeMap<Integer, String> persistedTerms = new TreeMap<Integer, String>();
+		persistedTerms.put(1, "open");
+		persistedTerms.put(0, "buffer");
+		termDictionary.load(persistedTerms);
+		assertEquals(2, termDictionary.size());
+		assertEquals(1, termDictionary.findTermID("open"));
+		assertEquals("buffer", termDictionary.getTerm(0));
+		assertEquals(0, termDictionary.getUnpersistedTerms().size());
+
+		persistedTerms.put(3, "close");
+		try {
+			termDictionary.load(persistedTerms);
+			fail("Term IDs with a gap must not be loaded.");
+		} catch (IllegalStateException e) {
+			assertEquals(0, termDictionary.size());
+		}
+	}
+
+	@Test
+	public void verifyEncode() {
+		int[] termIDs = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, 5};
+		byte[] bytes = TermDictionary.encode(termIDs);
+		assertEquals(1 + 1 + 1 + 2 + 2 + 3 + 5 + 1, bytes.length);
+		assertArrayEquals(termIDs, TermDictionary.decode(bytes));
+
+		assertEquals(0, TermDictionary.encode(new int[0]).length);
+		assertEquals(0, TermDictionary.decode(new byte[0]).length);
+		assertNull(TermDictionary.encode(null));
+		assertNull(TermDictionary.decode(null));
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.skku.selab.blp.Property;
+import edu.skku.selab.blp.utils.StageExecutor;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class BaseDAOTest {
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		DbUtil dbUtil = new DbUtil();
+		dbUtil.openConnetion();
+		dbUtil.initializeAllData();
+		dbUtil.closeConnection();
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+	}
+
+	@Test
+	public void verifyMultiThreadedDatabase() throws Exception {
+		new SourceFileDAO();
+
+		String sql = "SELECT VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE NAME = 'MULTI_THREADED'";
+		try (PreparedStatement ps = BaseDAO.getAnalysisDbConnection().prepareStatement(sql);
+				ResultSet rs = ps.executeQuery()) {
+			assertTrue("MULTI_THREADED setting can't be found.", rs.next());
+			assertEquals("Database isn't multi-threaded.", "1", rs.getString("VALUE"));
+		}
+
+		assertTrue("Pool size must cover worker threads and helper threads.",
+				Property.DB_POOL_SIZE >= Property.THREAD_COUNT + Property.DB_HELPER_THREAD_COUNT);
+	}
+
+	@Test
+	public void verifyConcurrentAccess() throws Exception {
+		final SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		sourceFileDAO.deleteAllSourceFiles();
+
+		final int taskCount = Property.THREAD_COUNT * 4;
+		final HashMap<Thread, Connection> connections = new HashMap<Thread, Connection>();
+		final HashSet<Integer> sourceFileIDs = new HashSet<Integer>();
+		StageExecutor executor = new StageExecutor("Concurrent DAO access");
+		for (int i = 0; i < taskCount; i++) {
+			final String fileName = "test_" + i + ".java";
+			executor.submit(new StageExecutor.Task() {
+				@Override
+				public void run() throws Exception {
+					int insertedID = sourceFileDAO.insertSourceFile(fileName);
+					assertNotEquals("Source file insert failed.", BaseDAO.INVALID, insertedID);
+
+					int sourceFileID = sourceFileDAO.getSourceFileID(fileName);
+					assertNotEquals("Inserted source file can't be found.", BaseDAO.INVALID, sourceFileID);
+
+					Connection connection = BaseDAO.getAnalysisDbConnection();
+					synchronized (connections) {
+						Connection threadConnection = connections.get(Thread.currentThread());
+						assertTrue("Thread must keep its own connection.", null == threadConnection || threadConnection == connection);
+						connections.put(Thread.currentThread(), connection);
+						sourceFileIDs.add(sourceFileID);
+					}
+				}
+			});
+		}
+		assertEquals("Concurrent DAO tasks failed.", 0, executor.awaitFailures().size());
+
+		assertEquals("Source file IDs are duplicated.", taskCount, sourceFileIDs.size());
+		assertEquals("Source file count is wrong.", taskCount, sourceFileDAO.getSourceFiles().size());
+		assertEquals("Threads must not share a connection.", connections.size(), new HashSet<Connection>(connections.values()).size());
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import static org.junit.Assert.*;
+
+import java.text.SimpleDateFormat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.skku.selab.blp.common.Bug;
+import edu.skku.selab.blp.common.BugCorpus;
+import edu.skku.selab.blp.common.Comment;
+import edu.skku.selab.blp.common.ExtendedCommitInfo;
+import edu.skku.selab.blp.common.Method;
+import edu.skku.selab.blp.common.SourceFileCorpus;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class BugBatchWriterTest {
+	private String version = SourceFileDAO.DEFAULT_VERSION_STRING;
+	private String fileName = "org.test.A.java";
+	private int bugID1 = 101;
+	private int bugID2 = 102;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		DbUtil dbUtil = new DbUtil();
+		dbUtil.openConnetion();
+		dbUtil.initializeAllData();
+		dbUtil.closeConnection();
+
+		SourceFileCorpus corpus = new SourceFileCorpus();
+		corpus.setContent("acc bcc");
+		SourceFileCorpusBatchWriter corpusBatchWriter = new SourceFileCorpusBatchWriter(version,
+				SourceFileDAO.INIT_TOTAL_COUPUS_COUNT, SourceFileDAO.INIT_LENGTH_SCORE);
+		corpusBatchWriter.insertCorpus(fileName, fileName, corpus);
+		corpusBatchWriter.close();
+	}
+
+	private Bug createBug(int bugID, String summary) throws Exception {
+		SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+		Bug bug = new Bug();
+		bug.setID(bugID);
+		bug.setOpenDate(simpleDateFormat.parse("2014-03-20 07:12:00"));
+		bug.setFixedDate(simpleDateFormat.parse("2014-03-27 07:12:00"));
+		bug.setVersion(version);
+
+		BugCorpus bugCorpus = new BugCorpus();
+		bugCorpus.setSummaryPart(summary);
+		bugCorpus.setDescriptionPart("constant access");
+		bug.setCorpus(bugCorpus);
+
+		bug.addFixedFile(fileName);
+		ExtendedCommitInfo fixedCommitInfo = new ExtendedCommitInfo();
+		fixedCommitInfo.setCommitID("abc");
+		fixedCommitInfo.addFixedMethod(fileName, new Method("run", "void", "int"));
+		bug.addFixedCommitInfo(fixedCommitInfo);
+		return bug;
+	}
+
+	@Test
+	public void verifyInsertBugs() throws Exception {
+		int batchSize = 1;
+		BugBatchWriter batchWriter = new BugBatchWriter(version, batchSize);
+		Bug bug1 = createBug(bugID1, "acc contain");
+		bug1.addComment(new Comment(1, "2014-03-21 10:31:40", "Tester", "element listen"));
+		bug1.addStackTraceClass("org.test.A");
+		batchWriter.insertBug(bug1);
+		batchWriter.insertBug(createBug(bugID2, "element"));
+		batchWriter.close();
+		assertEquals(2, batchWriter.getInsertedCount());
+
+		BugDAO bugDAO = new BugDAO();
+		assertEquals("acc contain", bugDAO.getBug(bugID1).getCorpus().getSummaryPart());
+		assertEquals("element listen", bugDAO.getComments(bugID1).get(0).getCommentCorpus());
+		assertEquals("org.test.A", bugDAO.getStackTraceClasses(bugID1).get(0));
+		assertEquals(fileName, bugDAO.getFixedFiles(bugID2).iterator().next().getName());
+
+		// The fixed method is inserted for the first bug, then linked to the second bug
+		assertNull(bugDAO.getFixedMethods(bugID1));
+		assertEquals("run", bugDAO.getFixedMethods(bugID2).iterator().next().getName());
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.skku.selab.blp.db.AnalysisValue;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class BugVectorBatchWriterTest {
+	private int bugID1 = 100;
+	private int bugID2 = 101;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		DbUtil dbUtil = new DbUtil();
+		dbUtil.openConnetion();
+		dbUtil.initializeAllData();
+		dbUtil.closeConnection();
+	}
+
+	@Test
+	public void verifyWriteVectors() throws Exception {
+		BugDAO bugDAO = new BugDAO();
+		int batchSize = 1;
+		BugVectorBatchWriter batchWriter = new BugVectorBatchWriter(batchSize);
+		ArrayList<String> terms = new ArrayList<String>();
+		terms.add("acc");
+		terms.add("bcc");
+		assertEquals(2, batchWriter.insertTerms(terms));
+		HashMap<String, Integer> termIDs = bugDAO.getTermMap();
+		assertEquals(2, termIDs.size());
+
+		batchWriter.insertTermWeight(bugID1, termIDs.get("acc"), 0.6);
+		batchWriter.insertTermWeight(bugID1, termIDs.get("bcc"), 0.8);
+		batchWriter.insertTermWeight(bugID2, termIDs.get("bcc"), 1.0);
+		assertEquals(3, batchWriter.commit());
+
+		ArrayList<AnalysisValue> termWeights = bugDAO.getBugTermWeightList(bugID1);
+		assertEquals(2, termWeights.size());
+		assertEquals("bcc", termWeights.get(1).getTerm());
+		assertEquals(0.8, termWeights.get(1).getTermWeight(), 0.000001);
+
+		// All bug term weights are replaced
+		batchWriter.insertTermWeight(bugID1, termIDs.get("acc"), 1.0);
+		assertEquals(1, batchWriter.commit());
+		assertEquals(1, bugDAO.getBugTermWeightList(bugID1).size());
+		assertNull(bugDAO.getBugTermWeightList(bugID2));
+
+		// Bug term weights are deleted when no weight is written
+		assertEquals(0, batchWriter.commit());
+		assertNull(bugDAO.getBugTermWeightList(bugID1));
+	}
+}
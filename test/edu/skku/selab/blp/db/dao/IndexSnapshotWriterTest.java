@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.skku.selab.blp.common.Method;
+import edu.skku.selab.blp.common.SourceFileCorpus;
+import edu.skku.selab.blp.db.AnalysisValue;
+import edu.skku.selab.blp.db.IndexSnapshot;
+import edu.skku.selab.blp.db.TermDictionary;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class IndexSnapshotWriterTest {
+	private String version = SourceFileDAO.DEFAULT_VERSION_STRING;
+	private String fileName = "org.test.A.java";
+	private int sourceFileVersionID;
+	private File snapshotFile;
+	private double delta = 0.000001;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		DbUtil dbUtil = new DbUtil();
+		dbUtil.openConnetion();
+		dbUtil.initializeAllData();
+		dbUtil.closeConnection();
+
+		SourceFileCorpus corpus = new SourceFileCorpus();
+		corpus.setContent("acc bcc");
+		corpus.setClassPart("acc");
+		corpus.setMethodPart("bcc");
+		corpus.setVariablePart("");
+		corpus.setCommentPart("");
+
+		SourceFileCorpusBatchWriter corpusBatchWriter = new SourceFileCorpusBatchWriter(version,
+				SourceFileDAO.INIT_TOTAL_COUPUS_COUNT, SourceFileDAO.INIT_LENGTH_SCORE);
+		corpusBatchWriter.insertCorpus(fileName, fileName, corpus);
+		corpusBatchWriter.close();
+
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		sourceFileVersionID = sourceFileDAO.getSourceFileVersionID(fileName, version);
+		ArrayList<String> importedClasses = new ArrayList<String>();
+		importedClasses.add("org.test.B");
+		sourceFileDAO.insertImportedClasses(sourceFileVersionID, importedClasses);
+		new MethodDAO().insertMethod(new Method(sourceFileVersionID, "run", "void", "int"));
+
+		SourceFileVectorBatchWriter vectorBatchWriter = new SourceFileVectorBatchWriter(version);
+		ArrayList<String> terms = new ArrayList<String>();
+		terms.add("acc");
+		terms.add("bcc");
+		vectorBatchWriter.insertTerms(terms);
+		HashMap<String, Integer> termIDs = sourceFileDAO.getTermMap();
+		vectorBatchWriter.insertTermWeight(sourceFileVersionID, termIDs.get("acc"), 1, 1, 1.0, 0.5);
+		vectorBatchWriter.insertTermWeight(sourceFileVersionID, termIDs.get("bcc"), 2, 1, 1.5, 0.5);
+		vectorBatchWriter.updateSourceFileVector(sourceFileVersionID, 3, 0.7, 1.1, 0.5, 0.75, 0.0, 0.0);
+		vectorBatchWriter.commit();
+
+		snapshotFile = File.createTempFile("index_", ".snapshot");
+	}
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@After
+	public void tearDown() throws Exception {
+		IndexSnapshot.invalidate(version);
+		snapshotFile.delete();
+	}
+
+	@Test
+	public void verifyWrite() throws Exception {
+		IndexSnapshotWriter writer = new IndexSnapshotWriter();
+		assertEquals(1, writer.write(version, snapshotFile));
+
+		IndexSnapshot snapshot = IndexSnapshot.getInstance(version, snapshotFile);
+		assertNotNull(snapshot);
+		assertEquals(sourceFileVersionID, snapshot.getSourceFileVersionIDs().get(fileName).intValue());
+		assertEquals(0.7, snapshot.getLengthScore(sourceFileVersionID), delta);
+
+		HashMap<String, AnalysisValue> termMap = snapshot.getTermMap(sourceFileVersionID);
+		assertEquals(2, termMap.size());
+		assertEquals(2, termMap.get("bcc").getTermCount());
+		assertEquals(1.5, termMap.get("bcc").getTf(), delta);
+
+		SourceFileCorpus corpus = snapshot.getCorpus(sourceFileVersionID);
+		assertEquals("acc", corpus.getClassPart());
+		assertEquals("bcc", corpus.getMethodPart());
+		assertEquals(1.1, corpus.getContentNorm(), delta);
+		assertEquals(0.75, corpus.getMethodCorpusNorm(), delta);
+
+		ArrayList<Method> methods = snapshot.getAllMethods().get(sourceFileVersionID);
+		assertEquals(1, methods.size());
+		assertEquals("run", methods.get(0).getName());
+		assertEquals("org.test.B", snapshot.getImportedClasses(sourceFileVersionID).get(0));
+	}
+
+	@Test
+	public void verifyStaleSnapshot() throws Exception {
+		IndexSnapshotWriter writer = new IndexSnapshotWriter();
+		assertEquals(1, writer.write(version, snapshotFile));
+		assertNotNull(IndexSnapshot.getInstance(version, snapshotFile));
+
+		// The snapshot isn't used after source files of the version are indexed again
+		SourceFileCorpusBatchWriter corpusBatchWriter = new SourceFileCorpusBatchWriter(version,
+				SourceFileDAO.INIT_TOTAL_COUPUS_COUNT, SourceFileDAO.INIT_LENGTH_SCORE);
+		SourceFileCorpus corpus = new SourceFileCorpus();
+		corpus.setContent("ccc");
+		corpus.setClassPart("ccc");
+		corpusBatchWriter.insertCorpus("org.test.C.java", "org.test.C.java", corpus);
+		corpusBatchWriter.close();
+		assertNull(IndexSnapshot.getInstance(version, snapshotFile));
+	}
+
+	@Test
+	public void verifyChangedSnapshot() throws Exception {
+		IndexSnapshotWriter writer = new IndexSnapshotWriter();
+		assertEquals(1, writer.write(version, snapshotFile));
+		assertNotNull(IndexSnapshot.getInstance(version, snapshotFile));
+
+		// The snapshot isn't used after the vector of a source file is written again
+		SourceFileVectorBatchWriter vectorBatchWriter = new SourceFileVectorBatchWriter(version);
+		vectorBatchWriter.updateSourceFileVector(sourceFileVersionID, 3, 0.8, 1.1, 0.5, 0.75, 0.0, 0.0);
+		vectorBatchWriter.commit();
+		assertNull(IndexSnapshot.getInstance(version, snapshotFile));
+
+		// The open snapshot is replaced, then it isn't used after the content hash is changed
+		assertEquals(1, writer.write(version, snapshotFile));
+		assertNotNull(IndexSnapshot.getInstance(version, snapshotFile));
+		new SourceFileDAO().insertContentHash(fileName, version, sourceFileVersionID, "0123456789abcdef");
+		assertNull(IndexSnapshot.getInstance(version, snapshotFile));
+	}
+
+	@Test
+	public void verifyDifferentTermDictionary() throws Exception {
+		IndexSnapshotWriter writer = new IndexSnapshotWriter();
+		assertEquals(1, writer.write(version, snapshotFile));
+
+		// A loaded term dictionary of other term IDs isn't replaced by the snapshot
+		TermDictionary termDictionary = TermDictionary.getInstance();
+		termDictionary.clear();
+		termDictionary.getTermID("bcc");
+		assertNull(IndexSnapshot.getInstance(version, snapshotFile));
+		assertEquals(1, termDictionary.size());
+		assertEquals(0, termDictionary.findTermID("bcc"));
+
+		// An empty term dictionary is loaded from the snapshot
+		termDictionary.clear();
+		SourceFileCorpus corpus = IndexSnapshot.getInstance(version, snapshotFile).getCorpus(sourceFileVersionID);
+		assertEquals("acc", corpus.getClassPart());
+		assertEquals("bcc", corpus.getMethodPart());
+	}
+}
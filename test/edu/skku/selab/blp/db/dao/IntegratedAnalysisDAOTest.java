@@ -173,5 +173,118 @@ public class IntegratedAnalysisDAOTest {
 		assertEquals("commitLogScore is NOT same!", commitLogScore, analysisValue.getCommitLogScore(), delta);
 		assertEquals("bliaMethodScore is NOT same!", bliaMethodScore, analysisValue.getBliaMethodScore(), delta);
 	}
+	
+	@Test
+	public void verifyBatchWriter() throws Exception {
+		IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
+		
+		integratedAnalysisDAO.deleteAllIntegratedAnalysisInfos();
+		int bugID1 = 101;
+		String fileName1 = "test_10.java";
+		String version1 = "v0.1";
+		String version2 = "v0.2";
+		double vsmScore = 0.321;
+		double similarScore1 = 0.6281;
+		double similarScore2 = 0.1742;
+		double stackTraceScore = 0.8321;
+		double commitLogScore = 0.47832;
+		final double delta = 0.00001;
+		
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		int sourceFileVersionID1 = sourceFileDAO.getSourceFileVersionID(fileName1, version1);
+		int sourceFileVersionID2 = sourceFileDAO.getSourceFileVersionID(fileName1, version2);
+		
+		// Batch size 2 makes the writer flush in the middle of the bug
+		IntegratedAnalysisBatchWriter integratedAnalysisWriter = new IntegratedAnalysisBatchWriter(2);
+		IntegratedAnalysisValue integratedAnalysisValue = new IntegratedAnalysisValue();
+		integratedAnalysisValue.setBugID(bugID1);
+		integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionID1);
+		integratedAnalysisValue.setVsmScore(vsmScore);
+		integratedAnalysisValue.setSimilarityScore(similarScore1);
+		integratedAnalysisWriter.insertAnalysisVaule(integratedAnalysisValue);
+		assertNull("Buffered value must not be written before flush.", integratedAnalysisDAO.getAnalysisValues(bugID1));
+		
+		// Source file version ID is looked up by file name and version.
+		integratedAnalysisValue = new IntegratedAnalysisValue();
+		integratedAnalysisValue.setBugID(bugID1);
+		integratedAnalysisValue.setFileName(fileName1);
+		integratedAnalysisValue.setVersion(version2);
+		integratedAnalysisValue.setSimilarityScore(similarScore2);
+		integratedAnalysisWriter.insertAnalysisVaule(integratedAnalysisValue);
+		
+		integratedAnalysisValue = new IntegratedAnalysisValue();
+		integratedAnalysisValue.setBugID(bugID1);
+		integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionID2);
+		integratedAnalysisValue.setStackTraceScore(stackTraceScore);
+		integratedAnalysisWriter.updateStackTraceScore(integratedAnalysisValue);
+		
+		integratedAnalysisValue = new IntegratedAnalysisValue();
+		integratedAnalysisValue.setBugID(bugID1);
+		integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionID1);
+		integratedAnalysisValue.setCommitLogScore(commitLogScore);
+		integratedAnalysisWriter.updateCommitLogScore(integratedAnalysisValue);
+		integratedAnalysisWriter.close();
+		
+		HashMap<Integer, IntegratedAnalysisValue> analysisValues = integratedAnalysisDAO.getAnalysisValues(bugID1);
+		assertEquals("analysisValues size is wrong.", 2, analysisValues.size());
+		
+		IntegratedAnalysisValue analysisValue = analysisValues.get(sourceFileVersionID1);
+		assertEquals("VSM Score is NOT same!", vsmScore, analysisValue.getVsmScore(), delta);
+		assertEquals("similarityScore is NOT same!", similarScore1, analysisValue.getSimilarityScore(), delta);
+		assertEquals("commitLogScore is NOT same!", commitLogScore, analysisValue.getCommitLogScore(), delta);
+		
+		analysisValue = analysisValues.get(sourceFileVersionID2);
+		assertEquals("similarityScore is NOT same!", similarScore2, analysisValue.getSimilarityScore(), delta);
+		assertEquals("stackTraceScore is NOT same!", stackTraceScore, analysisValue.getStackTraceScore(), delta);
+		
+		// Merged row overwrites all scores of the existing row
+		double bliaSourceFileScore = 0.7;
+		analysisValue.setBliaSourceFileScore(bliaSourceFileScore);
+		integratedAnalysisWriter.mergeAnalysisVaule(analysisValue);
+		integratedAnalysisWriter.close();
+		
+		analysisValues = integratedAnalysisDAO.getAnalysisValues(bugID1);
+		assertEquals("analysisValues size is wrong.", 2, analysisValues.size());
+		analysisValue = analysisValues.get(sourceFileVersionID2);
+		assertEquals("bliaSourceFileScore is NOT same!", bliaSourceFileScore, analysisValue.getBliaSourceFileScore(), delta);
+		assertEquals("stackTraceScore is NOT same!", stackTraceScore, analysisValue.getStackTraceScore(), delta);
+	}
+	
+	@Test
+	public void verifyBatchWriterWithFailedRow() throws Exception {
+		IntegratedAnalysisDAO integratedAnalysisDAO = new IntegratedAnalysisDAO();
+		
+		integratedAnalysisDAO.deleteAllIntegratedAnalysisInfos();
+		int bugID1 = 101;
+		String fileName1 = "test_10.java";
+		String version1 = "v0.1";
+		String version2 = "v0.2";
+		double vsmScore1 = 0.321;
+		double vsmScore2 = 0.654;
+		final double delta = 0.00001;
+		
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		int sourceFileVersionID1 = sourceFileDAO.getSourceFileVersionID(fileName1, version1);
+		int sourceFileVersionID2 = sourceFileDAO.getSourceFileVersionID(fileName1, version2);
+		
+		// The duplicated row fails the batch, but the other rows must be written.
+		IntegratedAnalysisBatchWriter integratedAnalysisWriter = new IntegratedAnalysisBatchWriter();
+		int[] sourceFileVersionIDs = {sourceFileVersionID1, sourceFileVersionID1, sourceFileVersionID2};
+		double[] vsmScores = {vsmScore1, vsmScore2, vsmScore2};
+		for (int i = 0; i < sourceFileVersionIDs.length; i++) {
+			IntegratedAnalysisValue integratedAnalysisValue = new IntegratedAnalysisValue();
+			integratedAnalysisValue.setBugID(bugID1);
+			integratedAnalysisValue.setSourceFileVersionID(sourceFileVersionIDs[i]);
+			integratedAnalysisValue.setVsmScore(vsmScores[i]);
+			integratedAnalysisWriter.insertAnalysisVaule(integratedAnalysisValue);
+		}
+		assertEquals("Written row count is wrong.", 2, integratedAnalysisWriter.flush());
+		assertEquals("Failed row count is wrong.", 1, integratedAnalysisWriter.getFailedCount());
+		
+		HashMap<Integer, IntegratedAnalysisValue> analysisValues = integratedAnalysisDAO.getAnalysisValues(bugID1);
+		assertEquals("analysisValues size is wrong.", 2, analysisValues.size());
+		assertEquals("VSM Score is NOT same!", vsmScore1, analysisValues.get(sourceFileVersionID1).getVsmScore(), delta);
+		assertEquals("VSM Score is NOT same!", vsmScore2, analysisValues.get(sourceFileVersionID2).getVsmScore(), delta);
+	}
 
 }
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.skku.selab.blp.common.Method;
+import edu.skku.selab.blp.common.SourceFileCorpus;
+import edu.skku.selab.blp.db.AnalysisValue;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class SourceFileCorpusBatchWriterTest {
+	private String version = SourceFileDAO.DEFAULT_VERSION_STRING;
+	private String[] fileNames = { "org.test.A.java", "org.test.B.java", "org.test.C.java" };
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		DbUtil dbUtil = new DbUtil();
+		dbUtil.openConnetion();
+		dbUtil.initializeAllData();
+		dbUtil.closeConnection();
+	}
+
+	private SourceFileCorpus createCorpus(int index) {
+		SourceFileCorpus corpus = new SourceFileCorpus();
+		corpus.setJavaFilePath("/test/src/" + fileNames[index]);
+		corpus.setContent("acc bcc " + index);
+		corpus.setClassPart("acc");
+		corpus.setMethodPart("bcc");
+		corpus.setVariablePart("");
+		corpus.setCommentPart("" + index);
+
+		ArrayList<String> importedClasses = new ArrayList<String>();
+		importedClasses.add("java.util.List");
+		importedClasses.add("org.test.Imported" + index);
+		corpus.setImportedClasses(importedClasses);
+
+		ArrayList<Method> methodList = new ArrayList<Method>();
+		methodList.add(new Method("run" + index, "void", ""));
+		corpus.setMethodList(methodList);
+		return corpus;
+	}
+
+	@Test
+	public void verifyInsertCorpus() throws Exception {
+		int batchSize = 2;
+		SourceFileCorpusBatchWriter batchWriter = new SourceFileCorpusBatchWriter(version,
+				SourceFileDAO.INIT_TOTAL_COUPUS_COUNT, SourceFileDAO.INIT_LENGTH_SCORE, batchSize);
+		for (int i = 0; i < fileNames.length; i++) {
+			batchWriter.insertCorpus(fileNames[i], fileNames[i], createCorpus(i));
+		}
+		assertEquals(2, batchWriter.getInsertedCount());
+		batchWriter.close();
+		assertEquals(3, batchWriter.getInsertedCount());
+
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		MethodDAO methodDAO = new MethodDAO();
+		HashMap<Integer, ArrayList<Method>> methodMap = methodDAO.getAllMethods();
+		int previousSourceFileID = BaseDAO.INVALID;
+		for (int i = 0; i < fileNames.length; i++) {
+			// Source file IDs follow the inserted order
+			int sourceFileID = sourceFileDAO.getSourceFileID(fileNames[i], fileNames[i]);
+			assertTrue(sourceFileID > previousSourceFileID);
+			previousSourceFileID = sourceFileID;
+
+			int sourceFileVersionID = sourceFileDAO.getSourceFileVersionID(sourceFileID, version);
+			SourceFileCorpus corpus = sourceFileDAO.getCorpus(sourceFileVersionID);
+			assertEquals("acc", corpus.getClassPart());
+			assertEquals("" + i, corpus.getCommentPart());
+
+			ArrayList<String> importedClasses = sourceFileDAO.getImportedClasses(version, fileNames[i]);
+			assertEquals(2, importedClasses.size());
+			assertTrue(importedClasses.contains("org.test.Imported" + i));
+
+			ArrayList<Method> methods = methodMap.get(sourceFileVersionID);
+			assertEquals(1, methods.size());
+			assertEquals("run" + i, methods.get(0).getName());
+		}
+	}
+
+	@Test
+	public void verifyDeleteSourceFile() throws Exception {
+		SourceFileCorpusBatchWriter batchWriter = new SourceFileCorpusBatchWriter(version,
+				SourceFileDAO.INIT_TOTAL_COUPUS_COUNT, SourceFileDAO.INIT_LENGTH_SCORE);
+		for (int i = 0; i < fileNames.length; i++) {
+			batchWriter.insertCorpus(fileNames[i], fileNames[i], createCorpus(i), "hash" + i);
+		}
+		batchWriter.insertSkippedFile("/test/src/Skipped.java", "skippedHash");
+		batchWriter.close();
+
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		HashMap<String, String> contentHashes = sourceFileDAO.getContentHashes(version);
+		assertEquals(4, contentHashes.size());
+		assertEquals("hash1", contentHashes.get("/test/src/" + fileNames[1]));
+		HashSet<String> skippedFilePaths = sourceFileDAO.getSkippedSourceFilePaths(version);
+		assertEquals(1, skippedFilePaths.size());
+		assertTrue(skippedFilePaths.contains("/test/src/Skipped.java"));
+
+		sourceFileDAO.insertTerm("shared");
+		sourceFileDAO.insertTerm("removed");
+		insertTermWeight(sourceFileDAO, fileNames[0], "shared");
+		insertTermWeight(sourceFileDAO, fileNames[1], "shared");
+		insertTermWeight(sourceFileDAO, fileNames[1], "removed");
+
+		int sourceFileVersionID = sourceFileDAO.getSourceFileVersionID(fileNames[1], version);
+		assertEquals(1, sourceFileDAO.deleteSourceFile("/test/src/" + fileNames[1], version));
+		assertEquals(BaseDAO.INVALID, sourceFileDAO.getSourceFileID(fileNames[1]));
+		assertEquals(2, sourceFileDAO.getSourceFileCount(version));
+		assertNull(sourceFileDAO.getImportedClasses(version, fileNames[1]));
+		assertNull(new MethodDAO().getAllMethods().get(sourceFileVersionID));
+		assertFalse(sourceFileDAO.getContentHashes(version).containsKey("/test/src/" + fileNames[1]));
+
+		// Skipped files have only the content hash
+		assertEquals(0, sourceFileDAO.deleteSourceFile("/test/src/Skipped.java", version));
+		assertEquals(0, sourceFileDAO.getSkippedSourceFilePaths(version).size());
+		assertEquals(2, sourceFileDAO.getContentHashes(version).size());
+
+		// Terms used only by the deleted file are removed
+		assertEquals(1, sourceFileDAO.deleteUnusedTerms());
+		HashMap<String, Integer> termMap = sourceFileDAO.getTermMap();
+		assertTrue(termMap.containsKey("shared"));
+		assertFalse(termMap.containsKey("removed"));
+	}
+
+	private void insertTermWeight(SourceFileDAO sourceFileDAO, String fileName, String term) {
+		AnalysisValue termWeight = new AnalysisValue();
+		termWeight.setName(fileName);
+		termWeight.setVersion(version);
+		termWeight.setTerm(term);
+		termWeight.setTermCount(1);
+		assertNotEquals(BaseDAO.INVALID, sourceFileDAO.insertTermWeight(termWeight));
+	}
+}
@@ -22,6 +22,7 @@ import org.junit.Test;
 
 import edu.skku.selab.blp.common.SourceFileCorpus;
 import edu.skku.selab.blp.db.AnalysisValue;
+import edu.skku.selab.blp.db.TermDictionary;
 import edu.skku.selab.blp.db.dao.SourceFileDAO;
 
 /**
@@ -160,6 +161,13 @@ public class SourceFileDAOTest {
 		assertEquals("corpusSet1 is NOT same!", classCorpusContent1 + " " + methodCorpusContent1, corpusMap.get(fileName1).getContent());
 		assertEquals("corpusSet1 is NOT same!", classCorpusContent3 + " " + methodCorpusContent3, corpusMap.get(fileName2).getContent());
 		
+		// Terms are decoded with their stored term IDs after the term dictionary is loaded again
+		TermDictionaryDAO.invalidateTermDictionary();
+		TermDictionary.getInstance().clear();
+		corpusMap = sourceFileDAO.getCorpusMap(version1);
+		assertEquals("corpusSet1 is NOT same!", classCorpusContent1 + " " + methodCorpusContent1, corpusMap.get(fileName1).getContent());
+		assertEquals("Bug term must not be added.", TermDictionary.UNKNOWN_TERM_ID, TermDictionary.getInstance().findTermIDs("wow crash")[1]);
+		
 		HashMap<String, Double> lengthScores = sourceFileDAO.getLengthScores(version1);
 		assertEquals("lengthScores size is wrong.", 2, lengthScores.size());
 		assertEquals("lengthScore1 is NOT same!", lengthScore1, lengthScores.get(fileName1), delta);
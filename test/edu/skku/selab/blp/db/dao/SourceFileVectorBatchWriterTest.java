@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.db.dao;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.skku.selab.blp.common.SourceFileCorpus;
+import edu.skku.selab.blp.db.AnalysisValue;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class SourceFileVectorBatchWriterTest {
+	private String version = SourceFileDAO.DEFAULT_VERSION_STRING;
+	private String fileName = "org.test.A.java";
+	private int sourceFileVersionID;
+
+	/**
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		DbUtil dbUtil = new DbUtil();
+		dbUtil.openConnetion();
+		dbUtil.initializeAllData();
+		dbUtil.closeConnection();
+
+		SourceFileCorpus corpus = new SourceFileCorpus();
+		corpus.setContent("acc bcc");
+		corpus.setClassPart("acc");
+		corpus.setMethodPart("bcc");
+		corpus.setVariablePart("");
+		corpus.setCommentPart("");
+
+		SourceFileCorpusBatchWriter corpusBatchWriter = new SourceFileCorpusBatchWriter(version,
+				SourceFileDAO.INIT_TOTAL_COUPUS_COUNT, SourceFileDAO.INIT_LENGTH_SCORE);
+		corpusBatchWriter.insertCorpus(fileName, fileName, corpus);
+		corpusBatchWriter.close();
+		sourceFileVersionID = new SourceFileDAO().getSourceFileVersionID(fileName, version);
+	}
+
+	@Test
+	public void verifyWriteVectors() throws Exception {
+		SourceFileDAO sourceFileDAO = new SourceFileDAO();
+		int batchSize = 1;
+		SourceFileVectorBatchWriter batchWriter = new SourceFileVectorBatchWriter(version, batchSize);
+		ArrayList<String> terms = new ArrayList<String>();
+		terms.add("acc");
+		terms.add("bcc");
+		assertEquals(2, batchWriter.insertTerms(terms));
+		HashMap<String, Integer> termIDs = sourceFileDAO.getTermMap();
+		assertEquals(2, termIDs.size());
+
+		batchWriter.insertTermWeight(sourceFileVersionID, termIDs.get("acc"), 1, 1, 1.0, 0.5);
+		batchWriter.insertTermWeight(sourceFileVersionID, termIDs.get("bcc"), 2, 1, 1.5, 0.5);
+		batchWriter.updateSourceFileVector(sourceFileVersionID, 3, 0.7, 1.1, 0.5, 0.75, 0.0, 0.0);
+		assertEquals(2, batchWriter.commit());
+
+		AnalysisValue termWeight = sourceFileDAO.getTermWeight(fileName, version, "bcc");
+		assertEquals(2, termWeight.getTermCount());
+		assertEquals(1.5, termWeight.getTf(), 0.000001);
+		assertEquals(0.7, sourceFileDAO.getLengthScore(sourceFileVersionID), 0.000001);
+		SourceFileCorpus norms = sourceFileDAO.getNormValues(sourceFileVersionID);
+		assertEquals(1.1, norms.getContentNorm(), 0.000001);
+		assertEquals(0.75, norms.getMethodCorpusNorm(), 0.000001);
+
+		// Term weights of the source file version are replaced
+		batchWriter.deleteTermWeights(sourceFileVersionID);
+		batchWriter.insertTermWeight(sourceFileVersionID, termIDs.get("acc"), 3, 1, 2.0, 0.5);
+		assertEquals(1, batchWriter.commit());
+		assertEquals(1, sourceFileDAO.getTermMap(fileName, version).size());
+		assertEquals(3, sourceFileDAO.getTermWeight(fileName, version, "acc").getTermCount());
+	}
+}
@@ -6,17 +6,19 @@ import org.junit.runners.Suite.SuiteClasses;
 
 import edu.skku.selab.blp.blia.analysis.BliaTest;
 import edu.skku.selab.blp.blia.analysis.ScmRepoAnalyzerTest;
+import edu.skku.selab.blp.blia.analysis.StackTraceAnalyzerTest;
 import edu.skku.selab.blp.blia.indexer.BugCorpusCreatorTest;
 import edu.skku.selab.blp.blia.indexer.BugVectorCreatorTest;
 import edu.skku.selab.blp.blia.indexer.GitCommitLogCollectorTest;
 import edu.skku.selab.blp.blia.indexer.SourceFileCorpusCreatorTest;
 import edu.skku.selab.blp.blia.indexer.SourceFileVectorCreatorTest;
+import edu.skku.selab.blp.blia.indexer.StackTraceExtractorTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({
 	BliaTest.class,
-	ScmRepoAnalyzerTest.class,
-	BugCorpusCreatorTest.class, BugVectorCreatorTest.class,
+	ScmRepoAnalyzerTest.class, StackTraceAnalyzerTest.class,
+	BugCorpusCreatorTest.class, BugVectorCreatorTest.class, StackTraceExtractorTest.class,
 	GitCommitLogCollectorTest.class, 
 	SourceFileCorpusCreatorTest.class, SourceFileVectorCreatorTest.class})
 public class BLIAAllTests {
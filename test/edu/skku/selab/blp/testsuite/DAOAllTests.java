@@ -4,20 +4,32 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import edu.skku.selab.blp.db.dao.BaseDAOTest;
+import edu.skku.selab.blp.db.dao.BugBatchWriterTest;
 import edu.skku.selab.blp.db.dao.BugDAOTest;
+import edu.skku.selab.blp.db.dao.BugVectorBatchWriterTest;
 import edu.skku.selab.blp.db.dao.CommitDAOTest;
 import edu.skku.selab.blp.db.dao.ExperimentResultDAOTest;
+import edu.skku.selab.blp.db.dao.IndexSnapshotWriterTest;
 import edu.skku.selab.blp.db.dao.IntegratedAnalysisDAOTest;
+import edu.skku.selab.blp.db.dao.SourceFileCorpusBatchWriterTest;
 import edu.skku.selab.blp.db.dao.SourceFileDAOTest;
+import edu.skku.selab.blp.db.dao.SourceFileVectorBatchWriterTest;
 import edu.skku.selab.blp.db.dao.MethodDAOTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({
+	BaseDAOTest.class,
 	BugDAOTest.class,
+	BugBatchWriterTest.class,
+	BugVectorBatchWriterTest.class,
 	CommitDAOTest.class,
 	ExperimentResultDAOTest.class,
 	IntegratedAnalysisDAOTest.class,
 	SourceFileDAOTest.class,
+	SourceFileCorpusBatchWriterTest.class,
+	SourceFileVectorBatchWriterTest.class,
+	IndexSnapshotWriterTest.class,
 	MethodDAOTest.class})
 public class DAOAllTests {
 
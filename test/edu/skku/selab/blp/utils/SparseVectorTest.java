@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class SparseVectorTest {
+
+	@Test
+	public void verifySort() {
+		SparseVector vector = new SparseVector(new int[] {5, 1, 3, 1}, new double[] {1.0, 2.0, 3.0, 4.0});
+		assertEquals(3, vector.size());
+		assertEquals(1, vector.getIndex(0));
+		assertEquals(6.0, vector.getValue(0), 0);
+		assertEquals(3, vector.getIndex(1));
+		assertEquals(5, vector.getIndex(2));
+		assertEquals(3.0, vector.get(3), 0);
+		assertEquals(0.0, vector.get(2), 0);
+		assertEquals(Math.sqrt(36.0 + 9.0 + 1.0), vector.norm(), 0.000001);
+	}
+
+	@Test
+	public void verifyImmutable() {
+		int[] indices = {1, 2};
+		double[] values = {1.0, 2.0};
+		SparseVector vector = new SparseVector(indices, values);
+		indices[0] = 7;
+		values[1] = 5.0;
+		assertEquals(1, vector.getIndex(0));
+		assertEquals(2.0, vector.get(2), 0);
+		assertEquals(Math.sqrt(5.0), vector.norm(), 0.000001);
+	}
+
+	@Test
+	public void verifyDotAndCosine() {
+		SparseVector first = new SparseVector(new int[] {1, 2, 4}, new double[] {1.0, 2.0, 3.0});
+		SparseVector second = new SparseVector(new int[] {0, 2, 4, 7}, new double[] {5.0, 1.0, 2.0, 1.0});
+		assertEquals(8.0, first.dot(second), 0);
+		assertEquals(8.0, second.dot(first), 0);
+		assertEquals(8.0 / (Math.sqrt(14.0) * Math.sqrt(31.0)), first.cosine(second), 0.000001);
+		assertEquals(0.0, first.cosine(SparseVector.EMPTY), 0);
+		assertEquals(0.0, SparseVector.EMPTY.dot(first), 0);
+	}
+
+	@Test
+	public void verifyAddScaled() {
+		SparseVector first = new SparseVector(new int[] {1, 2, 4}, new double[] {1.0, 2.0, 3.0});
+		SparseVector second = new SparseVector(new int[] {0, 2, 7}, new double[] {5.0, 1.0, 1.0});
+		SparseVector sum = first.addScaled(second, 2.0);
+		assertEquals(5, sum.size());
+		assertEquals(10.0, sum.get(0), 0);
+		assertEquals(1.0, sum.get(1), 0);
+		assertEquals(4.0, sum.get(2), 0);
+		assertEquals(3.0, sum.get(4), 0);
+		assertEquals(2.0, sum.get(7), 0);
+		assertEquals(Math.sqrt(100.0 + 1.0 + 16.0 + 9.0 + 4.0), sum.norm(), 0.000001);
+
+		// Operands are not changed
+		assertEquals(3, first.size());
+		assertEquals(2.0, first.get(2), 0);
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class StageExecutorTest {
+
+	@Test
+	public void verifyAwait() throws Exception {
+		final AtomicInteger count = new AtomicInteger(0);
+		StageExecutor executor = new StageExecutor("verifyAwait");
+		int taskCount = 100;
+		for (int i = 0; i < taskCount; i++) {
+			final int taskIndex = i;
+			executor.submit(new StageExecutor.Task() {
+				@Override
+				public void run() throws Exception {
+					if (taskIndex % 10 == 3) {
+						throw new Exception("Failed task: " + taskIndex);
+					}
+					count.incrementAndGet();
+				}
+			});
+		}
+
+		ArrayList<StageExecutor.TaskFailure> failures = executor.awaitFailures();
+		assertEquals(90, count.get());
+		assertEquals(90, executor.getCompletedCount());
+		assertEquals(taskCount, executor.getTaskCount());
+		assertEquals(10, failures.size());
+		for (int i = 0; i < failures.size(); i++) {
+			assertEquals(i * 10 + 3, failures.get(i).getTaskIndex());
+			assertEquals("Failed task: " + (i * 10 + 3), failures.get(i).getCause().getMessage());
+		}
+		assertFalse(executor.isCancelled());
+	}
+
+	@Test
+	public void verifyAwaitWithFailedTasks() throws Exception {
+		StageExecutor executor = new StageExecutor("verifyAwaitWithFailedTasks");
+		int taskCount = 10;
+		for (int i = 0; i < taskCount; i++) {
+			final int taskIndex = i;
+			executor.submit(new StageExecutor.Task() {
+				@Override
+				public void run() throws Exception {
+					if (taskIndex >= 7) {
+						throw new Exception("Failed task: " + taskIndex);
+					}
+				}
+			});
+		}
+
+		try {
+			executor.await();
+			fail("await() must throw when a task failed.");
+		} catch (Exception e) {
+			assertEquals("Failed task: 7", e.getCause().getMessage());
+			assertEquals(2, e.getSuppressed().length);
+		}
+		assertEquals(7, executor.getCompletedCount());
+	}
+
+	@Test
+	public void verifyCancel() throws Exception {
+		final AtomicInteger count = new AtomicInteger(0);
+		boolean failFast = true;
+		StageExecutor executor = new StageExecutor("verifyCancel", failFast);
+		executor.submit(new StageExecutor.Task() {
+			@Override
+			public void run() throws Exception {
+				throw new Exception("First task failed");
+			}
+		});
+		while (!executor.isCancelled()) {
+			Thread.sleep(10);
+		}
+
+		int taskCount = 1000;
+		for (int i = 0; i < taskCount; i++) {
+			executor.submit(new StageExecutor.Task() {
+				@Override
+				public void run() throws Exception {
+					count.incrementAndGet();
+				}
+			});
+		}
+
+		ArrayList<StageExecutor.TaskFailure> failures = executor.awaitFailures();
+		assertTrue(executor.isCancelled());
+		assertEquals(1, failures.size());
+		assertEquals(0, failures.get(0).getTaskIndex());
+		assertEquals(0, count.get());
+		assertEquals(1, executor.getTaskCount());
+	}
+}
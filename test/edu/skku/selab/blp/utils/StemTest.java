@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+import edu.skku.selab.blp.Property;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class StemTest {
+
+	@After
+	public void tearDown() throws Exception {
+		Stem.setCacheSize(Property.STEM_CACHE_SIZE);
+		Stem.resetStatistics();
+	}
+
+	@Test
+	public void verifyCachedStem() {
+		Stem.setCacheSize(2);
+		Stem.resetStatistics();
+
+		assertEquals("connect", Stem.stem("connections"));
+		assertEquals("connect", Stem.stem("connections"));
+		assertEquals(1, Stem.getHitCount());
+		assertEquals(1, Stem.getMissCount());
+		assertEquals(0.5, Stem.getHitRate(), 0);
+
+		// The full cache is cleared
+		assertEquals("pars", Stem.stem("parsing"));
+		assertEquals("file", Stem.stem("files"));
+		assertEquals("connect", Stem.stem("connections"));
+		assertEquals(1, Stem.getHitCount());
+		assertEquals(4, Stem.getMissCount());
+	}
+
+	@Test
+	public void verifyIsStopword() {
+		assertTrue(Stopword.isStopword("public", Stopword.SOURCE_FILE_STOPWORDS));
+		assertFalse(Stopword.isStopword("public", Stopword.BUG_REPORT_STOPWORDS));
+		assertTrue(Stopword.isStopword(Stem.stem("because"), Stopword.BUG_REPORT_STOPWORDS));
+		assertTrue(Stopword.isProjectKeyword("java"));
+		assertFalse(Stopword.isStopword("connect", Stopword.SOURCE_FILE_STOPWORDS));
+	}
+}
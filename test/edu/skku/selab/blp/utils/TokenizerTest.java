@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class TokenizerTest {
+
+	@Test
+	public void verifySplitNatureLanguage() {
+		Tokenizer.TokenList tokenList = new Tokenizer.TokenList(false);
+		Tokenizer.splitNatureLanguage("it's a bug_report 42 ", tokenList);
+		assertArrayEquals(new String[] {"it's", "a", "bug", "report", "42"}, tokenList.toArray());
+	}
+
+	@Test
+	public void verifySplitNatureLanguageEx() {
+		Tokenizer.TokenList tokenList = new Tokenizer.TokenList(false);
+		Tokenizer.splitNatureLanguageEx("NullPointerException in Foo's bar, I'll fix getHTTPClient2 now", tokenList);
+		String expected[] = {"NullPointerException", "Null", "Pointer", "Exception", "in", "Foo's", "Foo", "bar",
+				"I'll", "fix", "getHTTPClient2", "get", "HTTP", "Client", "2", "now"};
+		assertArrayEquals(expected, tokenList.toArray());
+
+		// The last word isn't split
+		tokenList.clear();
+		Tokenizer.splitNatureLanguageEx("fix getHTTPClient", tokenList);
+		assertArrayEquals(new String[] {"fix", "getHTTPClient"}, tokenList.toArray());
+	}
+
+	@Test
+	public void verifySplitSourceCode() {
+		Tokenizer.TokenList tokenList = new Tokenizer.TokenList(true);
+		Tokenizer.splitSourceCode("public void getHTTPClient(int aB) { xmlParser = null; }", tokenList);
+		String expected[] = {"public", "void", "get", "http", "client", "int", "xml", "parser", "null"};
+		assertArrayEquals(expected, tokenList.toArray());
+
+		tokenList.clear();
+		Tokenizer.splitSourceCode("a = 1;", tokenList);
+		assertEquals(0, tokenList.getTokens().size());
+	}
+}
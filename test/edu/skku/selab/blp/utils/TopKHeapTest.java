@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2014 by Software Engineering Lab. of Sungkyunkwan University. All Rights Reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software and its documentation for
+ * educational, research, and not-for-profit purposes, without fee and without a signed licensing agreement,
+ * is hereby granted, provided that the above copyright notice appears in all copies, modifications, and distributions.
+ */
+package edu.skku.selab.blp.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author Klaus Changsun Youm(klausyoum@skku.edu)
+ *
+ */
+public class TopKHeapTest {
+
+	@Test
+	public void verifyThreshold() {
+		TopKHeap topK = new TopKHeap(3);
+		assertEquals(Double.NEGATIVE_INFINITY, topK.getThreshold(), 0);
+		assertTrue(topK.offer(0.5));
+		assertTrue(topK.offer(0.1));
+		assertFalse(topK.isFull());
+		assertTrue(topK.offer(0.3));
+		assertTrue(topK.isFull());
+		assertEquals(0.1, topK.getThreshold(), 0);
+
+		assertFalse(topK.offer(0.05));
+		assertTrue(topK.offer(0.9));
+		assertEquals(0.3, topK.getThreshold(), 0);
+
+		// Equal scores are counted separately
+		assertTrue(topK.offer(0.9));
+		assertEquals(0.5, topK.getThreshold(), 0);
+		assertTrue("Tied score must stay in top K.", topK.offer(0.5));
+		assertEquals(0.5, topK.getThreshold(), 0);
+		assertEquals(3, topK.size());
+		assertEquals(3, topK.getK());
+	}
+}